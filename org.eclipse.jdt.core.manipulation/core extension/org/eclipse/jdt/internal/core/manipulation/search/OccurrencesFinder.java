@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -102,8 +102,27 @@ public class OccurrencesFinder extends ASTVisitor implements IOccurrencesFinder
 		}
 	}
 
+	/**
+	 * Tells whether the occurrences can be taken from the {@link OccurrencesIndex} of the AST.
+	 * Static methods can also be matched by name in static imports, which the index does not
+	 * record.
+	 *
+	 * @return <code>true</code> if the index can be used
+	 */
+	private boolean canUseIndex() {
+		if (fTargetIsStaticMethodImport)
+			return false;
+		return !(fTarget instanceof IMethodBinding && Modifier.isStatic(fTarget.getModifiers()));
+	}
+
 	@Override
 	public OccurrenceLocation[] getOccurrences() {
+		if (fResult == null && canUseIndex()) {
+			// the target is a binding declaration already
+			String key= fTarget.getKey();
+			if (key != null)
+				return OccurrencesIndex.get(fRoot).getOccurrences(key, fReadDescription, fWriteDescription);
+		}
 		performSearch();
 		if (fResult.isEmpty())
 			return null;
@@ -297,7 +316,14 @@ public class OccurrencesFinder extends ASTVisitor implements IOccurrencesFinder
 		return null;
 	}
 
-	private IBinding getBindingDeclaration(IBinding binding) {
+	/**
+	 * Returns the declaration of the given binding, which is the binding the occurrences are
+	 * searched for.
+	 *
+	 * @param binding the binding
+	 * @return the binding declaration
+	 */
+	static IBinding getBindingDeclaration(IBinding binding) {
 		switch (binding.getKind()) {
 			case IBinding.TYPE :
 				return ((ITypeBinding)binding).getTypeDeclaration();
@@ -0,0 +1,270 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.core.manipulation.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.FieldAccess;
+import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.ImportDeclaration;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.NameQualifiedType;
+import org.eclipse.jdt.core.dom.ParameterizedType;
+import org.eclipse.jdt.core.dom.PostfixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression.Operator;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SimpleType;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.Type;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+
+import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder.OccurrenceLocation;
+
+/**
+ * The occurrences of all bindings in a compilation unit AST, keyed by the binding key of the
+ * binding declaration.
+ * <p>
+ * The index is built by a single walk over the AST the first time it is requested, and is then
+ * shared by all {@link OccurrencesFinder}s working on the same AST. It finds the same names as the
+ * finder's own visitor, except for the occurrences of static methods in static imports, which
+ * the finder still searches itself. The index does not reference the AST, and is discarded
+ * together with it. It is rebuilt when the AST has been modified since it was built.
+ * </p>
+ *
+ * @since 3.14
+ */
+final class OccurrencesIndex {
+
+	private static final Map<CompilationUnit, OccurrencesIndex> fgIndexes= Collections.synchronizedMap(new WeakHashMap<CompilationUnit, OccurrencesIndex>());
+
+	/**
+	 * The occurrences of one binding: offset, length and flags of each occurrence, in the order
+	 * in which the AST visits them.
+	 */
+	private static final class Occurrences {
+		int[] fData= new int[3];
+		int fSize;
+
+		void add(int offset, int length, int flags) {
+			if (fSize + 3 > fData.length) {
+				int[] data= new int[fData.length * 2];
+				System.arraycopy(fData, 0, data, 0, fSize);
+				fData= data;
+			}
+			fData[fSize++]= offset;
+			fData[fSize++]= length;
+			fData[fSize++]= flags;
+		}
+	}
+
+	private final Map<String, Occurrences> fOccurrences= new HashMap<>();
+	/** The modification count of the AST when the index was built */
+	private final long fModificationCount;
+
+	private OccurrencesIndex(long modificationCount) {
+		fModificationCount= modificationCount;
+	}
+
+	/**
+	 * Returns the index of the given AST, building it if necessary.
+	 *
+	 * @param root the AST
+	 * @return the index
+	 */
+	public static OccurrencesIndex get(CompilationUnit root) {
+		OccurrencesIndex index= fgIndexes.get(root);
+		long modificationCount= root.getAST().modificationCount();
+		if (index == null || index.fModificationCount != modificationCount) {
+			index= new OccurrencesIndex(modificationCount);
+			root.accept(index.new Indexer());
+			fgIndexes.put(root, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the occurrences of the binding with the given key.
+	 *
+	 * @param key the key of the binding declaration
+	 * @param readDescription the description of read occurrences
+	 * @param writeDescription the description of write occurrences
+	 * @return the occurrences, or <code>null</code> if there are none
+	 */
+	public OccurrenceLocation[] getOccurrences(String key, String readDescription, String writeDescription) {
+		Occurrences occurrences= fOccurrences.get(key);
+		if (occurrences == null)
+			return null;
+		int[] data= occurrences.fData;
+		OccurrenceLocation[] result= new OccurrenceLocation[occurrences.fSize / 3];
+		for (int i= 0; i < result.length; i++) {
+			int flags= data[3 * i + 2];
+			String description= flags == IOccurrencesFinder.F_WRITE_OCCURRENCE ? writeDescription : readDescription;
+			result[i]= new OccurrenceLocation(data[3 * i], data[3 * i + 1], flags, description);
+		}
+		return result;
+	}
+
+	/**
+	 * Records the occurrences the way {@link OccurrencesFinder} finds them. Where the finder does
+	 * not descend into a name it has matched, the indexer suppresses the nested names with the
+	 * same key.
+	 */
+	private final class Indexer extends ASTVisitor {
+
+		private final Set<Name> fWriteUsages= Collections.newSetFromMap(new IdentityHashMap<Name, Boolean>());
+		private final List<String> fSuppressedKeys= new ArrayList<>();
+
+		public Indexer() {
+			super(true);
+		}
+
+		@Override
+		public boolean visit(QualifiedName node) {
+			IBinding binding= node.resolveBinding();
+			String key;
+			if (binding instanceof IVariableBinding && ((IVariableBinding)binding).isField()) {
+				SimpleName name= node.getName();
+				key= addUsage(name, name.resolveBinding());
+			} else if (binding instanceof IMethodBinding && isStaticImport(node)) {
+				key= null;
+			} else {
+				key= addUsage(node, binding);
+			}
+			fSuppressedKeys.add(key);
+			return true;
+		}
+
+		@Override
+		public void endVisit(QualifiedName node) {
+			fSuppressedKeys.remove(fSuppressedKeys.size() - 1);
+		}
+
+		@Override
+		public boolean visit(SimpleName node) {
+			addUsage(node, node.resolveBinding());
+			return true;
+		}
+
+		@Override
+		public boolean visit(ClassInstanceCreation node) {
+			Type type= node.getType();
+			if (type instanceof ParameterizedType) {
+				type= ((ParameterizedType) type).getType();
+			}
+			if (type instanceof SimpleType) {
+				Name name= ((SimpleType) type).getName();
+				if (name instanceof QualifiedName)
+					name= ((QualifiedName)name).getName();
+				addUsage(name, node.resolveConstructorBinding());
+			} else if (type instanceof NameQualifiedType) {
+				Name name= ((NameQualifiedType) type).getName();
+				addUsage(name, node.resolveConstructorBinding());
+			}
+			return true;
+		}
+
+		@Override
+		public boolean visit(Assignment node) {
+			SimpleName name= getSimpleName(node.getLeftHandSide());
+			if (name != null)
+				addWrite(name, name.resolveBinding());
+			return true;
+		}
+
+		@Override
+		public boolean visit(SingleVariableDeclaration node) {
+			addWrite(node.getName(), node.resolveBinding());
+			return true;
+		}
+
+		@Override
+		public boolean visit(VariableDeclarationFragment node) {
+			if (node.getParent() instanceof FieldDeclaration || node.getInitializer() != null)
+				addWrite(node.getName(), node.resolveBinding());
+			return true;
+		}
+
+		@Override
+		public boolean visit(PrefixExpression node) {
+			PrefixExpression.Operator operator= node.getOperator();
+			if (operator == Operator.INCREMENT || operator == Operator.DECREMENT) {
+				SimpleName name= getSimpleName(node.getOperand());
+				if (name != null)
+					addWrite(name, name.resolveBinding());
+			}
+			return true;
+		}
+
+		@Override
+		public boolean visit(PostfixExpression node) {
+			SimpleName name= getSimpleName(node.getOperand());
+			if (name != null)
+				addWrite(name, name.resolveBinding());
+			return true;
+		}
+
+		private void addWrite(Name node, IBinding binding) {
+			if (binding != null)
+				fWriteUsages.add(node);
+		}
+
+		private String addUsage(Name node, IBinding binding) {
+			if (binding == null)
+				return null;
+			String key= OccurrencesFinder.getBindingDeclaration(binding).getKey();
+			if (key == null || fSuppressedKeys.contains(key))
+				return null;
+			int flags= 0;
+			if (binding instanceof IVariableBinding)
+				flags= fWriteUsages.contains(node) ? IOccurrencesFinder.F_WRITE_OCCURRENCE : IOccurrencesFinder.F_READ_OCCURRENCE;
+			Occurrences occurrences= fOccurrences.get(key);
+			if (occurrences == null) {
+				occurrences= new Occurrences();
+				fOccurrences.put(key, occurrences);
+			}
+			occurrences.add(node.getStartPosition(), node.getLength(), flags);
+			return key;
+		}
+
+		private boolean isStaticImport(ASTNode node) {
+			ASTNode parent= node.getParent();
+			return parent instanceof ImportDeclaration && ((ImportDeclaration) parent).isStatic();
+		}
+
+		private SimpleName getSimpleName(Expression expression) {
+			if (expression instanceof SimpleName)
+				return ((SimpleName)expression);
+			else if (expression instanceof QualifiedName)
+				return (((QualifiedName) expression).getName());
+			else if (expression instanceof FieldAccess)
+				return ((FieldAccess)expression).getName();
+			return null;
+		}
+	}
+}
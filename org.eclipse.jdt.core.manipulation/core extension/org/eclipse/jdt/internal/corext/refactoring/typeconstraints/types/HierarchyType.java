@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -61,12 +61,16 @@ public abstract class HierarchyType extends TType {
 		if (getEnvironment() == other.getEnvironment()) {
 			Map<TypeTuple, Boolean> cache= getEnvironment().getSubTypeCache();
 			TypeTuple key= new TypeTuple(this, other);
-			Boolean value= cache.get(key);
+			Boolean value;
+			synchronized (cache) {
+				value= cache.get(key);
+			}
 			if (value != null)
 				return value.booleanValue();
 			boolean isSub= doIsSubType(other);
-			value= Boolean.valueOf(isSub);
-			cache.put(key, value);
+			synchronized (cache) {
+				cache.put(key, Boolean.valueOf(isSub));
+			}
 			return isSub;
 		}
 		return doIsSubType(other);
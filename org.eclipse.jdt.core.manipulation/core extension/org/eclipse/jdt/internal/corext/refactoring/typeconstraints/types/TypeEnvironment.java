@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -37,6 +37,10 @@ import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
  * A type environment comprises a set of {@link TType}s that stand for Java {@link ITypeBinding}s.
  * In contrast to type bindings, TTypes of the same type environment also work across project boundaries and
  * across compiler environments, i.e. a type environment can handle bindings from multiple {@link ASTParser} sessions.
+ * <p>
+ * TTypes can be created and compared from multiple threads; the caches of the environment are
+ * guarded by the environment.
+ * </p>
  * 
  * @see TType
  */
@@ -184,7 +188,7 @@ public class TypeEnvironment {
 		return fSubTypeCache;
 	}
 
-	public TType create(ITypeBinding binding) {
+	public synchronized TType create(ITypeBinding binding) {
 		if (binding.isPrimitive()) {
 			return createPrimitiveType(binding);
 		} else if (binding.isArray()) {
@@ -235,11 +239,11 @@ public class TypeEnvironment {
 	 * 
 	 * @see #initializeJavaLangObject(IJavaProject)
 	 */
-	public TType getJavaLangObject() {
+	public synchronized TType getJavaLangObject() {
 		return OBJECT_TYPE;
 	}
 
-	public void initializeJavaLangObject(IJavaProject project) {
+	public synchronized void initializeJavaLangObject(IJavaProject project) {
 		if (OBJECT_TYPE != null)
 			return;
 		
@@ -247,7 +251,7 @@ public class TypeEnvironment {
 		Assert.isTrue(objectType.isJavaLangObject());
 	}
 	
-	void initializeJavaLangObject(ITypeBinding object) {
+	synchronized void initializeJavaLangObject(ITypeBinding object) {
 		if (OBJECT_TYPE != null)
 			return;
 
@@ -264,7 +268,7 @@ public class TypeEnvironment {
 		return null;
 	}
 
-	StandardType createBoxed(PrimitiveType type, IJavaProject focus) {
+	synchronized StandardType createBoxed(PrimitiveType type, IJavaProject focus) {
 		String fullyQualifiedName= BOXED_PRIMITIVE_NAMES[type.getId()];
 		return createStandardType(fullyQualifiedName, focus);
 	}
@@ -285,8 +289,21 @@ public class TypeEnvironment {
 		return null;
 	}
 
-	Map<TType, ArrayList<TType>> getSubTypes() {
-		return fSubTypes;
+	/**
+	 * Returns the subtypes of the given type that have been created in this environment so far.
+	 * The subtypes are copied under the lock of this environment, since types are created
+	 * concurrently.
+	 *
+	 * @param type the type
+	 * @return the subtypes, or <code>null</code> if this environment does not remember subtypes
+	 */
+	synchronized TType[] getSubTypes(TType type) {
+		if (fSubTypes == null)
+			return null;
+		List<TType> subtypes= fSubTypes.get(type);
+		if (subtypes == null)
+			return TType.EMPTY_TYPE_ARRAY;
+		return subtypes.toArray(new TType[subtypes.size()]);
 	}
 
 	private void cacheSubType(TType supertype, TType result) {
@@ -336,7 +353,7 @@ public class TypeEnvironment {
 		return result;
 	}
 
-	public ArrayType createArrayType(TType elementType, int dimensions) {
+	public synchronized ArrayType createArrayType(TType elementType, int dimensions) {
 		Assert.isTrue(! elementType.isArrayType());
 		Assert.isTrue(! elementType.isAnonymous());
 		Assert.isTrue(dimensions > 0);
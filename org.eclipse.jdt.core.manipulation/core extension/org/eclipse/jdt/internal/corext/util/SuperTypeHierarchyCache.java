@@ -11,55 +11,79 @@
 package org.eclipse.jdt.internal.corext.util;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeHierarchy;
-import org.eclipse.jdt.core.ITypeHierarchyChangedListener;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 
 /**
  * A thread-safe cache for super type hierarchies.
+ * <p>
+ * Cached hierarchies are indexed by the type roots of the types they contain and are evicted in
+ * least-recently-used order once their estimated memory footprint exceeds a budget derived from
+ * the maximum heap size. Entries are invalidated individually from Java element deltas: a change
+ * to a compilation unit or class file only drops the hierarchies that contain one of its types.
+ * </p>
  */
 // @see JDTUIHelperClasses
 public class SuperTypeHierarchyCache {
 
-	private static class HierarchyCacheEntry implements ITypeHierarchyChangedListener {
+	private static class HierarchyCacheEntry {
 
-		private ITypeHierarchy fTypeHierarchy;
-		private long fLastAccess;
+		private final ITypeHierarchy fTypeHierarchy;
+		private final ITypeRoot[] fTypeRoots;
+		private final Map<IType, MethodOverrideTester> fMethodOverrideTesters;
+		private long fEstimatedSize;
 
-		public HierarchyCacheEntry(ITypeHierarchy hierarchy) {
+		public HierarchyCacheEntry(ITypeHierarchy hierarchy, IType[] allTypes) {
 			fTypeHierarchy= hierarchy;
-			fTypeHierarchy.addTypeHierarchyChangedListener(this);
-			markAsAccessed();
-		}
-
-		@Override
-		public void typeHierarchyChanged(ITypeHierarchy typeHierarchy) {
-			removeHierarchyEntryFromCache(this);
+			Set<ITypeRoot> typeRoots= new LinkedHashSet<>();
+			for (int i= 0; i < allTypes.length; i++) {
+				ITypeRoot typeRoot= allTypes[i].getTypeRoot();
+				if (typeRoot != null) {
+					typeRoots.add(typeRoot);
+				}
+			}
+			fTypeRoots= typeRoots.toArray(new ITypeRoot[typeRoots.size()]);
+			fMethodOverrideTesters= new HashMap<>(4);
+			fEstimatedSize= ENTRY_OVERHEAD + (long) allTypes.length * ESTIMATED_TYPE_SIZE;
 		}
 
 		public ITypeHierarchy getTypeHierarchy() {
 			return fTypeHierarchy;
 		}
 
-		public void markAsAccessed() {
-			fLastAccess= System.currentTimeMillis();
+		public ITypeRoot[] getTypeRoots() {
+			return fTypeRoots;
 		}
 
-		public long getLastAccess() {
-			return fLastAccess;
+		public MethodOverrideTester getMethodOverrideTester(IType type) {
+			return fMethodOverrideTesters.get(type);
 		}
 
-		public void dispose() {
-			if (fTypeHierarchy != null) {
-				fTypeHierarchy.removeTypeHierarchyChangedListener(this);
-				fTypeHierarchy= null;
-			}
+		public void addMethodOverrideTester(IType type, MethodOverrideTester tester) {
+			fMethodOverrideTesters.put(type, tester);
+			fEstimatedSize+= ESTIMATED_TESTER_SIZE;
+		}
+
+		public long getEstimatedSize() {
+			return fEstimatedSize;
 		}
 
 		@Override
@@ -69,14 +93,129 @@ public class SuperTypeHierarchyCache {
 
 	}
 
+	private static class HierarchyDeltaListener implements IElementChangedListener {
+
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			boolean isReconcile= event.getType() == ElementChangedEvent.POST_RECONCILE;
+			synchronized (fgHierarchyCache) {
+				if (!processDelta(event.getDelta(), isReconcile)) {
+					flushCache();
+				}
+			}
+		}
+
+		/**
+		 * Invalidates the cache entries affected by the given delta.
+		 *
+		 * @param delta the delta to process
+		 * @param isReconcile <code>true</code> if the delta comes from reconciling a working copy
+		 * @return <code>false</code> if the delta cannot be handled per entry and the whole cache
+		 *         needs to be flushed
+		 */
+		private boolean processDelta(IJavaElementDelta delta, boolean isReconcile) {
+			IJavaElement element= delta.getElement();
+			int kind= delta.getKind();
+			int flags= delta.getFlags();
+			switch (element.getElementType()) {
+				case IJavaElement.JAVA_PROJECT:
+					if (kind != IJavaElementDelta.CHANGED || (flags & PROJECT_FLUSH_FLAGS) != 0) {
+						return false;
+					}
+					break;
+				case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+					if (kind != IJavaElementDelta.CHANGED || (flags & ROOT_FLUSH_FLAGS) != 0) {
+						return false;
+					}
+					break;
+				case IJavaElement.PACKAGE_FRAGMENT:
+					if (kind != IJavaElementDelta.CHANGED) {
+						return false;
+					}
+					break;
+				case IJavaElement.COMPILATION_UNIT:
+				case IJavaElement.CLASS_FILE:
+					if (kind == IJavaElementDelta.ADDED) {
+						// a new type may resolve a previously missing super type
+						return false;
+					}
+					if (kind == IJavaElementDelta.REMOVED || isAffectingHierarchies(delta, isReconcile)) {
+						removeHierarchyEntries((ITypeRoot) element);
+					}
+					return true;
+				default:
+					break;
+			}
+			IJavaElementDelta[] children= delta.getAffectedChildren();
+			for (int i= 0; i < children.length; i++) {
+				if (!processDelta(children[i], isReconcile)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private boolean isAffectingHierarchies(IJavaElementDelta delta, boolean isReconcile) {
+			int flags= delta.getFlags();
+			if (!isReconcile) {
+				return (flags & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN | IJavaElementDelta.F_FINE_GRAINED)) != 0;
+			}
+			// working copy changes only matter if the shape of the hierarchy changed
+			if (delta.getElement().getElementType() == IJavaElement.TYPE) {
+				if (delta.getKind() != IJavaElementDelta.CHANGED || (flags & IJavaElementDelta.F_SUPER_TYPES) != 0) {
+					return true;
+				}
+			}
+			IJavaElementDelta[] children= delta.getAffectedChildren();
+			for (int i= 0; i < children.length; i++) {
+				if (children[i].getElement().getElementType() == IJavaElement.TYPE && isAffectingHierarchies(children[i], true)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+
+	private static final int PROJECT_FLUSH_FLAGS= IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED
+			| IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED;
+
+	private static final int ROOT_FLUSH_FLAGS= IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH
+			| IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_REORDER;
+
+	/**
+	 * Rough estimates of the retained heap size, in bytes, used to bound the cache.
+	 */
+	private static final long ENTRY_OVERHEAD= 512;
+	private static final long ESTIMATED_TYPE_SIZE= 384;
+	private static final long ESTIMATED_TESTER_SIZE= 1024;
+
+	private static final long CACHE_BUDGET;
+	static {
+		long maxMemory= Runtime.getRuntime().maxMemory() / (1 << 20); // in MiB
+		if      (maxMemory >= 2000) CACHE_BUDGET= 16 << 20;
+		else if (maxMemory >= 1000) CACHE_BUDGET=  8 << 20;
+		else if (maxMemory >=  500) CACHE_BUDGET=  4 << 20;
+		else                        CACHE_BUDGET=  1 << 20;
+	}
+
+	/**
+	 * All cache entries, in least-recently-used order.
+	 */
+	private static final LinkedHashMap<ITypeHierarchy, HierarchyCacheEntry> fgHierarchyCache= new LinkedHashMap<>(16, 0.75f, true);
 
-	private static final int CACHE_SIZE= 8;
+	/**
+	 * Index from type roots to the cache entries that contain one of their types.
+	 */
+	private static final Map<ITypeRoot, List<HierarchyCacheEntry>> fgTypeRootIndex= new HashMap<>();
 
-	private static ArrayList<HierarchyCacheEntry> fgHierarchyCache= new ArrayList<>(CACHE_SIZE);
-	private static Map<IType, MethodOverrideTester> fgMethodOverrideTesterCache= new LRUMap<>(CACHE_SIZE);
+	private static HierarchyDeltaListener fgDeltaListener;
+	private static long fgEstimatedSize= 0;
 
-	private static int fgCacheHits= 0;
-	private static int fgCacheMisses= 0;
+	private static final AtomicInteger fgCacheHits= new AtomicInteger();
+	private static final AtomicInteger fgCacheMisses= new AtomicInteger();
+	private static final AtomicInteger fgCacheEvictions= new AtomicInteger();
+	private static final AtomicInteger fgCacheInvalidations= new AtomicInteger();
 
 	/**
 	 * Returns a super type hierarchy that contains the given type.
@@ -95,33 +234,32 @@ public class SuperTypeHierarchyCache {
 
 	public static MethodOverrideTester getMethodOverrideTester(IType type) throws JavaModelException {
 		MethodOverrideTester test= null;
-		synchronized (fgMethodOverrideTesterCache) {
-			test= fgMethodOverrideTesterCache.get(type);
+		synchronized (fgHierarchyCache) {
+			HierarchyCacheEntry entry= findHierarchyEntry(type);
+			if (entry != null) {
+				test= entry.getMethodOverrideTester(type);
+			}
 		}
 		if (test == null) {
-			ITypeHierarchy hierarchy= getTypeHierarchy(type); // don't nest the locks
-			synchronized (fgMethodOverrideTesterCache) {
-				test= fgMethodOverrideTesterCache.get(type); // test again after waiting a long time for 'getTypeHierarchy'
+			ITypeHierarchy hierarchy= getTypeHierarchy(type); // don't hold the lock while building the hierarchy
+			synchronized (fgHierarchyCache) {
+				HierarchyCacheEntry entry= fgHierarchyCache.get(hierarchy);
+				if (entry != null) {
+					test= entry.getMethodOverrideTester(type); // test again after waiting a long time for 'getTypeHierarchy'
+				}
 				if (test == null) {
 					test= new MethodOverrideTester(type, hierarchy);
-					fgMethodOverrideTesterCache.put(type, test);
+					if (entry != null) {
+						entry.addMethodOverrideTester(type, test);
+						fgEstimatedSize+= ESTIMATED_TESTER_SIZE;
+						evictEntries(entry);
+					}
 				}
 			}
 		}
 		return test;
 	}
 
-	private static void removeMethodOverrideTester(ITypeHierarchy hierarchy) {
-		synchronized (fgMethodOverrideTesterCache) {
-			for (Iterator<MethodOverrideTester> iter= fgMethodOverrideTesterCache.values().iterator(); iter.hasNext();) {
-				MethodOverrideTester curr= iter.next();
-				if (curr.getTypeHierarchy().equals(hierarchy)) {
-					iter.remove();
-				}
-			}
-		}
-	}
-
 	/**
 	 * Returns a super type hierarchy that contains the given type.
 	 * The returned hierarchy may actually be based on a subtype of the
@@ -137,46 +275,79 @@ public class SuperTypeHierarchyCache {
 	public static ITypeHierarchy getTypeHierarchy(IType type, IProgressMonitor progressMonitor) throws JavaModelException {
 		ITypeHierarchy hierarchy= findTypeHierarchyInCache(type);
 		if (hierarchy == null) {
-			fgCacheMisses++;
+			fgCacheMisses.incrementAndGet();
 			hierarchy= type.newSupertypeHierarchy(progressMonitor);
 			addTypeHierarchyToCache(hierarchy);
 		} else {
-			fgCacheHits++;
+			fgCacheHits.incrementAndGet();
 		}
 		return hierarchy;
 	}
 
 	private static void addTypeHierarchyToCache(ITypeHierarchy hierarchy) {
+		IType[] allTypes= hierarchy.getAllTypes();
 		synchronized (fgHierarchyCache) {
-			int nEntries= fgHierarchyCache.size();
-			if (nEntries >= CACHE_SIZE) {
-				// find obsolete entries or remove entry that was least recently accessed
-				HierarchyCacheEntry oldest= null;
-				ArrayList<HierarchyCacheEntry> obsoleteHierarchies= new ArrayList<>(CACHE_SIZE);
-				for (int i= 0; i < nEntries; i++) {
-					HierarchyCacheEntry entry= fgHierarchyCache.get(i);
-					ITypeHierarchy curr= entry.getTypeHierarchy();
-					if (!curr.exists() || hierarchy.contains(curr.getType())) {
-						obsoleteHierarchies.add(entry);
-					} else {
-						if (oldest == null || entry.getLastAccess() < oldest.getLastAccess()) {
-							oldest= entry;
+			if (fgHierarchyCache.containsKey(hierarchy)) {
+				return;
+			}
+			// entries for types that are contained in the new hierarchy are obsolete
+			for (int i= 0; i < allTypes.length; i++) {
+				List<HierarchyCacheEntry> entries= fgTypeRootIndex.get(allTypes[i].getTypeRoot());
+				if (entries != null) {
+					for (int k= entries.size() - 1; k >= 0 && k < entries.size(); k--) {
+						HierarchyCacheEntry curr= entries.get(k);
+						if (allTypes[i].equals(curr.getTypeHierarchy().getType())) {
+							removeHierarchyEntryFromCache(curr);
 						}
 					}
 				}
-				if (!obsoleteHierarchies.isEmpty()) {
-					for (int i= 0; i < obsoleteHierarchies.size(); i++) {
-						removeHierarchyEntryFromCache(obsoleteHierarchies.get(i));
-					}
-				} else if (oldest != null) {
-					removeHierarchyEntryFromCache(oldest);
+			}
+
+			HierarchyCacheEntry newEntry= new HierarchyCacheEntry(hierarchy, allTypes);
+			fgHierarchyCache.put(hierarchy, newEntry);
+			ITypeRoot[] typeRoots= newEntry.getTypeRoots();
+			for (int i= 0; i < typeRoots.length; i++) {
+				List<HierarchyCacheEntry> entries= fgTypeRootIndex.get(typeRoots[i]);
+				if (entries == null) {
+					entries= new ArrayList<>(2);
+					fgTypeRootIndex.put(typeRoots[i], entries);
 				}
+				entries.add(newEntry);
 			}
-			HierarchyCacheEntry newEntry= new HierarchyCacheEntry(hierarchy);
-			fgHierarchyCache.add(newEntry);
+			fgEstimatedSize+= newEntry.getEstimatedSize();
+			if (fgDeltaListener == null) {
+				fgDeltaListener= new HierarchyDeltaListener();
+				JavaCore.addElementChangedListener(fgDeltaListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+			}
+			evictEntries(newEntry);
 		}
 	}
 
+	/**
+	 * Removes least recently used entries until the estimated size of the cache fits into the
+	 * budget. Must be called while holding the cache lock.
+	 *
+	 * @param keep the entry that must not be evicted
+	 */
+	private static void evictEntries(HierarchyCacheEntry keep) {
+		if (fgEstimatedSize <= CACHE_BUDGET) {
+			return;
+		}
+		ArrayList<HierarchyCacheEntry> evicted= new ArrayList<>();
+		long size= fgEstimatedSize;
+		for (Iterator<HierarchyCacheEntry> iter= fgHierarchyCache.values().iterator(); iter.hasNext() && size > CACHE_BUDGET;) {
+			HierarchyCacheEntry curr= iter.next();
+			if (curr != keep) {
+				evicted.add(curr);
+				size-= curr.getEstimatedSize();
+			}
+		}
+		for (int i= 0; i < evicted.size(); i++) {
+			removeHierarchyEntryFromCache(evicted.get(i));
+		}
+		fgCacheEvictions.addAndGet(evicted.size());
+	}
+
 
 	/**
 	 * Check if the given type is in the hierarchy cache.
@@ -184,33 +355,93 @@ public class SuperTypeHierarchyCache {
 	 * @return <code>true</code> if a hierarchy for the given type is cached
 	 */
 	public static boolean hasInCache(IType type) {
-		return findTypeHierarchyInCache(type) != null;
+		synchronized (fgHierarchyCache) {
+			return findHierarchyEntry(type) != null;
+		}
 	}
 
 
 	private static ITypeHierarchy findTypeHierarchyInCache(IType type) {
 		synchronized (fgHierarchyCache) {
-			for (int i= fgHierarchyCache.size() - 1; i>= 0; i--) {
-				HierarchyCacheEntry curr= fgHierarchyCache.get(i);
+			HierarchyCacheEntry entry= findHierarchyEntry(type);
+			if (entry != null) {
+				fgHierarchyCache.get(entry.getTypeHierarchy()); // mark as accessed
+				return entry.getTypeHierarchy();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the most recently added entry that contains the given type. Must be called while
+	 * holding the cache lock.
+	 *
+	 * @param type a type
+	 * @return the cache entry or <code>null</code>
+	 */
+	private static HierarchyCacheEntry findHierarchyEntry(IType type) {
+		List<HierarchyCacheEntry> entries= fgTypeRootIndex.get(type.getTypeRoot());
+		if (entries != null) {
+			for (int i= entries.size() - 1; i >= 0 && i < entries.size(); i--) {
+				HierarchyCacheEntry curr= entries.get(i);
 				ITypeHierarchy hierarchy= curr.getTypeHierarchy();
 				if (!hierarchy.exists()) {
 					removeHierarchyEntryFromCache(curr);
-				} else {
-					if (hierarchy.contains(type)) {
-						curr.markAsAccessed();
-						return hierarchy;
-					}
+				} else if (hierarchy.contains(type)) {
+					return curr;
 				}
 			}
 		}
 		return null;
 	}
 
+	private static void removeHierarchyEntries(ITypeRoot typeRoot) {
+		List<HierarchyCacheEntry> entries= fgTypeRootIndex.get(typeRoot);
+		if (entries != null) {
+			HierarchyCacheEntry[] affected= entries.toArray(new HierarchyCacheEntry[entries.size()]);
+			for (int i= 0; i < affected.length; i++) {
+				removeHierarchyEntryFromCache(affected[i]);
+			}
+			fgCacheInvalidations.addAndGet(affected.length);
+		}
+	}
+
 	private static void removeHierarchyEntryFromCache(HierarchyCacheEntry entry) {
 		synchronized (fgHierarchyCache) {
-			removeMethodOverrideTester(entry.getTypeHierarchy());
-			entry.dispose();
-			fgHierarchyCache.remove(entry);
+			if (fgHierarchyCache.remove(entry.getTypeHierarchy()) == null) {
+				return;
+			}
+			ITypeRoot[] typeRoots= entry.getTypeRoots();
+			for (int i= 0; i < typeRoots.length; i++) {
+				List<HierarchyCacheEntry> entries= fgTypeRootIndex.get(typeRoots[i]);
+				if (entries != null) {
+					entries.remove(entry);
+					if (entries.isEmpty()) {
+						fgTypeRootIndex.remove(typeRoots[i]);
+					}
+				}
+			}
+			fgEstimatedSize-= entry.getEstimatedSize();
+			if (fgHierarchyCache.isEmpty()) {
+				disposeDeltaListener();
+			}
+		}
+	}
+
+	private static void flushCache() {
+		synchronized (fgHierarchyCache) {
+			fgCacheInvalidations.addAndGet(fgHierarchyCache.size());
+			fgHierarchyCache.clear();
+			fgTypeRootIndex.clear();
+			fgEstimatedSize= 0;
+			disposeDeltaListener();
+		}
+	}
+
+	private static void disposeDeltaListener() {
+		if (fgDeltaListener != null) {
+			JavaCore.removeElementChangedListener(fgDeltaListener);
+			fgDeltaListener= null;
 		}
 	}
 
@@ -220,7 +451,7 @@ public class SuperTypeHierarchyCache {
 	 * @return Returns a int
 	 */
 	public static int getCacheHits() {
-		return fgCacheHits;
+		return fgCacheHits.get();
 	}
 
 	/**
@@ -228,6 +459,50 @@ public class SuperTypeHierarchyCache {
 	 * @return Returns a int
 	 */
 	public static int getCacheMisses() {
-		return fgCacheMisses;
+		return fgCacheMisses.get();
+	}
+
+	/**
+	 * Gets the number of hierarchies that were removed to keep the cache within its memory budget.
+	 * @return the number of evicted hierarchies
+	 */
+	public static int getCacheEvictions() {
+		return fgCacheEvictions.get();
+	}
+
+	/**
+	 * Gets the number of hierarchies that were removed because of Java element changes.
+	 * @return the number of invalidated hierarchies
+	 */
+	public static int getCacheInvalidations() {
+		return fgCacheInvalidations.get();
+	}
+
+	/**
+	 * Gets the number of hierarchies currently held by the cache.
+	 * @return the number of cached hierarchies
+	 */
+	public static int getCacheSize() {
+		synchronized (fgHierarchyCache) {
+			return fgHierarchyCache.size();
+		}
+	}
+
+	/**
+	 * Gets the estimated memory footprint of the cached hierarchies.
+	 * @return the estimated size in bytes
+	 */
+	public static long getEstimatedCacheSize() {
+		synchronized (fgHierarchyCache) {
+			return fgEstimatedSize;
+		}
+	}
+
+	/**
+	 * Gets the memory budget of the cache.
+	 * @return the maximum estimated size in bytes
+	 */
+	public static long getCacheBudget() {
+		return CACHE_BUDGET;
 	}
 }
@@ -43,6 +43,14 @@ public class JUnitPreferencesConstants {
 
 	public static final boolean ENABLE_ASSERTIONS_DEFAULT= true;
 
+	/**
+	 * Boolean preference controlling whether the test runner should report results in the
+	 * binary protocol, which batches and compresses the messages.
+	 */
+	public static final String BINARY_PROTOCOL= JUnitCorePlugin.PLUGIN_ID + ".binary_protocol"; //$NON-NLS-1$
+
+	public static final boolean BINARY_PROTOCOL_DEFAULT= true;
+
 	/**
 	 * List of active stack filters. A String containing a comma separated list
 	 * of fully qualified type names/patterns.
@@ -191,6 +191,18 @@ public class JUnit5TestFinder implements ITestFinder {
 		}
 	}
 
+	private final TestDiscoveryIndex.TestSearch fSearch= new TestDiscoveryIndex.TestSearch() {
+		@Override
+		public ITypeHierarchy searchTests(IJavaElement element, Set<IType> result, IProgressMonitor pm) throws CoreException {
+			return searchTestsInContainer(element, result, pm);
+		}
+
+		@Override
+		public boolean isTest(IType type) throws CoreException {
+			return internalIsTest(type, null);
+		}
+	};
+
 	@Override
 	public void findTestsInContainer(IJavaElement element, Set<IType> result, IProgressMonitor pm) throws CoreException {
 		if (element == null || result == null) {
@@ -205,6 +217,10 @@ public class JUnit5TestFinder implements ITestFinder {
 			}
 		}
 
+		TestDiscoveryIndex.findTestsInContainer(TestKindRegistry.JUNIT5_TEST_KIND_ID, element, fSearch, result, pm);
+	}
+
+	private ITypeHierarchy searchTestsInContainer(IJavaElement element, Set<IType> result, IProgressMonitor pm) throws CoreException {
 		if (pm == null)
 			pm= new NullProgressMonitor();
 
@@ -230,6 +246,7 @@ public class JUnit5TestFinder implements ITestFinder {
 
 			//JUnit 4.3 can also run JUnit-3.8-style public static Test suite() methods:
 			CoreTestSearchEngine.findSuiteMethods(element, result, new SubProgressMonitor(pm, 1));
+			return hierarchy;
 		} finally {
 			pm.done();
 		}
@@ -0,0 +1,626 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.launcher;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.SubMonitor;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IAnnotation;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+
+/**
+ * A persistent index of the test types declared in the compilation units of a project, used by
+ * {@link ITestFinder}s to avoid searching a whole container for tests on every launch.
+ * <p>
+ * The index is kept per project and test kind. For every compilation unit, it stores the test
+ * types found in it, the modification stamp of the compilation unit, and the stamps of the
+ * compilation units declaring supertypes of its types or the annotation types used by them,
+ * including meta-annotations. An entry is reused as long as none of these stamps changed. Changes
+ * to the classpath or to archives, which may change binary supertypes, discard the index of the
+ * affected project. Entries of removed compilation units are pruned.
+ * </p>
+ * <p>
+ * Stale entries are recomputed per type when only a few compilation units changed. Otherwise the
+ * test finder searches the whole container again, and the index is updated from the result.
+ * The indices are saved in the state location of the plug-in when it is stopped.
+ * </p>
+ */
+public final class TestDiscoveryIndex {
+
+	/**
+	 * Searches for tests on behalf of the index.
+	 */
+	public interface TestSearch {
+
+		/**
+		 * Searches the tests in the given container.
+		 *
+		 * @param element the container
+		 * @param result the set to add the found test types to
+		 * @param pm the progress monitor
+		 * @return the type hierarchy of the container that was used to find the tests, or
+		 *         <code>null</code> if no hierarchy was built
+		 * @throws CoreException if the search fails
+		 */
+		ITypeHierarchy searchTests(IJavaElement element, Set<IType> result, IProgressMonitor pm) throws CoreException;
+
+		/**
+		 * @param type the type to test
+		 * @return <code>true</code> if the given type is a test
+		 * @throws CoreException if the type cannot be analyzed
+		 */
+		boolean isTest(IType type) throws CoreException;
+	}
+
+	private static final class Entry {
+
+		private static final String[] NO_STRINGS= new String[0];
+
+		/** The stamp of the compilation unit */
+		final long fStamp;
+		/** The handle identifiers of the test types in the compilation unit */
+		final String[] fTests;
+		/** The paths of the compilation units declaring supertypes or annotation types */
+		final String[] fDependencies;
+		/** The stamps of the compilation units declaring supertypes or annotation types */
+		final long[] fDependencyStamps;
+
+		Entry(long stamp, String[] tests, String[] dependencies, long[] dependencyStamps) {
+			fStamp= stamp;
+			fTests= tests;
+			fDependencies= dependencies;
+			fDependencyStamps= dependencyStamps;
+		}
+
+		Entry(ICompilationUnit unit, Collection<IType> tests, Set<ICompilationUnit> dependencies, Map<String, Long> stamps) {
+			fStamp= getStamp(unit.getPath().toString(), stamps);
+			fTests= tests.isEmpty() ? NO_STRINGS : new String[tests.size()];
+			int i= 0;
+			for (IType test : tests)
+				fTests[i++]= test.getHandleIdentifier();
+			fDependencies= dependencies.isEmpty() ? NO_STRINGS : new String[dependencies.size()];
+			fDependencyStamps= new long[fDependencies.length];
+			i= 0;
+			for (ICompilationUnit dependency : dependencies) {
+				fDependencies[i]= dependency.getPath().toString();
+				fDependencyStamps[i]= getStamp(fDependencies[i], stamps);
+				i++;
+			}
+		}
+
+		boolean isValid(ICompilationUnit unit, Map<String, Long> stamps) {
+			if (fStamp != getStamp(unit.getPath().toString(), stamps))
+				return false;
+			for (int i= 0; i < fDependencies.length; i++) {
+				if (fDependencyStamps[i] != getStamp(fDependencies[i], stamps))
+					return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Number of stale compilation units that are always checked one by one, instead of searching
+	 * the whole container.
+	 */
+	private static final int MAX_INCREMENTAL_UNITS= 100;
+
+	private static final String INDEX_FOLDER= "testDiscoveryIndex"; //$NON-NLS-1$
+	private static final String INDEX_FILE_EXTENSION= ".index"; //$NON-NLS-1$
+	private static final int MAGIC= 0x4A555449; // "JUTI"
+	private static final int VERSION= 2;
+
+	private static final Map<String, TestDiscoveryIndex> fgIndices= new HashMap<>();
+	private static IElementChangedListener fgListener;
+
+	/**
+	 * Finds the tests in the given container, using and updating the index of its project.
+	 *
+	 * @param testKindId the id of the test kind
+	 * @param element the container
+	 * @param search the search used for the parts of the container that are not indexed
+	 * @param result the set to add the found test types to
+	 * @param pm the progress monitor
+	 * @throws CoreException if the search fails
+	 */
+	public static void findTestsInContainer(String testKindId, IJavaElement element, TestSearch search, Set<IType> result, IProgressMonitor pm) throws CoreException {
+		IJavaProject project= element.getJavaProject();
+		if (project == null || !isIndexedContainer(element)) {
+			search.searchTests(element, result, pm);
+			return;
+		}
+
+		SubMonitor subMonitor= SubMonitor.convert(pm, 10);
+		List<ICompilationUnit> units= new ArrayList<>();
+		collectCompilationUnits(element, units);
+
+		TestDiscoveryIndex index= getIndex(project);
+		List<ICompilationUnit> staleUnits= new ArrayList<>();
+		Map<String, Long> stamps= new HashMap<>();
+		synchronized (index) {
+			Map<String, Entry> entries= index.getEntries(testKindId);
+			for (ICompilationUnit unit : units) {
+				Entry entry= entries.get(unit.getHandleIdentifier());
+				if (entry != null && !unit.hasUnsavedChanges() && entry.isValid(unit, stamps)) {
+					for (int i= 0; i < entry.fTests.length; i++) {
+						IJavaElement test= JavaCore.create(entry.fTests[i]);
+						if (test instanceof IType)
+							result.add((IType) test);
+					}
+				} else {
+					// remember the stamp before the unit is searched, so that concurrent changes invalidate the new entry
+					getStamp(unit.getPath().toString(), stamps);
+					staleUnits.add(unit);
+				}
+			}
+			if (element.getElementType() == IJavaElement.JAVA_PROJECT) {
+				// drops the entries of compilation units that were removed while the index was not loaded
+				Set<String> handles= new HashSet<>();
+				for (ICompilationUnit unit : units)
+					handles.add(unit.getHandleIdentifier());
+				if (entries.keySet().retainAll(handles))
+					index.fDirty= true;
+			}
+		}
+		subMonitor.worked(1);
+		if (staleUnits.isEmpty())
+			return;
+
+		if (staleUnits.size() > MAX_INCREMENTAL_UNITS && staleUnits.size() * 4 > units.size()) {
+			Set<IType> found= new HashSet<>();
+			ITypeHierarchy hierarchy= search.searchTests(element, found, subMonitor.newChild(9));
+			result.addAll(found);
+			index.update(testKindId, units, found, hierarchy, stamps);
+		} else {
+			SubMonitor loopMonitor= subMonitor.newChild(9).setWorkRemaining(staleUnits.size());
+			for (ICompilationUnit unit : staleUnits) {
+				List<IType> tests= new ArrayList<>();
+				Set<ICompilationUnit> dependencies= new HashSet<>();
+				IType[] types= unit.getAllTypes();
+				SubMonitor unitMonitor= loopMonitor.newChild(1).setWorkRemaining(types.length);
+				for (int i= 0; i < types.length; i++) {
+					if (search.isTest(types[i]))
+						tests.add(types[i]);
+					IType[] supertypes= types[i].newSupertypeHierarchy(unitMonitor.newChild(1)).getAllSupertypes(types[i]);
+					addDependencies(unit, types[i], supertypes, dependencies);
+				}
+				result.addAll(tests);
+				if (!unit.hasUnsavedChanges()) {
+					synchronized (index) {
+						index.getEntries(testKindId).put(unit.getHandleIdentifier(), new Entry(unit, tests, dependencies, stamps));
+						index.fDirty= true;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tells whether the given type has been found as a test by the last search for tests in its
+	 * compilation unit.
+	 *
+	 * @param testKindId the id of the test kind
+	 * @param type the type
+	 * @return {@link Boolean#TRUE} if the type is an indexed test, {@link Boolean#FALSE} if it is
+	 *         not, or <code>null</code> if the index of its compilation unit is not up to date
+	 */
+	public static Boolean isIndexedTest(String testKindId, IType type) {
+		ICompilationUnit unit= type.getCompilationUnit();
+		if (unit == null || unit.getJavaProject() == null)
+			return null;
+		if (unit.isWorkingCopy() && !unit.getPrimary().equals(unit))
+			return null;
+		try {
+			if (unit.hasUnsavedChanges())
+				return null;
+		} catch (JavaModelException e) {
+			return null;
+		}
+		TestDiscoveryIndex index= getIndex(unit.getJavaProject());
+		synchronized (index) {
+			Entry entry= index.getEntries(testKindId).get(unit.getHandleIdentifier());
+			if (entry == null || !entry.isValid(unit, new HashMap<String, Long>()))
+				return null;
+			String handle= type.getHandleIdentifier();
+			for (int i= 0; i < entry.fTests.length; i++) {
+				if (entry.fTests[i].equals(handle))
+					return Boolean.TRUE;
+			}
+			return Boolean.FALSE;
+		}
+	}
+
+	/**
+	 * Saves the indices and stops listening to changes of the Java model.
+	 */
+	public static synchronized void shutdown() {
+		if (fgListener != null) {
+			JavaCore.removeElementChangedListener(fgListener);
+			fgListener= null;
+		}
+		for (TestDiscoveryIndex index : fgIndices.values())
+			index.save();
+		fgIndices.clear();
+	}
+
+	private static synchronized TestDiscoveryIndex getIndex(IJavaProject project) {
+		String name= project.getElementName();
+		TestDiscoveryIndex index= fgIndices.get(name);
+		if (index == null) {
+			if (fgListener == null) {
+				fgListener= new IElementChangedListener() {
+					@Override
+					public void elementChanged(ElementChangedEvent event) {
+						processDelta(event.getDelta());
+					}
+				};
+				JavaCore.addElementChangedListener(fgListener, ElementChangedEvent.POST_CHANGE);
+			}
+			index= new TestDiscoveryIndex(name);
+			index.load();
+			fgIndices.put(name, index);
+		}
+		return index;
+	}
+
+	private static void processDelta(IJavaElementDelta delta) {
+		IJavaElement element= delta.getElement();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				break;
+			case IJavaElement.JAVA_PROJECT:
+				if (delta.getKind() == IJavaElementDelta.REMOVED || (delta.getFlags() & IJavaElementDelta.F_CLOSED) != 0) {
+					discard(element.getElementName(), delta.getKind() == IJavaElementDelta.REMOVED);
+					return;
+				}
+				if ((delta.getFlags() & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED)) != 0) {
+					discard(element.getElementName(), true);
+					return;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if ((delta.getFlags() & IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED) != 0) {
+					discard(element.getJavaProject().getElementName(), true);
+					return;
+				}
+				if (delta.getKind() == IJavaElementDelta.REMOVED) {
+					prune(element, element.getHandleIdentifier() + '<');
+					return;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (delta.getKind() == IJavaElementDelta.REMOVED) {
+					prune(element, element.getHandleIdentifier() + '{');
+					return;
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				if (delta.getKind() == IJavaElementDelta.REMOVED)
+					prune(element, null);
+				return;
+			default:
+				return;
+		}
+		IJavaElementDelta[] children= delta.getAffectedChildren();
+		for (int i= 0; i < children.length; i++)
+			processDelta(children[i]);
+	}
+
+	private static synchronized void discard(String projectName, boolean deleteFile) {
+		TestDiscoveryIndex index= fgIndices.remove(projectName);
+		if (deleteFile) {
+			getIndexFile(projectName).delete();
+		} else if (index != null) {
+			index.save();
+		}
+	}
+
+	/**
+	 * Removes the entries of removed compilation units from the loaded index of their project.
+	 *
+	 * @param element the removed element
+	 * @param prefix the prefix of the handle identifiers of the compilation units in the removed
+	 *            container, or <code>null</code> if the element is a compilation unit
+	 */
+	private static void prune(IJavaElement element, String prefix) {
+		TestDiscoveryIndex index;
+		synchronized (TestDiscoveryIndex.class) {
+			index= fgIndices.get(element.getJavaProject().getElementName());
+		}
+		if (index == null)
+			return;
+		String handle= element.getHandleIdentifier();
+		synchronized (index) {
+			for (Map<String, Entry> entries : index.fEntries.values()) {
+				if (prefix == null) {
+					if (entries.remove(handle) != null)
+						index.fDirty= true;
+					continue;
+				}
+				for (Iterator<String> iter= entries.keySet().iterator(); iter.hasNext();) {
+					if (iter.next().startsWith(prefix)) {
+						iter.remove();
+						index.fDirty= true;
+					}
+				}
+			}
+		}
+	}
+
+	private static boolean isIndexedContainer(IJavaElement element) throws JavaModelException {
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_PROJECT:
+			case IJavaElement.PACKAGE_FRAGMENT:
+			case IJavaElement.COMPILATION_UNIT:
+				return true;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				return ((IPackageFragmentRoot) element).getKind() == IPackageFragmentRoot.K_SOURCE;
+			default:
+				return false;
+		}
+	}
+
+	private static void collectCompilationUnits(IJavaElement element, List<ICompilationUnit> units) throws JavaModelException {
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_PROJECT:
+				IPackageFragmentRoot[] roots= ((IJavaProject) element).getPackageFragmentRoots();
+				for (int i= 0; i < roots.length; i++) {
+					if (roots[i].getKind() == IPackageFragmentRoot.K_SOURCE && element.equals(roots[i].getJavaProject()))
+						collectCompilationUnits(roots[i], units);
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				IJavaElement[] fragments= ((IPackageFragmentRoot) element).getChildren();
+				for (int i= 0; i < fragments.length; i++)
+					collectCompilationUnits(fragments[i], units);
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				ICompilationUnit[] compilationUnits= ((IPackageFragment) element).getCompilationUnits();
+				for (int i= 0; i < compilationUnits.length; i++)
+					units.add(compilationUnits[i]);
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				units.add((ICompilationUnit) element);
+				break;
+			default:
+				break;
+		}
+	}
+
+	private static void addDependencies(ICompilationUnit unit, IType type, IType[] supertypes, Set<ICompilationUnit> dependencies) throws JavaModelException {
+		Set<IType> visited= new HashSet<>();
+		addAnnotationDependencies(unit, type, visited, dependencies);
+		for (int i= 0; i < supertypes.length; i++) {
+			ICompilationUnit dependency= supertypes[i].getCompilationUnit();
+			if (dependency != null) {
+				if (!dependency.equals(unit))
+					dependencies.add(dependency);
+				addAnnotationDependencies(unit, supertypes[i], visited, dependencies);
+			}
+		}
+	}
+
+	private static void addAnnotationDependencies(ICompilationUnit unit, IType type, Set<IType> visited, Set<ICompilationUnit> dependencies) throws JavaModelException {
+		addAnnotationDependencies(unit, type, type.getAnnotations(), visited, dependencies);
+		IMethod[] methods= type.getMethods();
+		for (int i= 0; i < methods.length; i++)
+			addAnnotationDependencies(unit, type, methods[i].getAnnotations(), visited, dependencies);
+	}
+
+	/*
+	 * Composed annotations, like a custom alias of JUnit 5's @Test, make a type a test depending on
+	 * the meta-annotations of annotation types declared in other compilation units.
+	 */
+	private static void addAnnotationDependencies(ICompilationUnit unit, IType context, IAnnotation[] annotations, Set<IType> visited, Set<ICompilationUnit> dependencies) throws JavaModelException {
+		for (int i= 0; i < annotations.length; i++) {
+			String[][] resolved= context.resolveType(annotations[i].getElementName());
+			if (resolved == null)
+				continue;
+			IType annotationType= context.getJavaProject().findType(resolved[0][0], resolved[0][1]);
+			// binary annotation types only change with the classpath
+			if (annotationType == null || annotationType.getCompilationUnit() == null || !visited.add(annotationType))
+				continue;
+			ICompilationUnit dependency= annotationType.getCompilationUnit();
+			if (!dependency.equals(unit))
+				dependencies.add(dependency);
+			addAnnotationDependencies(unit, annotationType, annotationType.getAnnotations(), visited, dependencies);
+		}
+	}
+
+	private static long getStamp(String path, Map<String, Long> stamps) {
+		Long stamp= stamps.get(path);
+		if (stamp == null) {
+			stamp= Long.valueOf(getStamp(ResourcesPlugin.getWorkspace().getRoot().findMember(new Path(path))));
+			stamps.put(path, stamp);
+		}
+		return stamp.longValue();
+	}
+
+	private static long getStamp(IResource resource) {
+		if (resource == null || !resource.exists())
+			return IResource.NULL_STAMP;
+		// the local time stamp distinguishes files that were deleted and recreated with the same modification stamp
+		return 31 * resource.getModificationStamp() + resource.getLocalTimeStamp();
+	}
+
+	private static File getIndexFile(String projectName) {
+		File folder= JUnitCorePlugin.getDefault().getStateLocation().append(INDEX_FOLDER).toFile();
+		return new File(folder, projectName + INDEX_FILE_EXTENSION);
+	}
+
+	private final String fProjectName;
+	/** Maps test kind ids to the entries of the compilation units */
+	private final Map<String, Map<String, Entry>> fEntries= new HashMap<>();
+	private boolean fDirty;
+
+	private TestDiscoveryIndex(String projectName) {
+		fProjectName= projectName;
+	}
+
+	private Map<String, Entry> getEntries(String testKindId) {
+		Map<String, Entry> entries= fEntries.get(testKindId);
+		if (entries == null) {
+			entries= new HashMap<>();
+			fEntries.put(testKindId, entries);
+		}
+		return entries;
+	}
+
+	private void update(String testKindId, List<ICompilationUnit> units, Set<IType> tests, ITypeHierarchy hierarchy, Map<String, Long> stamps) throws JavaModelException {
+		Map<ICompilationUnit, List<IType>> testsByUnit= new HashMap<>();
+		for (IType test : tests) {
+			ICompilationUnit unit= test.getCompilationUnit();
+			if (unit != null) {
+				List<IType> unitTests= testsByUnit.get(unit);
+				if (unitTests == null) {
+					unitTests= new ArrayList<>();
+					testsByUnit.put(unit, unitTests);
+				}
+				unitTests.add(test);
+			}
+		}
+		Map<ICompilationUnit, Set<ICompilationUnit>> dependenciesByUnit= new HashMap<>();
+		if (hierarchy != null) {
+			IType[] types= hierarchy.getAllClasses();
+			for (int i= 0; i < types.length; i++) {
+				ICompilationUnit unit= types[i].getCompilationUnit();
+				if (unit != null) {
+					Set<ICompilationUnit> dependencies= dependenciesByUnit.get(unit);
+					if (dependencies == null) {
+						dependencies= new HashSet<>();
+						dependenciesByUnit.put(unit, dependencies);
+					}
+					addDependencies(unit, types[i], hierarchy.getAllSupertypes(types[i]), dependencies);
+				}
+			}
+		}
+
+		synchronized (this) {
+			Map<String, Entry> entries= getEntries(testKindId);
+			for (ICompilationUnit unit : units) {
+				if (unit.hasUnsavedChanges())
+					continue;
+				List<IType> unitTests= testsByUnit.get(unit);
+				Set<ICompilationUnit> dependencies= dependenciesByUnit.get(unit);
+				entries.put(unit.getHandleIdentifier(), new Entry(unit,
+						unitTests != null ? unitTests : new ArrayList<IType>(0),
+						dependencies != null ? dependencies : new HashSet<ICompilationUnit>(0),
+						stamps));
+			}
+			fDirty= true;
+		}
+	}
+
+	private synchronized void load() {
+		File file= getIndexFile(fProjectName);
+		if (!file.isFile())
+			return;
+		try (DataInputStream in= new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				file.delete();
+				return;
+			}
+			int kindCount= in.readInt();
+			for (int k= 0; k < kindCount; k++) {
+				Map<String, Entry> entries= getEntries(in.readUTF());
+				int entryCount= in.readInt();
+				for (int e= 0; e < entryCount; e++) {
+					String handle= in.readUTF();
+					long stamp= in.readLong();
+					String[] tests= new String[in.readInt()];
+					for (int i= 0; i < tests.length; i++)
+						tests[i]= in.readUTF();
+					String[] dependencies= new String[in.readInt()];
+					long[] dependencyStamps= new long[dependencies.length];
+					for (int i= 0; i < dependencies.length; i++) {
+						dependencies[i]= in.readUTF();
+						dependencyStamps[i]= in.readLong();
+					}
+					entries.put(handle, new Entry(stamp, tests, dependencies, dependencyStamps));
+				}
+			}
+		} catch (IOException e) {
+			// corrupt or truncated, the index is rebuilt by the next search
+			fEntries.clear();
+			file.delete();
+		}
+	}
+
+	private synchronized void save() {
+		if (!fDirty)
+			return;
+		File file= getIndexFile(fProjectName);
+		file.getParentFile().mkdirs();
+		try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(fEntries.size());
+			for (Iterator<Map.Entry<String, Map<String, Entry>>> kinds= fEntries.entrySet().iterator(); kinds.hasNext();) {
+				Map.Entry<String, Map<String, Entry>> kind= kinds.next();
+				out.writeUTF(kind.getKey());
+				out.writeInt(kind.getValue().size());
+				for (Iterator<Map.Entry<String, Entry>> entries= kind.getValue().entrySet().iterator(); entries.hasNext();) {
+					Map.Entry<String, Entry> entry= entries.next();
+					Entry value= entry.getValue();
+					out.writeUTF(entry.getKey());
+					out.writeLong(value.fStamp);
+					out.writeInt(value.fTests.length);
+					for (int i= 0; i < value.fTests.length; i++)
+						out.writeUTF(value.fTests[i]);
+					out.writeInt(value.fDependencies.length);
+					for (int i= 0; i < value.fDependencies.length; i++) {
+						out.writeUTF(value.fDependencies[i]);
+						out.writeLong(value.fDependencyStamps[i]);
+					}
+				}
+			}
+			fDirty= false;
+		} catch (IOException e) {
+			JUnitCorePlugin.log(e);
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.InflaterInputStream;
+
+import org.eclipse.jdt.internal.junit.runner.BinaryMessageSender;
+import org.eclipse.jdt.internal.junit.runner.MessageIds;
+
+/**
+ * Reads the frames sent by a {@link BinaryMessageSender}.
+ */
+public class BinaryMessageReader {
+
+	private final DataInputStream fInput;
+
+	/**
+	 * Creates a reader and reads the protocol header.
+	 *
+	 * @param input the stream to read from
+	 * @throws IOException if the header cannot be read or is not supported
+	 */
+	public BinaryMessageReader(InputStream input) throws IOException {
+		fInput= new DataInputStream(input);
+		if (fInput.readInt() != MessageIds.BINARY_PROTOCOL_HEADER)
+			throw new IOException("Not a binary test run protocol"); //$NON-NLS-1$
+		int version= fInput.readInt();
+		if (version != MessageIds.BINARY_PROTOCOL_VERSION)
+			throw new IOException("Unsupported binary test run protocol version: " + version); //$NON-NLS-1$
+	}
+
+	/**
+	 * Reads the messages of the next frame.
+	 *
+	 * @return the messages, or <code>null</code> if the end of the stream has been reached
+	 *         between two frames
+	 * @throws IOException if the frame cannot be read, or if the stream ends within the frame
+	 */
+	public List<String> readFrame() throws IOException {
+		int length= readLength(fInput);
+		if (length == -1)
+			return null;
+		int flags= fInput.readUnsignedByte();
+		byte[] bytes= new byte[length];
+		fInput.readFully(bytes);
+
+		InputStream in= new ByteArrayInputStream(bytes);
+		if ((flags & MessageIds.BINARY_FRAME_COMPRESSED) != 0)
+			in= new InflaterInputStream(in);
+		List<String> messages= new ArrayList<>();
+		try (DataInputStream payload= new DataInputStream(in)) {
+			while (true) {
+				int messageLength= readLength(payload);
+				if (messageLength == -1)
+					return messages;
+				byte[] message= new byte[messageLength];
+				payload.readFully(message);
+				messages.add(new String(message, StandardCharsets.UTF_8));
+			}
+		}
+	}
+
+	public void close() throws IOException {
+		fInput.close();
+	}
+
+	/**
+	 * Reads a length.
+	 *
+	 * @param input the stream to read from
+	 * @return the length, or -1 if the end of the stream has been reached before the length
+	 * @throws IOException if the length cannot be read, or if the stream ends within the length
+	 */
+	private static int readLength(DataInputStream input) throws IOException {
+		int first= input.read();
+		if (first == -1)
+			return -1;
+		int length= first << 24 | input.readUnsignedByte() << 16 | input.readUnsignedByte() << 8 | input.readUnsignedByte();
+		if (length < 0)
+			throw new IOException("Invalid length in binary test run protocol: " + length); //$NON-NLS-1$
+		return length;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -108,5 +108,18 @@ public interface IXMLTags {
 	 */
 	public static final String ATTR_EXCLUDE_TAGS= "exclude_tags"; //$NON-NLS-1$
 
+	/**
+	 * value: Long, reference into the {@link TestPayloadStore} (only in swap files)
+	 */
+	public static final String ATTR_TRACE_REF= "traceref"; //$NON-NLS-1$
+	/**
+	 * value: Long, reference into the {@link TestPayloadStore} (only in swap files)
+	 */
+	public static final String ATTR_EXPECTED_REF= "expectedref"; //$NON-NLS-1$
+	/**
+	 * value: Long, reference into the {@link TestPayloadStore} (only in swap files)
+	 */
+	public static final String ATTR_ACTUAL_REF= "actualref"; //$NON-NLS-1$
+
 //	public static final String ATTR_TYPE= "type"; //$NON-NLS-1$
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -298,6 +298,9 @@ public final class JUnitModel {
 		ILaunchManager launchManager= DebugPlugin.getDefault().getLaunchManager();
 		launchManager.removeLaunchListener(fLaunchListener);
 
+		for (TestRunSession session : getTestRunSessions())
+			session.removeSwapFile();
+
 		File historyDirectory= JUnitCorePlugin.getHistoryDirectory();
 		File[] swapFiles= historyDirectory.listFiles();
 		if (swapFiles != null) {
@@ -498,10 +501,27 @@ public final class JUnitModel {
 	 * @throws CoreException if an error occurred
 	 */
 	public static void exportTestRunSession(TestRunSession testRunSession, File file) throws CoreException {
+		export(new TestRunSessionSerializer(testRunSession), file);
+	}
+
+	/**
+	 * Writes the swap file of the given test run session. Unlike an export, the swap file
+	 * only references the failure traces and comparison values in the session's
+	 * {@link TestPayloadStore}.
+	 *
+	 * @param testRunSession the test run session
+	 * @param file the destination
+	 * @throws CoreException if an error occurred
+	 */
+	static void exportSwapFile(TestRunSession testRunSession, File file) throws CoreException {
+		export(new TestRunSessionSerializer(testRunSession, true), file);
+	}
+
+	private static void export(TestRunSessionSerializer serializer, File file) throws CoreException {
 		FileOutputStream out= null;
 		try {
 			out= new FileOutputStream(file);
-            exportTestRunSession(testRunSession, out);
+			export(serializer, out);
 
 		} catch (IOException e) {
 			throwExportError(file, e);
@@ -522,10 +542,15 @@ public final class JUnitModel {
 
 	public static void exportTestRunSession(TestRunSession testRunSession, OutputStream out)
 			throws TransformerFactoryConfigurationError, TransformerException {
+		export(new TestRunSessionSerializer(testRunSession), out);
+	}
+
+	private static void export(TestRunSessionSerializer serializer, OutputStream out)
+			throws TransformerFactoryConfigurationError, TransformerException {
 
 		Transformer transformer= TransformerFactory.newInstance().newTransformer();
 		InputSource inputSource= new InputSource();
-		SAXSource source= new SAXSource(new TestRunSessionSerializer(testRunSession), inputSource);
+		SAXSource source= new SAXSource(serializer, inputSource);
 		StreamResult result= new StreamResult(out);
 		transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8"); //$NON-NLS-1$
 		transformer.setOutputProperty(OutputKeys.INDENT, "yes"); //$NON-NLS-1$
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,8 +12,11 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.junit.model;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
@@ -22,6 +25,7 @@ import java.io.UnsupportedEncodingException;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.util.List;
 
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.SafeRunner;
@@ -225,6 +229,7 @@ public class RemoteTestRunnerClient {
 	private int fPort= -1;
 	private PrintWriter fWriter;
 	private PushbackReader fPushbackReader;
+	private BinaryMessageReader fBinaryReader;
 	private String fLastLineDelimiter;
 	/**
 	 * The protocol version
@@ -263,21 +268,36 @@ public class RemoteTestRunnerClient {
 					System.out.println("Creating server socket "+fServerPort); //$NON-NLS-1$
 				fServerSocket= new ServerSocket(fServerPort);
 				fSocket= fServerSocket.accept();
-				try {
-				    fPushbackReader= new PushbackReader(new BufferedReader(new InputStreamReader(fSocket.getInputStream(), "UTF-8"))); //$NON-NLS-1$
-				} catch (UnsupportedEncodingException e) {
-				    fPushbackReader= new PushbackReader(new BufferedReader(new InputStreamReader(fSocket.getInputStream())));
-				}
 				try {
 				    fWriter= new PrintWriter(new OutputStreamWriter(fSocket.getOutputStream(), "UTF-8"), true); //$NON-NLS-1$
 	            } catch (UnsupportedEncodingException e1) {
 	                fWriter= new PrintWriter(new OutputStreamWriter(fSocket.getOutputStream()), true);
 	            }
-				String message;
-				while(fPushbackReader != null && (message= readMessage(fPushbackReader)) != null)
-					receiveMessage(message);
+				InputStream input= new BufferedInputStream(fSocket.getInputStream());
+				if (isBinaryProtocol(input)) {
+					fBinaryReader= new BinaryMessageReader(input);
+					// messages of the binary protocol are not split into lines
+					fLastLineDelimiter= "\n"; //$NON-NLS-1$
+					List<String> messages;
+					while (fBinaryReader != null && (messages= fBinaryReader.readFrame()) != null) {
+						for (String message : messages)
+							receiveMessage(message);
+					}
+				} else {
+					try {
+					    fPushbackReader= new PushbackReader(new BufferedReader(new InputStreamReader(input, "UTF-8"))); //$NON-NLS-1$
+					} catch (UnsupportedEncodingException e) {
+					    fPushbackReader= new PushbackReader(new BufferedReader(new InputStreamReader(input)));
+					}
+					String message;
+					while(fPushbackReader != null && (message= readMessage(fPushbackReader)) != null)
+						receiveMessage(message);
+				}
 			} catch (SocketException e) {
 				notifyTestRunTerminated();
+			} catch (EOFException e) {
+				// the test run ended within a frame of the binary protocol
+				notifyTestRunTerminated();
 			} catch (IOException e) {
 				JUnitCorePlugin.log(e);
 				// fall through
@@ -286,6 +306,22 @@ public class RemoteTestRunnerClient {
 		}
 	}
 
+	/**
+	 * Tells whether the RemoteTestRunner sends messages in the binary protocol.
+	 * Messages in the text protocol start with a '%', whereas the header of the
+	 * binary protocol starts with 0.
+	 *
+	 * @param input the input stream, must support mark
+	 * @return <code>true</code> if the input is in the binary protocol
+	 * @throws IOException if reading the input fails
+	 */
+	private static boolean isBinaryProtocol(InputStream input) throws IOException {
+		input.mark(1);
+		int first= input.read();
+		input.reset();
+		return first == (MessageIds.BINARY_PROTOCOL_HEADER >>> 24);
+	}
+
 	/**
 	 * Start listening to a test run. Start a server connection that
 	 * the RemoteTestRunner can connect to.
@@ -329,6 +365,10 @@ public class RemoteTestRunnerClient {
 				fPushbackReader.close();
 				fPushbackReader= null;
 			}
+			if (fBinaryReader != null) {
+				fBinaryReader.close();
+				fBinaryReader= null;
+			}
 		} catch(IOException e) {
 		}
 		try {
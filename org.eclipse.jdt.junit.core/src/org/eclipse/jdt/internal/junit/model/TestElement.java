@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -188,9 +188,14 @@ public abstract class TestElement implements ITestElement {
 	private String fUniqueId;
 
 	private Status fStatus;
-	private String fTrace;
-	private String fExpected;
-	private String fActual;
+
+	/*
+	 * The failure trace and the expected and actual values are kept in the
+	 * payload store of the test run session, see TestPayloadStore#append(String).
+	 */
+	private long fTrace= TestPayloadStore.NONE;
+	private long fExpected= TestPayloadStore.NONE;
+	private long fActual= TestPayloadStore.NONE;
 
 	private boolean fAssumptionFailed;
 
@@ -260,8 +265,8 @@ public abstract class TestElement implements ITestElement {
 	public FailureTrace getFailureTrace() {
 		Result testResult= getTestResult(false);
 		if (testResult == Result.ERROR || testResult == Result.FAILURE
-				|| (testResult == Result.IGNORED && fTrace != null)) {
-			return new FailureTrace(fTrace, fExpected, fActual);
+				|| (testResult == Result.IGNORED && fTrace != TestPayloadStore.NONE)) {
+			return new FailureTrace(getTrace(), getExpected(), getActual());
 		}
 		return null;
 	}
@@ -302,35 +307,70 @@ public abstract class TestElement implements ITestElement {
 	}
 
 	public void setStatus(Status status, String trace, String expected, String actual) {
-		if (trace != null && fTrace != null) {
+		TestPayloadStore store= getPayloadStore();
+		if (trace != null && fTrace != TestPayloadStore.NONE) {
 			//don't overwrite first trace if same test run logs multiple errors
-			fTrace= fTrace + trace;
+			fTrace= store.append(trace, fTrace);
 		} else {
-			fTrace= trace;
-			fExpected= expected;
-			fActual= actual;
+			fTrace= store.append(trace);
+			fExpected= store.append(expected);
+			fActual= store.append(actual);
 		}
 		setStatus(status);
 	}
 
+	/**
+	 * Sets the status and the references to a failure trace and comparison values that are
+	 * already in the payload store of the test run session, e.g. when a swapped out session is
+	 * read again.
+	 *
+	 * @param status the status
+	 * @param trace the reference of the trace
+	 * @param expected the reference of the expected value
+	 * @param actual the reference of the actual value
+	 * @see TestPayloadStore
+	 */
+	void setStatus(Status status, long trace, long expected, long actual) {
+		fTrace= trace;
+		fExpected= expected;
+		fActual= actual;
+		setStatus(status);
+	}
+
 	public Status getStatus() {
 		return fStatus;
 	}
 
-	public String getTrace() {
+	long getTraceReference() {
 		return fTrace;
 	}
 
-	public String getExpected() {
+	long getExpectedReference() {
 		return fExpected;
 	}
 
-	public String getActual() {
+	long getActualReference() {
 		return fActual;
 	}
 
+	public String getTrace() {
+		return getPayloadStore().read(fTrace);
+	}
+
+	public String getExpected() {
+		return getPayloadStore().read(fExpected);
+	}
+
+	public String getActual() {
+		return getPayloadStore().read(fActual);
+	}
+
 	public boolean isComparisonFailure() {
-		return fExpected != null && fActual != null;
+		return fExpected != TestPayloadStore.NONE && fActual != TestPayloadStore.NONE;
+	}
+
+	private TestPayloadStore getPayloadStore() {
+		return ((TestRunSession) getRoot().getTestRunSession()).getPayloadStore();
 	}
 
 	/**
@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+
+/**
+ * An append-only spill file for the large strings of a test run session, i.e. the failure traces
+ * and the expected and actual values of comparison failures.
+ * <p>
+ * Test elements only keep the references returned by {@link #append(String)} and read the strings
+ * back when they are shown. A string can be extended with {@link #append(String, long)}, which
+ * only writes the new fragment and links it to the previous one. If the spill file cannot be
+ * written, the strings are kept in memory.
+ * </p>
+ */
+public class TestPayloadStore {
+
+	/**
+	 * Reference of a <code>null</code> string.
+	 */
+	public static final long NONE= -1;
+
+	private static final String FILE_PREFIX= "payloads"; //$NON-NLS-1$
+	private static final String FILE_SUFFIX= ".bin"; //$NON-NLS-1$
+
+	/**
+	 * The size of a record header in the spill file: the reference of the previous fragment and
+	 * the length of the fragment in bytes.
+	 */
+	private static final int HEADER_LENGTH= 8 + 4;
+
+	private File fFile;
+	private RandomAccessFile fAccess;
+	private long fLength;
+	private boolean fDeleted;
+
+	/**
+	 * Fragments that could not be written to the spill file, or <code>null</code>. They are
+	 * referenced by <code>-2 - index</code>.
+	 */
+	private List<String> fInMemory;
+
+	/**
+	 * The references of the previous fragments of the in-memory fragments.
+	 */
+	private List<Long> fInMemoryPrevious;
+
+	/**
+	 * Appends a string to the store.
+	 *
+	 * @param string the string, can be <code>null</code>
+	 * @return the reference to read the string, or {@link #NONE} if the string is
+	 *         <code>null</code> or the store has been deleted
+	 */
+	public long append(String string) {
+		return append(string, NONE);
+	}
+
+	/**
+	 * Appends a fragment to a string in the store. Only the fragment is written; reading the
+	 * returned reference yields the previous string followed by the fragment.
+	 *
+	 * @param fragment the fragment to append, can be <code>null</code>
+	 * @param previous the reference of the string to extend, or {@link #NONE} to start a new
+	 *            string
+	 * @return the reference to read the extended string, or <code>previous</code> if the
+	 *         fragment is <code>null</code>, or {@link #NONE} if the store has been deleted
+	 */
+	public synchronized long append(String fragment, long previous) {
+		if (fragment == null)
+			return previous;
+		if (fDeleted)
+			return NONE;
+		if (fInMemory == null) {
+			try {
+				RandomAccessFile access= getAccess();
+				byte[] bytes= fragment.getBytes(StandardCharsets.UTF_8);
+				long offset= fLength;
+				access.seek(offset);
+				access.writeLong(previous);
+				access.writeInt(bytes.length);
+				access.write(bytes);
+				fLength= offset + HEADER_LENGTH + bytes.length;
+				return offset;
+			} catch (IOException e) {
+				JUnitCorePlugin.log(e);
+				fInMemory= new ArrayList<>();
+				fInMemoryPrevious= new ArrayList<>();
+			} catch (IllegalStateException e) { // no history directory
+				fInMemory= new ArrayList<>();
+				fInMemoryPrevious= new ArrayList<>();
+			}
+		}
+		fInMemory.add(fragment);
+		fInMemoryPrevious.add(Long.valueOf(previous));
+		return -2 - (fInMemory.size() - 1);
+	}
+
+	/**
+	 * Reads a string from the store.
+	 *
+	 * @param reference the reference returned by {@link #append(String)} or
+	 *            {@link #append(String, long)}
+	 * @return the string, or <code>null</code> if the reference is {@link #NONE}, the store has
+	 *         been deleted, or the string cannot be read
+	 */
+	public synchronized String read(long reference) {
+		if (reference == NONE || fDeleted)
+			return null;
+		List<String> fragments= new ArrayList<>();
+		try {
+			while (reference != NONE) {
+				if (reference < NONE) {
+					int index= (int) (-2 - reference);
+					if (fInMemory == null || index >= fInMemory.size())
+						return null;
+					fragments.add(fInMemory.get(index));
+					reference= fInMemoryPrevious.get(index).longValue();
+				} else {
+					if (reference + HEADER_LENGTH > fLength)
+						return null;
+					RandomAccessFile access= getAccess();
+					access.seek(reference);
+					long previous= access.readLong();
+					int length= access.readInt();
+					if (length < 0 || reference + HEADER_LENGTH + length > fLength || previous >= reference)
+						return null;
+					byte[] bytes= new byte[length];
+					access.readFully(bytes);
+					fragments.add(new String(bytes, StandardCharsets.UTF_8));
+					reference= previous;
+				}
+			}
+		} catch (IOException e) {
+			JUnitCorePlugin.log(e);
+			return null;
+		}
+		if (fragments.size() == 1)
+			return fragments.get(0);
+		StringBuilder buf= new StringBuilder();
+		for (int i= fragments.size() - 1; i >= 0; i--)
+			buf.append(fragments.get(i));
+		return buf.toString();
+	}
+
+	/**
+	 * Closes the spill file. It is reopened when the store is accessed again.
+	 */
+	public synchronized void close() {
+		if (fAccess != null) {
+			try {
+				fAccess.close();
+			} catch (IOException e) {
+				// ignore
+			}
+			fAccess= null;
+		}
+	}
+
+	/**
+	 * Closes and deletes the spill file. Afterwards, {@link #read(long)} returns
+	 * <code>null</code> and nothing can be appended anymore.
+	 */
+	public synchronized void delete() {
+		close();
+		if (fFile != null) {
+			fFile.delete();
+			fFile= null;
+		}
+		fInMemory= null;
+		fInMemoryPrevious= null;
+		fLength= 0;
+		fDeleted= true;
+	}
+
+	private RandomAccessFile getAccess() throws IOException {
+		if (fAccess == null) {
+			if (fFile == null) {
+				fFile= File.createTempFile(FILE_PREFIX, FILE_SUFFIX, JUnitCorePlugin.getHistoryDirectory());
+				fLength= 0;
+			}
+			fAccess= new RandomAccessFile(fFile, "rw"); //$NON-NLS-1$
+		}
+		return fAccess;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -55,6 +55,13 @@ public class TestRunHandler extends DefaultHandler {
 	private StringBuffer fExpectedBuffer;
 	private StringBuffer fActualBuffer;
 
+	/*
+	 * References into the TestPayloadStore of the session, only found in swap files.
+	 */
+	private long fTraceReference= TestPayloadStore.NONE;
+	private long fExpectedReference= TestPayloadStore.NONE;
+	private long fActualReference= TestPayloadStore.NONE;
+
 	private Locator fLocator;
 
 	private Status fStatus;
@@ -69,11 +76,16 @@ public class TestRunHandler extends DefaultHandler {
 	public TestRunHandler(IProgressMonitor monitor) {
 		fMonitor= monitor;
 	}
-	
+
+	/**
+	 * Creates a handler that reads a swap file back into the given session.
+	 *
+	 * @param testRunSession the session to fill
+	 */
 	public TestRunHandler(TestRunSession testRunSession) {
 		fTestRunSession= testRunSession;
 	}
-
+	
 	@Override
 	public void setDocumentLocator(Locator locator) {
 		fLocator= locator;
@@ -184,11 +196,13 @@ public class TestRunHandler extends DefaultHandler {
 			//TODO: multiple failures: https://bugs.eclipse.org/bugs/show_bug.cgi?id=125296
 			fStatus= Status.ERROR;
 			fFailureBuffer= new StringBuffer();
+			readReferences(attributes);
 
 		} else if (qName.equals(IXMLTags.NODE_FAILURE)) {
 			//TODO: multiple failures: https://bugs.eclipse.org/bugs/show_bug.cgi?id=125296
 			fStatus= Status.FAILURE;
 			fFailureBuffer= new StringBuffer();
+			readReferences(attributes);
 
 		} else if (qName.equals(IXMLTags.NODE_EXPECTED)) {
 			fInExpected= true;
@@ -210,12 +224,30 @@ public class TestRunHandler extends DefaultHandler {
 			if (message != null) {
 				fFailureBuffer.append(message).append('\n');
 			}
+			readReferences(attributes);
 
 		} else {
 			throw new SAXParseException("unknown node '" + qName + "'", fLocator);  //$NON-NLS-1$//$NON-NLS-2$
 		}
 	}
 
+	private void readReferences(Attributes attributes) {
+		fTraceReference= readReference(attributes, IXMLTags.ATTR_TRACE_REF);
+		fExpectedReference= readReference(attributes, IXMLTags.ATTR_EXPECTED_REF);
+		fActualReference= readReference(attributes, IXMLTags.ATTR_ACTUAL_REF);
+	}
+
+	private long readReference(Attributes attributes, String name) {
+		String value= attributes.getValue(name);
+		if (value != null) {
+			try {
+				return Long.parseLong(value);
+			} catch (NumberFormatException e) {
+			}
+		}
+		return TestPayloadStore.NONE;
+	}
+
 	private void readTime(TestElement testElement, Attributes attributes) {
 		String timeString= attributes.getValue(IXMLTags.ATTR_TIME);
 		if (timeString != null) {
@@ -287,7 +319,7 @@ public class TestRunHandler extends DefaultHandler {
 			if (testElement == null)
 				testElement= fTestSuite;
 			
-			if (fFailureBuffer != null && fFailureBuffer.length() > 0) {
+			if (fFailureBuffer != null && (fFailureBuffer.length() > 0 || fTraceReference != TestPayloadStore.NONE)) {
 				handleFailure(testElement);
 				testElement.setAssumptionFailed(true);
 			} else if (fTestCase != null) {
@@ -309,7 +341,13 @@ public class TestRunHandler extends DefaultHandler {
 
 	private void handleFailure(TestElement testElement) {
 		if (fFailureBuffer != null) {
-			fTestRunSession.registerTestFailureStatus(testElement, fStatus, fFailureBuffer.toString(), toString(fExpectedBuffer), toString(fActualBuffer));
+			if (fTraceReference != TestPayloadStore.NONE)
+				fTestRunSession.registerTestFailureStatus(testElement, fStatus, fTraceReference, fExpectedReference, fActualReference);
+			else
+				fTestRunSession.registerTestFailureStatus(testElement, fStatus, fFailureBuffer.toString(), toString(fExpectedBuffer), toString(fActualBuffer));
+			fTraceReference= TestPayloadStore.NONE;
+			fExpectedReference= TestPayloadStore.NONE;
+			fActualReference= TestPayloadStore.NONE;
 			fFailureBuffer= null;
 			fExpectedBuffer= null;
 			fActualBuffer= null;
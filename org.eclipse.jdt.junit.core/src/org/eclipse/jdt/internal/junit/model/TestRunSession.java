@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -19,7 +19,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.jdt.junit.model.ITestElement;
 import org.eclipse.jdt.junit.model.ITestElementContainer;
@@ -80,6 +82,12 @@ public class TestRunSession implements ITestRunSession {
 	 */
 	private Result fTestResult;
 
+	/**
+	 * The store of the failure traces and comparison values of the test elements. It stays on
+	 * disk while the test tree is swapped out; the swap file only references its entries.
+	 */
+	private final TestPayloadStore fPayloadStore= new TestPayloadStore();
+
 	/**
 	 * Map from testId to testElement.
 	 */
@@ -97,6 +105,12 @@ public class TestRunSession implements ITestRunSession {
 	 */
 	private TestSuiteElement fUnrootedSuite;
 
+	/**
+	 * The test cases that have been started but have not ended yet. Tests that are executed in
+	 * parallel are running at the same time.
+	 */
+	private final Set<TestCaseElement> fRunningTests= new LinkedHashSet<>();
+
 	private static final String EMPTY_STRING= ""; //$NON-NLS-1$
 
 	/**
@@ -284,6 +298,10 @@ public class TestRunSession implements ITestRunSession {
 		return fTestRoot;
 	}
 
+	TestPayloadStore getPayloadStore() {
+		return fPayloadStore;
+	}
+
 	/*
 	 * @see org.eclipse.jdt.junit.model.ITestRunSession#getJavaProject()
 	 */
@@ -353,6 +371,10 @@ public class TestRunSession implements ITestRunSession {
 		fSessionListeners.remove(listener);
 	}
 
+	/**
+	 * Writes the test tree to the swap file and releases it. The failure traces and comparison
+	 * values stay in the {@link TestPayloadStore}; the swap file only references them.
+	 */
 	public synchronized void swapOut() {
 		if (fTestRoot == null)
 			return;
@@ -367,7 +389,8 @@ public class TestRunSession implements ITestRunSession {
 		try {
 			File swapFile= getSwapFile();
 
-			JUnitModel.exportTestRunSession(this, swapFile);
+			JUnitModel.exportSwapFile(this, swapFile);
+			fPayloadStore.close();
 			fTestResult= fTestRoot.getTestResult(true);
 			fTestRoot= null;
 			fTestRunnerClient= null;
@@ -383,6 +406,38 @@ public class TestRunSession implements ITestRunSession {
 		}
 	}
 
+	/**
+	 * @return <code>true</code> iff the test tree is swapped to disk
+	 */
+	public synchronized boolean isSwappedOut() {
+		return fTestRoot == null;
+	}
+
+	/**
+	 * @return the test cases that are currently running, in the order in which they have been
+	 *         started
+	 */
+	public TestCaseElement[] getRunningTests() {
+		synchronized (fRunningTests) {
+			return fRunningTests.toArray(new TestCaseElement[fRunningTests.size()]);
+		}
+	}
+
+	private void setRunning(TestCaseElement testCaseElement, boolean running) {
+		synchronized (fRunningTests) {
+			if (running)
+				fRunningTests.add(testCaseElement);
+			else
+				fRunningTests.remove(testCaseElement);
+		}
+	}
+
+	private void clearRunningTests() {
+		synchronized (fRunningTests) {
+			fRunningTests.clear();
+		}
+	}
+
 	public boolean isStarting() {
 		return getStartTime() == 0 && fLaunch != null && ! fLaunch.isTerminated();
 	}
@@ -392,6 +447,7 @@ public class TestRunSession implements ITestRunSession {
 		File swapFile= getSwapFile();
 		if (swapFile.exists())
 			swapFile.delete();
+		fPayloadStore.delete();
 	}
 
 	private File getSwapFile() throws IllegalStateException {
@@ -651,6 +707,7 @@ public class TestRunSession implements ITestRunSession {
 		@Override
 		public void testRunEnded(long elapsedTime) {
 			fIsRunning= false;
+			clearRunningTests();
 
 			for (ITestSessionListener listener : fSessionListeners) {
 				listener.sessionEnded(elapsedTime);
@@ -661,6 +718,7 @@ public class TestRunSession implements ITestRunSession {
 		public void testRunStopped(long elapsedTime) {
 			fIsRunning= false;
 			fIsStopped= true;
+			clearRunningTests();
 
 			for (ITestSessionListener listener : fSessionListeners) {
 				listener.sessionStopped(elapsedTime);
@@ -671,6 +729,7 @@ public class TestRunSession implements ITestRunSession {
 		public void testRunTerminated() {
 			fIsRunning= false;
 			fIsStopped= true;
+			clearRunningTests();
 
 			for (ITestSessionListener listener : fSessionListeners) {
 				listener.sessionTerminated();
@@ -713,6 +772,7 @@ public class TestRunSession implements ITestRunSession {
 			}
 			TestCaseElement testCaseElement= (TestCaseElement) testElement;
 			setStatus(testCaseElement, Status.RUNNING);
+			setRunning(testCaseElement, true);
 
 			if (testCaseElement.isDynamicTest()) {
 				fTotalCount++;
@@ -750,6 +810,7 @@ public class TestRunSession implements ITestRunSession {
 
 			if (testCaseElement.getStatus() == Status.RUNNING)
 				setStatus(testCaseElement, Status.OK);
+			setRunning(testCaseElement, false);
 
 			for (ITestSessionListener listener : fSessionListeners) {
 				listener.testEnded(testCaseElement);
@@ -817,6 +878,25 @@ public class TestRunSession implements ITestRunSession {
 
 	public void registerTestFailureStatus(TestElement testElement, Status status, String trace, String expected, String actual) {
 		testElement.setStatus(status, trace, expected, actual);
+		countFailure(testElement, status);
+	}
+
+	/**
+	 * Registers a failure whose trace and comparison values are already in the payload store of
+	 * this session.
+	 *
+	 * @param testElement the test element
+	 * @param status the status
+	 * @param trace the reference of the trace
+	 * @param expected the reference of the expected value
+	 * @param actual the reference of the actual value
+	 */
+	void registerTestFailureStatus(TestElement testElement, Status status, long trace, long expected, long actual) {
+		testElement.setStatus(status, trace, expected, actual);
+		countFailure(testElement, status);
+	}
+
+	private void countFailure(TestElement testElement, Status status) {
 		if (!testElement.isAssumptionFailure()) {
 			if (status.isError()) {
 				fErrorCount++;
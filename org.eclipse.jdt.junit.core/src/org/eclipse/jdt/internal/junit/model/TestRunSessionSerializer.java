@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -48,6 +48,7 @@ public class TestRunSessionSerializer implements XMLReader {
 
 
 	private final TestRunSession fTestRunSession;
+	private final boolean fReferencePayloads;
 	private ContentHandler fHandler;
 	private ErrorHandler fErrorHandler;
 
@@ -57,8 +58,19 @@ public class TestRunSessionSerializer implements XMLReader {
 	 * @param testRunSession the test run session to serialize
 	 */
 	public TestRunSessionSerializer(TestRunSession testRunSession) {
+		this(testRunSession, false);
+	}
+
+	/**
+	 * @param testRunSession the test run session to serialize
+	 * @param referencePayloads <code>true</code> to write references into the
+	 *            {@link TestPayloadStore} of the session instead of the failure traces and
+	 *            comparison values, for swap files
+	 */
+	public TestRunSessionSerializer(TestRunSession testRunSession, boolean referencePayloads) {
 		Assert.isNotNull(testRunSession);
 		fTestRunSession= testRunSession;
+		fReferencePayloads= referencePayloads;
 	}
 
 	@Override
@@ -170,6 +182,10 @@ public class TestRunSessionSerializer implements XMLReader {
 	}
 
 	private void addFailure(TestElement testElement) throws SAXException {
+		if (fReferencePayloads) {
+			addFailureReferences(testElement);
+			return;
+		}
 		FailureTrace failureTrace= testElement.getFailureTrace();
 		
 		if (testElement.isAssumptionFailure()) {
@@ -203,6 +219,32 @@ public class TestRunSessionSerializer implements XMLReader {
 		}
 	}
 
+	private void addFailureReferences(TestElement testElement) throws SAXException {
+		long trace= testElement.getTraceReference();
+		Result testResult= testElement.getTestResult(false);
+		if (testElement.isAssumptionFailure()) {
+			AttributesImpl atts= new AttributesImpl();
+			addReference(atts, IXMLTags.ATTR_TRACE_REF, trace);
+			startElement(IXMLTags.NODE_SKIPPED, atts);
+			endElement(IXMLTags.NODE_SKIPPED);
+
+		} else if (testResult == Result.ERROR || testResult == Result.FAILURE
+				|| (testResult == Result.IGNORED && trace != TestPayloadStore.NONE)) {
+			AttributesImpl atts= new AttributesImpl();
+			addReference(atts, IXMLTags.ATTR_TRACE_REF, trace);
+			addReference(atts, IXMLTags.ATTR_EXPECTED_REF, testElement.getExpectedReference());
+			addReference(atts, IXMLTags.ATTR_ACTUAL_REF, testElement.getActualReference());
+			String failureKind= testResult == Result.ERROR ? IXMLTags.NODE_ERROR : IXMLTags.NODE_FAILURE;
+			startElement(failureKind, atts);
+			endElement(failureKind);
+		}
+	}
+
+	private static void addReference(AttributesImpl atts, String name, long reference) {
+		if (reference != TestPayloadStore.NONE)
+			addCDATA(atts, name, Long.toString(reference));
+	}
+
 	private void startElement(String name, Attributes atts) throws SAXException {
 		fHandler.startElement(EMPTY, name, name, atts);
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -89,8 +89,8 @@ public class TestSuiteElement extends TestElement implements ITestSuiteElement {
 
 	public void childChangedStatus(TestElement child, Status childStatus) {
 		int childCount= fChildren.size();
-		if (child == fChildren.get(0) && childStatus.isRunning()) {
-			// is first child, and is running -> copy status
+		if (childStatus.isRunning() && (child == fChildren.get(0) || fChildrenStatus == null || fChildrenStatus.isNotRun())) {
+			// is first child (or first started child of a parallel run), and is running -> copy status
 			internalSetChildrenStatus(childStatus);
 			return;
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -44,6 +44,7 @@ import org.eclipse.jdt.core.search.SearchRequestor;
 
 import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
 import org.eclipse.jdt.internal.junit.launcher.ITestKind;
+import org.eclipse.jdt.internal.junit.launcher.TestDiscoveryIndex;
 import org.eclipse.jdt.internal.junit.launcher.TestKindRegistry;
 
 
@@ -54,6 +55,9 @@ public class CoreTestSearchEngine {
 
 	public static boolean isTestOrTestSuite(IType declaringType) throws CoreException {
 		ITestKind testKind= TestKindRegistry.getContainerTestKind(declaringType);
+		Boolean indexed= TestDiscoveryIndex.isIndexedTest(testKind.getId(), declaringType);
+		if (indexed != null)
+			return indexed.booleanValue();
 		return testKind.getFinder().isTest(declaringType);
 	}
 
@@ -157,6 +161,22 @@ public class CoreTestSearchEngine {
 		return false;
 	}
 
+	/**
+	 * Tells whether the JUnit Jupiter version on the class path of the given project executes test
+	 * classes in parallel, as requested by a launch with parallel execution.
+	 *
+	 * @param project the project
+	 * @return <code>true</code> if JUnit Jupiter 5.4 or later is on the class path
+	 */
+	public static boolean hasJUnit5ParallelExecutionSupport(IJavaProject project) {
+		try {
+			return project != null && project.findType(JUnitCorePlugin.JUNIT5_JUPITER_METHOD_ORDERER_NAME) != null;
+		} catch (JavaModelException e) {
+			// not available
+		}
+		return false;
+	}
+
 	public static boolean isTestImplementor(IType type) throws JavaModelException {
 		ITypeHierarchy typeHier= type.newSupertypeHierarchy(null);
 		IType[] superInterfaces= typeHier.getAllInterfaces();
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.runner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Sends messages in the binary protocol described in
+ * {@link MessageIds#BINARY_PROTOCOL_HEADER}.
+ * <p>
+ * Messages are collected in frames. A frame is sent when it is full, or when it
+ * has been flushed and no frame has been sent for {@link #FLUSH_DELAY} ms. Frames
+ * of fast running tests are hence batched, while a pending flush is sent by a
+ * background thread at the latest after {@link #FLUSH_DELAY} ms. Large frames,
+ * e.g. with stack traces, are compressed.
+ * </p>
+ * <p>
+ * Like a {@link java.io.PrintWriter}, the sender never throws
+ * {@link IOException}s. Once writing failed, all further messages are dropped.
+ * </p>
+ */
+public class BinaryMessageSender implements MessageSender {
+
+	/**
+	 * Maximum delay in ms before a flushed message is sent.
+	 */
+	public static final int FLUSH_DELAY= 50;
+
+	private static final int FRAME_SIZE= 32 * 1024;
+	private static final int COMPRESSION_THRESHOLD= 1024;
+
+	private final DataOutputStream fOutput;
+	private final ByteArrayOutputStream fFrame= new ByteArrayOutputStream(FRAME_SIZE);
+	private final DataOutputStream fFrameOutput= new DataOutputStream(fFrame);
+	private final ByteArrayOutputStream fCompressed= new ByteArrayOutputStream(FRAME_SIZE);
+	private final Deflater fDeflater= new Deflater(Deflater.BEST_SPEED);
+
+	private long fLastFrameTime;
+	private boolean fFlushPending= false;
+	private boolean fClosed= false;
+	private boolean fError= false;
+
+	private final Thread fFlushThread= new Thread("BinaryMessageSender") { //$NON-NLS-1$
+		public void run() {
+			synchronized (BinaryMessageSender.this) {
+				while (!fClosed) {
+					if (fFlushPending)
+						sendFrame();
+					try {
+						BinaryMessageSender.this.wait(FLUSH_DELAY);
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+			}
+		}
+	};
+
+	/**
+	 * Creates a sender and writes the protocol header.
+	 *
+	 * @param output the stream to write to
+	 * @throws IOException if the header cannot be written
+	 */
+	public BinaryMessageSender(OutputStream output) throws IOException {
+		fOutput= new DataOutputStream(output);
+		fOutput.writeInt(MessageIds.BINARY_PROTOCOL_HEADER);
+		fOutput.writeInt(MessageIds.BINARY_PROTOCOL_VERSION);
+		fOutput.flush();
+		fLastFrameTime= System.currentTimeMillis();
+		fFlushThread.setDaemon(true);
+		fFlushThread.start();
+	}
+
+	/*
+	 * @see org.eclipse.jdt.internal.junit.runner.MessageSender#sendMessage(java.lang.String)
+	 */
+	public synchronized void sendMessage(String msg) {
+		if (fClosed || fError)
+			return;
+		try {
+			byte[] bytes;
+			try {
+				bytes= msg.getBytes("UTF-8"); //$NON-NLS-1$
+			} catch (UnsupportedEncodingException e) {
+				bytes= msg.getBytes();
+			}
+			fFrameOutput.writeInt(bytes.length);
+			fFrameOutput.write(bytes);
+		} catch (IOException e) {
+			fError= true; // cannot happen for a ByteArrayOutputStream
+		}
+		if (fFrame.size() >= FRAME_SIZE)
+			sendFrame();
+	}
+
+	/*
+	 * @see org.eclipse.jdt.internal.junit.runner.MessageSender#flush()
+	 */
+	public synchronized void flush() {
+		if (fClosed || fFrame.size() == 0)
+			return;
+		if (System.currentTimeMillis() - fLastFrameTime >= FLUSH_DELAY)
+			sendFrame();
+		else
+			fFlushPending= true;
+	}
+
+	/**
+	 * Sends all pending messages and stops the background thread. The underlying
+	 * stream is not closed.
+	 */
+	public synchronized void close() {
+		if (fClosed)
+			return;
+		sendFrame();
+		fClosed= true;
+		fDeflater.end();
+		notifyAll();
+	}
+
+	private void sendFrame() {
+		fFlushPending= false;
+		if (fError || fFrame.size() == 0)
+			return;
+		try {
+			int flags= 0;
+			if (fFrame.size() >= COMPRESSION_THRESHOLD) {
+				fCompressed.reset();
+				fDeflater.reset();
+				DeflaterOutputStream deflaterOutput= new DeflaterOutputStream(fCompressed, fDeflater);
+				fFrame.writeTo(deflaterOutput);
+				deflaterOutput.finish();
+				if (fCompressed.size() < fFrame.size())
+					flags|= MessageIds.BINARY_FRAME_COMPRESSED;
+			}
+			ByteArrayOutputStream payload= (flags & MessageIds.BINARY_FRAME_COMPRESSED) != 0 ? fCompressed : fFrame;
+			fOutput.writeInt(payload.size());
+			fOutput.writeByte(flags);
+			payload.writeTo(fOutput);
+			fOutput.flush();
+		} catch (IOException e) {
+			fError= true;
+		} finally {
+			fFrame.reset();
+			fLastFrameTime= System.currentTimeMillis();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2017 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -30,13 +30,18 @@ public class FirstRunExecutionListener implements IListensToTestExecutions {
 	}
 
 	public void notifyTestFailed(TestReferenceFailure failure) {
-		sendMessage(failure.getTest(), failure.getStatus());
-		sendFailure(failure, MessageIds.TRACE_START, MessageIds.TRACE_END);
+		// don't interleave the messages of failures reported by parallel threads
+		synchronized (fSender) {
+			sendMessage(failure.getTest(), failure.getStatus());
+			sendFailure(failure, MessageIds.TRACE_START, MessageIds.TRACE_END);
+		}
 	}
 
 	public void notifyTestStarted(ITestIdentifier test) {
-		sendMessage(test, MessageIds.TEST_START);
-		fSender.flush();
+		synchronized (fSender) {
+			sendMessage(test, MessageIds.TEST_START);
+			fSender.flush();
+		}
 	}
 
 	private String getTestId(ITestIdentifier test) {
@@ -45,14 +50,16 @@ public class FirstRunExecutionListener implements IListensToTestExecutions {
 
 	protected void sendFailure(TestReferenceFailure failure, String startTrace,
 			String endTrace) {
-		FailedComparison comparison = failure.getComparison();
-		if (comparison != null)
-			comparison.sendMessages(fSender);
-
-		fSender.sendMessage(startTrace);
-		fSender.sendMessage(failure.getTrace());
-		fSender.sendMessage(endTrace);
-		fSender.flush();
+		synchronized (fSender) {
+			FailedComparison comparison = failure.getComparison();
+			if (comparison != null)
+				comparison.sendMessages(fSender);
+
+			fSender.sendMessage(startTrace);
+			fSender.sendMessage(failure.getTrace());
+			fSender.sendMessage(endTrace);
+			fSender.flush();
+		}
 	}
 
 	private void sendMessage(ITestIdentifier test, String status) {
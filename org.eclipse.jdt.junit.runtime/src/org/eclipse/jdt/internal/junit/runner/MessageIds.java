@@ -128,6 +128,27 @@ public class MessageIds {
 	 */
 	public static final String TEST_RERUN=	">RERUN  "; //$NON-NLS-1$
 
+	/**
+	 * Header of the binary protocol, sent as the first four bytes instead of
+	 * the first line of the text protocol. Since the first byte is 0, it cannot
+	 * be confused with a text message.<br>
+	 * BINARY_PROTOCOL_HEADER + BINARY_PROTOCOL_VERSION, followed by frames of:
+	 * int length + byte flags + payload<br>
+	 * payload = (int length + UTF-8 encoded message)*, deflated if flags
+	 * contains BINARY_FRAME_COMPRESSED
+	 *
+	 * @see BinaryMessageSender
+	 */
+	public static final int BINARY_PROTOCOL_HEADER= 0x004A5550; // "\0JUP"
+	/**
+	 * Version of the binary protocol.
+	 */
+	public static final int BINARY_PROTOCOL_VERSION= 1;
+	/**
+	 * Frame flag of a deflated payload.
+	 */
+	public static final int BINARY_FRAME_COMPRESSED= 0x01;
+
 	/**
 	 * MessageFormat to encode test method identifiers:
 	 * testMethod(testClass)
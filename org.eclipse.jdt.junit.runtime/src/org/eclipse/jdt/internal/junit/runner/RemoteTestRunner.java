@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.junit.runner;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
@@ -87,6 +88,11 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * Print writer for sending messages
 	 */
 	private PrintWriter fWriter;
+	/**
+	 * Sender for messages in the binary protocol, or <code>null</code> if the
+	 * text protocol is used
+	 */
+	private BinaryMessageSender fBinarySender;
 	/**
 	 * Reader for incoming messages
 	 */
@@ -108,6 +114,14 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * This allows to rerun tests.
 	 */
 	private boolean fKeepAlive= false;
+	/**
+	 * Send messages in the binary protocol instead of the text protocol.
+	 */
+	private boolean fBinaryProtocol= false;
+	/**
+	 * Let the test loader execute tests in parallel, if supported.
+	 */
+	private boolean fParallelExecution= false;
 	/**
 	 * Has the server been stopped
 	 */
@@ -197,6 +211,8 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * -host: the host to connect to default local host
 	 * -port: the port to connect to, mandatory argument
 	 * -keepalive: keep the process alive after a test run
+	 * -binaryprotocol: send the messages in the binary protocol
+	 * -parallel: execute tests in parallel if the test loader supports it
      * </pre>
      */
 	public static void main(String[] args) {
@@ -296,6 +312,12 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 			else if(args[i].toLowerCase().equals("-keepalive")) { //$NON-NLS-1$
 				fKeepAlive= true;
 			}
+			else if(args[i].toLowerCase().equals("-binaryprotocol")) { //$NON-NLS-1$
+				fBinaryProtocol= true;
+			}
+			else if(args[i].toLowerCase().equals("-parallel")) { //$NON-NLS-1$
+				fParallelExecution= true;
+			}
 			else if(args[i].toLowerCase().equals("-debugging") || args[i].toLowerCase().equals("-debug")){ //$NON-NLS-1$ //$NON-NLS-2$
 			    fDebugMode= true;
 
@@ -650,11 +672,15 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 		for (int i= 1; i < 20; i++) {
 			try{
 				fClientSocket= new Socket(fHost, fPort);
-				try {
-				    fWriter= new PrintWriter(new BufferedWriter(new OutputStreamWriter(fClientSocket.getOutputStream(), "UTF-8")), false/*true*/); //$NON-NLS-1$
-	            } catch (UnsupportedEncodingException e1) {
-	                fWriter= new PrintWriter(new BufferedWriter(new OutputStreamWriter(fClientSocket.getOutputStream())), false/*true*/);
-	            }
+				if (fBinaryProtocol) {
+					fBinarySender= new BinaryMessageSender(new BufferedOutputStream(fClientSocket.getOutputStream()));
+				} else {
+					try {
+					    fWriter= new PrintWriter(new BufferedWriter(new OutputStreamWriter(fClientSocket.getOutputStream(), "UTF-8")), false/*true*/); //$NON-NLS-1$
+		            } catch (UnsupportedEncodingException e1) {
+		                fWriter= new PrintWriter(new BufferedWriter(new OutputStreamWriter(fClientSocket.getOutputStream())), false/*true*/);
+		            }
+				}
 				try {
 				    fReader= new BufferedReader(new InputStreamReader(fClientSocket.getInputStream(), "UTF-8")); //$NON-NLS-1$
                 } catch (UnsupportedEncodingException e1) {
@@ -679,6 +705,10 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * Shutsdown the connection to the remote test listener.
 	 */
 	private void shutDown() {
+		if (fBinarySender != null) {
+			fBinarySender.close();
+			fBinarySender= null;
+		}
 		if (fWriter != null) {
 			fWriter.close();
 			fWriter= null;
@@ -713,7 +743,11 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	/*
 	 * @see org.eclipse.jdt.internal.junit.runner.MessageSender#sendMessage(java.lang.String)
 	 */
-	public void sendMessage(String msg) {
+	public synchronized void sendMessage(String msg) {
+		if (fBinarySender != null) {
+			fBinarySender.sendMessage(msg);
+			return;
+		}
 		if(fWriter == null)
 			return;
 		fWriter.println(msg);
@@ -752,7 +786,11 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 		}
 	}
 
-	public void flush() {
+	public synchronized void flush() {
+		if (fBinarySender != null) {
+			fBinarySender.flush();
+			return;
+		}
 	    fWriter.flush();
 	}
 
@@ -760,6 +798,17 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 		runTests(fTestClassNames, fTestName, execution);
 	}
 
+	/**
+	 * Tells whether tests should be executed in parallel. Test loaders that support it
+	 * may report the tests of several threads at the same time. Messages are sent
+	 * atomically, and the messages of a failure are sent as one block.
+	 *
+	 * @return <code>true</code> if the <code>-parallel</code> argument has been passed
+	 */
+	public boolean isParallelExecution() {
+		return fParallelExecution;
+	}
+
 	public ITestLoader getTestLoader() {
 		return fLoader;
 	}
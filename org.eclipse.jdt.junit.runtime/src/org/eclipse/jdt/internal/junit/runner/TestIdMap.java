@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,7 +20,7 @@ public class TestIdMap {
 
 	private int fNextId= 1;
 
-	public String getTestId(ITestIdentifier identifier) {
+	public synchronized String getTestId(ITestIdentifier identifier) {
 		Object id= fIdMap.get(identifier);
 		if (id != null)
 			return (String) id;
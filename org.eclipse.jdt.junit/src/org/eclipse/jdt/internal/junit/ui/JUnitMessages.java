@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -135,6 +135,10 @@ public final class JUnitMessages extends NLS {
 
 	public static String JUnitLaunchConfigurationTab_label_keeprunning;
 
+	public static String JUnitLaunchConfigurationTab_label_parallel;
+
+	public static String JUnitLaunchConfigurationTab_warning_parallel_unsupported;
+
 	public static String JUnitLaunchConfigurationTab_label_method;
 
 	public static String JUnitLaunchConfigurationTab_label_oneTest;
@@ -304,6 +308,7 @@ public final class JUnitMessages extends NLS {
 	public static String TestRunnerViewPart_Launching;
 	public static String TestRunnerViewPart_message_finish;
 	public static String TestRunnerViewPart_message_started;
+	public static String TestRunnerViewPart_message_started_parallel;
 	public static String TestRunnerViewPart_message_stopped;
 	public static String TestRunnerViewPart_message_terminated;
 	public static String TestRunnerViewPart_rerunaction_label;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -164,6 +164,11 @@ public class TestRunnerViewPart extends ViewPart {
 	private static final String RERUN_FAILED_FIRST_COMMAND= "org.eclipse.jdt.junit.junitShortcut.rerunFailedFirst"; //$NON-NLS-1$
 
 	static final int REFRESH_INTERVAL= 200;
+	/**
+	 * Refresh interval while the test viewer has a backlog of updates, which it
+	 * processes in bounded batches.
+	 */
+	static final int BACKLOG_REFRESH_INTERVAL= 20;
 
 	static final int LAYOUT_FLAT= 0;
 	static final int LAYOUT_HIERARCHICAL= 1;
@@ -795,7 +800,12 @@ public class TestRunnerViewPart extends ViewPart {
 
 			String className= BasicElementLabels.getJavaElementName(testCaseElement.getClassName());
 			String method= BasicElementLabels.getJavaElementName(testCaseElement.getTestMethodName());
-			String status= Messages.format(JUnitMessages.TestRunnerViewPart_message_started, new String[] { className, method });
+			int othersRunning= ((TestRunSession) testCaseElement.getTestRunSession()).getRunningTests().length - 1;
+			String status;
+			if (othersRunning > 0)
+				status= Messages.format(JUnitMessages.TestRunnerViewPart_message_started_parallel, new String[] { className, method, Integer.toString(othersRunning) });
+			else
+				status= Messages.format(JUnitMessages.TestRunnerViewPart_message_started, new String[] { className, method });
 			registerInfoMessage(status);
 		}
 
@@ -852,20 +862,21 @@ public class TestRunnerViewPart extends ViewPart {
 		}
 		@Override
 		public IStatus runInUIThread(IProgressMonitor monitor) {
-			if (!isDisposed()) {
-				processChangesInUI();
+			if (isDisposed())
+				return Status.OK_STATUS;
+			processChangesInUI();
+			if (fTestViewer.hasPendingUpdates()) {
+				// also drain the backlog after the job has been stopped
+				schedule(BACKLOG_REFRESH_INTERVAL);
+			} else if (fRunning) {
+				schedule(REFRESH_INTERVAL);
 			}
-			schedule(REFRESH_INTERVAL);
 			return Status.OK_STATUS;
 		}
 
 		public void stop() {
 			fRunning= false;
 		}
-		@Override
-		public boolean shouldSchedule() {
-			return fRunning;
-		}
 	}
 
 	private class JUnitIsRunningJob extends Job {
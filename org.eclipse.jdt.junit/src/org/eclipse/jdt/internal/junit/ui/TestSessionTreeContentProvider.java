@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,9 @@
 
 package org.eclipse.jdt.internal.junit.ui;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.Viewer;
 
@@ -23,15 +26,29 @@ public class TestSessionTreeContentProvider implements ITreeContentProvider {
 
 	private final Object[] NO_CHILDREN= new Object[0];
 
+	/**
+	 * The children of suites, cached until the next input change. The virtual tree asks for the
+	 * children of a suite whenever one of its items is shown, and {@link TestSuiteElement#getChildren()}
+	 * copies the children. New tests are only shown after the input has been set again.
+	 */
+	private final Map<TestSuiteElement, Object[]> fChildren= new HashMap<>();
+
 	@Override
 	public void dispose() {
+		fChildren.clear();
 	}
 
 	@Override
 	public Object[] getChildren(Object parentElement) {
-		if (parentElement instanceof TestSuiteElement)
-			return ((TestSuiteElement) parentElement).getChildren();
-		else
+		if (parentElement instanceof TestSuiteElement) {
+			TestSuiteElement suite= (TestSuiteElement) parentElement;
+			Object[] children= fChildren.get(suite);
+			if (children == null) {
+				children= suite.getChildren();
+				fChildren.put(suite, children);
+			}
+			return children;
+		} else
 			return NO_CHILDREN;
 	}
 
@@ -48,12 +65,13 @@ public class TestSessionTreeContentProvider implements ITreeContentProvider {
 	@Override
 	public boolean hasChildren(Object element) {
 		if (element instanceof TestSuiteElement)
-			return ((TestSuiteElement) element).getChildren().length != 0;
+			return getChildren(element).length != 0;
 		else
 			return false;
 	}
 
 	@Override
 	public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+		fChildren.clear();
 	}
 }
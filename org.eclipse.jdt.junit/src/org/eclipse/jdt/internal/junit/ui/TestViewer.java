@@ -16,12 +16,16 @@
 package org.eclipse.jdt.internal.junit.ui;
 
 import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.junit.model.ITestElement;
@@ -34,7 +38,6 @@ import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Menu;
-import org.eclipse.swt.widgets.TableItem;
 
 import org.eclipse.core.runtime.CoreException;
 
@@ -175,6 +178,13 @@ public class TestViewer {
 		}
 	}
 
+	/**
+	 * Maximum number of queued element updates that are processed in one
+	 * {@link #processChangesInUI()} pass. Keeps the UI responsive when tests
+	 * finish faster than the viewers can be updated.
+	 */
+	private static final int MAX_UPDATES_PER_PASS= 1000;
+
 	private final FailuresOnlyFilter fFailuresOnlyFilter= new FailuresOnlyFilter();
 	private final IgnoredOnlyFilter fIgnoredOnlyFilter= new IgnoredOnlyFilter();
 
@@ -198,7 +208,16 @@ public class TestViewer {
 
 	private boolean fTreeNeedsRefresh;
 	private boolean fTableNeedsRefresh;
-	private HashSet<TestElement> fNeedUpdate;
+	/**
+	 * Elements whose labels need to be updated, in the order of their first change. Filled by the
+	 * test run threads without locking and drained by the UI thread.
+	 */
+	private final Queue<TestElement> fUpdateQueue= new ConcurrentLinkedQueue<>();
+	/**
+	 * The elements in {@link #fUpdateQueue}. An element that changes again before it has been
+	 * updated is not queued twice.
+	 */
+	private final Set<TestElement> fQueuedUpdates= ConcurrentHashMap.newKeySet();
 	private TestCaseElement fAutoScrollTarget;
 
 	private LinkedList<TestSuiteElement> fAutoClose;
@@ -221,14 +240,15 @@ public class TestViewer {
 	private void createTestViewers(Composite parent) {
 		fViewerbook= new PageBook(parent, SWT.NULL);
 
-		fTreeViewer= new TreeViewer(fViewerbook, SWT.V_SCROLL | SWT.SINGLE);
+		// virtual viewers only create the items that are visible, which matters for runs with many tests
+		fTreeViewer= new TreeViewer(fViewerbook, SWT.V_SCROLL | SWT.SINGLE | SWT.VIRTUAL);
 		fTreeViewer.setUseHashlookup(true);
 		fTreeContentProvider= new TestSessionTreeContentProvider();
 		fTreeViewer.setContentProvider(fTreeContentProvider);
 		fTreeLabelProvider= new TestSessionLabelProvider(fTestRunnerPart, TestRunnerViewPart.LAYOUT_HIERARCHICAL);
 		fTreeViewer.setLabelProvider(new ColoringLabelProvider(fTreeLabelProvider));
 
-		fTableViewer= new TableViewer(fViewerbook, SWT.V_SCROLL | SWT.H_SCROLL | SWT.SINGLE);
+		fTableViewer= new TableViewer(fViewerbook, SWT.V_SCROLL | SWT.H_SCROLL | SWT.SINGLE | SWT.VIRTUAL);
 		fTableViewer.setUseHashlookup(true);
 		fTableContentProvider= new TestSessionTableContentProvider();
 		fTableViewer.setContentProvider(fTableContentProvider);
@@ -607,92 +627,48 @@ public class TestViewer {
 			viewer.setInput(testRoot);
 
 		} else {
-			Object[] toUpdate;
-			synchronized (this) {
-				toUpdate= fNeedUpdate.toArray();
-				fNeedUpdate.clear();
-			}
-			if (! fTreeNeedsRefresh && toUpdate.length > 0) {
-				if (fTreeHasFilter)
-					for (Object element : toUpdate)
-						updateElementInTree((TestElement) element);
-				else {
-					HashSet<Object> toUpdateWithParents= new HashSet<>();
-					toUpdateWithParents.addAll(Arrays.asList(toUpdate));
-					for (Object element : toUpdate) {
-						TestElement parent= ((TestElement) element).getParent();
-						while (parent != null) {
-							toUpdateWithParents.add(parent);
-							parent= parent.getParent();
-						}
+			List<TestElement> toUpdate= pollUpdates();
+			if (! fTreeNeedsRefresh && toUpdate.size() > 0) {
+				HashSet<Object> toUpdateWithParents= new HashSet<>(toUpdate);
+				for (TestElement element : toUpdate) {
+					TestElement parent= element.getParent();
+					while (parent != null && toUpdateWithParents.add(parent)) {
+						parent= parent.getParent();
 					}
-					fTreeViewer.update(toUpdateWithParents.toArray(), null);
 				}
+				if (fTreeHasFilter) {
+					// items of a virtual tree are not known before they are shown, so let the viewer
+					// add and remove filtered elements, but only update the labels of the batch
+					fTreeViewer.refresh(false);
+				}
+				fTreeViewer.update(toUpdateWithParents.toArray(), null);
 			}
-			if (! fTableNeedsRefresh && toUpdate.length > 0) {
+			if (! fTableNeedsRefresh && toUpdate.size() > 0) {
 				if (fTableHasFilter)
-					for (Object element : toUpdate)
-						updateElementInTable((TestElement) element);
-				else
-					fTableViewer.update(toUpdate, null);
+					fTableViewer.refresh(false);
+				fTableViewer.update(toUpdate.toArray(), null);
 			}
 		}
 		autoScrollInUI();
 	}
 
-	private void updateElementInTree(final TestElement testElement) {
-		if (isShown(testElement)) {
-			updateShownElementInTree(testElement);
-		} else {
-			TestElement current= testElement;
-			do {
-				if (fTreeViewer.testFindItem(current) != null)
-					fTreeViewer.remove(current);
-				current= current.getParent();
-			} while (! (current instanceof TestRoot) && ! isShown(current));
-
-			while (current != null && ! (current instanceof TestRoot)) {
-				fTreeViewer.update(current, null);
-				current= current.getParent();
-			}
-		}
-	}
-
-	private void updateShownElementInTree(TestElement testElement) {
-		if (testElement == null || testElement instanceof TestRoot) // paranoia null check
-			return;
-
-		TestSuiteElement parent= testElement.getParent();
-		updateShownElementInTree(parent); // make sure parent is shown and up-to-date
-
-		if (fTreeViewer.testFindItem(testElement) == null) {
-			fTreeViewer.add(parent, testElement); // if not yet in tree: add
-		} else {
-			fTreeViewer.update(testElement, null); // if in tree: update
-		}
+	/**
+	 * @return <code>true</code> if there are element updates that have not been processed by
+	 *         {@link #processChangesInUI()} yet
+	 */
+	public boolean hasPendingUpdates() {
+		return ! fUpdateQueue.isEmpty();
 	}
 
-	private void updateElementInTable(TestElement element) {
-		if (isShown(element)) {
-			if (fTableViewer.testFindItem(element) == null) {
-				TestElement previous= getNextFailure(element, false);
-				int insertionIndex= -1;
-				if (previous != null) {
-					TableItem item= (TableItem) fTableViewer.testFindItem(previous);
-					if (item != null)
-						insertionIndex= fTableViewer.getTable().indexOf(item);
-				}
-				fTableViewer.insert(element, insertionIndex);
-			} else  {
-				fTableViewer.update(element, null);
-			}
-		} else {
-			fTableViewer.remove(element);
+	private List<TestElement> pollUpdates() {
+		List<TestElement> toUpdate= new ArrayList<>();
+		TestElement element;
+		while (toUpdate.size() < MAX_UPDATES_PER_PASS && (element= fUpdateQueue.poll()) != null) {
+			// a change after this point queues the element again:
+			fQueuedUpdates.remove(element);
+			toUpdate.add(element);
 		}
-	}
-
-	private boolean isShown(TestElement current) {
-		return fFailuresOnlyFilter.select(current);
+		return toUpdate;
 	}
 
 	private void autoScrollInUI() {
@@ -827,7 +803,9 @@ public class TestViewer {
 	}
 
 	private void clearUpdateAndExpansion() {
-		fNeedUpdate= new LinkedHashSet<>();
+		// clear the queue first, so that no element stays marked as queued:
+		fUpdateQueue.clear();
+		fQueuedUpdates.clear();
 		fAutoClose= new LinkedList<>();
 		fAutoExpand= new HashSet<>();
 	}
@@ -841,8 +819,9 @@ public class TestViewer {
 		fTableNeedsRefresh= true;
 	}
 
-	public synchronized void registerViewerUpdate(final TestElement testElement) {
-		fNeedUpdate.add(testElement);
+	public void registerViewerUpdate(final TestElement testElement) {
+		if (fQueuedUpdates.add(testElement))
+			fUpdateQueue.add(testElement);
 	}
 
 	private synchronized void clearAutoExpand() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -140,6 +140,7 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 	private Text fProjText;
 	private Button fProjButton;
 	private Button fKeepRunning;
+	private Button fParallelExecution;
 
 	// Test class UI widgets
 	private Text fTestText;
@@ -199,6 +200,9 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 		createSpacer(comp);
 
 		createKeepAliveGroup(comp);
+		createSpacer(comp);
+
+		createParallelExecutionGroup(comp);
 		Dialog.applyDialogFont(comp);
 		PlatformUI.getWorkbench().getHelpSystem().setHelp(getControl(), IJUnitHelpContextIds.LAUNCH_CONFIGURATION_DIALOG_JUNIT_MAIN_TAB);
 		validatePage();
@@ -268,6 +272,7 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 				if (first instanceof ITestKind) {
 					boolean isJUnit5= TestKindRegistry.JUNIT5_TEST_KIND_ID.equals(((ITestKind) first).getId());
 					fIncludeExcludeTagsButton.setEnabled(isJUnit5);
+					fParallelExecution.setEnabled(isJUnit5);
 				}
 			}
 		}
@@ -458,6 +463,27 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 		fKeepRunning.setLayoutData(gd);
 	}
 
+	private void createParallelExecutionGroup(Composite comp) {
+		GridData gd;
+		fParallelExecution= new Button(comp, SWT.CHECK);
+		fParallelExecution.addSelectionListener(new SelectionListener() {
+			@Override
+			public void widgetSelected(SelectionEvent e) {
+				validatePage();
+				updateLaunchConfigurationDialog();
+			}
+
+			@Override
+			public void widgetDefaultSelected(SelectionEvent e) {
+			}
+		});
+		fParallelExecution.setText(JUnitMessages.JUnitLaunchConfigurationTab_label_parallel);
+		gd= new GridData();
+		gd.horizontalAlignment= GridData.FILL;
+		gd.horizontalSpan= 2;
+		fParallelExecution.setLayoutData(gd);
+	}
+
 	private static Image createImage(String path) {
 		return JUnitPlugin.getImageDescriptor(path).createImage();
 	}
@@ -478,6 +504,7 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 		else
 			updateTestTypeFromConfig(config);
 		updateKeepRunning(config);
+		updateParallelExecution(config);
 		updateTestLoaderFromConfig(config);
 
 		validatePage();
@@ -505,6 +532,15 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 		fKeepRunning.setSelection(running);
 	}
 
+	private void updateParallelExecution(ILaunchConfiguration config) {
+		boolean parallel= false;
+		try {
+			parallel= config.getAttribute(JUnitLaunchConfigurationConstants.ATTR_PARALLEL_EXECUTION, false);
+		} catch (CoreException ce) {
+		}
+		fParallelExecution.setSelection(parallel);
+	}
+
 	private void updateProjectFromConfig(ILaunchConfiguration config) {
 		String projectName= ""; //$NON-NLS-1$
 		try {
@@ -567,6 +603,7 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 			config.setAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_NAME, fTestMethodText.getText());
 		}
 		config.setAttribute(JUnitLaunchConfigurationConstants.ATTR_KEEPRUNNING, fKeepRunning.getSelection());
+		config.setAttribute(JUnitLaunchConfigurationConstants.ATTR_PARALLEL_EXECUTION, fParallelExecution.getSelection());
 		try {
 			mapResources(config);
 		} catch (CoreException e) {
@@ -1025,6 +1062,9 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 				setErrorMessage(Messages.format(msg, JUnitCorePlugin.JUNIT5_TESTABLE_ANNOTATION_NAME));
 				return;
 			}
+			if (TestKindRegistry.JUNIT5_TEST_KIND_ID.equals(testKind.getId()) && fParallelExecution.getSelection() && !CoreTestSearchEngine.hasJUnit5ParallelExecutionSupport(javaProject)) {
+				setMessage(JUnitMessages.JUnitLaunchConfigurationTab_warning_parallel_unsupported);
+			}
 		}
 
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2017 IBM Corporation and others.
+ * Copyright (c) 2016, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,7 +11,9 @@
 package org.eclipse.jdt.internal.junit5.runner;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.platform.engine.Filter;
 import org.junit.platform.engine.discovery.ClassNameFilter;
@@ -64,12 +66,12 @@ public class JUnit5TestLoader implements ITestLoader {
 	}
 
 	private ITestReference createFilteredTest(Class<?> clazz, String testName, String[][] includeExcludeTags) {
-		LauncherDiscoveryRequest request= LauncherDiscoveryRequestBuilder.request().selectors(DiscoverySelectors.selectMethod(clazz.getName() + "#" + testName)).filters(getTagFilters(includeExcludeTags)).build(); //$NON-NLS-1$
+		LauncherDiscoveryRequest request= createRequestBuilder().selectors(DiscoverySelectors.selectMethod(clazz.getName() + "#" + testName)).filters(getTagFilters(includeExcludeTags)).build(); //$NON-NLS-1$
 		return new JUnit5TestReference(request, fLauncher, fRemoteTestRunner);
 	}
 
 	private ITestReference createUnfilteredTest(Class<?> clazz, String[][] includeExcludeTags) {
-		LauncherDiscoveryRequest request= LauncherDiscoveryRequestBuilder.request().selectors(DiscoverySelectors.selectClass(clazz)).filters(getTagFilters(includeExcludeTags)).build();
+		LauncherDiscoveryRequest request= createRequestBuilder().selectors(DiscoverySelectors.selectClass(clazz)).filters(getTagFilters(includeExcludeTags)).build();
 		return new JUnit5TestReference(request, fLauncher, fRemoteTestRunner);
 	}
 
@@ -84,7 +86,7 @@ public class JUnit5TestLoader implements ITestLoader {
 		} else {
 			pattern= "^" + pkg + "\\.[^.]+$"; //$NON-NLS-1$//$NON-NLS-2$
 		}
-		LauncherDiscoveryRequest request= LauncherDiscoveryRequestBuilder.request()
+		LauncherDiscoveryRequest request= createRequestBuilder()
 				.selectors(DiscoverySelectors.selectPackage(pkg))
 				.filters(ClassNameFilter.includeClassNamePatterns(pattern))
 				.filters(getTagFilters(includeExcludeTags))
@@ -94,10 +96,25 @@ public class JUnit5TestLoader implements ITestLoader {
 	}
 
 	private ITestReference createUniqueIdTest(String uniqueId, String[][] includeExcludeTags) {
-		LauncherDiscoveryRequest request= LauncherDiscoveryRequestBuilder.request().selectors(DiscoverySelectors.selectUniqueId(uniqueId)).filters(getTagFilters(includeExcludeTags)).build();
+		LauncherDiscoveryRequest request= createRequestBuilder().selectors(DiscoverySelectors.selectUniqueId(uniqueId)).filters(getTagFilters(includeExcludeTags)).build();
 		return new JUnit5TestReference(request, fLauncher, fRemoteTestRunner);
 	}
 
+	private LauncherDiscoveryRequestBuilder createRequestBuilder() {
+		LauncherDiscoveryRequestBuilder builder= LauncherDiscoveryRequestBuilder.request();
+		if (fRemoteTestRunner.isParallelExecution()) {
+			// test classes are executed concurrently, the methods of a class sequentially
+			// (the mode of classes needs JUnit Jupiter 5.4, 5.3 runs everything in the same thread,
+			// and older versions ignore the parameters)
+			Map<String, String> parameters= new HashMap<>();
+			parameters.put("junit.jupiter.execution.parallel.enabled", "true"); //$NON-NLS-1$ //$NON-NLS-2$
+			parameters.put("junit.jupiter.execution.parallel.mode.default", "same_thread"); //$NON-NLS-1$ //$NON-NLS-2$
+			parameters.put("junit.jupiter.execution.parallel.mode.classes.default", "concurrent"); //$NON-NLS-1$ //$NON-NLS-2$
+			builder.configurationParameters(parameters);
+		}
+		return builder;
+	}
+
 	private Filter<?>[] getTagFilters(String[][] includeExcludeTags) {
 		String[] includeTags= includeExcludeTags[0];
 		String[] excludeTags= includeExcludeTags[1];
@@ -113,6 +113,15 @@ public class AbstractSemanticHighlightingTest extends TestCase {
 		}
 	}
 
+	protected IDocument getDocument() {
+		return fSourceViewer.getDocument();
+	}
+
+	protected void joinReconciler() {
+		assertTrue(EditorTestHelper.joinReconciler(fSourceViewer, 0, 10000, 100));
+		EditorTestHelper.runEventQueue(100);
+	}
+
 	protected Position createPosition(int line, int column, int length) throws BadLocationException {
 		IDocument document= fSourceViewer.getDocument();
 		return new Position(document.getLineOffset(line) + column, length);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2016 IBM Corporation and others.
+ * Copyright (c) 2011, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -22,6 +22,9 @@ import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
 
 import org.eclipse.jdt.ui.PreferenceConstants;
 import org.eclipse.jdt.ui.tests.core.Java18ProjectTestSetup;
@@ -31,6 +34,7 @@ import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
 import org.eclipse.jdt.internal.ui.search.ExceptionOccurrencesFinder;
 import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder;
 import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder.OccurrenceLocation;
+import org.eclipse.jdt.internal.core.manipulation.search.OccurrencesFinder;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -98,6 +102,27 @@ public class MarkOccurrenceTest18 extends TestCase {
 		}
 	}
 
+	private void checkOccurrences(CompilationUnit root, int offset, OccurrenceLocation[] expected) {
+		fFinder= new OccurrencesFinder();
+		String errorString= fFinder.initialize(root, offset, 0);
+		assertNull(errorString, errorString);
+		OccurrenceLocation[] occurrences= fFinder.getOccurrences();
+		assertEquals("number of occurrences", expected.length, occurrences.length);
+		sortByStartIndex(occurrences);
+		sortByStartIndex(expected);
+		for (int i= 0; i < occurrences.length; i++) {
+			assertEquals(expected[i].getOffset(), occurrences[i].getOffset());
+			assertEquals(expected[i].getLength(), occurrences[i].getLength());
+			assertEquals("flags of " + occurrences[i], expected[i].getFlags(), occurrences[i].getFlags());
+		}
+	}
+
+	private static OccurrenceLocation location(StringBuffer s, String context, String name, int flags) {
+		int offset= s.indexOf(context);
+		assertTrue("not found \"" + context + "\"", offset != -1);
+		return new OccurrenceLocation(offset + context.indexOf(name), name.length(), flags, "");
+	}
+
 	private void sortByStartIndex(OccurrenceLocation[] OccurrenceLocations) {
 		Arrays.sort(OccurrenceLocations, new Comparator<OccurrenceLocation>() {
 			@Override
@@ -256,4 +281,77 @@ public class MarkOccurrenceTest18 extends TestCase {
 		checkSelection(buf, offset, length, ranges);
 	}
 
+	private static StringBuffer createQualifiedNamesSource() {
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("\n");
+		buf.append("public class E {\n");
+		buf.append("    static int fCount;\n");
+		buf.append("    int fValue;\n");
+		buf.append("    static class Inner {\n");
+		buf.append("        static int fCount;\n");
+		buf.append("    }\n");
+		buf.append("    void foo(E e) {\n");
+		buf.append("        E.fCount= 1;\n");
+		buf.append("        test1.E.fCount++;\n");
+		buf.append("        e.fValue= E.fCount + Inner.fCount;\n");
+		buf.append("        Runnable r= () -> { fCount--; };\n");
+		buf.append("        int fValue= this.fValue;\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		return buf;
+	}
+
+	public void testFieldOccurrencesInQualifiedNames() throws Exception {
+		StringBuffer buf= createQualifiedNamesSource();
+		CompilationUnit root= createCompilationUnit(buf);
+
+		OccurrenceLocation[] ranges= {
+				location(buf, "static int fCount;\n    int", "fCount", IOccurrencesFinder.F_WRITE_OCCURRENCE),
+				location(buf, "E.fCount= 1", "fCount", IOccurrencesFinder.F_WRITE_OCCURRENCE),
+				location(buf, "test1.E.fCount++", "fCount", IOccurrencesFinder.F_WRITE_OCCURRENCE),
+				location(buf, "E.fCount + ", "fCount", IOccurrencesFinder.F_READ_OCCURRENCE),
+				location(buf, "fCount--", "fCount", IOccurrencesFinder.F_WRITE_OCCURRENCE) };
+		checkOccurrences(root, buf.indexOf("fCount"), ranges);
+
+		ranges= new OccurrenceLocation[] {
+				location(buf, "int fValue;\n    static", "fValue", IOccurrencesFinder.F_WRITE_OCCURRENCE),
+				location(buf, "e.fValue= ", "fValue", IOccurrencesFinder.F_WRITE_OCCURRENCE),
+				location(buf, "this.fValue", "fValue", IOccurrencesFinder.F_READ_OCCURRENCE) };
+		checkOccurrences(root, buf.indexOf("fValue"), ranges);
+	}
+
+	public void testTypeOccurrencesInQualifiedNames() throws Exception {
+		StringBuffer buf= createQualifiedNamesSource();
+		CompilationUnit root= createCompilationUnit(buf);
+
+		// the qualified type name is one occurrence, its simple name is not reported again
+		OccurrenceLocation[] ranges= {
+				location(buf, "class E", "E", 0),
+				location(buf, "E e)", "E", 0),
+				location(buf, "E.fCount= 1", "E", 0),
+				location(buf, "test1.E.fCount++", "test1.E", 0),
+				location(buf, "E.fCount + ", "E", 0) };
+		checkOccurrences(root, buf.indexOf("E e)"), ranges);
+	}
+
+	public void testOccurrencesAfterModification() throws Exception {
+		StringBuffer buf= createQualifiedNamesSource();
+		CompilationUnit root= createCompilationUnit(buf);
+
+		OccurrenceLocation[] ranges= {
+				location(buf, "int fValue;\n    static", "fValue", IOccurrencesFinder.F_WRITE_OCCURRENCE),
+				location(buf, "e.fValue= ", "fValue", IOccurrencesFinder.F_WRITE_OCCURRENCE),
+				location(buf, "this.fValue", "fValue", IOccurrencesFinder.F_READ_OCCURRENCE) };
+		checkOccurrences(root, buf.indexOf("fValue"), ranges);
+
+		// the occurrences are searched again in the modified AST
+		TypeDeclaration type= (TypeDeclaration) root.types().get(0);
+		MethodDeclaration method= type.getMethods()[0];
+		((Statement) method.getBody().statements().get(2)).delete();
+		ranges= new OccurrenceLocation[] {
+				location(buf, "int fValue;\n    static", "fValue", IOccurrencesFinder.F_WRITE_OCCURRENCE),
+				location(buf, "this.fValue", "fValue", IOccurrencesFinder.F_READ_OCCURRENCE) };
+		checkOccurrences(root, buf.indexOf("fValue"), ranges);
+	}
 }
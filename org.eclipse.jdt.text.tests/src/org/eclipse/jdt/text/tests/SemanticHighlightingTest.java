@@ -12,9 +12,13 @@
  *******************************************************************************/
 package org.eclipse.jdt.text.tests;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.Position;
 
 import org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlightings;
@@ -327,4 +331,32 @@ public class SemanticHighlightingTest extends AbstractSemanticHighlightingTest {
 		assertEqualPositions(expected, actual);
 	}
 
+	public void testIncrementalReconcile() throws Exception {
+		setUpSemanticHighlighting(SemanticHighlightings.FIELD);
+		Position[] original= getSemanticHighlightingPositions();
+
+		// an edit inside a method body only reconciles the positions of that body
+		IDocument document= getDocument();
+		String inserted= "\t\tfield++;\n";
+		int offset= createPosition(9, 0, 0).getOffset();
+		document.replace(offset, 0, inserted);
+		joinReconciler();
+
+		List<Position> expected= new ArrayList<>();
+		for (int i= 0; i < original.length; i++) {
+			if (original[i].getOffset() >= offset)
+				expected.add(new Position(original[i].getOffset() + inserted.length(), original[i].getLength()));
+			else
+				expected.add(new Position(original[i].getOffset(), original[i].getLength()));
+		}
+		int index= 0;
+		while (index < expected.size() && expected.get(index).getOffset() < offset)
+			index++;
+		expected.add(index, new Position(offset + 2, 5));
+		assertEqualPositions(expected.toArray(new Position[expected.size()]), getSemanticHighlightingPositions());
+
+		document.replace(offset, inserted.length(), "");
+		joinReconciler();
+		assertEqualPositions(original, getSemanticHighlightingPositions());
+	}
 }
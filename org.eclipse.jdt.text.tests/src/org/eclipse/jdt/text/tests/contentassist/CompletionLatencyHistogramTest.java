@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.contentassist;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.internal.ui.text.java.CompletionLatencyHistogram;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * @since 3.14
+ */
+public class CompletionLatencyHistogramTest extends TestCase {
+
+	public static Test suite() {
+		return new TestSuite(CompletionLatencyHistogramTest.class);
+	}
+
+	private static void record(CompletionLatencyHistogram histogram, long millis, int times) {
+		for (int i= 0; i < times; i++)
+			histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+	}
+
+	public void testEmpty() throws Exception {
+		CompletionLatencyHistogram histogram= new CompletionLatencyHistogram();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getPercentile(50));
+		assertEquals(0, histogram.getMax());
+	}
+
+	public void testBuckets() throws Exception {
+		CompletionLatencyHistogram histogram= new CompletionLatencyHistogram();
+		histogram.record(TimeUnit.MICROSECONDS.toNanos(999));
+		record(histogram, 1, 1);
+		record(histogram, 3, 1);
+		record(histogram, 4, 1);
+		record(histogram, 1023, 1);
+		record(histogram, 1024, 1);
+		record(histogram, TimeUnit.HOURS.toMillis(1), 1);
+
+		long[] buckets= histogram.getBuckets();
+		assertEquals(16, buckets.length);
+		assertEquals(1, buckets[0]); // < 1ms
+		assertEquals(1, buckets[1]); // < 2ms
+		assertEquals(1, buckets[2]); // < 4ms
+		assertEquals(1, buckets[3]); // < 8ms
+		assertEquals(1, buckets[10]); // < 1024ms
+		assertEquals(1, buckets[11]); // < 2048ms
+		assertEquals(1, buckets[15]); // all longer runs
+		long sum= 0;
+		for (int i= 0; i < buckets.length; i++)
+			sum+= buckets[i];
+		assertEquals(7, sum);
+		assertEquals(7, histogram.getCount());
+		assertEquals(TimeUnit.HOURS.toMillis(1), histogram.getMax());
+
+		// the returned buckets are a copy
+		buckets[0]= 42;
+		assertEquals(1, histogram.getBuckets()[0]);
+	}
+
+	public void testPercentiles() throws Exception {
+		CompletionLatencyHistogram histogram= new CompletionLatencyHistogram();
+		record(histogram, 0, 50);
+		record(histogram, 3, 40);
+		record(histogram, 100, 9);
+		record(histogram, TimeUnit.HOURS.toMillis(1), 1);
+
+		assertEquals(100, histogram.getCount());
+		assertEquals(1, histogram.getPercentile(0));
+		assertEquals(1, histogram.getPercentile(50));
+		assertEquals(4, histogram.getPercentile(51));
+		assertEquals(4, histogram.getPercentile(90));
+		assertEquals(128, histogram.getPercentile(91));
+		assertEquals(128, histogram.getPercentile(99));
+		assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+	}
+
+	public void testPercentileOfFewRuns() throws Exception {
+		CompletionLatencyHistogram histogram= new CompletionLatencyHistogram();
+		record(histogram, 5, 1);
+		record(histogram, 20, 2);
+
+		// the rank is rounded up: the 34th percentile of three runs is the second fastest run
+		assertEquals(8, histogram.getPercentile(33));
+		assertEquals(32, histogram.getPercentile(34));
+		assertEquals(32, histogram.getPercentile(50));
+		assertEquals(32, histogram.getPercentile(99));
+	}
+}
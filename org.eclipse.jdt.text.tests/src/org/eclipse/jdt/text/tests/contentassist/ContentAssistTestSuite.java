@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2017 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -39,6 +39,8 @@ public class ContentAssistTestSuite {
 		suite.addTest(CodeCompletionTest.suite());
 		suite.addTest(CodeCompletionTest18.suite());
 		suite.addTest(ContinuousTypingCompletionTest.suite());
+		suite.addTest(DeadlineProgressMonitorTest.suite());
+		suite.addTest(CompletionLatencyHistogramTest.suite());
 		//$JUnit-END$
 
 		return suite;
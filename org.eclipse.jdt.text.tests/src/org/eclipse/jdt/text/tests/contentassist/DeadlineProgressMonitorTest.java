@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.contentassist;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.jdt.internal.ui.text.java.DeadlineProgressMonitor;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * @since 3.14
+ */
+public class DeadlineProgressMonitorTest extends TestCase {
+
+	public static Test suite() {
+		return new TestSuite(DeadlineProgressMonitorTest.class);
+	}
+
+	public void testDeadlineNotReached() throws Exception {
+		DeadlineProgressMonitor monitor= new DeadlineProgressMonitor(new NullProgressMonitor(), System.nanoTime() + TimeUnit.HOURS.toNanos(1));
+		assertFalse(monitor.isExpired());
+		assertFalse(monitor.isCanceled());
+	}
+
+	public void testDeadlinePassed() throws Exception {
+		DeadlineProgressMonitor monitor= new DeadlineProgressMonitor(new NullProgressMonitor(), System.nanoTime() - 1);
+		assertTrue(monitor.isExpired());
+		assertTrue(monitor.isCanceled());
+	}
+
+	public void testDeadlineExpires() throws Exception {
+		DeadlineProgressMonitor monitor= new DeadlineProgressMonitor(new NullProgressMonitor(), System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50));
+		long timeout= System.currentTimeMillis() + 10000;
+		while (!monitor.isCanceled() && System.currentTimeMillis() < timeout)
+			Thread.sleep(10);
+		assertTrue(monitor.isExpired());
+		assertTrue(monitor.isCanceled());
+	}
+
+	public void testDeadlineAcrossOverflow() throws Exception {
+		// nanoTime values may wrap around, only their difference is meaningful
+		DeadlineProgressMonitor monitor= new DeadlineProgressMonitor(new NullProgressMonitor(), System.nanoTime() + Long.MAX_VALUE);
+		assertFalse(monitor.isExpired());
+	}
+
+	public void testWrappedMonitorCanceled() throws Exception {
+		NullProgressMonitor wrapped= new NullProgressMonitor();
+		DeadlineProgressMonitor monitor= new DeadlineProgressMonitor(wrapped, System.nanoTime() + TimeUnit.HOURS.toNanos(1));
+		wrapped.setCanceled(true);
+		assertFalse(monitor.isExpired());
+		assertTrue(monitor.isCanceled());
+	}
+}
@@ -37,8 +37,12 @@ import org.eclipse.ui.texteditor.spelling.SpellingService;
 
 import org.eclipse.ui.editors.text.EditorsUI;
 
+import org.eclipse.jdt.core.JavaCore;
+
 import org.eclipse.jdt.ui.PreferenceConstants;
 
+import org.eclipse.jdt.internal.ui.text.spelling.SpellingResultCache;
+
 
 /**
  * Measures the time to spell check a large compilation unit.
@@ -104,6 +108,46 @@ public class SpellCheckingTest extends TextPerformanceTestCase {
 		assertAllPerformance();
 	}
 
+	/**
+	 * Measures re-checking a Java document after an edit in a comment: only the edited partition
+	 * must be spell checked again.
+	 *
+	 * @throws Exception if something goes wrong
+	 */
+	public void testIncremental() throws Exception {
+		fSpellingContext.setContentType(Platform.getContentTypeManager().getContentType(JavaCore.JAVA_SOURCE_CONTENT_TYPE));
+		SpellingService spellingService= EditorsUI.getSpellingService();
+		SpellingProblemCollector collector= new SpellingProblemCollector(false);
+		SpellingResultCache.resetStatistics();
+		spellingService.check(fDocument, fSpellingContext, collector, null);
+		int problemCount= collector.fProblemCount;
+		int partitionCount= SpellingResultCache.getHitCount() + SpellingResultCache.getMissCount();
+		assertTrue(partitionCount > 1);
+
+		int offset= fDocument.get().indexOf("/**"); //$NON-NLS-1$
+		assertTrue(offset >= 0);
+		PerformanceMeter performanceMeter= createPerformanceMeter("Java Editor: Incremental spell checking");
+		SpellingResultCache.resetStatistics();
+		for (int i= 0; i < getMeasuredRuns(); i++) {
+			fDocument.replace(offset + 3, 0, " Speling"); //$NON-NLS-1$
+			performanceMeter.start();
+			spellingService.check(fDocument, fSpellingContext, collector, null);
+			performanceMeter.stop();
+			assertEquals(problemCount + 1, collector.fProblemCount);
+			fDocument.replace(offset + 3, 8, ""); //$NON-NLS-1$
+			spellingService.check(fDocument, fSpellingContext, collector, null);
+			assertEquals(problemCount, collector.fProblemCount);
+		}
+
+		// only the edited comment is checked again, once after each of the two edits per run
+		int checks= 2 * getMeasuredRuns();
+		assertEquals(checks, SpellingResultCache.getMissCount());
+		assertEquals(checks * (partitionCount - 1), SpellingResultCache.getHitCount());
+
+		commitAllMeasurements();
+		assertAllPerformance();
+	}
+
 	private void measure(PerformanceMeter performanceMeter, int runs, boolean printDebugInfo) {
 		SpellingService spellingService= EditorsUI.getSpellingService();
 		for (int i= 0; i < runs; i++) {
@@ -118,7 +162,7 @@ public class SpellCheckingTest extends TextPerformanceTestCase {
 	 */
 	private static class SpellingProblemCollector implements ISpellingProblemCollector {
 
-		private int fProblemCount;
+		int fProblemCount;
 		private boolean fPrintCount;
 
 		
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.jdt.text.tests.spelling;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Iterator;
@@ -25,6 +27,7 @@ import org.eclipse.jdt.internal.ui.text.spelling.engine.AbstractSpellDictionary;
 import org.eclipse.jdt.internal.ui.text.spelling.engine.DefaultPhoneticDistanceAlgorithm;
 import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellCheckEngine;
 import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.PersistentSpellDictionary;
 import org.eclipse.jdt.internal.ui.text.spelling.engine.RankedWordProposal;
 
 import junit.framework.Test;
@@ -250,4 +253,39 @@ public class SpellCheckEngineTestCase extends TestCase {
 		assertTrue(proposals.size() >= 1);
 		assertTrue(proposals.iterator().next().getRank() == - DefaultPhoneticDistanceAlgorithm.COST_CASE);
 	}
+
+	public void testPersistedIndex() throws IOException {
+		File wordList= File.createTempFile("words", ".dictionary"); //$NON-NLS-1$ //$NON-NLS-2$
+		File index= new File(wordList.getPath() + ".index"); //$NON-NLS-1$
+		try {
+			PersistentSpellDictionary dictionary= new PersistentSpellDictionary(wordList.toURI().toURL());
+			dictionary.addWord(TRUCK);
+			dictionary.addWord(LORRY);
+			dictionary.addWord(SENTENCESTART);
+			dictionary.unload();
+
+			// the first load builds and persists the index
+			assertTrue(dictionary.isCorrect(TRUCK));
+			assertTrue(index.isFile());
+
+			// a new dictionary maps the persisted index
+			dictionary= new PersistentSpellDictionary(wordList.toURI().toURL());
+			assertTrue(dictionary.isCorrect(TRUCK));
+			assertTrue(dictionary.isCorrect(LORRY));
+			assertTrue(dictionary.isCorrect(SENTENCESTART));
+			assertFalse(dictionary.isCorrect(LASTWAGEN));
+			assertTrue(contains(dictionary.getProposals(SENTENCECONTENT, false), SENTENCESTART));
+
+			// words added later are found as well and invalidate the persisted index
+			dictionary.addWord(LASTWAGEN);
+			assertTrue(dictionary.isCorrect(LASTWAGEN));
+			dictionary= new PersistentSpellDictionary(wordList.toURI().toURL());
+			assertTrue(dictionary.isCorrect(LASTWAGEN));
+			assertTrue(dictionary.isCorrect(TRUCK));
+			dictionary.unload();
+		} finally {
+			wordList.delete();
+			index.delete();
+		}
+	}
 }
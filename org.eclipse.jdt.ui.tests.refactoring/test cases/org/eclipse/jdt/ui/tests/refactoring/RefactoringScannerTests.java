@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -92,6 +92,15 @@ public class RefactoringScannerTests extends RefactoringTest{
 		assertEquals("results.length", 0, fScanner.getMatches().size());
 	}
 
+	public void testNoOccurrence() throws Exception{
+		String text= "/* TestPatter org.eclipse.TestPatterns */ class A { String s= \"estPattern\"; }";
+		fScanner.scan(text);
+		assertEquals("results.length", 0, fScanner.getMatches().size());
+
+		fScanner.scan(text + " // org.eclipse.TestPattern");
+		assertEquals("results.length", 1, fScanner.getMatches().size());
+	}
+
 	public void test1() throws Exception{
 		helper("A.java", 8);
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -60,6 +60,8 @@ public class RenameTypeTests extends RefactoringTest {
 	private static final boolean BUG_54948= false;
 	private static final Class<RenameTypeTests> clazz= RenameTypeTests.class;
 	private static final String REFACTORING_PATH= "RenameType/";
+	/** More compilation units than one batch of the parallel text match scan */
+	private static final int TEXTUAL_MATCHES_UNIT_COUNT= 45;
 
 	public RenameTypeTests(String name) {
 		super(name);
@@ -1707,4 +1709,46 @@ public class RenameTypeTests extends RefactoringTest {
 		// Test references in annotations and type parameters
 		helper3("Try", "Bla", true, false, true);
 	}
+
+	private static String getTextualMatchesSource(int index) {
+		StringBuffer buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("/**\n");
+		buf.append(" * Textual matches of A in C" + index + ", see p.A and {@link A}.\n");
+		buf.append(" */\n");
+		buf.append("public class C" + index + " {\n");
+		buf.append("    A fA;\n");
+		buf.append("    String fName= \"p.A\";\n");
+		buf.append("    // new A() creates an A, AA is not a match\n");
+		buf.append("}\n");
+		return buf.toString();
+	}
+
+	private void renameWithTextualMatches(IType type, String newName) throws Exception {
+		RenameJavaElementDescriptor descriptor= createRefactoringDescriptor(type, newName);
+		descriptor.setUpdateTextualOccurrences(true);
+		assertEquals("was supposed to pass", null, performRefactoring(descriptor));
+	}
+
+	public void testTextualMatchesInManyUnits() throws Exception {
+		IPackageFragment pack= getPackageP();
+		ICompilationUnit cuA= pack.createCompilationUnit("A.java", "package p;\npublic class A {\n}\n", false, null);
+		ICompilationUnit cu0= pack.createCompilationUnit("C0.java", getTextualMatchesSource(0), false, null);
+
+		// few compilation units are scanned sequentially
+		renameWithTextualMatches(cuA.getType("A"), "B");
+		String expected= cu0.getSource();
+		assertTrue(expected, expected.indexOf("see p.B and {@link B}") != -1);
+		renameWithTextualMatches(pack.getCompilationUnit("B.java").getType("B"), "A");
+		assertEqualLines(getTextualMatchesSource(0), cu0.getSource());
+
+		// more compilation units than one batch are scanned in parallel
+		ICompilationUnit[] cus= new ICompilationUnit[TEXTUAL_MATCHES_UNIT_COUNT];
+		cus[0]= cu0;
+		for (int i= 1; i < cus.length; i++)
+			cus[i]= pack.createCompilationUnit("C" + i + ".java", getTextualMatchesSource(i), false, null);
+		renameWithTextualMatches(pack.getCompilationUnit("A.java").getType("A"), "B");
+		for (int i= 0; i < cus.length; i++)
+			assertEqualLines(cus[i].getElementName(), expected.replace("C0", "C" + i), cus[i].getSource());
+	}
 }
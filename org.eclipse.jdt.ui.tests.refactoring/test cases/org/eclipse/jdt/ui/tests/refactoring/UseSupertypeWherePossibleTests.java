@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -32,6 +32,9 @@ public class UseSupertypeWherePossibleTests extends RefactoringTest {
 	private static final Class<UseSupertypeWherePossibleTests> clazz= UseSupertypeWherePossibleTests.class;
 	private static final String REFACTORING_PATH= "UseSupertypeWherePossible/";
 
+	/** Enough compilation units for the type constraints to be solved in parallel */
+	private static final int MANY_UNITS_COUNT= 120;
+
 	public UseSupertypeWherePossibleTests(String name) {
 		super(name);
 	}
@@ -99,6 +102,34 @@ public class UseSupertypeWherePossibleTests extends RefactoringTest {
 		validatePassingTest(className, cuNames, superTypeFullName, false);
 	}
 
+	private void useSupertype(IType subType, IType superType) throws Exception {
+		final UseSupertypeDescriptor descriptor= RefactoringSignatureDescriptorFactory.createUseSupertypeDescriptor();
+		descriptor.setSubtype(subType);
+		descriptor.setSupertype(superType);
+		final RefactoringStatus status= new RefactoringStatus();
+		final Refactoring refactoring= descriptor.createRefactoring(status);
+		assertTrue("status should be ok", status.isOK());
+		assertEquals("was supposed to pass", null, performRefactoring(refactoring));
+	}
+
+	private static String getManyUnitsSource(int index) {
+		StringBuffer buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("public class C" + index + " {\n");
+		for (int i= 0; i < 5; i++) {
+			buf.append("    void m" + i + "() {\n");
+			buf.append("        A x= new A();\n");
+			buf.append("        x.b();\n");
+			buf.append("        A y= new A();\n");
+			buf.append("        y.a();\n");
+			buf.append("        A z= y;\n");
+			buf.append("        z.b();\n");
+			buf.append("    }\n");
+		}
+		buf.append("}\n");
+		return buf.toString();
+	}
+
 	//---------------tests ----------------------
 
 	public void testNew0() throws Exception{
@@ -492,4 +523,29 @@ public class UseSupertypeWherePossibleTests extends RefactoringTest {
 	public void test70() throws Exception{
 		validatePassingTest("A", new String[]{"A", "I"}, "p.I");
 	}
+
+	public void testManyUnits() throws Exception {
+		IPackageFragment pack= getPackageP();
+		IType superType= getType(pack.createCompilationUnit("B.java", "package p;\npublic class B {\n    public void b() {}\n}\n", false, null), "B");
+		IType subType= getType(pack.createCompilationUnit("A.java", "package p;\npublic class A extends B {\n    public void a() {}\n}\n", false, null), "A");
+
+		// the constraints of few compilation units are solved sequentially
+		ICompilationUnit cu0= pack.createCompilationUnit("C0.java", getManyUnitsSource(0), false, null);
+		useSupertype(subType, superType);
+		String expected= cu0.getSource();
+		assertTrue(expected, expected.indexOf("B x= new A();") != -1);
+		assertTrue(expected, expected.indexOf("A y= new A();") != -1);
+		assertTrue(expected, expected.indexOf("B z= y;") != -1);
+
+		// the constraints of many compilation units are solved in parallel, with the same result
+		cu0.getBuffer().setContents(getManyUnitsSource(0));
+		cu0.save(null, true);
+		ICompilationUnit[] cus= new ICompilationUnit[MANY_UNITS_COUNT];
+		cus[0]= cu0;
+		for (int i= 1; i < cus.length; i++)
+			cus[i]= pack.createCompilationUnit("C" + i + ".java", getManyUnitsSource(i), false, null);
+		useSupertype(subType, superType);
+		for (int i= 0; i < cus.length; i++)
+			assertEqualLines(cus[i].getElementName(), expected.replace("C0", "C" + i), cus[i].getSource());
+	}
 }
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.performance.views;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.test.OrderedTestSuite;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+
+import org.eclipse.jdt.internal.corext.refactoring.generics.InferTypeArgumentsRefactoring;
+
+import org.eclipse.jdt.ui.tests.performance.JdtPerformanceTestCase;
+
+/**
+ * Measures the constraint solver of Infer Generic Type Arguments on a generated project. The
+ * classes of the project pass raw collections to each other, so that the constraint variables of
+ * all classes are connected.
+ */
+public class InferTypeArgumentsPerfTest extends JdtPerformanceTestCase {
+
+	private static final int CLASS_COUNT= 300;
+
+	private static class MyTestSetup extends TestSetup {
+		public static IJavaProject fJProject1;
+		public static IPackageFragment fPackage;
+
+		public MyTestSetup(Test test) {
+			super(test);
+		}
+
+		@Override
+		protected void setUp() throws Exception {
+			fJProject1= JavaProjectHelper.createJavaProject("TestProject1", "bin");
+			assertTrue("rt not found", JavaProjectHelper.addRTJar(fJProject1) != null);
+			IPackageFragmentRoot root= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+			fPackage= root.createPackageFragment("p", true, null);
+			for (int i= 0; i < CLASS_COUNT; i++) {
+				fPackage.createCompilationUnit("C" + i + ".java", getSource(i), true, null);
+			}
+		}
+
+		@Override
+		protected void tearDown() throws Exception {
+			if (fJProject1 != null && fJProject1.exists())
+				JavaProjectHelper.delete(fJProject1);
+		}
+	}
+
+	public static Test suite() {
+		return new MyTestSetup(new OrderedTestSuite(InferTypeArgumentsPerfTest.class, new String[] {
+			"testInferTypeArguments",
+		}));
+	}
+
+	public static Test setUpTest(Test someTest) {
+		return new MyTestSetup(someTest);
+	}
+
+	private static String getSource(int i) {
+		int previous= (i + CLASS_COUNT - 1) % CLASS_COUNT;
+		int other= (i * 7 + 3) % CLASS_COUNT;
+		StringBuffer buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("import java.util.*;\n");
+		buf.append("public class C").append(i).append(" {\n");
+		buf.append("    List fList= new ArrayList();\n");
+		buf.append("    Map fMap= new HashMap();\n");
+		buf.append("    Set fKeys= new HashSet();\n");
+		buf.append("    public void fill(C").append(previous).append(" prev, C").append(other).append(" other) {\n");
+		buf.append("        fList.add(\"").append(i).append("\");\n");
+		buf.append("        fList.addAll(prev.getList());\n");
+		buf.append("        fKeys.addAll(other.fKeys);\n");
+		buf.append("        fMap.put(\"").append(i).append("\", prev.fMap.get(\"x\"));\n");
+		buf.append("        for (Iterator iter= other.getList().iterator(); iter.hasNext();) {\n");
+		buf.append("            String s= (String) iter.next();\n");
+		buf.append("            fKeys.add(s);\n");
+		buf.append("        }\n");
+		buf.append("    }\n");
+		buf.append("    public List getList() {\n");
+		buf.append("        return fList;\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		return buf.toString();
+	}
+
+	public void testInferTypeArguments() throws Exception {
+		measure(Performance.getDefault().getNullPerformanceMeter(), 2);
+		measure(fPerformanceMeter, 5);
+
+		commitMeasurements();
+		assertPerformanceInRelativeBand(Dimension.ELAPSED_PROCESS, -100, +10);
+	}
+
+	private void measure(PerformanceMeter performanceMeter, int runs) throws Exception {
+		for (int i= 0; i < runs; i++) {
+			joinBackgroudActivities();
+
+			performanceMeter.start();
+			InferTypeArgumentsRefactoring refactoring= new InferTypeArgumentsRefactoring(new IJavaElement[] { MyTestSetup.fPackage });
+			RefactoringStatus status= refactoring.checkInitialConditions(new NullProgressMonitor());
+			assertFalse(status.hasFatalError());
+			status= refactoring.checkFinalConditions(new NullProgressMonitor());
+			assertFalse(status.hasFatalError());
+			performanceMeter.stop();
+		}
+	}
+}
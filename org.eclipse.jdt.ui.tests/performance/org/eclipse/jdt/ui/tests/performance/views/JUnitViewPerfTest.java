@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.performance.views;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import junit.framework.Test;
+
+import org.eclipse.test.OrderedTestSuite;
+
+import org.eclipse.swt.widgets.Display;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.PlatformUI;
+
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.Launch;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.ui.tests.performance.JdtPerformanceTestCase;
+
+import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.runner.BinaryMessageSender;
+import org.eclipse.jdt.internal.junit.runner.MessageIds;
+import org.eclipse.jdt.internal.junit.ui.TestRunnerViewPart;
+
+/**
+ * Sends a synthetic run of 100'000 tests into the JUnit view and measures the time
+ * until the run and all view updates have been processed. The messages are generated by the
+ * test in the format the RemoteTestRunner uses, one failure in every 97 tests.
+ */
+public class JUnitViewPerfTest extends JdtPerformanceTestCase {
+
+	private static final int CLASS_COUNT= 1000;
+	private static final int METHOD_COUNT= 100;
+	private static final int FAILURE_INTERVAL= 97;
+
+	/**
+	 * Time in ms without UI events after which the view is considered up-to-date.
+	 */
+	private static final int QUIET_TIME= 500;
+
+	private static byte[] fgSyntheticRun;
+
+	public static Test suite() {
+		return new OrderedTestSuite(JUnitViewPerfTest.class, new String[] {
+			"testSyntheticRun"
+		});
+	}
+
+	public JUnitViewPerfTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		if (fgSyntheticRun == null)
+			fgSyntheticRun= createRun();
+	}
+
+	/**
+	 * Creates the messages of a run in the format sent by the RemoteTestRunner.
+	 *
+	 * @return the messages
+	 * @throws IOException if the messages cannot be encoded
+	 */
+	private static byte[] createRun() throws IOException {
+		ByteArrayOutputStream messages= new ByteArrayOutputStream();
+		BinaryMessageSender sender= new BinaryMessageSender(messages);
+		sender.sendMessage(MessageIds.TEST_RUN_START + (CLASS_COUNT * METHOD_COUNT) + " v2");
+		int id= 1;
+		for (int i= 0; i < CLASS_COUNT; i++) {
+			sender.sendMessage(MessageIds.TEST_TREE + id++ + ",p.Test" + i + ",true," + METHOD_COUNT);
+			for (int j= 0; j < METHOD_COUNT; j++) {
+				sender.sendMessage(MessageIds.TEST_TREE + id++ + "," + getTestName(i, j) + ",false,1");
+			}
+		}
+		id= 1;
+		for (int i= 0; i < CLASS_COUNT; i++) {
+			id++; // suite
+			for (int j= 0; j < METHOD_COUNT; j++) {
+				String test= id++ + "," + getTestName(i, j);
+				sender.sendMessage(MessageIds.TEST_START + test);
+				if (id % FAILURE_INTERVAL == 0) {
+					sender.sendMessage(MessageIds.TEST_FAILED + test);
+					sender.sendMessage(MessageIds.TRACE_START);
+					sender.sendMessage("junit.framework.AssertionFailedError: synthetic failure");
+					sender.sendMessage("\tat p.Test" + i + ".test" + j + "(Test" + i + ".java:" + (j + 10) + ")");
+					sender.sendMessage(MessageIds.TRACE_END);
+				}
+				sender.sendMessage(MessageIds.TEST_END + test);
+			}
+		}
+		sender.sendMessage(MessageIds.TEST_RUN_END + 1000);
+		sender.close();
+		return messages.toByteArray();
+	}
+
+	private static String getTestName(int classIndex, int methodIndex) {
+		return "test" + methodIndex + "(p.Test" + classIndex + ")";
+	}
+
+	public void testSyntheticRun() throws Exception {
+		IWorkbenchPage page= PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage();
+		page.showView(TestRunnerViewPart.NAME);
+		joinBackgroudActivities();
+
+		int port= findFreePort();
+		ILaunch launch= new Launch(null, ILaunchManager.RUN_MODE, null);
+		IJavaProject project= JavaCore.create(ResourcesPlugin.getWorkspace().getRoot().getProject("SyntheticRun"));
+
+		startMeasuring();
+		TestRunSession session= new TestRunSession(launch, project, port);
+		JUnitCorePlugin.getModel().addTestRunSession(session);
+		try (Socket socket= connect(port)) {
+			OutputStream output= socket.getOutputStream();
+			output.write(fgSyntheticRun);
+			output.flush();
+			Display display= Display.getCurrent();
+			while (session.isStarting() || session.isRunning()) {
+				if (!display.readAndDispatch())
+					Thread.sleep(1);
+			}
+			long quietSince= System.currentTimeMillis();
+			while (System.currentTimeMillis() - quietSince < QUIET_TIME) {
+				if (display.readAndDispatch())
+					quietSince= System.currentTimeMillis();
+				else
+					Thread.sleep(1);
+			}
+		}
+		finishMeasurements();
+
+		assertEquals(CLASS_COUNT * METHOD_COUNT, session.getStartedCount());
+		JUnitCorePlugin.getModel().removeTestRunSession(session);
+	}
+
+	private static int findFreePort() throws IOException {
+		try (ServerSocket socket= new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private static Socket connect(int port) throws Exception {
+		// the session opens its server socket in a background thread
+		for (int i= 0; i < 100; i++) {
+			try {
+				return new Socket("localhost", port);
+			} catch (IOException e) {
+				Thread.sleep(100);
+			}
+		}
+		return new Socket("localhost", port);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -28,7 +28,10 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.ui.dialogs.ISelectionStatusValidator;
 import org.eclipse.ui.dialogs.SelectionDialog;
 
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
 import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
 
 import org.eclipse.jdt.ui.IJavaElementSearchConstants;
 import org.eclipse.jdt.ui.JavaUI;
@@ -36,6 +39,9 @@ import org.eclipse.jdt.ui.dialogs.TypeSelectionExtension;
 import org.eclipse.jdt.ui.tests.performance.JdtPerformanceTestCase;
 import org.eclipse.jdt.ui.tests.performance.SWTTestProject;
 
+import org.eclipse.jdt.internal.corext.util.TypeInfoFilter;
+import org.eclipse.jdt.internal.corext.util.TypeNameIndex;
+
 import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.util.CoreUtility;
 
@@ -77,6 +83,7 @@ public class OpenTypePerfTest extends JdtPerformanceTestCase {
 					"testWarmS10",
 					"testWarmOpenSWT",
 					"testWarmOpenSWTHistory10",
+					"testFilterLatency",
 				});
 		return new MyTestSetup(testSuite);
 	}
@@ -169,6 +176,50 @@ public class OpenTypePerfTest extends JdtPerformanceTestCase {
 		}
 	}
 
+	public void testFilterLatency() throws Exception {
+		//type name index, latency of the queries done while typing
+		joinBackgroudActivities();
+		TypeNameIndex index= TypeNameIndex.getInstance();
+		index.waitUntilReady(null);
+		assertTrue(index.isReady());
+
+		String[] patterns= { "S", "Sh", "Shell", "SWT", "NPE", "GC", "*Exception", "org.eclipse.swt.widgets.B" };
+		int repeat= 20;
+		int[] expectedCounts= null;
+		final int[] count= new int[1];
+		TypeNameMatchRequestor requestor= new TypeNameMatchRequestor() {
+			@Override
+			public void acceptTypeNameMatch(TypeNameMatch match) {
+				count[0]++;
+			}
+		};
+		try {
+			for (int i= 0; i < repeat; i++) {
+				int[] counts= new int[patterns.length];
+				startMeasuring();
+				for (int j= 0; j < patterns.length; j++) {
+					TypeInfoFilter filter= new TypeInfoFilter(patterns[j], SearchEngine.createWorkspaceScope(), IJavaSearchConstants.TYPE, null);
+					count[0]= 0;
+					assertTrue(index.search(filter, requestor, null));
+					counts[j]= count[0];
+				}
+				stopMeasuring();
+
+				if (expectedCounts == null) {
+					expectedCounts= counts;
+					for (int j= 0; j < patterns.length; j++)
+						assertTrue("no matches for " + patterns[j], expectedCounts[j] > 0);
+				} else {
+					for (int j= 0; j < patterns.length; j++)
+						assertEquals("matches for " + patterns[j], expectedCounts[j], counts[j]);
+				}
+			}
+		} finally {
+			commitMeasurements();
+			assertPerformanceInRelativeBand(Dimension.ELAPSED_PROCESS, -100, +10);
+		}
+	}
+
 	//---
 
 	private void measureOpenType(String pattern) throws Exception {
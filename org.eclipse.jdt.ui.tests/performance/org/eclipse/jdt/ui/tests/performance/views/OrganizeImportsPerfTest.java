@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,6 +25,8 @@ import org.eclipse.test.performance.PerformanceMeter;
 
 import org.eclipse.core.runtime.NullProgressMonitor;
 
+import org.eclipse.text.edits.TextEdit;
+
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
@@ -34,6 +36,8 @@ import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 
 import org.eclipse.jdt.internal.corext.codemanipulation.OrganizeImportsOperation;
+import org.eclipse.jdt.internal.corext.codemanipulation.TypeNameMatchCache;
+import org.eclipse.jdt.internal.corext.refactoring.util.JavaElementUtil;
 
 import org.eclipse.jdt.ui.SharedASTProvider;
 import org.eclipse.jdt.ui.tests.performance.JdtPerformanceTestCase;
@@ -66,7 +70,9 @@ public class OrganizeImportsPerfTest extends JdtPerformanceTestCase {
 
 	public static Test suite() {
 		return new MyTestSetup(new OrderedTestSuite(OrganizeImportsPerfTest.class, new String[] {
-			"testOrganizeImport"
+			"testOrganizeImport",
+			"testOrganizeImportSharedCache",
+			"testOrganizeImportBatch"
 		}));
 	}
 
@@ -108,6 +114,22 @@ public class OrganizeImportsPerfTest extends JdtPerformanceTestCase {
 		Performance.getDefault().assertPerformance(fPerformanceMeter);
 	}
 
+	public void testOrganizeImportSharedCache() throws Exception {
+		measureSharedCache(Performance.getDefault().getNullPerformanceMeter(), 10);
+		measureSharedCache(fPerformanceMeter, 10);
+
+		commitMeasurements();
+		Performance.getDefault().assertPerformance(fPerformanceMeter);
+	}
+
+	public void testOrganizeImportBatch() throws Exception {
+		measureBatch(Performance.getDefault().getNullPerformanceMeter(), 10);
+		measureBatch(fPerformanceMeter, 10);
+
+		commitMeasurements();
+		Performance.getDefault().assertPerformance(fPerformanceMeter);
+	}
+
 	private void measure(PerformanceMeter performanceMeter, int runs) throws Exception {
 		for (int j= 0; j < runs; j++) {
 			List<IJavaElement> cusList= new ArrayList<>();
@@ -127,4 +149,50 @@ public class OrganizeImportsPerfTest extends JdtPerformanceTestCase {
 		
 	}
 
+	private void measureSharedCache(PerformanceMeter performanceMeter, int runs) throws Exception {
+		for (int j= 0; j < runs; j++) {
+			List<IJavaElement> cusList= new ArrayList<>();
+			addAllCUs(MyTestSetup.fJProject1.getChildren(), cusList);
+			ICompilationUnit[] cus= cusList.toArray(new ICompilationUnit[cusList.size()]);
+			CompilationUnit[] roots= createASTs(cus);
+
+			joinBackgroudActivities();
+
+			performanceMeter.start();
+			TypeNameMatchCache cache= new TypeNameMatchCache();
+			for (int i= 0; i < roots.length; i++) {
+				OrganizeImportsOperation op= new OrganizeImportsOperation(cus[i], roots[i], true, true, true, null, cache);
+				op.run(new NullProgressMonitor());
+			}
+			performanceMeter.stop();
+		}
+	}
+
+	private void measureBatch(PerformanceMeter performanceMeter, int runs) throws Exception {
+		for (int j= 0; j < runs; j++) {
+			List<IJavaElement> cusList= new ArrayList<>();
+			addAllCUs(MyTestSetup.fJProject1.getChildren(), cusList);
+			ICompilationUnit[] cus= cusList.toArray(new ICompilationUnit[cusList.size()]);
+			CompilationUnit[] roots= createASTs(cus);
+
+			joinBackgroudActivities();
+
+			performanceMeter.start();
+			TypeNameMatchCache cache= new TypeNameMatchCache();
+			OrganizeImportsOperation[] ops= new OrganizeImportsOperation[roots.length];
+			for (int i= 0; i < roots.length; i++) {
+				ops[i]= new OrganizeImportsOperation(cus[i], roots[i], true, true, true, null, cache);
+			}
+			TextEdit[] edits= OrganizeImportsOperation.createTextEdits(ops, Runtime.getRuntime().availableProcessors(), new NullProgressMonitor());
+			for (int i= 0; i < edits.length; i++) {
+				if (edits[i] != null)
+					JavaElementUtil.applyEdit(cus[i], edits[i], true, new NullProgressMonitor());
+			}
+			performanceMeter.stop();
+
+			// the names that cannot be resolved in any of the compilation units are searched at once
+			assertTrue(cache.getQueryCount() <= 1);
+		}
+	}
+
 }
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.jdt.internal.junit.model.BinaryMessageReader;
+import org.eclipse.jdt.internal.junit.runner.BinaryMessageSender;
+import org.eclipse.jdt.internal.junit.runner.MessageIds;
+
+import junit.framework.TestCase;
+
+/**
+ * Encodes messages with the {@link BinaryMessageSender} and decodes them with the
+ * {@link BinaryMessageReader}.
+ */
+public class BinaryProtocolTest extends TestCase {
+
+	/** Length of the protocol header */
+	private static final int HEADER_LENGTH= 8;
+	/** Offset of the flags of the first frame */
+	private static final int FIRST_FLAGS_OFFSET= HEADER_LENGTH + 4;
+
+	/**
+	 * Returns at most a few bytes per read, like a socket that receives a frame in several
+	 * packets.
+	 */
+	private static final class TricklingInputStream extends FilterInputStream {
+
+		private int fRead;
+
+		TricklingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return super.read(b, off, Math.min(len, 1 + fRead++ % 3));
+		}
+	}
+
+	private static byte[] encode(List<String> messages) throws IOException {
+		ByteArrayOutputStream output= new ByteArrayOutputStream();
+		BinaryMessageSender sender= new BinaryMessageSender(output);
+		for (String message : messages)
+			sender.sendMessage(message);
+		sender.close();
+		return output.toByteArray();
+	}
+
+	private static List<String> decode(InputStream input) throws IOException {
+		BinaryMessageReader reader= new BinaryMessageReader(input);
+		List<String> messages= new ArrayList<>();
+		List<String> frame;
+		while ((frame= reader.readFrame()) != null)
+			messages.addAll(frame);
+		reader.close();
+		return messages;
+	}
+
+	private static List<String> createTrace(int lines) {
+		StringBuffer buf= new StringBuffer("java.lang.AssertionError: expected:<\u00e4> but was:<\u20ac>\n");
+		for (int i= 0; i < lines; i++)
+			buf.append("\tat p.Test.test").append(i).append("(Test.java:").append(i + 10).append(")\r\n");
+		return Arrays.asList(MessageIds.TEST_FAILED + "1,test(p.Test)", MessageIds.TRACE_START, buf.toString(), MessageIds.TRACE_END);
+	}
+
+	public void testSmallFrameIsNotCompressed() throws Exception {
+		List<String> messages= Arrays.asList(MessageIds.TEST_RUN_START + "1 v2", MessageIds.TEST_START + "1,test(p.Test)", "", MessageIds.TEST_END + "1,test(p.Test)");
+		byte[] bytes= encode(messages);
+
+		assertEquals(0, bytes[FIRST_FLAGS_OFFSET] & MessageIds.BINARY_FRAME_COMPRESSED);
+		assertEquals(messages, decode(new ByteArrayInputStream(bytes)));
+	}
+
+	public void testCompressionThreshold() throws Exception {
+		// repetitive frames above the threshold are compressed
+		List<String> messages= createTrace(100);
+		byte[] bytes= encode(messages);
+		assertEquals(MessageIds.BINARY_FRAME_COMPRESSED, bytes[FIRST_FLAGS_OFFSET] & MessageIds.BINARY_FRAME_COMPRESSED);
+		assertEquals(messages, decode(new ByteArrayInputStream(bytes)));
+
+		// frames that do not get smaller are sent uncompressed
+		Random random= new Random(4711);
+		StringBuffer buf= new StringBuffer();
+		for (int i= 0; i < 2000; i++)
+			buf.append((char) (0x21 + random.nextInt(0x5e)));
+		messages= Arrays.asList(buf.toString());
+		bytes= encode(messages);
+		assertEquals(0, bytes[FIRST_FLAGS_OFFSET] & MessageIds.BINARY_FRAME_COMPRESSED);
+		assertEquals(messages, decode(new ByteArrayInputStream(bytes)));
+	}
+
+	public void testMultiLineTraces() throws Exception {
+		List<String> messages= new ArrayList<>();
+		for (int i= 0; i < 50; i++)
+			messages.addAll(createTrace(i * 20));
+		// more than one frame
+		byte[] bytes= encode(messages);
+		assertEquals(messages, decode(new ByteArrayInputStream(bytes)));
+	}
+
+	public void testFramesSplitAcrossReads() throws Exception {
+		List<String> messages= new ArrayList<>();
+		for (int i= 0; i < 20; i++) {
+			messages.add(MessageIds.TEST_START + i + ",test" + i + "(p.Test)");
+			messages.addAll(createTrace(i * 10));
+			messages.add(MessageIds.TEST_END + i + ",test" + i + "(p.Test)");
+		}
+		byte[] bytes= encode(messages);
+		assertEquals(messages, decode(new TricklingInputStream(new ByteArrayInputStream(bytes))));
+	}
+
+	public void testEndOfStreamWithinFrame() throws Exception {
+		List<String> messages= createTrace(100);
+		byte[] bytes= encode(messages);
+
+		// between two frames
+		assertEquals(messages, decode(new ByteArrayInputStream(bytes)));
+		assertEquals(new ArrayList<String>(), decode(new ByteArrayInputStream(bytes, 0, HEADER_LENGTH)));
+
+		// within the length, the flags, and the payload of the frame
+		int[] lengths= { HEADER_LENGTH + 2, FIRST_FLAGS_OFFSET, FIRST_FLAGS_OFFSET + 1, bytes.length - 1 };
+		for (int i= 0; i < lengths.length; i++) {
+			BinaryMessageReader reader= new BinaryMessageReader(new ByteArrayInputStream(bytes, 0, lengths[i]));
+			try {
+				reader.readFrame();
+				fail("stream truncated to " + lengths[i] + " bytes");
+			} catch (EOFException e) {
+				// expected
+			}
+		}
+	}
+}
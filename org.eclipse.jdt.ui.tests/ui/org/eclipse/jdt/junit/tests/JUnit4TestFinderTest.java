@@ -397,6 +397,49 @@ public class JUnit4TestFinderTest extends TestCase {
 		assertTestFound(fProject, validTests);
 	}
 
+	public void testTestAnnotationInSuperclassChanged() throws Exception {
+
+		IPackageFragment p= fRoot.createPackageFragment("p", true, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("\n");
+		buf.append("public class Base {\n");
+		buf.append("        public void testFoo() {\n");
+		buf.append("        }\n");
+		buf.append("}\n");
+		p.createCompilationUnit("Base.java", buf.toString(), false, null);
+
+		buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("\n");
+		buf.append("public class Sub extends Base {\n");
+		buf.append("}\n");
+		IType sub= p.createCompilationUnit("Sub.java", buf.toString(), false, null).getType("Sub");
+
+		assertTestFound(p, new String[] {});
+		assertTestFound(fProject, new String[] {});
+
+		buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("\n");
+		buf.append("import org.junit.Test;\n");
+		buf.append("\n");
+		buf.append("public class Base {\n");
+		buf.append("        @Test public void testFoo() {\n");
+		buf.append("        }\n");
+		buf.append("}\n");
+		p.createCompilationUnit("Base.java", buf.toString(), true, null);
+
+		// Sub is unchanged, but its superclass is now a test
+		assertTestFound(p, new String[] { "p.Base", "p.Sub" });
+		assertTestFound(fProject, new String[] { "p.Base", "p.Sub" });
+		assertTestFound(sub.getCompilationUnit(), new String[] { "p.Sub" });
+
+		sub.getCompilationUnit().delete(true, null);
+
+		assertTestFound(p, new String[] { "p.Base" });
+	}
+
 	public void testTestAnnotation_bug204682() throws Exception {
 
 		IPackageFragment p= fRoot.createPackageFragment("p", true, null);
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jdt.junit.JUnitCore;
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.jdt.testplugin.StringAsserts;
+
+import org.eclipse.core.runtime.CoreException;
+
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.internal.junit.launcher.ITestKind;
+import org.eclipse.jdt.internal.junit.launcher.TestKindRegistry;
+
+
+public class JUnit5TestFinderTest extends TestCase {
+
+	private IJavaProject fProject;
+	private IPackageFragmentRoot fRoot;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject= JavaProjectHelper.createJavaProject("TestProject", "bin");
+		JavaProjectHelper.addRTJar18(fProject);
+		IClasspathEntry cpe= JavaCore.newContainerEntry(JUnitCore.JUNIT5_CONTAINER_PATH);
+		JavaProjectHelper.addToClasspath(fProject, cpe);
+		JavaProjectHelper.set18CompilerOptions(fProject);
+
+		fRoot= JavaProjectHelper.addSourceContainer(fProject, "src");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		JavaProjectHelper.delete(fProject);
+		super.tearDown();
+	}
+
+	public void testComposedTestAnnotationChanged() throws Exception {
+
+		IPackageFragment p= fRoot.createPackageFragment("p", true, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("\n");
+		buf.append("import java.lang.annotation.ElementType;\n");
+		buf.append("import java.lang.annotation.Retention;\n");
+		buf.append("import java.lang.annotation.RetentionPolicy;\n");
+		buf.append("import java.lang.annotation.Target;\n");
+		buf.append("\n");
+		buf.append("@Target(ElementType.METHOD)\n");
+		buf.append("@Retention(RetentionPolicy.RUNTIME)\n");
+		buf.append("public @interface MyTest {\n");
+		buf.append("}\n");
+		p.createCompilationUnit("MyTest.java", buf.toString(), false, null);
+
+		buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("\n");
+		buf.append("public class Base {\n");
+		buf.append("        @MyTest public void testFoo() {\n");
+		buf.append("        }\n");
+		buf.append("}\n");
+		p.createCompilationUnit("Base.java", buf.toString(), false, null);
+
+		buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("\n");
+		buf.append("public class Sub extends Base {\n");
+		buf.append("}\n");
+		IType sub= p.createCompilationUnit("Sub.java", buf.toString(), false, null).getType("Sub");
+
+		assertTestFound(p, new String[] {});
+		assertTestFound(fProject, new String[] {});
+
+		buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("\n");
+		buf.append("import java.lang.annotation.ElementType;\n");
+		buf.append("import java.lang.annotation.Retention;\n");
+		buf.append("import java.lang.annotation.RetentionPolicy;\n");
+		buf.append("import java.lang.annotation.Target;\n");
+		buf.append("\n");
+		buf.append("import org.junit.jupiter.api.Test;\n");
+		buf.append("\n");
+		buf.append("@Target(ElementType.METHOD)\n");
+		buf.append("@Retention(RetentionPolicy.RUNTIME)\n");
+		buf.append("@Test\n");
+		buf.append("public @interface MyTest {\n");
+		buf.append("}\n");
+		p.createCompilationUnit("MyTest.java", buf.toString(), true, null);
+
+		// Base and Sub are unchanged, but the annotation of their method is now a test annotation
+		assertTestFound(p, new String[] { "p.Base", "p.Sub" });
+		assertTestFound(fProject, new String[] { "p.Base", "p.Sub" });
+		assertTestFound(sub.getCompilationUnit(), new String[] { "p.Sub" });
+
+		sub.getCompilationUnit().delete(true, null);
+
+		assertTestFound(p, new String[] { "p.Base" });
+		assertTestFound(fProject, new String[] { "p.Base" });
+	}
+
+	private void assertTestFound(IJavaElement container, String[] expectedTypes) throws CoreException {
+		ITestKind testKind= TestKindRegistry.getContainerTestKind(container);
+		assertEquals(TestKindRegistry.JUNIT5_TEST_KIND_ID, testKind.getId());
+
+		HashSet<IType> set= new HashSet<>();
+		set.addAll(Arrays.asList(JUnitCore.findTestTypes(container, null)));
+
+		HashSet<String> namesFound= new HashSet<>();
+		for (Iterator<IType> iterator= set.iterator(); iterator.hasNext();) {
+			IType curr= iterator.next();
+			namesFound.add(curr.getFullyQualifiedName('.'));
+		}
+		String[] actuals= namesFound.toArray(new String[namesFound.size()]);
+		StringAsserts.assertEqualStringsIgnoreOrder(actuals, expectedTypes);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2017 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -39,9 +39,13 @@ public class JUnitJUnitTests {
 
 		suite.addTest(TestRunSessionSerializationTests3.suite());
 		suite.addTest(TestRunSessionSerializationTests4.suite());
+		suite.addTestSuite(TestRunSessionSwapTest.class);
+		suite.addTestSuite(ParallelTestRunTest.class);
+		suite.addTestSuite(BinaryProtocolTest.class);
 
 		suite.addTestSuite(JUnit3TestFinderTest.class);
 		suite.addTestSuite(JUnit4TestFinderTest.class);
+		suite.addTestSuite(JUnit5TestFinderTest.class);
 		//$JUnit-END$
 		return suite;
 	}
@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.Launch;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.runner.BinaryMessageSender;
+import org.eclipse.jdt.internal.junit.runner.FirstRunExecutionListener;
+import org.eclipse.jdt.internal.junit.runner.ITestIdentifier;
+import org.eclipse.jdt.internal.junit.runner.MessageIds;
+import org.eclipse.jdt.internal.junit.runner.MessageSender;
+import org.eclipse.jdt.internal.junit.runner.RemoteTestRunner;
+import org.eclipse.jdt.internal.junit.runner.TestReferenceFailure;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the reporting of tests that are executed in parallel.
+ */
+public class ParallelTestRunTest extends TestCase {
+
+	private static final int THREAD_COUNT= 8;
+	private static final int TESTS_PER_THREAD= 200;
+	private static final long TIMEOUT= 10000;
+
+	private static final class Identifier implements ITestIdentifier {
+
+		private final String fName;
+
+		Identifier(String name) {
+			fName= name;
+		}
+
+		@Override
+		public String getName() {
+			return fName;
+		}
+
+		@Override
+		public String getDisplayName() {
+			return fName;
+		}
+
+		@Override
+		public String getParameterTypes() {
+			return "";
+		}
+
+		@Override
+		public String getUniqueId() {
+			return fName;
+		}
+	}
+
+	public void testFailuresOfParallelThreadsAreNotInterleaved() throws Exception {
+		final List<String> messages= Collections.synchronizedList(new ArrayList<String>());
+		RemoteTestRunner runner= new RemoteTestRunner();
+		runner.setMessageSender(new MessageSender() {
+			@Override
+			public void sendMessage(String msg) {
+				messages.add(msg);
+				// give other threads a chance to send their messages in between
+				Thread.yield();
+			}
+
+			@Override
+			public void flush() {
+			}
+		});
+		final FirstRunExecutionListener listener= runner.firstRunExecutionListener();
+
+		Thread[] threads= new Thread[THREAD_COUNT];
+		for (int t= 0; t < threads.length; t++) {
+			final int thread= t;
+			threads[t]= new Thread() {
+				@Override
+				public void run() {
+					for (int i= 0; i < TESTS_PER_THREAD; i++) {
+						Identifier test= new Identifier("test" + i + "(p.Test" + thread + ")");
+						listener.notifyTestStarted(test);
+						listener.notifyTestFailed(new TestReferenceFailure(test, MessageIds.TEST_FAILED, "trace of " + test.getName()));
+						listener.notifyTestEnded(test);
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (int t= 0; t < threads.length; t++)
+			threads[t].join(TIMEOUT);
+
+		Map<String, String> idsByName= new HashMap<>();
+		int failures= 0;
+		for (int i= 0; i < messages.size(); i++) {
+			String message= messages.get(i);
+			if (message.startsWith(MessageIds.TEST_START)) {
+				String[] idAndName= message.substring(MessageIds.MSG_HEADER_LENGTH).split(",", 2);
+				assertNull(idsByName.put(idAndName[1], idAndName[0]));
+			} else if (message.startsWith(MessageIds.TEST_FAILED)) {
+				String[] idAndName= message.substring(MessageIds.MSG_HEADER_LENGTH).split(",", 2);
+				assertEquals(idsByName.get(idAndName[1]), idAndName[0]);
+				assertEquals(MessageIds.TRACE_START, messages.get(i + 1));
+				assertEquals("trace of " + idAndName[1], messages.get(i + 2));
+				assertEquals(MessageIds.TRACE_END, messages.get(i + 3));
+				failures++;
+			}
+		}
+		assertEquals(THREAD_COUNT * TESTS_PER_THREAD, failures);
+		assertEquals(THREAD_COUNT * TESTS_PER_THREAD, new HashSet<>(idsByName.values()).size());
+	}
+
+	public void testRunningTests() throws Exception {
+		int port= findFreePort();
+		ILaunch launch= new Launch(null, ILaunchManager.RUN_MODE, null);
+		IJavaProject project= JavaCore.create(ResourcesPlugin.getWorkspace().getRoot().getProject("ParallelRun"));
+		TestRunSession session= new TestRunSession(launch, project, port);
+
+		try (Socket socket= connect(port)) {
+			BinaryMessageSender sender= new BinaryMessageSender(socket.getOutputStream());
+			sender.sendMessage(MessageIds.TEST_RUN_START + 3 + " v2");
+			sender.sendMessage(MessageIds.TEST_START + "1,testA(p.ATest)");
+			sender.sendMessage(MessageIds.TEST_START + "2,testB(p.BTest)");
+			sender.sendMessage(MessageIds.TEST_START + "3,testC(p.CTest)");
+			sender.flush();
+			waitForRunningTests(session, 3);
+			assertRunningTests(session, new String[] { "testA", "testB", "testC" });
+
+			sender.sendMessage(MessageIds.TEST_END + "2,testB(p.BTest)");
+			sender.flush();
+			waitForRunningTests(session, 2);
+			assertRunningTests(session, new String[] { "testA", "testC" });
+
+			sender.sendMessage(MessageIds.TEST_RUN_END + 1000);
+			sender.flush();
+			waitForRunningTests(session, 0);
+			assertFalse(session.isRunning());
+			sender.close();
+		}
+	}
+
+	private static void waitForRunningTests(TestRunSession session, int count) throws InterruptedException {
+		long end= System.currentTimeMillis() + TIMEOUT;
+		while (session.getRunningTests().length != count && System.currentTimeMillis() < end)
+			Thread.sleep(10);
+		assertEquals(count, session.getRunningTests().length);
+	}
+
+	private static void assertRunningTests(TestRunSession session, String[] expectedMethods) {
+		TestCaseElement[] running= session.getRunningTests();
+		String[] actual= new String[running.length];
+		for (int i= 0; i < running.length; i++)
+			actual[i]= running[i].getTestMethodName();
+		// in the order in which the tests have been started
+		assertEquals(String.join(",", expectedMethods), String.join(",", actual));
+	}
+
+	private static int findFreePort() throws IOException {
+		try (ServerSocket socket= new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private static Socket connect(int port) throws Exception {
+		// the session opens its server socket in a background thread
+		for (int i= 0; i < 100; i++) {
+			try {
+				return new Socket("localhost", port);
+			} catch (IOException e) {
+				Thread.sleep(100);
+			}
+		}
+		return new Socket("localhost", port);
+	}
+}
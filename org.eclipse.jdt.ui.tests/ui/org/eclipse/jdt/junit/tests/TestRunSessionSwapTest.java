@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import java.io.ByteArrayOutputStream;
+
+import org.eclipse.jdt.junit.model.ITestElement.FailureTrace;
+import org.eclipse.jdt.junit.model.ITestElement.Result;
+
+import org.eclipse.jdt.internal.junit.model.JUnitModel;
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+import org.eclipse.jdt.internal.junit.model.TestPayloadStore;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestSuiteElement;
+
+import junit.framework.TestCase;
+
+public class TestRunSessionSwapTest extends TestCase {
+
+	private TestRunSession fSession;
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fSession != null)
+			fSession.removeSwapFile();
+	}
+
+	private TestRunSession createSession() {
+		TestRunSession session= new TestRunSession("SwapTest", null);
+		TestSuiteElement suite= (TestSuiteElement) session.createTestElement(session.getTestRoot(), "0", "pack.ATest", true, 3, false, null, null, null);
+		TestCaseElement passing= (TestCaseElement) session.createTestElement(suite, "1", "testPass(pack.ATest)", false, 1, false, null, null, null);
+		TestCaseElement failing= (TestCaseElement) session.createTestElement(suite, "2", "testFail(pack.ATest)", false, 1, false, null, null, null);
+		TestCaseElement erroneous= (TestCaseElement) session.createTestElement(suite, "3", "testError(pack.ATest)", false, 1, false, null, null, null);
+
+		session.registerTestEnded(passing, true);
+		session.registerTestFailureStatus(failing, Status.FAILURE, "junit.framework.ComparisonFailure\n", "expected \u00e4", "actual \u00f6");
+		session.registerTestEnded(failing, true);
+		session.registerTestFailureStatus(erroneous, Status.ERROR, "java.lang.IllegalStateException\n", null, null);
+		erroneous.setStatus(Status.ERROR, "java.lang.NullPointerException\n", null, null);
+		session.registerTestEnded(erroneous, true);
+		return session;
+	}
+
+	private static String export(TestRunSession session) throws Exception {
+		ByteArrayOutputStream out= new ByteArrayOutputStream();
+		JUnitModel.exportTestRunSession(session, out);
+		return out.toString("UTF-8");
+	}
+
+	public void testSwapOutAndReload() throws Exception {
+		fSession= createSession();
+		String exported= export(fSession);
+
+		fSession.swapOut();
+		assertTrue(fSession.isSwappedOut());
+		assertEquals(Result.ERROR, fSession.getTestResult(true));
+		assertEquals(1, fSession.getFailureCount());
+		assertEquals(1, fSession.getErrorCount());
+
+		TestSuiteElement suite= (TestSuiteElement) fSession.getTestRoot().getChildren()[0];
+		assertFalse(fSession.isSwappedOut());
+		assertEquals(3, suite.getChildren().length);
+		assertEquals(1, fSession.getFailureCount());
+		assertEquals(1, fSession.getErrorCount());
+
+		FailureTrace failure= suite.getChildren()[1].getFailureTrace();
+		assertEquals("junit.framework.ComparisonFailure\n", failure.getTrace());
+		assertEquals("expected \u00e4", failure.getExpected());
+		assertEquals("actual \u00f6", failure.getActual());
+		assertEquals("java.lang.IllegalStateException\njava.lang.NullPointerException\n", ((TestCaseElement) suite.getChildren()[2]).getTrace());
+
+		assertEquals(exported, export(fSession));
+	}
+
+	public void testSwapOutTwice() throws Exception {
+		fSession= createSession();
+		String exported= export(fSession);
+
+		fSession.swapOut();
+		fSession.getTestRoot();
+		fSession.swapOut();
+		assertTrue(fSession.isSwappedOut());
+		assertEquals(exported, export(fSession));
+	}
+
+	public void testPayloadStoreRoundTrip() throws Exception {
+		TestPayloadStore store= new TestPayloadStore();
+		try {
+			assertEquals(TestPayloadStore.NONE, store.append(null));
+			assertNull(store.read(TestPayloadStore.NONE));
+
+			long empty= store.append("");
+			long ascii= store.append("trace");
+			long unicode= store.append("\u00e4\u00f6\u00fc \u20ac \ud83d\ude00");
+			StringBuffer buf= new StringBuffer();
+			for (int i= 0; i < 10000; i++)
+				buf.append("line ").append(i).append('\n');
+			long large= store.append(buf.toString());
+
+			assertEquals("", store.read(empty));
+			assertEquals("trace", store.read(ascii));
+			assertEquals("\u00e4\u00f6\u00fc \u20ac \ud83d\ude00", store.read(unicode));
+			assertEquals(buf.toString(), store.read(large));
+
+			store.close();
+			assertEquals("trace", store.read(ascii));
+			assertEquals(buf.toString(), store.read(large));
+		} finally {
+			store.delete();
+		}
+	}
+
+	public void testPayloadStoreChainedFragments() throws Exception {
+		TestPayloadStore store= new TestPayloadStore();
+		try {
+			long first= store.append("first\n");
+			long other= store.append("other\n");
+			long second= store.append("second\n", first);
+			long third= store.append("third\n", second);
+
+			assertEquals(second, store.append(null, second));
+			assertEquals("first\n", store.read(first));
+			assertEquals("first\nsecond\n", store.read(second));
+			assertEquals("first\nsecond\nthird\n", store.read(third));
+			assertEquals("other\n", store.read(other));
+		} finally {
+			store.delete();
+		}
+	}
+
+	public void testPayloadStoreAfterDelete() throws Exception {
+		TestPayloadStore store= new TestPayloadStore();
+		long reference= store.append("trace");
+		store.delete();
+
+		assertNull(store.read(reference));
+		assertNull(store.read(-2));
+		assertEquals(TestPayloadStore.NONE, store.append("trace"));
+	}
+}
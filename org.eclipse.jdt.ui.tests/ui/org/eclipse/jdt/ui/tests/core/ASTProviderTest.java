@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2011 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -33,11 +33,15 @@ import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.jdt.core.refactoring.CompilationUnitChange;
 
 import org.eclipse.jdt.ui.JavaUI;
 import org.eclipse.jdt.ui.SharedASTProvider;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.javaeditor.ASTPool;
+
 
 /**
  * Tests the AST provider.
@@ -144,6 +148,107 @@ public class ASTProviderTest extends CoreTests {
 		cu.getBuffer().save(null, true);
 	}
 
+	public void testASTPool() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E1 {\n");
+		buf.append("}\n");
+		ICompilationUnit cu= pack1.createCompilationUnit("E1.java", buf.toString(), false, null);
+
+		ASTPool pool= JavaPlugin.getDefault().getASTProvider().getASTPool();
+		int hits= pool.getHits();
+
+		CompilationUnit ast= SharedASTProvider.getAST(cu, SharedASTProvider.WAIT_YES, null);
+		assertNotNull(ast);
+		assertSame(ast, SharedASTProvider.getAST(cu, SharedASTProvider.WAIT_YES, null));
+		assertSame(ast, SharedASTProvider.getAST(cu, SharedASTProvider.WAIT_NO, null));
+		assertEquals(hits + 2, pool.getHits());
+
+		// changing the compilation unit invalidates the pooled AST
+		buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E1 {\n");
+		buf.append("    int i;\n");
+		buf.append("}\n");
+		cu.getBuffer().setContents(buf.toString());
+		cu.getBuffer().save(null, true);
+
+		CompilationUnit newAST= SharedASTProvider.getAST(cu, SharedASTProvider.WAIT_YES, null);
+		assertNotNull(newAST);
+		assertNotSame(ast, newAST);
+		assertEquals(1, ((TypeDeclaration) newAST.types().get(0)).getFields().length);
+	}
+
+	public void testASTPoolKeptForOtherUnit() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E1 {\n");
+		buf.append("    E2 e2;\n");
+		buf.append("}\n");
+		ICompilationUnit cu1= pack1.createCompilationUnit("E1.java", buf.toString(), false, null);
+		buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E2 {\n");
+		buf.append("}\n");
+		ICompilationUnit cu2= pack1.createCompilationUnit("E2.java", buf.toString(), false, null);
+
+		CompilationUnit ast1= SharedASTProvider.getAST(cu1, SharedASTProvider.WAIT_YES, null);
+		CompilationUnit ast2= SharedASTProvider.getAST(cu2, SharedASTProvider.WAIT_YES, null);
+		assertSame(ast1, SharedASTProvider.getAST(cu1, SharedASTProvider.WAIT_NO, null));
+
+		// a change in E2 only invalidates the AST of E2
+		buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E2 {\n");
+		buf.append("    int i;\n");
+		buf.append("}\n");
+		cu2.getBuffer().setContents(buf.toString());
+		cu2.getBuffer().save(null, true);
+
+		assertSame(ast1, SharedASTProvider.getAST(cu1, SharedASTProvider.WAIT_NO, null));
+		CompilationUnit newAST2= SharedASTProvider.getAST(cu2, SharedASTProvider.WAIT_YES, null);
+		assertNotSame(ast2, newAST2);
+		assertEquals(1, ((TypeDeclaration) newAST2.types().get(0)).getFields().length);
+	}
+
+	public void testASTPoolEditorSwitch() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E1 {\n");
+		buf.append("}\n");
+		ICompilationUnit cu1= pack1.createCompilationUnit("E1.java", buf.toString(), false, null);
+		buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E2 {\n");
+		buf.append("}\n");
+		ICompilationUnit cu2= pack1.createCompilationUnit("E2.java", buf.toString(), false, null);
+
+		ASTPool pool= JavaPlugin.getDefault().getASTProvider().getASTPool();
+		try {
+			JavaUI.openInEditor(cu1);
+			CompilationUnit ast1= SharedASTProvider.getAST(cu1, SharedASTProvider.WAIT_YES, null);
+			assertNotNull(ast1);
+
+			// the AST of E1 is pooled when E2 becomes active
+			JavaUI.openInEditor(cu2);
+			assertNotNull(SharedASTProvider.getAST(cu2, SharedASTProvider.WAIT_YES, null));
+
+			// typing in E2 must not invalidate the AST of E1
+			cu2.getBuffer().replace(buf.indexOf("}"), 0, "    int i;\n");
+			cu2.reconcile(ICompilationUnit.NO_AST, false, null, null);
+
+			int hits= pool.getHits();
+			JavaUI.openInEditor(cu1);
+			assertSame(ast1, SharedASTProvider.getAST(cu1, SharedASTProvider.WAIT_YES, null));
+			assertEquals(hits + 1, pool.getHits());
+		} finally {
+			JavaPlugin.getActivePage().closeAllEditors(false);
+		}
+	}
+
 	private static String getNormalizeNumber(int number) {
 		if (number < 10) {
 			return "000" + number;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,6 +20,7 @@ import junit.framework.TestSuite;
 
 import org.eclipse.core.runtime.NullProgressMonitor;
 
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IInitializer;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IMethod;
@@ -108,6 +109,50 @@ public class CallHierarchyTest extends TestCase {
         helper.assertCalls(expectedMethods, cachedCalls);
     }
 
+    public void testCallersAfterChange() throws Exception {
+        helper.createSimpleClasses();
+
+        IMethod method= helper.getMethod4();
+
+        MethodWrapper wrapper= getSingleCallerRoot(method);
+        helper.assertCalls(new ArrayList<IMember>(), wrapper.getCalls(new NullProgressMonitor()));
+
+        // the callers are shared by all hierarchies until the Java model changes
+        IMethod caller= helper.getType2().createMethod("public void method5() { method4(); }\n", null, true, null);
+
+        Collection<IMember> expectedMethods= new ArrayList<>();
+        expectedMethods.add(caller);
+
+        MethodWrapper wrapper2= getSingleCallerRoot(method);
+        helper.assertCalls(expectedMethods, wrapper2.getCalls(new NullProgressMonitor()));
+    }
+
+    public void testCallersInWorkingCopy() throws Exception {
+        helper.createSimpleClasses();
+
+        IMethod method= helper.getMethod4();
+
+        MethodWrapper wrapper= getSingleCallerRoot(method);
+        helper.assertCalls(new ArrayList<IMember>(), wrapper.getCalls(new NullProgressMonitor()));
+
+        // unsaved changes are found although the callers of method4 are in the index
+        ICompilationUnit cu= helper.getType2().getCompilationUnit();
+        cu.becomeWorkingCopy(null);
+        try {
+            IType type= cu.getType(helper.getType2().getElementName());
+            IMethod caller= type.createMethod("public void method5() { method4(); }\n", null, true, null);
+            assertTrue(cu.hasUnsavedChanges());
+
+            Collection<IMember> expectedMethods= new ArrayList<>();
+            expectedMethods.add(caller);
+
+            MethodWrapper wrapper2= getSingleCallerRoot(method);
+            helper.assertCalls(expectedMethods, wrapper2.getCalls(new NullProgressMonitor()));
+        } finally {
+            cu.discardWorkingCopy();
+        }
+    }
+
     public void testCallees() throws Exception {
         helper.createSimpleClasses();
 
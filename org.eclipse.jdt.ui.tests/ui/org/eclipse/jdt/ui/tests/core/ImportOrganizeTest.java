@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,8 @@
 package org.eclipse.jdt.ui.tests.core;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Hashtable;
 
 import org.eclipse.jdt.testplugin.JavaProjectHelper;
@@ -23,8 +25,13 @@ import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 
 import org.eclipse.core.resources.ProjectScope;
 
+import org.eclipse.text.edits.TextEdit;
+
+import org.eclipse.jface.text.Document;
+
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IImportDeclaration;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
@@ -36,6 +43,7 @@ import org.eclipse.jdt.core.search.TypeNameMatch;
 
 import org.eclipse.jdt.internal.corext.codemanipulation.OrganizeImportsOperation;
 import org.eclipse.jdt.internal.corext.codemanipulation.OrganizeImportsOperation.IChooseImportQuery;
+import org.eclipse.jdt.internal.corext.codemanipulation.TypeNameMatchCache;
 
 import org.eclipse.jdt.ui.JavaUI;
 import org.eclipse.jdt.ui.PreferenceConstants;
@@ -159,6 +167,91 @@ public class ImportOrganizeTest extends CoreTests {
 		});
 	}
 
+	public void testSharedTypeNameCache() throws Exception {
+		File junitSrcArchive= JavaTestPlugin.getDefault().getFileInPlugin(JavaProjectHelper.JUNIT_SRC_381);
+		assertTrue("junit src not found", junitSrcArchive != null && junitSrcArchive.exists());
+
+		JavaProjectHelper.addSourceContainerWithImport(fJProject1, "src", junitSrcArchive, JavaProjectHelper.JUNIT_SRC_ENCODING);
+
+		ICompilationUnit cu= (ICompilationUnit) fJProject1.findElement(new Path("junit/runner/BaseTestRunner.java"));
+		assertNotNull("BaseTestRunner.java", cu);
+
+		IPackageFragmentRoot root= (IPackageFragmentRoot)cu.getParent().getParent();
+		IPackageFragment pack= root.createPackageFragment("mytest", true, null);
+
+		ICompilationUnit colidingCU= pack.getCompilationUnit("TestListener.java");
+		colidingCU.createType("public abstract class TestListener {\n}\n", null, true, null);
+
+		setOrganizeImportSettings(new String[0], 99, 99, fJProject1);
+
+		ArrayList<ICompilationUnit> cus= new ArrayList<>();
+		IJavaElement[] packages= root.getChildren();
+		for (int i= 0; i < packages.length; i++) {
+			cus.addAll(Arrays.asList(((IPackageFragment) packages[i]).getCompilationUnits()));
+		}
+		assertTrue(cus.size() > 10);
+
+		// the operations sharing a cache must create the same edits as the operations searching separately
+		TypeNameMatchCache cache= new TypeNameMatchCache();
+		for (int i= 0; i < cus.size(); i++) {
+			ICompilationUnit curr= cus.get(i);
+			TextEdit expected= new OrganizeImportsOperation(curr, null, false, false, true, null).createTextEdit(null);
+			TextEdit actual= new OrganizeImportsOperation(curr, null, false, false, true, null, cache).createTextEdit(null);
+
+			Document expectedDocument= new Document(curr.getSource());
+			expected.apply(expectedDocument);
+			Document actualDocument= new Document(curr.getSource());
+			actual.apply(actualDocument);
+			assertEqualString(actualDocument.get(), expectedDocument.get());
+		}
+	}
+
+	public void testCreateTextEdits() throws Exception {
+		File junitSrcArchive= JavaTestPlugin.getDefault().getFileInPlugin(JavaProjectHelper.JUNIT_SRC_381);
+		assertTrue("junit src not found", junitSrcArchive != null && junitSrcArchive.exists());
+
+		JavaProjectHelper.addSourceContainerWithImport(fJProject1, "src", junitSrcArchive, JavaProjectHelper.JUNIT_SRC_ENCODING);
+
+		ICompilationUnit cu= (ICompilationUnit) fJProject1.findElement(new Path("junit/runner/BaseTestRunner.java"));
+		assertNotNull("BaseTestRunner.java", cu);
+
+		IPackageFragmentRoot root= (IPackageFragmentRoot)cu.getParent().getParent();
+		IPackageFragment pack= root.createPackageFragment("mytest", true, null);
+
+		ICompilationUnit colidingCU= pack.getCompilationUnit("TestListener.java");
+		colidingCU.createType("public abstract class TestListener {\n}\n", null, true, null);
+
+		setOrganizeImportSettings(new String[0], 99, 99, fJProject1);
+
+		ArrayList<ICompilationUnit> cus= new ArrayList<>();
+		IJavaElement[] packages= root.getChildren();
+		for (int i= 0; i < packages.length; i++) {
+			cus.addAll(Arrays.asList(((IPackageFragment) packages[i]).getCompilationUnits()));
+		}
+		assertTrue(cus.size() > 10);
+
+		// the batch must create the same edits as the operations running one after another
+		TypeNameMatchCache cache= new TypeNameMatchCache();
+		OrganizeImportsOperation[] ops= new OrganizeImportsOperation[cus.size()];
+		for (int i= 0; i < ops.length; i++) {
+			ops[i]= new OrganizeImportsOperation(cus.get(i), null, false, false, true, null, cache);
+		}
+		TextEdit[] edits= OrganizeImportsOperation.createTextEdits(ops, 4, null);
+		assertTrue(cache.getQueryCount() <= 1); // one query for all unresolved names
+
+		for (int i= 0; i < cus.size(); i++) {
+			ICompilationUnit curr= cus.get(i);
+			TextEdit expected= new OrganizeImportsOperation(curr, null, false, false, true, null).createTextEdit(null);
+			TextEdit actual= edits[i];
+
+			Document expectedDocument= new Document(curr.getSource());
+			expected.apply(expectedDocument);
+			Document actualDocument= new Document(curr.getSource());
+			actual.apply(actualDocument);
+			assertEqualString(actualDocument.get(), expectedDocument.get());
+		}
+	}
+
 	public void test1WithOrder() throws Exception {
 		File junitSrcArchive= JavaTestPlugin.getDefault().getFileInPlugin(JavaProjectHelper.JUNIT_SRC_381);
 		assertTrue("junit src not found", junitSrcArchive != null && junitSrcArchive.exists());
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.ui.tests.core;
 
+import java.io.File;
 import java.text.Collator;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -18,6 +19,8 @@ import org.w3c.dom.Element;
 
 import org.eclipse.jdt.internal.corext.util.History;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
@@ -131,6 +134,24 @@ public class SelectionHistoryTest extends TestCase {
 
 	}
 
+	private static final class JournaledTestHistory extends History<String, String> {
+
+		public static final String FILE_NAME= "SelectionHistoryTest.xml";
+
+		public JournaledTestHistory() {
+			super(FILE_NAME);
+		}
+		@Override
+		protected void setAttributes(Object object, Element element) {
+			element.setAttribute("name", (String) object);
+		}
+		@Override
+		protected String createFromElement(Element element) {return element.getAttribute("name");}
+		@Override
+		protected String getKey(String object) {return object;}
+
+	}
+
 	public void testOrganizeImportHistory01() throws Exception {
 		History<String, String> history= new TestHistory();
 		Comparator<String> comparator= new TestHistoryComparator(history);
@@ -193,4 +214,42 @@ public class SelectionHistoryTest extends TestCase {
 		assertEquals(strings, expected);
 	}
 
+	public void testJournal() throws Exception {
+		File journal= JavaPlugin.getDefault().getStateLocation().append("SelectionHistoryTest.history").toFile();
+		journal.delete();
+		try {
+			History<String, String> history= new JournaledTestHistory();
+			history.load();
+			history.accessed("a");
+			history.accessed("b");
+			history.accessed("c");
+			history.remove("b");
+			history.accessed("a");
+			// the records are buffered until they are flushed
+			assertFalse(journal.exists());
+			history.flush();
+			assertTrue(journal.exists());
+			history.accessed("d");
+			history.remove("d");
+			history.flush();
+
+			// replay the appended records
+			history= new JournaledTestHistory();
+			history.load();
+			assertFalse(history.contains("b"));
+			assertEquals(1, history.getPosition("a"));
+			assertEquals(0, history.getPosition("c"));
+
+			// compact and replay again
+			history.save();
+			history= new JournaledTestHistory();
+			history.load();
+			assertFalse(history.contains("b"));
+			assertEquals(1, history.getPosition("a"));
+			assertEquals(0, history.getPosition("c"));
+		} finally {
+			journal.delete();
+		}
+	}
+
 }
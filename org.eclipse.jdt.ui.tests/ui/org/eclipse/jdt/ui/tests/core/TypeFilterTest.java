@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.core;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.jface.preference.IPreferenceStore;
+
+import org.eclipse.jdt.internal.corext.util.TypeFilter;
+
+import org.eclipse.jdt.ui.PreferenceConstants;
+
+public class TypeFilterTest extends TestCase {
+
+	private String fOldFilters;
+
+	public static Test suite() {
+		return new TestSuite(TypeFilterTest.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		IPreferenceStore store= PreferenceConstants.getPreferenceStore();
+		fOldFilters= store.getString(PreferenceConstants.TYPEFILTER_ENABLED);
+		store.setValue(PreferenceConstants.TYPEFILTER_ENABLED, "java.awt.List;java.awt.*;com.sun.*;*.internal.*;org.?ool.Bar;pack.A*Z;esc.\\*");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		PreferenceConstants.getPreferenceStore().setValue(PreferenceConstants.TYPEFILTER_ENABLED, fOldFilters);
+	}
+
+	private static void assertFiltered(boolean expected, String packageName, String typeName) {
+		String fullName= packageName.length() == 0 ? typeName : packageName + "." + typeName;
+		assertEquals(fullName, expected, TypeFilter.isFiltered(fullName));
+		assertEquals(fullName, expected, TypeFilter.isFiltered(fullName.toCharArray()));
+		assertEquals(fullName, expected, TypeFilter.isFiltered(packageName.toCharArray(), typeName.toCharArray()));
+	}
+
+	public void testExactPattern() {
+		assertFiltered(true, "java.awt", "List");
+		assertFiltered(false, "java.util", "List");
+		assertFiltered(false, "java", "awt");
+	}
+
+	public void testPrefixPattern() {
+		assertFiltered(true, "java.awt", "Frame");
+		assertFiltered(true, "java.awt.event", "ActionEvent");
+		assertFiltered(true, "com.sun", "X");
+		assertFiltered(false, "com", "Sun");
+		assertFiltered(false, "java.awtx", "Frame");
+	}
+
+	public void testWildcardPatterns() {
+		assertFiltered(true, "org.eclipse.internal.core", "Foo");
+		assertFiltered(false, "org.eclipse.core", "Internal");
+		assertFiltered(true, "org.tool", "Bar");
+		assertFiltered(true, "org.pool", "Bar");
+		assertFiltered(false, "org.spool", "Bar");
+		assertFiltered(true, "pack", "AZ");
+		assertFiltered(true, "pack", "AbcZ");
+		assertFiltered(false, "pack", "AbcY");
+	}
+
+	public void testEscapedWildcard() {
+		assertFiltered(true, "esc", "*");
+		assertFiltered(false, "esc", "A");
+	}
+
+	public void testDefaultPackage() {
+		assertFiltered(false, "", "List");
+		assertFiltered(true, "", "java.awt.List");
+	}
+
+	public void testNoFilters() {
+		PreferenceConstants.getPreferenceStore().setValue(PreferenceConstants.TYPEFILTER_ENABLED, "");
+		assertFalse(TypeFilter.getDefault().hasFilters());
+		assertFiltered(false, "java.awt", "List");
+	}
+}
@@ -29,6 +29,7 @@ import org.eclipse.jdt.core.ITypeHierarchy;
 import org.eclipse.jdt.core.ITypeHierarchyChangedListener;
 
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
+import org.eclipse.jdt.internal.corext.util.SuperTypeHierarchyCache;
 
 import org.eclipse.jdt.ui.JavaUI;
 import org.eclipse.jdt.ui.SharedASTProvider;
@@ -291,7 +292,43 @@ public class TypeHierarchyTest extends TestCase {
 
 	}
 
+	public void testSuperTypeHierarchyCache() throws Exception {
+		IPackageFragmentRoot root1= JavaProjectHelper.addSourceContainer(fJavaProject1, "src");
+		IPackageFragment pack1= root1.createPackageFragment("pack1", true, null);
+
+		ICompilationUnit cu1= pack1.getCompilationUnit("A.java");
+		IType type1= cu1.createType("public class A {\n}\n", null, true, null);
+
+		ICompilationUnit cu2= pack1.getCompilationUnit("B.java");
+		IType type2= cu2.createType("public class B extends A {\n}\n", null, true, null);
+
+		ICompilationUnit cu3= pack1.getCompilationUnit("C.java");
+		IType type3= cu3.createType("public class C {\n}\n", null, true, null);
 
+		int misses= SuperTypeHierarchyCache.getCacheMisses();
+		int hits= SuperTypeHierarchyCache.getCacheHits();
 
+		ITypeHierarchy hierarchy= SuperTypeHierarchyCache.getTypeHierarchy(type2);
+		assertEquals(misses + 1, SuperTypeHierarchyCache.getCacheMisses());
+
+		// the hierarchy of B also contains A
+		assertSame(hierarchy, SuperTypeHierarchyCache.getTypeHierarchy(type1));
+		assertSame(hierarchy, SuperTypeHierarchyCache.getTypeHierarchy(type2));
+		assertEquals(hits + 2, SuperTypeHierarchyCache.getCacheHits());
+
+		SuperTypeHierarchyCache.getTypeHierarchy(type3);
+		assertTrue(SuperTypeHierarchyCache.hasInCache(type3));
+		assertTrue(SuperTypeHierarchyCache.getEstimatedCacheSize() > 0);
+
+		// changing A only invalidates the hierarchy that contains A
+		type1.createMethod("public void foo() {\n}\n", null, true, null);
+		assertFalse(SuperTypeHierarchyCache.hasInCache(type2));
+		assertFalse(SuperTypeHierarchyCache.hasInCache(type1));
+		assertTrue(SuperTypeHierarchyCache.hasInCache(type3));
+
+		ITypeHierarchy newHierarchy= SuperTypeHierarchyCache.getTypeHierarchy(type2);
+		assertNotSame(hierarchy, newHierarchy);
+		assertEquals(misses + 3, SuperTypeHierarchyCache.getCacheMisses());
+	}
 
 }
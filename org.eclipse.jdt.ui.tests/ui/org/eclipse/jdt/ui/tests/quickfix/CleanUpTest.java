@@ -39,6 +39,7 @@ import org.eclipse.jdt.core.formatter.DefaultCodeFormatterConstants;
 
 import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
+import org.eclipse.jdt.internal.corext.fix.CleanUpRefactoring;
 import org.eclipse.jdt.internal.corext.refactoring.util.RefactoringASTParser;
 
 import org.eclipse.jdt.ui.PreferenceConstants;
@@ -9110,4 +9111,36 @@ public class CleanUpTest extends CleanUpTestCase {
 		assertRefactoringResultAsExpected(new ICompilationUnit[] { cu1, cu2 }, new String[] { expected1, expected2 });
 	}
 
+	public void testParallelCleanUp() throws Exception {
+		ICompilationUnit[] cus= new ICompilationUnit[24];
+		String[] expected= new String[cus.length];
+		for (int i= 0; i < cus.length; i++) {
+			String packageName= "test" + (i % 4);
+			IPackageFragment pack= fSourceFolder.createPackageFragment(packageName, false, null);
+			StringBuffer buf= new StringBuffer();
+			buf.append("package " + packageName + ";\n");
+			buf.append("public class E" + i + " {\n");
+			buf.append("    public int foo;\n");
+			buf.append("    public int getFoo() {\n");
+			buf.append("        return this.foo;\n");
+			buf.append("    }\n");
+			buf.append("}\n");
+			cus[i]= pack.createCompilationUnit("E" + i + ".java", buf.toString(), false, null);
+			expected[i]= buf.toString().replace("this.foo", "foo");
+		}
+
+		enable(CleanUpConstants.MEMBER_ACCESSES_NON_STATIC_FIELD_USE_THIS);
+		enable(CleanUpConstants.MEMBER_ACCESSES_NON_STATIC_FIELD_USE_THIS_IF_NECESSARY);
+
+		CleanUpRefactoring ref= new CleanUpRefactoring();
+		ref.setUseOptionsFromProfile(true);
+		ref.setParallelism(4);
+		ref.setBatchSize(3); // 8 batches on 4 workers
+		performRefactoring(ref, cus, JavaPlugin.getDefault().getCleanUpRegistry().createCleanUps());
+
+		for (int i= 0; i < cus.length; i++) {
+			assertEqualString(cus[i].getBuffer().getContents(), expected[i]);
+		}
+	}
+
 }
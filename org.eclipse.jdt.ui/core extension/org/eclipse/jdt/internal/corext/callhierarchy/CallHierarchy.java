@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -24,12 +24,14 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 
 import org.eclipse.jface.preference.IPreferenceStore;
 
+import org.eclipse.jdt.core.ElementChangedEvent;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IModuleDescription;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
@@ -51,6 +53,7 @@ public class CallHierarchy {
     private static CallHierarchy fgInstance;
     private IJavaSearchScope fSearchScope;
     private StringMatcher[] fFilters;
+    private CallerIndex fCallerIndex;
 
     public static CallHierarchy getDefault() {
         if (fgInstance == null) {
@@ -72,6 +75,20 @@ public class CallHierarchy {
         settings.setValue(PREF_USE_IMPLEMENTORS, enabled);
     }
 
+    /**
+     * Returns the callers found so far, shared by all caller hierarchies.
+     *
+     * @return the caller index
+     * @since 3.14
+     */
+    synchronized CallerIndex getCallerIndex() {
+        if (fCallerIndex == null) {
+            fCallerIndex= new CallerIndex();
+            JavaCore.addElementChangedListener(fCallerIndex, ElementChangedEvent.POST_CHANGE);
+        }
+        return fCallerIndex;
+    }
+
     public Collection<IJavaElement> getImplementingMethods(IMethod method) {
         if (isSearchUsingImplementorsEnabled()) {
             IJavaElement[] result = Implementors.getInstance().searchForImplementors(new IJavaElement[] {
@@ -207,6 +224,7 @@ public class CallHierarchy {
     public void setFilterEnabled(boolean filterEnabled) {
         IPreferenceStore settings = JavaPlugin.getDefault().getPreferenceStore();
         settings.setValue(PREF_USE_FILTERS, filterEnabled);
+        getCallerIndex().clear(); // the callers are filtered when they are found
     }
 
     /**
@@ -224,6 +242,7 @@ public class CallHierarchy {
 
         IPreferenceStore settings = JavaPlugin.getDefault().getPreferenceStore();
         settings.setValue(PREF_FILTERS_LIST, filters);
+        getCallerIndex().clear();
     }
 
     /**
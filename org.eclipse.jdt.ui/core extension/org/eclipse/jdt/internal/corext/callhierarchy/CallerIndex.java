@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.callhierarchy;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+
+/**
+ * The callers found by {@link CallerMethodWrapper}s, shared by all call hierarchies. The index is
+ * cleared when a change that can change the callers of a member is saved. While a working copy has
+ * unsaved changes, the index is bypassed and callers are searched in the working copies, since an
+ * edit in any compilation unit can add or remove callers of any member and clearing the index on
+ * every reconcile would discard it while the user types.
+ *
+ * @since 3.14
+ */
+class CallerIndex implements IElementChangedListener {
+
+	private static final int MAX_ENTRIES= 2000;
+
+	private static class Key {
+		private final String fHandle;
+		private final int fFieldSearchMode;
+		private final IJavaSearchScope fScope;
+
+		Key(IMember member, int fieldSearchMode, IJavaSearchScope scope) {
+			fHandle= member.getHandleIdentifier();
+			fFieldSearchMode= member.getElementType() == IJavaElement.FIELD ? fieldSearchMode : IJavaSearchConstants.REFERENCES;
+			fScope= scope;
+		}
+
+		@Override
+		public int hashCode() {
+			return fHandle.hashCode() * 31 + fFieldSearchMode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key other= (Key) obj;
+			return fHandle.equals(other.fHandle) && fFieldSearchMode == other.fFieldSearchMode && fScope.equals(other.fScope);
+		}
+	}
+
+	/**
+	 * Callers by member, least recently used first.
+	 */
+	private final LinkedHashMap<Key, Map<String, MethodCall>> fCallers= new LinkedHashMap<Key, Map<String, MethodCall>>(16, 0.75f, true) {
+		private static final long serialVersionUID= 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Map<String, MethodCall>> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	/**
+	 * Incremented whenever the index is cleared, so that searches that were started before are
+	 * not added to the index.
+	 */
+	private int fGeneration;
+
+	/**
+	 * Returns the callers of a member, searching for them if they are not in the index.
+	 *
+	 * @param member the member
+	 * @param fieldSearchMode the field search mode, only used if the member is a field
+	 * @param scope the search scope
+	 * @param monitor the progress monitor
+	 * @return the callers by {@link MethodCall#getKey()}; the map can be modified by the caller
+	 * @throws CoreException if the search fails
+	 */
+	Map<String, MethodCall> getCallers(IMember member, int fieldSearchMode, IJavaSearchScope scope, IProgressMonitor monitor) throws CoreException {
+		if (hasUnsavedWorkingCopies())
+			return CallerMethodWrapper.searchCallers(member, fieldSearchMode, scope, monitor);
+
+		Key key= new Key(member, fieldSearchMode, scope);
+		int generation;
+		synchronized (this) {
+			Map<String, MethodCall> callers= fCallers.get(key);
+			if (callers != null)
+				return new HashMap<>(callers);
+			generation= fGeneration;
+		}
+		Map<String, MethodCall> callers= CallerMethodWrapper.searchCallers(member, fieldSearchMode, scope, monitor);
+		if (!monitor.isCanceled()) {
+			synchronized (this) {
+				if (generation == fGeneration)
+					fCallers.put(key, new HashMap<>(callers));
+			}
+		}
+		return callers;
+	}
+
+	/**
+	 * Removes the callers of a member from the index.
+	 *
+	 * @param member the member
+	 * @param fieldSearchMode the field search mode, only used if the member is a field
+	 * @param scope the search scope
+	 */
+	synchronized void remove(IMember member, int fieldSearchMode, IJavaSearchScope scope) {
+		fCallers.remove(new Key(member, fieldSearchMode, scope));
+	}
+
+	/**
+	 * Removes all callers from the index.
+	 */
+	synchronized void clear() {
+		fGeneration++;
+		fCallers.clear();
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		if (affectsCallers(event.getDelta()))
+			clear();
+	}
+
+	private static boolean hasUnsavedWorkingCopies() {
+		ICompilationUnit[] workingCopies= JavaCore.getWorkingCopies(null);
+		for (int i= 0; i < workingCopies.length; i++) {
+			try {
+				if (workingCopies[i].hasUnsavedChanges())
+					return true;
+			} catch (JavaModelException e) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean affectsCallers(IJavaElementDelta delta) {
+		int kind= delta.getKind();
+		if (kind == IJavaElementDelta.ADDED || kind == IJavaElementDelta.REMOVED)
+			return true;
+		int flags= delta.getFlags();
+		if ((flags & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+				| IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+				| IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED)) != 0)
+			return true;
+		IJavaElementDelta[] children= delta.getAffectedChildren();
+		for (int i= 0; i < children.length; i++) {
+			if (affectsCallers(children[i]))
+				return true;
+		}
+		return false;
+	}
+}
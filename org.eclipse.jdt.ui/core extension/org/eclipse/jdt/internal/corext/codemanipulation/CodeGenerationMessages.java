@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -31,6 +31,7 @@ public final class CodeGenerationMessages extends NLS {
 	public static String AddUnimplementedMethodsOperation_description;
 	public static String AddCustomConstructorOperation_description;
 	public static String OrganizeImportsOperation_description;
+	public static String OrganizeImportsOperation_batch_description;
 	public static String AddJavaDocStubOperation_description;
 	public static String AddDelegateMethodsOperation_monitor_message;
 	public static String GenerateHashCodeEqualsOperation_description;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,11 +21,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
 
@@ -73,6 +79,8 @@ import org.eclipse.jdt.internal.corext.util.TypeNameMatchCollector;
 
 import org.eclipse.jdt.ui.SharedASTProvider;
 
+import org.eclipse.jdt.internal.ui.IJavaStatusConstants;
+import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.text.correction.ProblemLocation;
 import org.eclipse.jdt.internal.ui.text.correction.SimilarElementsRequestor;
 
@@ -220,6 +228,8 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 
 		private final UnresolvableImportMatcher fUnresolvableImportMatcher;
 
+		private final TypeNameMatchCache fTypeNameCache;
+
 		private IPackageFragment fCurrPackage;
 
 		private ScopeAnalyzer fAnalyzer;
@@ -231,12 +241,13 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 		private SourceRange[] fSourceRanges;
 
 
-		public TypeReferenceProcessor(Set<String> oldSingleImports, Set<String> oldDemandImports, CompilationUnit root, ImportRewrite impStructure, boolean ignoreLowerCaseNames, UnresolvableImportMatcher unresolvableImportMatcher) {
+		public TypeReferenceProcessor(Set<String> oldSingleImports, Set<String> oldDemandImports, CompilationUnit root, ImportRewrite impStructure, boolean ignoreLowerCaseNames, UnresolvableImportMatcher unresolvableImportMatcher, TypeNameMatchCache typeNameCache) {
 			fOldSingleImports= oldSingleImports;
 			fOldDemandImports= oldDemandImports;
 			fImpStructure= impStructure;
 			fDoIgnoreLowerCaseNames= ignoreLowerCaseNames;
 			fUnresolvableImportMatcher= unresolvableImportMatcher;
+			fTypeNameCache= typeNameCache;
 
 			ICompilationUnit cu= impStructure.getCompilationUnit();
 
@@ -336,26 +347,40 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 			fUnresolvedTypes.put(typeName, new UnresolvedTypeData(ref));
 		}
 
+		/**
+		 * Returns the simple names of the types that could not be resolved.
+		 *
+		 * @return the unresolved type names
+		 */
+		public Set<String> getUnresolvedTypeNames() {
+			return fUnresolvedTypes.keySet();
+		}
+
 		public boolean process(IProgressMonitor monitor) throws JavaModelException {
 			try {
 				int nUnresolved= fUnresolvedTypes.size();
 				if (nUnresolved == 0) {
 					return false;
 				}
-				char[][] allTypes= new char[nUnresolved][];
-				int i= 0;
-				for (Iterator<String> iter= fUnresolvedTypes.keySet().iterator(); iter.hasNext();) {
-					allTypes[i++]= iter.next().toCharArray();
-				}
-				final ArrayList<TypeNameMatch> typesFound= new ArrayList<>();
 				final IJavaProject project= fCurrPackage.getJavaProject();
-				IJavaSearchScope scope= SearchEngine.createJavaSearchScope(new IJavaElement[] { project });
-				TypeNameMatchCollector collector= new TypeNameMatchCollector(typesFound);
-				new SearchEngine().searchAllTypeNames(null, allTypes, scope, collector, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+				final List<TypeNameMatch> typesFound;
+				if (fTypeNameCache != null) {
+					typesFound= fTypeNameCache.findTypes(project, fUnresolvedTypes.keySet(), monitor);
+				} else {
+					char[][] allTypes= new char[nUnresolved][];
+					int i= 0;
+					for (Iterator<String> iter= fUnresolvedTypes.keySet().iterator(); iter.hasNext();) {
+						allTypes[i++]= iter.next().toCharArray();
+					}
+					typesFound= new ArrayList<>();
+					IJavaSearchScope scope= SearchEngine.createJavaSearchScope(new IJavaElement[] { project });
+					TypeNameMatchCollector collector= new TypeNameMatchCollector(typesFound);
+					new SearchEngine().searchAllTypeNames(null, allTypes, scope, collector, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+				}
 
 				boolean is50OrHigher= JavaModelUtil.is50OrHigher(project);
 
-				for (i= 0; i < typesFound.size(); i++) {
+				for (int i= 0; i < typesFound.size(); i++) {
 					TypeNameMatch curr= typesFound.get(i);
 					UnresolvedTypeData data= fUnresolvedTypes.get(curr.getSimpleTypeName());
 					if (data != null && isVisible(curr) && isOfKind(curr, data.typeKinds, is50OrHigher)) {
@@ -488,6 +513,22 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 		}
 	};
 
+	/**
+	 * The imports of a compilation unit while they are organized.
+	 */
+	private static class ImportsData {
+		final ImportRewrite importsRewrite;
+		final Set<String> oldSingleImports= new HashSet<>();
+		final Set<String> oldDemandImports= new HashSet<>();
+		final List<SimpleName> staticReferences= new ArrayList<>();
+		UnresolvableImportMatcher unresolvableImportMatcher;
+		TypeReferenceProcessor processor;
+
+		ImportsData(ImportRewrite importsRewrite) {
+			this.importsRewrite= importsRewrite;
+		}
+	}
+
 	private boolean fDoSave;
 
 	private boolean fIgnoreLowerCaseNames;
@@ -504,7 +545,27 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 
 	private final boolean fAllowSyntaxErrors;
 
+	private final TypeNameMatchCache fTypeNameCache;
+
 	public OrganizeImportsOperation(ICompilationUnit cu, CompilationUnit astRoot, boolean ignoreLowerCaseNames, boolean save, boolean allowSyntaxErrors, IChooseImportQuery chooseImportQuery) {
+		this(cu, astRoot, ignoreLowerCaseNames, save, allowSyntaxErrors, chooseImportQuery, null);
+	}
+
+	/**
+	 * Creates an organize imports operation that looks up the unresolved type names in a cache
+	 * shared with other operations.
+	 *
+	 * @param cu the compilation unit
+	 * @param astRoot the AST of the compilation unit, or <code>null</code> to use the shared AST
+	 * @param ignoreLowerCaseNames if unresolved names starting with a lower case letter are ignored
+	 * @param save if the compilation unit is saved after the imports have been organized
+	 * @param allowSyntaxErrors if the imports are organized although there are syntax errors
+	 * @param chooseImportQuery the query for ambiguous types, or <code>null</code>
+	 * @param typeNameCache the cache for the types found for unresolved names, or
+	 *            <code>null</code> to search for each operation separately
+	 * @since 3.14
+	 */
+	public OrganizeImportsOperation(ICompilationUnit cu, CompilationUnit astRoot, boolean ignoreLowerCaseNames, boolean save, boolean allowSyntaxErrors, IChooseImportQuery chooseImportQuery, TypeNameMatchCache typeNameCache) {
 		fCompilationUnit= cu;
 		fASTRoot= astRoot;
 
@@ -512,6 +573,7 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 		fIgnoreLowerCaseNames= ignoreLowerCaseNames;
 		fAllowSyntaxErrors= allowSyntaxErrors;
 		fChooseImportQuery= chooseImportQuery;
+		fTypeNameCache= typeNameCache;
 
 		fNumberOfImportsAdded= 0;
 		fNumberOfImportsRemoved= 0;
@@ -548,11 +610,146 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 			monitor= new NullProgressMonitor();
 		}
 		try {
+			monitor.beginTask(Messages.format(CodeGenerationMessages.OrganizeImportsOperation_description, BasicElementLabels.getFileName(fCompilationUnit)), 9);
+
+			ImportsData data= collectImports(fTypeNameCache, new SubProgressMonitor(monitor, 3));
+			if (data == null)
+				return null;
+
+			addImports(data, new SubProgressMonitor(monitor, 3));
+
+			return rewriteImports(data, new SubProgressMonitor(monitor, 3));
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Creates the text edits of several organize imports operations. The type names that cannot
+	 * be resolved in the compilation units are searched with one query per project, and the import
+	 * sections of the compilation units are rewritten in parallel.
+	 * <p>
+	 * Operations that have no {@link TypeNameMatchCache} share a new one. The choose import queries
+	 * of the operations are called in the calling thread.
+	 * </p>
+	 *
+	 * @param operations the operations
+	 * @param parallelism the number of threads used to rewrite the imports, must be positive
+	 * @param monitor the progress monitor, can be <code>null</code>
+	 * @return the text edits, in the order of the operations; an edit is <code>null</code> if the
+	 *         compilation unit has a parse error
+	 * @throws CoreException if the imports of a compilation unit cannot be organized
+	 * @throws OperationCanceledException if the operation has been canceled
+	 * @since 3.14
+	 */
+	public static TextEdit[] createTextEdits(final OrganizeImportsOperation[] operations, int parallelism, IProgressMonitor monitor) throws CoreException, OperationCanceledException {
+		if (parallelism < 1)
+			throw new IllegalArgumentException();
+		if (monitor == null) {
+			monitor= new NullProgressMonitor();
+		}
+		try {
+			monitor.beginTask(CodeGenerationMessages.OrganizeImportsOperation_batch_description, operations.length * 9 + 1);
+
+			TypeNameMatchCache sharedCache= new TypeNameMatchCache();
+			final ImportsData[] data= new ImportsData[operations.length];
+			Map<TypeNameMatchCache, Map<IJavaProject, Set<String>>> unresolvedTypeNames= new HashMap<>();
+			int nQueries= 0;
+			for (int i= 0; i < operations.length; i++) {
+				OrganizeImportsOperation operation= operations[i];
+				TypeNameMatchCache cache= operation.fTypeNameCache != null ? operation.fTypeNameCache : sharedCache;
+				data[i]= operation.collectImports(cache, new SubProgressMonitor(monitor, 3));
+				if (data[i] != null) {
+					Map<IJavaProject, Set<String>> namesByProject= unresolvedTypeNames.get(cache);
+					if (namesByProject == null) {
+						namesByProject= new HashMap<>();
+						unresolvedTypeNames.put(cache, namesByProject);
+					}
+					IJavaProject project= operation.fCompilationUnit.getJavaProject();
+					Set<String> names= namesByProject.get(project);
+					if (names == null) {
+						names= new HashSet<>();
+						namesByProject.put(project, names);
+						nQueries++;
+					}
+					names.addAll(data[i].processor.getUnresolvedTypeNames());
+				}
+			}
+
+			IProgressMonitor searchMonitor= new SubProgressMonitor(monitor, 1);
+			searchMonitor.beginTask("", nQueries); //$NON-NLS-1$
+			for (Entry<TypeNameMatchCache, Map<IJavaProject, Set<String>>> cacheEntry : unresolvedTypeNames.entrySet()) {
+				for (Entry<IJavaProject, Set<String>> entry : cacheEntry.getValue().entrySet()) {
+					cacheEntry.getKey().prefetch(entry.getKey(), entry.getValue(), new SubProgressMonitor(searchMonitor, 1));
+				}
+			}
+			searchMonitor.done();
+			if (monitor.isCanceled())
+				throw new OperationCanceledException();
+
+			for (int i= 0; i < operations.length; i++) {
+				if (data[i] != null)
+					operations[i].addImports(data[i], new SubProgressMonitor(monitor, 3));
+				else
+					monitor.worked(3);
+			}
+
+			TextEdit[] result= new TextEdit[operations.length];
+			ForkJoinPool pool= new ForkJoinPool(Math.max(1, Math.min(parallelism, operations.length)));
+			try {
+				List<Future<TextEdit>> futures= new ArrayList<>(operations.length);
+				for (int i= 0; i < operations.length; i++) {
+					final int index= i;
+					futures.add(pool.submit(new Callable<TextEdit>() {
+						@Override
+						public TextEdit call() throws Exception {
+							if (data[index] == null)
+								return null;
+							return operations[index].rewriteImports(data[index], new NullProgressMonitor());
+						}
+					}));
+				}
+				for (int i= 0; i < futures.size(); i++) {
+					try {
+						result[i]= futures.get(i).get();
+					} catch (InterruptedException e) {
+						throw new OperationCanceledException();
+					} catch (ExecutionException e) {
+						Throwable cause= e.getCause();
+						if (cause instanceof CoreException)
+							throw (CoreException) cause;
+						if (cause instanceof RuntimeException)
+							throw (RuntimeException) cause;
+						throw new CoreException(new Status(IStatus.ERROR, JavaPlugin.getPluginId(), IJavaStatusConstants.INTERNAL_ERROR, cause.getMessage(), cause));
+					}
+					monitor.worked(3);
+					if (monitor.isCanceled())
+						throw new OperationCanceledException();
+				}
+			} finally {
+				pool.shutdownNow();
+			}
+			return result;
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Collects the existing imports and the type references of the compilation unit.
+	 *
+	 * @param typeNameCache the cache for the types found for unresolved names, or
+	 *            <code>null</code>
+	 * @param monitor the progress monitor
+	 * @return the imports, or <code>null</code> if the compilation unit has a parse error
+	 * @throws OperationCanceledException if the operation has been canceled
+	 */
+	private ImportsData collectImports(TypeNameMatchCache typeNameCache, IProgressMonitor monitor) throws CoreException, OperationCanceledException {
+		try {
+			monitor.beginTask("", 3); //$NON-NLS-1$
 			fNumberOfImportsAdded= 0;
 			fNumberOfImportsRemoved= 0;
 
-			monitor.beginTask(Messages.format(CodeGenerationMessages.OrganizeImportsOperation_description, BasicElementLabels.getFileName(fCompilationUnit)), 9);
-
 			CompilationUnit astRoot= fASTRoot;
 			if (astRoot == null) {
 				astRoot= SharedASTProvider.getAST(fCompilationUnit, SharedASTProvider.WAIT_YES, new SubProgressMonitor(monitor, 2));
@@ -562,71 +759,84 @@ public class OrganizeImportsOperation implements IWorkspaceRunnable {
 				monitor.worked(2);
 			}
 
-			ImportRewrite importsRewrite= StubUtility.createImportRewrite(astRoot, false);
-
-			Set<String> oldSingleImports= new HashSet<>();
-			Set<String>  oldDemandImports= new HashSet<>();
+			ImportsData data= new ImportsData(StubUtility.createImportRewrite(astRoot, false));
 			List<SimpleName> typeReferences= new ArrayList<>();
-			List<SimpleName> staticReferences= new ArrayList<>();
 
-			if (!collectReferences(astRoot, typeReferences, staticReferences, oldSingleImports, oldDemandImports))
+			if (!collectReferences(astRoot, typeReferences, data.staticReferences, data.oldSingleImports, data.oldDemandImports))
 				return null;
 
-			monitor.worked(1);
-
-			UnresolvableImportMatcher unresolvableImportMatcher =
-					UnresolvableImportMatcher.forCompilationUnit(astRoot);
+			data.unresolvableImportMatcher= UnresolvableImportMatcher.forCompilationUnit(astRoot);
 
-			TypeReferenceProcessor processor= new TypeReferenceProcessor(
-					oldSingleImports,
-					oldDemandImports,
+			data.processor= new TypeReferenceProcessor(
+					data.oldSingleImports,
+					data.oldDemandImports,
 					astRoot,
-					importsRewrite,
+					data.importsRewrite,
 					fIgnoreLowerCaseNames,
-					unresolvableImportMatcher);
+					data.unresolvableImportMatcher,
+					typeNameCache);
 
 			Iterator<SimpleName> refIterator= typeReferences.iterator();
 			while (refIterator.hasNext()) {
 				SimpleName typeRef= refIterator.next();
-				processor.add(typeRef);
+				data.processor.add(typeRef);
 			}
+			monitor.worked(1);
 
-			boolean hasOpenChoices= processor.process(new SubProgressMonitor(monitor, 3));
-			addStaticImports(staticReferences, importsRewrite, unresolvableImportMatcher);
+			return data;
+		} finally {
+			monitor.done();
+		}
+	}
 
-			if (hasOpenChoices && fChooseImportQuery != null) {
-				TypeNameMatch[][] choices= processor.getChoices();
-				ISourceRange[] ranges= processor.getChoicesSourceRanges();
-				TypeNameMatch[] chosen= fChooseImportQuery.chooseImports(choices, ranges);
-				if (chosen == null) {
-					// cancel pressed by the user
-					throw new OperationCanceledException();
-				}
-				for (int i= 0; i < chosen.length; i++) {
-					TypeNameMatch typeInfo= chosen[i];
-					if (typeInfo != null) {
-						importsRewrite.addImport(typeInfo.getFullyQualifiedName());
-					} else { // Skipped by user
-						String typeName= choices[i][0].getSimpleTypeName();
-						Set<String> matchingUnresolvableImports= unresolvableImportMatcher.matchTypeImports(typeName);
-						if (!matchingUnresolvableImports.isEmpty()) {
-							// If there are matching unresolvable import(s), rely on them to provide the type.
-							for (String string : matchingUnresolvableImports) {
-								importsRewrite.addImport(string, UNRESOLVABLE_IMPORT_CONTEXT);
-							}
+	/**
+	 * Adds the imports for the type references and the static references, and asks the choose
+	 * import query for the ambiguous types.
+	 *
+	 * @param data the imports
+	 * @param monitor the progress monitor
+	 * @throws OperationCanceledException if the query has been canceled
+	 */
+	private void addImports(ImportsData data, IProgressMonitor monitor) throws CoreException, OperationCanceledException {
+		ImportRewrite importsRewrite= data.importsRewrite;
+		UnresolvableImportMatcher unresolvableImportMatcher= data.unresolvableImportMatcher;
+		TypeReferenceProcessor processor= data.processor;
+
+		boolean hasOpenChoices= processor.process(monitor);
+		addStaticImports(data.staticReferences, importsRewrite, unresolvableImportMatcher);
+
+		if (hasOpenChoices && fChooseImportQuery != null) {
+			TypeNameMatch[][] choices= processor.getChoices();
+			ISourceRange[] ranges= processor.getChoicesSourceRanges();
+			TypeNameMatch[] chosen= fChooseImportQuery.chooseImports(choices, ranges);
+			if (chosen == null) {
+				// cancel pressed by the user
+				throw new OperationCanceledException();
+			}
+			for (int i= 0; i < chosen.length; i++) {
+				TypeNameMatch typeInfo= chosen[i];
+				if (typeInfo != null) {
+					importsRewrite.addImport(typeInfo.getFullyQualifiedName());
+				} else { // Skipped by user
+					String typeName= choices[i][0].getSimpleTypeName();
+					Set<String> matchingUnresolvableImports= unresolvableImportMatcher.matchTypeImports(typeName);
+					if (!matchingUnresolvableImports.isEmpty()) {
+						// If there are matching unresolvable import(s), rely on them to provide the type.
+						for (String string : matchingUnresolvableImports) {
+							importsRewrite.addImport(string, UNRESOLVABLE_IMPORT_CONTEXT);
 						}
 					}
 				}
 			}
+		}
+	}
 
-			TextEdit result= importsRewrite.rewriteImports(new SubProgressMonitor(monitor, 3));
+	private TextEdit rewriteImports(ImportsData data, IProgressMonitor monitor) throws CoreException {
+		TextEdit result= data.importsRewrite.rewriteImports(monitor);
 
-			determineImportDifferences(importsRewrite, oldSingleImports, oldDemandImports);
+		determineImportDifferences(data.importsRewrite, data.oldSingleImports, data.oldDemandImports);
 
-			return result;
-		} finally {
-			monitor.done();
-		}
+		return result;
 	}
 
 	private void determineImportDifferences(ImportRewrite importsStructure, Set<String> oldSingleImports, Set<String> oldDemandImports) {
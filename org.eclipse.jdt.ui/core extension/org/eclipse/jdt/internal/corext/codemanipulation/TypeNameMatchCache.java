@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.codemanipulation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+
+import org.eclipse.jdt.internal.corext.util.TypeNameMatchCollector;
+
+/**
+ * The types found for simple type names in the scope of a project, shared by the
+ * {@link OrganizeImportsOperation}s that run on the compilation units of a project.
+ * <p>
+ * Names that are not in the cache yet are searched with one
+ * {@link SearchEngine#searchAllTypeNames(char[][], char[][], IJavaSearchScope, org.eclipse.jdt.core.search.TypeNameMatchRequestor, int, IProgressMonitor)
+ * searchAllTypeNames} query. The cache does not track changes of the Java model and must only be
+ * used while the types of its projects do not change, e.g. during one organize imports run.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ *
+ * @since 3.14
+ */
+public class TypeNameMatchCache {
+
+	private final Map<IJavaProject, Map<String, List<TypeNameMatch>>> fMatches= new HashMap<>();
+
+	private int fQueryCount;
+
+	/**
+	 * Searches for the types with the given simple names that are not in the cache yet.
+	 *
+	 * @param project the project whose class path is searched
+	 * @param simpleTypeNames the simple type names
+	 * @param monitor the progress monitor, can be <code>null</code>
+	 * @throws JavaModelException if the search fails
+	 */
+	public void prefetch(IJavaProject project, Collection<String> simpleTypeNames, IProgressMonitor monitor) throws JavaModelException {
+		findTypes(project, simpleTypeNames, monitor);
+	}
+
+	/**
+	 * Returns the types with the given simple names, searching for the names that are not in the
+	 * cache yet. The search runs without holding the lock of the cache, so that concurrent
+	 * callers only wait for each other while they access the cached matches.
+	 *
+	 * @param project the project whose class path is searched
+	 * @param simpleTypeNames the simple type names
+	 * @param monitor the progress monitor, can be <code>null</code>
+	 * @return the types found for all names
+	 * @throws JavaModelException if the search fails
+	 */
+	public List<TypeNameMatch> findTypes(IJavaProject project, Collection<String> simpleTypeNames, IProgressMonitor monitor) throws JavaModelException {
+		if (monitor == null)
+			monitor= new NullProgressMonitor();
+		try {
+			List<TypeNameMatch> result= new ArrayList<>();
+			List<String> missing= new ArrayList<>();
+			synchronized (fMatches) {
+				Map<String, List<TypeNameMatch>> matches= getMatches(project);
+				for (String name : simpleTypeNames) {
+					List<TypeNameMatch> list= matches.get(name);
+					if (list != null)
+						result.addAll(list);
+					else
+						missing.add(name);
+				}
+			}
+			if (missing.isEmpty())
+				return result;
+
+			synchronized (fMatches) {
+				fQueryCount++;
+			}
+			char[][] allTypes= new char[missing.size()][];
+			for (int i= 0; i < allTypes.length; i++) {
+				allTypes[i]= missing.get(i).toCharArray();
+			}
+			ArrayList<TypeNameMatch> typesFound= new ArrayList<>();
+			IJavaSearchScope scope= SearchEngine.createJavaSearchScope(new IJavaElement[] { project });
+			TypeNameMatchCollector collector= new TypeNameMatchCollector(typesFound);
+			new SearchEngine().searchAllTypeNames(null, allTypes, scope, collector, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+			result.addAll(typesFound);
+
+			if (monitor.isCanceled())
+				return result; // don't cache partial results
+
+			Map<String, List<TypeNameMatch>> found= new HashMap<>();
+			for (int i= 0; i < missing.size(); i++) {
+				found.put(missing.get(i), new ArrayList<TypeNameMatch>(1));
+			}
+			for (int i= 0; i < typesFound.size(); i++) {
+				TypeNameMatch curr= typesFound.get(i);
+				List<TypeNameMatch> list= found.get(curr.getSimpleTypeName());
+				if (list != null)
+					list.add(curr);
+			}
+			synchronized (fMatches) {
+				Map<String, List<TypeNameMatch>> matches= getMatches(project);
+				for (Entry<String, List<TypeNameMatch>> entry : found.entrySet()) {
+					// another caller may have searched the same name in the meantime
+					if (!matches.containsKey(entry.getKey()))
+						matches.put(entry.getKey(), entry.getValue());
+				}
+			}
+			return result;
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Returns the number of type name searches this cache has run so far.
+	 *
+	 * @return the number of searches
+	 */
+	public int getQueryCount() {
+		synchronized (fMatches) {
+			return fQueryCount;
+		}
+	}
+
+	private Map<String, List<TypeNameMatch>> getMatches(IJavaProject project) {
+		Map<String, List<TypeNameMatch>> matches= fMatches.get(project);
+		if (matches == null) {
+			matches= new HashMap<>();
+			fMatches.put(project, matches);
+		}
+		return matches;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2016 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,41 +10,155 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.dom;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.SubProgressMonitor;
 
+import org.eclipse.core.resources.IResource;
+
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.ASTRequestor;
 import org.eclipse.jdt.core.dom.IBinding;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
 /**
  * Creates AST from a set of compilation units. Uses the
  * batch parser. Splits the set of compilation units in subsets
  * such that it is unlikely that a out of memory exception will occur.
+ * <p>
+ * The size of each subset is bounded by the source length of its compilation units: a subset may
+ * use a fixed fraction of the maximal heap, given the estimated heap cost per source character.
+ * The estimate is adapted between subsets: it is increased when the heap runs low after a subset
+ * and decreased again when there is plenty of headroom. The free heap at the time a subset is
+ * parsed depends on when the garbage collector last ran, and is not used to size it.
+ * </p>
  *
  * @since 3.4
  */
 public class ASTBatchParser {
 
-	private static final int MAX_AT_ONCE;
-	static {
-		long maxMemory= Runtime.getRuntime().maxMemory() / (1 << 20); // in MiB
-		
-		if      (maxMemory >= 2000) MAX_AT_ONCE= 400;
-		else if (maxMemory >= 1500) MAX_AT_ONCE= 300;
-		else if (maxMemory >= 1000) MAX_AT_ONCE= 200;
-		else if (maxMemory >=  500) MAX_AT_ONCE= 100;
-		else                        MAX_AT_ONCE=  25;
+	/**
+	 * Statistics about a subset of compilation units parsed at once.
+	 *
+	 * @since 3.14
+	 */
+	public static final class BatchStatistics {
+
+		private final int fUnits;
+		private final long fSourceLength;
+		private final long fParseTime;
+		private final long fHeadroomBefore;
+		private final long fHeadroomAfter;
+
+		BatchStatistics(int units, long sourceLength, long parseTime, long headroomBefore, long headroomAfter) {
+			fUnits= units;
+			fSourceLength= sourceLength;
+			fParseTime= parseTime;
+			fHeadroomBefore= headroomBefore;
+			fHeadroomAfter= headroomAfter;
+		}
+
+		/**
+		 * @return the number of compilation units in the batch
+		 */
+		public int getUnits() {
+			return fUnits;
+		}
+
+		/**
+		 * @return the estimated source length of the compilation units in the batch, in bytes
+		 */
+		public long getSourceLength() {
+			return fSourceLength;
+		}
+
+		/**
+		 * @return the time to parse the batch and to process its ASTs, in milliseconds
+		 */
+		public long getParseTime() {
+			return fParseTime;
+		}
+
+		/**
+		 * @return the estimated free heap before the batch was parsed, in bytes
+		 */
+		public long getHeadroomBefore() {
+			return fHeadroomBefore;
+		}
+
+		/**
+		 * @return the estimated free heap after the batch was parsed, in bytes
+		 */
+		public long getHeadroomAfter() {
+			return fHeadroomAfter;
+		}
+
+		@Override
+		public String toString() {
+			return fUnits + " units, " + (fSourceLength >> 10) + " KiB source, " + fParseTime + " ms, headroom " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ (fHeadroomBefore >> 20) + " MiB -> " + (fHeadroomAfter >> 20) + " MiB"; //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * The maximal number of compilation units parsed at once, independent of their size.
+	 */
+	private static final int MAX_UNITS_AT_ONCE= 1000;
+
+	/**
+	 * The source length assumed for compilation units whose size cannot be determined cheaply.
+	 */
+	private static final long AVERAGE_UNIT_LENGTH= 8 * 1024;
+
+	/**
+	 * The fraction of the maximal heap a single batch may use.
+	 */
+	private static final double BATCH_HEAP_FRACTION= 0.25;
+
+	/**
+	 * Bounds and initial value of the estimated heap bytes needed per source byte while a
+	 * batch is parsed and its bindings are alive.
+	 */
+	private static final double MIN_BYTES_PER_SOURCE_BYTE= 50;
+	private static final double MAX_BYTES_PER_SOURCE_BYTE= 4000;
+	private static final double INITIAL_BYTES_PER_SOURCE_BYTE= 200;
+
+	/**
+	 * Relative headroom below which batches are shrunk and above which they are grown.
+	 */
+	private static final double LOW_HEADROOM= 0.15;
+	private static final double HIGH_HEADROOM= 0.5;
+
+	private static volatile double fgBytesPerSourceByte= INITIAL_BYTES_PER_SOURCE_BYTE;
+
+	private final List<BatchStatistics> fStatistics= Collections.synchronizedList(new ArrayList<BatchStatistics>());
+
+	/**
+	 * Returns the number of compilation units of average size that would currently be parsed
+	 * at once with the heap available to this VM.
+	 *
+	 * @return the number of compilation units in a batch of average sized units
+	 */
+	public static int getMaxAtOnce() {
+		long units= getBatchBudget() / AVERAGE_UNIT_LENGTH;
+		return (int) Math.max(1, Math.min(units, MAX_UNITS_AT_ONCE));
 	}
 
 	/**
@@ -79,20 +193,32 @@ public class ASTBatchParser {
 			for (int i= 0; i < splited.length; i++) {
 				ICompilationUnit[] units= splited[i];
 
-				if (units.length <= MAX_AT_ONCE) {
-					createParser(units[0].getJavaProject()).createASTs(units, bindingKeys, requestor, new SubProgressMonitor(monitor, units.length));
-				} else {
-					List<ICompilationUnit> list= Arrays.asList(units);
-					int end= 0;
-					int cursor= 0;
-					while (cursor < units.length) {
-						end= Math.min(end + MAX_AT_ONCE, units.length);
-						List<ICompilationUnit> toParse= list.subList(cursor, end);
-
-						createParser(units[0].getJavaProject()).createASTs(toParse.toArray(new ICompilationUnit[toParse.size()]), bindingKeys, requestor,
-								new SubProgressMonitor(monitor, toParse.size()));
-						cursor= end;
+				long[] lengths= new long[units.length];
+				for (int k= 0; k < units.length; k++) {
+					lengths[k]= getSourceLength(units[k]);
+				}
+
+				int cursor= 0;
+				while (cursor < units.length) {
+					long budget= getBatchBudget();
+					long batchLength= lengths[cursor];
+					int end= cursor + 1;
+					while (end < units.length && end - cursor < MAX_UNITS_AT_ONCE && batchLength + lengths[end] <= budget) {
+						batchLength+= lengths[end];
+						end++;
 					}
+
+					ICompilationUnit[] toParse= end - cursor == units.length ? units : Arrays.copyOfRange(units, cursor, end);
+					long headroomBefore= getHeapHeadroom();
+					long start= System.currentTimeMillis();
+
+					createParser(units[0].getJavaProject()).createASTs(toParse, bindingKeys, requestor, new SubProgressMonitor(monitor, toParse.length));
+
+					long parseTime= System.currentTimeMillis() - start;
+					long headroomAfter= getHeapHeadroom();
+					adaptBatchSize(headroomAfter);
+					batchParsed(new BatchStatistics(toParse.length, batchLength, parseTime, headroomBefore, headroomAfter));
+					cursor= end;
 				}
 			}
 		} finally {
@@ -100,6 +226,34 @@ public class ASTBatchParser {
 		}
 	}
 
+	/**
+	 * Called after a subset of the compilation units has been parsed and all its ASTs have been
+	 * passed to the requestor.
+	 * <p>
+	 * Subclasses may extend
+	 * </p>
+	 *
+	 * @param statistics the statistics of the parsed subset
+	 * @since 3.14
+	 */
+	protected void batchParsed(BatchStatistics statistics) {
+		fStatistics.add(statistics);
+		if (JavaPlugin.DEBUG_AST_BATCH_PARSER)
+			System.out.println("ASTBatchParser > " + statistics); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the statistics of all subsets parsed by this parser so far.
+	 *
+	 * @return the statistics, in the order the subsets were parsed
+	 * @since 3.14
+	 */
+	public final BatchStatistics[] getStatistics() {
+		synchronized (fStatistics) {
+			return fStatistics.toArray(new BatchStatistics[fStatistics.size()]);
+		}
+	}
+
 	/**
 	 * Creates a new parser which can be used to create ASTs
 	 * for compilation units in <code>project</code>
@@ -118,6 +272,82 @@ public class ASTBatchParser {
 		return result;
 	}
 
+	/**
+	 * Returns the total source length of the compilation units that may be parsed at once.
+	 *
+	 * @return the budget in source bytes
+	 */
+	private static long getBatchBudget() {
+		return (long) (getMaxHeap() * BATCH_HEAP_FRACTION / fgBytesPerSourceByte);
+	}
+
+	/**
+	 * Adapts the estimated heap cost per source byte to the headroom left after a batch.
+	 *
+	 * @param headroom the heap headroom after the last batch
+	 */
+	private static void adaptBatchSize(long headroom) {
+		double relativeHeadroom= (double) headroom / getMaxHeap();
+		double bytesPerSourceByte= fgBytesPerSourceByte;
+		if (relativeHeadroom < LOW_HEADROOM)
+			bytesPerSourceByte= Math.min(MAX_BYTES_PER_SOURCE_BYTE, bytesPerSourceByte * 2);
+		else if (relativeHeadroom > HIGH_HEADROOM)
+			bytesPerSourceByte= Math.max(MIN_BYTES_PER_SOURCE_BYTE, bytesPerSourceByte * 0.8);
+		fgBytesPerSourceByte= bytesPerSourceByte;
+	}
+
+	private static long getMaxHeap() {
+		Runtime runtime= Runtime.getRuntime();
+		long max= runtime.maxMemory();
+		// the heap is not limited
+		return max == Long.MAX_VALUE ? runtime.totalMemory() : max;
+	}
+
+	/**
+	 * Estimates the free heap. The used heap reported by the memory MX bean includes garbage
+	 * that has not been collected yet, the usage of the heap pools after their last collection
+	 * misses everything allocated since. The average of both is taken as the live heap.
+	 *
+	 * @return the estimated free heap in bytes
+	 */
+	private static long getHeapHeadroom() {
+		MemoryUsage usage= ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+		long used= usage.getUsed();
+		long usedAfterCollection= 0;
+		boolean hasCollectionUsage= false;
+		for (Iterator<MemoryPoolMXBean> iter= ManagementFactory.getMemoryPoolMXBeans().iterator(); iter.hasNext();) {
+			MemoryPoolMXBean pool= iter.next();
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				MemoryUsage collectionUsage= pool.getCollectionUsage();
+				if (collectionUsage != null) {
+					usedAfterCollection+= collectionUsage.getUsed();
+					hasCollectionUsage= true;
+				}
+			}
+		}
+		long live= hasCollectionUsage && usedAfterCollection < used ? (used + usedAfterCollection) / 2 : used;
+		return Math.max(0, getMaxHeap() - live);
+	}
+
+	private static long getSourceLength(ICompilationUnit unit) {
+		try {
+			if (unit.hasUnsavedChanges())
+				return unit.getBuffer().getLength();
+		} catch (JavaModelException e) {
+			return AVERAGE_UNIT_LENGTH;
+		}
+		IResource resource= unit.getResource();
+		if (resource != null) {
+			IPath location= resource.getLocation();
+			if (location != null) {
+				long length= location.toFile().length();
+				if (length > 0)
+					return length;
+			}
+		}
+		return AVERAGE_UNIT_LENGTH;
+	}
+
 	private static ICompilationUnit[][] splitByProject(ICompilationUnit[] units) {
 		if (hasOnlyOneProject(units))
 			return new ICompilationUnit[][] { units };
@@ -156,4 +386,4 @@ public class ASTBatchParser {
 
 		return true;
 	}
-}
\ No newline at end of file
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -1085,6 +1085,19 @@ public class CleanUpConstants {
 	 */
 	public static final String SHOW_CLEAN_UP_WIZARD= "cleanup.showwizard"; //$NON-NLS-1$
 
+	/**
+	 * The number of threads used to parse compilation units when the Clean Up Action runs on
+	 * more than one compilation unit. <br>
+	 * <br>
+	 * Possible values: a positive integer <br>
+	 * Default value: <code><b>1</b></code><br>
+	 * <br>
+	 * 
+	 * @see CleanUpRefactoring#setParallelism(int)
+	 * @since 3.14
+	 */
+	public static final String CLEAN_UP_PARALLELISM= "cleanup.parallelism"; //$NON-NLS-1$
+
 	/**
 	 * A key to a serialized string in the <code>InstanceScope</code> containing all the profiles.<br>
 	 * Following code snippet can load the profiles:
@@ -1349,6 +1362,7 @@ public class CleanUpConstants {
 		}
 
 		store.setDefault(SHOW_CLEAN_UP_WIZARD, true);
+		store.setDefault(CLEAN_UP_PARALLELISM, 1);
 		store.setDefault(CLEANUP_PROFILE, DEFAULT_PROFILE);
 		store.setDefault(CLEANUP_ON_SAVE_PROFILE, DEFAULT_SAVE_PARTICIPANT_PROFILE);
 	}
@@ -11,12 +11,24 @@
 package org.eclipse.jdt.internal.corext.fix;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.swt.widgets.Display;
 
@@ -26,6 +38,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
 
@@ -330,16 +343,19 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		private final Hashtable<ICompilationUnit, List<CleanUpChange>> fSolutions;
 		private final Hashtable<ICompilationUnit, ICompilationUnit> fWorkingCopies; // map from primary to working copy
 		private final Map<String, String> fCleanUpOptions;
+		private final Map<ICompilationUnit, Integer> fTargetOrder; // map from primary to index of its target
 		private final int fSize;
 		private int fIndex;
 
 		public CleanUpFixpointIterator(CleanUpTarget[] targets, ICleanUp[] cleanUps) {
 			fSolutions= new Hashtable<>(targets.length);
 			fWorkingCopies= new Hashtable<>();
+			fTargetOrder= new HashMap<>(targets.length);
 
 			fParseList= new ArrayList<>(targets.length);
 			for (int i= 0; i < targets.length; i++) {
 				fParseList.add(new ParseListElement(targets[i], cleanUps));
+				fTargetOrder.put(targets[i].getCompilationUnit(), Integer.valueOf(i));
 			}
 
 			fCleanUpOptions= new Hashtable<>();
@@ -387,21 +403,13 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 				CleanUpRefactoringProgressMonitor cuMonitor= new CleanUpRefactoringProgressMonitor(monitor, parseList.size() + sourceList.size(), fSize, fIndex);
 				CleanUpASTRequestor requestor= new CleanUpASTRequestor(fParseList, fSolutions, cuMonitor);
 				if (parseList.size() > 0) {
-					ASTBatchParser parser= new ASTBatchParser() {
-						@Override
-						protected ASTParser createParser(IJavaProject project) {
-							ASTParser result= createCleanUpASTParser();
-							result.setProject(project);
-
-							Map<String, String> options= RefactoringASTParser.getCompilerOptions(project);
-							options.putAll(fCleanUpOptions);
-							result.setCompilerOptions(options);
-							return result;
-						}
-					};
 					try {
-						ICompilationUnit[] units= parseList.toArray(new ICompilationUnit[parseList.size()]);
-						parser.createASTs(units, new String[0], requestor, cuMonitor);
+						if (fParallelism > 1 && parseList.size() > 1) {
+							parseInParallel(parseList, requestor, cuMonitor);
+						} else {
+							ICompilationUnit[] units= parseList.toArray(new ICompilationUnit[parseList.size()]);
+							createBatchParser().createASTs(units, new String[0], requestor, cuMonitor);
+						}
 					} catch (FixCalculationException e) {
 						throw e.getException();
 					}
@@ -418,12 +426,184 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 						throw new OperationCanceledException();
 				}
 
-				fParseList= requestor.getUndoneElements();
+				List<ParseListElement> undoneElements= requestor.getUndoneElements();
+				sortByTargetOrder(undoneElements);
+				fParseList= undoneElements;
 				fIndex= cuMonitor.getIndex();
 			} finally {
 			}
 		}
 
+		private ASTBatchParser createBatchParser() {
+			return new ASTBatchParser() {
+				@Override
+				protected ASTParser createParser(IJavaProject project) {
+					ASTParser result= createCleanUpASTParser();
+					result.setProject(project);
+
+					Map<String, String> options= RefactoringASTParser.getCompilerOptions(project);
+					options.putAll(fCleanUpOptions);
+					result.setCompilerOptions(options);
+					return result;
+				}
+			};
+		}
+
+		/**
+		 * Parses the given compilation units in batches on a pool of {@link #fParallelism} worker
+		 * threads. The fixes are computed in the calling thread, in the order in which the ASTs
+		 * become available, since clean ups are not required to be thread-safe. A worker blocks
+		 * until the calling thread is done with the AST it handed over, since computing the fixes
+		 * resolves bindings in the lookup environment of the worker's batch. Workers of different
+		 * batches never share a lookup environment and parse concurrently.
+		 *
+		 * @param parseList the compilation units to parse
+		 * @param requestor the requestor that computes the fixes
+		 * @param monitor the progress monitor, only used from the calling thread
+		 * @throws CoreException if a compilation unit could not be parsed
+		 */
+		private void parseInParallel(List<ICompilationUnit> parseList, CleanUpASTRequestor requestor, CleanUpRefactoringProgressMonitor monitor) throws CoreException {
+			int batchSize= fBatchSize > 0 ? fBatchSize : Math.max(1, ASTBatchParser.getMaxAtOnce() / fParallelism);
+			List<ICompilationUnit[]> batches= createBatches(parseList, batchSize);
+			final BlockingQueue<Object[]> parsed= new SynchronousQueue<>();
+			final IProgressMonitor cancelMonitor= new NullProgressMonitor(); // only tells the workers to stop
+			monitor.beginTask("", parseList.size()); //$NON-NLS-1$
+			ForkJoinPool pool= new ForkJoinPool(Math.min(fParallelism, batches.size()));
+			try {
+				List<Future<Void>> futures= new ArrayList<>(batches.size());
+				for (Iterator<ICompilationUnit[]> iter= batches.iterator(); iter.hasNext();) {
+					final ICompilationUnit[] batch= iter.next();
+					futures.add(pool.submit(new Callable<Void>() {
+						@Override
+						public Void call() throws Exception {
+							final SubMonitor batchMonitor= SubMonitor.convert(cancelMonitor, batch.length);
+							createBatchParser().createASTs(batch, new String[0], new ASTRequestor() {
+								@Override
+								public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+									if (batchMonitor.isCanceled())
+										throw new OperationCanceledException();
+									CountDownLatch done= new CountDownLatch(1);
+									try {
+										parsed.put(new Object[] { source, ast, done });
+										done.await();
+									} catch (InterruptedException e) {
+										Thread.currentThread().interrupt();
+										throw new OperationCanceledException();
+									}
+								}
+							}, batchMonitor);
+							return null;
+						}
+					}));
+				}
+
+				int remaining= futures.size();
+				while (remaining > 0) {
+					if (monitor.isCanceled())
+						throw new OperationCanceledException();
+					Object[] next;
+					try {
+						next= parsed.poll(100, TimeUnit.MILLISECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new OperationCanceledException();
+					}
+					if (next != null) {
+						try {
+							monitor.internalWorked(1);
+							requestor.acceptAST((ICompilationUnit) next[0], (CompilationUnit) next[1]);
+						} finally {
+							((CountDownLatch) next[2]).countDown();
+						}
+						continue;
+					}
+					remaining= 0;
+					for (int i= 0; i < futures.size(); i++) {
+						Future<Void> future= futures.get(i);
+						if (!future.isDone()) {
+							remaining++;
+						} else {
+							checkResult(future);
+						}
+					}
+				}
+			} finally {
+				cancelMonitor.setCanceled(true);
+				pool.shutdownNow();
+			}
+		}
+
+		private void checkResult(Future<Void> future) throws CoreException {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} catch (ExecutionException e) {
+				Throwable cause= e.getCause();
+				if (cause instanceof CoreException)
+					throw (CoreException) cause;
+				if (cause instanceof RuntimeException)
+					throw (RuntimeException) cause;
+				throw new CoreException(new Status(IStatus.ERROR, JavaPlugin.getPluginId(), IJavaStatusConstants.INTERNAL_ERROR, cause.getMessage(), cause));
+			}
+		}
+
+		/**
+		 * Splits the given compilation units into batches of at most <code>batchSize</code>
+		 * units, keeping the compilation units of a package together where possible.
+		 *
+		 * @param units the compilation units to split
+		 * @param batchSize the maximal number of compilation units in a batch
+		 * @return the batches
+		 */
+		private List<ICompilationUnit[]> createBatches(List<ICompilationUnit> units, int batchSize) {
+			Map<Object, List<ICompilationUnit>> packages= new LinkedHashMap<>();
+			for (Iterator<ICompilationUnit> iter= units.iterator(); iter.hasNext();) {
+				ICompilationUnit unit= iter.next();
+				List<ICompilationUnit> list= packages.get(unit.getParent());
+				if (list == null) {
+					list= new ArrayList<>();
+					packages.put(unit.getParent(), list);
+				}
+				list.add(unit);
+			}
+
+			List<ICompilationUnit[]> result= new ArrayList<>();
+			List<ICompilationUnit> batch= new ArrayList<>(batchSize);
+			for (Iterator<List<ICompilationUnit>> iter= packages.values().iterator(); iter.hasNext();) {
+				List<ICompilationUnit> packageUnits= iter.next();
+				if (!batch.isEmpty() && batch.size() + packageUnits.size() > batchSize) {
+					result.add(batch.toArray(new ICompilationUnit[batch.size()]));
+					batch.clear();
+				}
+				for (Iterator<ICompilationUnit> unitIter= packageUnits.iterator(); unitIter.hasNext();) {
+					batch.add(unitIter.next());
+					if (batch.size() == batchSize) {
+						result.add(batch.toArray(new ICompilationUnit[batch.size()]));
+						batch.clear();
+					}
+				}
+			}
+			if (!batch.isEmpty())
+				result.add(batch.toArray(new ICompilationUnit[batch.size()]));
+			return result;
+		}
+
+		private void sortByTargetOrder(List<ParseListElement> elements) {
+			Collections.sort(elements, new Comparator<ParseListElement>() {
+				@Override
+				public int compare(ParseListElement e1, ParseListElement e2) {
+					return getTargetIndex(e1.getTarget().getCompilationUnit()) - getTargetIndex(e2.getTarget().getCompilationUnit());
+				}
+			});
+		}
+
+		private int getTargetIndex(ICompilationUnit unit) {
+			Integer index= fTargetOrder.get(unit.getPrimary());
+			return index != null ? index.intValue() : Integer.MAX_VALUE;
+		}
+
 		public void dispose() {
 			for (Iterator<ICompilationUnit> iterator= fWorkingCopies.values().iterator(); iterator.hasNext();) {
 				ICompilationUnit cu= iterator.next();
@@ -446,9 +626,18 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 
 		public Change[] getResult() {
 
-			Change[] result= new Change[fSolutions.size()];
+			// report the changes in the order of the targets, independent of the order in which they were computed
+			List<Entry<ICompilationUnit, List<CleanUpChange>>> entries= new ArrayList<>(fSolutions.entrySet());
+			Collections.sort(entries, new Comparator<Entry<ICompilationUnit, List<CleanUpChange>>>() {
+				@Override
+				public int compare(Entry<ICompilationUnit, List<CleanUpChange>> e1, Entry<ICompilationUnit, List<CleanUpChange>> e2) {
+					return getTargetIndex(e1.getKey()) - getTargetIndex(e2.getKey());
+				}
+			});
+
+			Change[] result= new Change[entries.size()];
 			int i=0;
-			for (Iterator<Entry<ICompilationUnit, List<CleanUpChange>>> iterator= fSolutions.entrySet().iterator(); iterator.hasNext();) {
+			for (Iterator<Entry<ICompilationUnit, List<CleanUpChange>>> iterator= entries.iterator(); iterator.hasNext();) {
 				Entry<ICompilationUnit, List<CleanUpChange>>  entry= iterator.next();
 
 				List<CleanUpChange> changes= entry.getValue();
@@ -521,6 +710,9 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 
 	private boolean fUseOptionsFromProfile;
 
+	private int fParallelism;
+	private int fBatchSize;
+
 	public CleanUpRefactoring() {
 		this(FixMessages.CleanUpRefactoring_Refactoring_name);
 	}
@@ -530,12 +722,44 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		fCleanUps= new ArrayList<>();
 		fProjects= new Hashtable<>();
 		fUseOptionsFromProfile= false;
+		fParallelism= 1;
+		fBatchSize= 0;
 	}
 
 	public void setUseOptionsFromProfile(boolean enabled) {
 		fUseOptionsFromProfile= enabled;
 	}
 
+	/**
+	 * Sets the number of worker threads used to parse compilation units. With a parallelism of
+	 * <code>1</code>, the default, the compilation units are parsed in the calling thread. The
+	 * fixes are always computed in the calling thread.
+	 *
+	 * @param parallelism the number of worker threads, must be positive
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException();
+		fParallelism= parallelism;
+	}
+
+	public int getParallelism() {
+		return fParallelism;
+	}
+
+	/**
+	 * Sets the maximal number of compilation units parsed together by one worker thread when
+	 * the parallelism is greater than <code>1</code>. With a batch size of <code>0</code>, the
+	 * default, the batch size is derived from the available heap.
+	 *
+	 * @param batchSize the maximal number of compilation units in a batch, or <code>0</code>
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 0)
+			throw new IllegalArgumentException();
+		fBatchSize= batchSize;
+	}
+
 	public void addCompilationUnit(ICompilationUnit unit) {
 		addCleanUpTarget(new CleanUpTarget(unit));
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
 package org.eclipse.jdt.internal.corext.fix;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 
 import org.eclipse.text.edits.MultiTextEdit;
 import org.eclipse.text.edits.TextEdit;
@@ -25,6 +26,7 @@ import org.eclipse.jdt.core.search.TypeNameMatch;
 import org.eclipse.jdt.internal.corext.codemanipulation.CodeGenerationSettings;
 import org.eclipse.jdt.internal.corext.codemanipulation.OrganizeImportsOperation;
 import org.eclipse.jdt.internal.corext.codemanipulation.OrganizeImportsOperation.IChooseImportQuery;
+import org.eclipse.jdt.internal.corext.codemanipulation.TypeNameMatchCache;
 import org.eclipse.jdt.internal.corext.util.Messages;
 
 import org.eclipse.jdt.ui.cleanup.ICleanUpFix;
@@ -34,23 +36,82 @@ import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
 
 public class ImportsFix extends TextEditFix {
 
+	/**
+	 * Skips ambiguous types and remembers that there were some.
+	 */
+	private static class AmbiguityQuery implements IChooseImportQuery {
+		private boolean fHasAmbiguity;
+
+		@Override
+		public TypeNameMatch[] chooseImports(TypeNameMatch[][] openChoices, ISourceRange[] ranges) {
+			fHasAmbiguity= true;
+			return new TypeNameMatch[0];
+		}
+	}
+
 	public static ICleanUpFix createCleanUp(final CompilationUnit cu, CodeGenerationSettings settings, boolean organizeImports, RefactoringStatus status) throws CoreException {
+		return createCleanUp(cu, settings, organizeImports, status, null);
+	}
+
+	/**
+	 * Creates a fix that organizes the imports of a compilation unit.
+	 *
+	 * @param cu the AST of the compilation unit
+	 * @param settings the code generation settings
+	 * @param organizeImports if the imports are organized
+	 * @param status the status to which problems are added
+	 * @param typeNameCache the cache for the types found for unresolved names, or
+	 *            <code>null</code>
+	 * @return the fix, or <code>null</code> if there is nothing to change
+	 * @throws CoreException if the imports cannot be organized
+	 * @since 3.14
+	 */
+	public static ICleanUpFix createCleanUp(final CompilationUnit cu, CodeGenerationSettings settings, boolean organizeImports, RefactoringStatus status, TypeNameMatchCache typeNameCache) throws CoreException {
 		if (!organizeImports)
 			return null;
 
-		final boolean hasAmbiguity[]= new boolean[] { false };
-		IChooseImportQuery query= new IChooseImportQuery() {
-			@Override
-			public TypeNameMatch[] chooseImports(TypeNameMatch[][] openChoices, ISourceRange[] ranges) {
-				hasAmbiguity[0]= true;
-				return new TypeNameMatch[0];
-			}
-		};
-
+		AmbiguityQuery query= new AmbiguityQuery();
 		final ICompilationUnit unit= (ICompilationUnit)cu.getJavaElement();
-		OrganizeImportsOperation op= new OrganizeImportsOperation(unit, cu, settings.importIgnoreLowercase, false, false, query);
+		OrganizeImportsOperation op= new OrganizeImportsOperation(unit, cu, settings.importIgnoreLowercase, false, false, query, typeNameCache);
 		final TextEdit edit= op.createTextEdit(null);
-		if (hasAmbiguity[0]) {
+		return createFix(cu, op, edit, query, status);
+	}
+
+	/**
+	 * Creates the fixes that organize the imports of several compilation units. The type names
+	 * that cannot be resolved are searched with one query per project, and the import sections are
+	 * rewritten in parallel, see
+	 * {@link OrganizeImportsOperation#createTextEdits(OrganizeImportsOperation[], int, IProgressMonitor)}.
+	 *
+	 * @param cus the ASTs of the compilation units
+	 * @param settings the code generation settings
+	 * @param status the status to which problems are added
+	 * @param typeNameCache the cache for the types found for unresolved names
+	 * @param parallelism the number of threads used to rewrite the imports, must be positive
+	 * @param monitor the progress monitor, can be <code>null</code>
+	 * @return the fixes, in the order of the ASTs; a fix is <code>null</code> if there is nothing
+	 *         to change
+	 * @throws CoreException if the imports cannot be organized
+	 * @since 3.14
+	 */
+	public static ICleanUpFix[] createCleanUps(CompilationUnit[] cus, CodeGenerationSettings settings, RefactoringStatus status, TypeNameMatchCache typeNameCache, int parallelism, IProgressMonitor monitor) throws CoreException {
+		OrganizeImportsOperation[] ops= new OrganizeImportsOperation[cus.length];
+		AmbiguityQuery[] queries= new AmbiguityQuery[cus.length];
+		for (int i= 0; i < cus.length; i++) {
+			queries[i]= new AmbiguityQuery();
+			ops[i]= new OrganizeImportsOperation((ICompilationUnit) cus[i].getJavaElement(), cus[i], settings.importIgnoreLowercase, false, false, queries[i], typeNameCache);
+		}
+		TextEdit[] edits= OrganizeImportsOperation.createTextEdits(ops, parallelism, monitor);
+
+		ICleanUpFix[] result= new ICleanUpFix[cus.length];
+		for (int i= 0; i < cus.length; i++) {
+			result[i]= createFix(cus[i], ops[i], edits[i], queries[i], status);
+		}
+		return result;
+	}
+
+	private static ICleanUpFix createFix(CompilationUnit cu, OrganizeImportsOperation op, TextEdit edit, AmbiguityQuery query, RefactoringStatus status) {
+		if (query.fHasAmbiguity) {
 			status.addInfo(Messages.format(ActionMessages.OrganizeImportsAction_multi_error_unresolvable, getLocationString(cu)));
 		}
 
@@ -62,7 +123,7 @@ public class ImportsFix extends TextEditFix {
 		if (edit == null || (edit instanceof MultiTextEdit && edit.getChildrenSize() == 0))
 			return null;
 
-		return new ImportsFix(edit, unit, FixMessages.ImportsFix_OrganizeImports_Description);
+		return new ImportsFix(edit, (ICompilationUnit) cu.getJavaElement(), FixMessages.ImportsFix_OrganizeImports_Description);
     }
 
 	private static String getLocationString(final CompilationUnit cu) {
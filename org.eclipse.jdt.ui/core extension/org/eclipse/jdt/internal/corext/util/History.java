@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,42 +10,42 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.util;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.TransformerFactoryConfigurationError;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
+import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.jdt.internal.corext.CorextMessages;
 
@@ -59,7 +59,11 @@ import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
  * MAX_HISTORY_SIZE. If the list exceeds this size the eldest element is removed
  * from the list. An element can be added/renewed with a call to <code>accessed(Object)</code>.
  *
- * The history can be stored to/loaded from an xml file.
+ * The history is stored in a binary {@link HistoryJournal}: once the history has been loaded,
+ * every access and removal is appended to the journal. The appended records are written by a
+ * background job shortly after the last change and when the history is saved; the journal is
+ * compacted when it has grown too large and when the history is saved. Histories stored in the
+ * former XML file are migrated on load.
  * 
  * @param <K> key type
  * @param <V> value type
@@ -69,6 +73,11 @@ public abstract class History<K, V> {
 	private static final String DEFAULT_ROOT_NODE_NAME= "histroyRootNode"; //$NON-NLS-1$
 	private static final String DEFAULT_INFO_NODE_NAME= "infoNode"; //$NON-NLS-1$
 	private static final int MAX_HISTORY_SIZE= 60;
+	private static final int MAX_JOURNAL_RECORDS= 4 * MAX_HISTORY_SIZE;
+	private static final String XML_FILE_EXTENSION= ".xml"; //$NON-NLS-1$
+	private static final String JOURNAL_FILE_EXTENSION= ".history"; //$NON-NLS-1$
+	/** Delay in milliseconds after the last change before the appended records are written */
+	private static final long FLUSH_DELAY= 1000;
 
 	private static JavaUIException createException(Throwable t, String message) {
 		return new JavaUIException(JavaUIStatus.createError(IStatus.ERROR, message, t));
@@ -80,6 +89,15 @@ public abstract class History<K, V> {
 	private final String fRootNodeName;
 	private final String fInfoNodeName;
 
+	/** The journal, or <code>null</code> if the history has not been loaded */
+	private HistoryJournal fJournal;
+	/** <code>true</code> if the journal does not reflect the current state */
+	private boolean fNeedsCompaction;
+	/** Document to create the elements for {@link #setAttributes(Object, Element)} */
+	private Document fElementFactory;
+	/** Job that writes the appended records, created when the history is loaded */
+	private Job fFlushJob;
+
 	public History(String fileName, String rootNodeName, String infoNodeName) {
 		fHistory= new LinkedHashMap<K, V>(80, 0.75f, true) {
 			private static final long serialVersionUID= 1L;
@@ -101,6 +119,7 @@ public abstract class History<K, V> {
 	public synchronized void accessed(V object) {
 		fHistory.put(getKey(object), object);
 		rebuildPositions();
+		journal(HistoryJournal.ACCESSED, object);
 	}
 
 	public synchronized boolean contains(V object) {
@@ -116,14 +135,18 @@ public abstract class History<K, V> {
 	}
 
 	public synchronized Object remove(V object) {
-		Object removed= fHistory.remove(getKey(object));
+		V removed= fHistory.remove(getKey(object));
 		rebuildPositions();
+		if (removed != null)
+			journal(HistoryJournal.REMOVED, removed);
 		return removed;
 	}
 
 	public synchronized Object removeKey(Object key) {
-		Object removed= fHistory.remove(key);
+		V removed= fHistory.remove(key);
 		rebuildPositions();
+		if (removed != null)
+			journal(HistoryJournal.REMOVED, removed);
 		return removed;
 	}
 
@@ -162,13 +185,39 @@ public abstract class History<K, V> {
 	}
 
 	public synchronized void load() {
-		IPath stateLocation= JavaPlugin.getDefault().getStateLocation().append(fFileName);
-		File file= stateLocation.toFile();
+		IPath stateLocation= JavaPlugin.getDefault().getStateLocation();
+		fJournal= new HistoryJournal(stateLocation.append(getJournalFileName()).toFile());
+		createFlushJob();
+		if (fJournal.exists()) {
+			try {
+				boolean complete= fJournal.replay(new HistoryJournal.RecordReader() {
+					@Override
+					public void read(byte type, DataInputStream in) throws IOException {
+						V object= readObject(in);
+						if (object == null)
+							return;
+						if (type == HistoryJournal.ACCESSED)
+							fHistory.put(getKey(object), object);
+						else if (type == HistoryJournal.REMOVED)
+							fHistory.remove(getKey(object));
+					}
+				});
+				fNeedsCompaction= !complete || fJournal.getRecordCount() > fHistory.size();
+			} catch (IOException e) {
+				JavaPlugin.log(e);
+				fNeedsCompaction= true;
+			}
+			rebuildPositions();
+			return;
+		}
+
+		File file= stateLocation.append(fFileName).toFile();
 		if (file.exists()) {
 			InputStreamReader reader= null;
 	        try {
 				reader = new InputStreamReader(new FileInputStream(file), "utf-8");//$NON-NLS-1$
 				load(new InputSource(reader));
+				fNeedsCompaction= true;
 			} catch (IOException e) {
 				JavaPlugin.log(e);
 			} catch (CoreException e) {
@@ -185,29 +234,189 @@ public abstract class History<K, V> {
 	}
 
 	public synchronized void save() {
-		IPath stateLocation= JavaPlugin.getDefault().getStateLocation().append(fFileName);
-		File file= stateLocation.toFile();
-		OutputStream out= null;
+		if (fJournal == null) {
+			fJournal= new HistoryJournal(JavaPlugin.getDefault().getStateLocation().append(getJournalFileName()).toFile());
+			createFlushJob();
+		} else if (!fNeedsCompaction && fJournal.getRecordCount() <= fHistory.size()) {
+			try {
+				fJournal.flush();
+				return;
+			} catch (IOException e) {
+				JavaPlugin.log(e);
+			}
+		}
+		compact();
+	}
+
+	/**
+	 * Writes the records appended since the last flush to the journal, or compacts the journal if
+	 * it does not exist yet or has grown too large. This is done by a background job after
+	 * changes and does not need to be called by clients.
+	 *
+	 * @since 3.14
+	 */
+	public void flush() {
+		HistoryJournal journal;
+		synchronized (this) {
+			journal= fJournal;
+			if (journal == null || !journal.hasPendingRecords())
+				return;
+			if (!journal.exists() || journal.getRecordCount() >= MAX_JOURNAL_RECORDS) {
+				compact();
+				return;
+			}
+		}
+		// the journal synchronizes with compactions, so the file is written without blocking the history
 		try {
-			out= new FileOutputStream(file);
-			save(out);
+			journal.flush();
 		} catch (IOException e) {
 			JavaPlugin.log(e);
-		} catch (CoreException e) {
+			markDirty();
+		}
+	}
+
+	private void createFlushJob() {
+		if (fFlushJob != null)
+			return;
+		fFlushJob= new Job(CorextMessages.History_flush_job_name) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				flush();
+				return Status.OK_STATUS;
+			}
+		};
+		fFlushJob.setSystem(true);
+		fFlushJob.setPriority(Job.DECORATE);
+	}
+
+	/**
+	 * Tells that an element of the history has changed in a way that is not recorded by
+	 * {@link #accessed(Object)}, so that the journal has to be rewritten when the history is
+	 * saved.
+	 *
+	 * @since 3.14
+	 */
+	protected synchronized void markDirty() {
+		fNeedsCompaction= true;
+	}
+
+	/**
+	 * Returns the name of the journal file in the state location.
+	 *
+	 * @return the file name
+	 * @since 3.14
+	 */
+	private String getJournalFileName() {
+		String name= fFileName;
+		if (name.endsWith(XML_FILE_EXTENSION))
+			name= name.substring(0, name.length() - XML_FILE_EXTENSION.length());
+		return name + JOURNAL_FILE_EXTENSION;
+	}
+
+	/**
+	 * Appends a record to the journal, if the history has been loaded, and schedules the job that
+	 * writes it.
+	 *
+	 * @param type the type of the record
+	 * @param object the accessed or removed object
+	 */
+	private void journal(byte type, V object) {
+		if (fJournal == null)
+			return;
+		try {
+			fJournal.append(new ObjectRecord(type, object));
+		} catch (IOException e) {
 			JavaPlugin.log(e);
-		} catch (TransformerFactoryConfigurationError e) {
-			// The XML library can be misconficgured (e.g. via
-			// -Djava.endorsed.dirs=C:\notExisting\xerces-2_7_1)
+			fNeedsCompaction= true;
+		}
+		fFlushJob.schedule(FLUSH_DELAY);
+	}
+
+	/**
+	 * Rewrites the journal with the current elements, eldest first.
+	 */
+	private void compact() {
+		List<ObjectRecord> records= new ArrayList<>(fHistory.size());
+		for (Iterator<V> iter= getValues().iterator(); iter.hasNext();)
+			records.add(new ObjectRecord(HistoryJournal.ACCESSED, iter.next()));
+		try {
+			fJournal.rewrite(records.iterator());
+			fNeedsCompaction= false;
+		} catch (IOException e) {
 			JavaPlugin.log(e);
-		} finally {
+		}
+	}
+
+	private class ObjectRecord implements HistoryJournal.RecordWriter {
+
+		private final byte fType;
+		private final V fObject;
+
+		ObjectRecord(byte type, V object) {
+			fType= type;
+			fObject= object;
+		}
+
+		@Override
+		public byte getType() {
+			return fType;
+		}
+
+		@Override
+		public void write(DataOutputStream out) throws IOException {
+			writeObject(fObject, out);
+		}
+	}
+
+	/**
+	 * Writes the given object to the journal.
+	 * <p>
+	 * Subclasses may override together with {@link #readObject(DataInputStream)}. The default
+	 * implementation writes the attributes set by {@link #setAttributes(Object, Element)}.
+	 * </p>
+	 *
+	 * @param object the object to write
+	 * @param out the output
+	 * @throws IOException if writing fails
+	 * @since 3.14
+	 */
+	protected void writeObject(V object, DataOutputStream out) throws IOException {
+		Element element= createElement();
+		setAttributes(object, element);
+		NamedNodeMap attributes= element.getAttributes();
+		out.writeShort(attributes.getLength());
+		for (int i= 0; i < attributes.getLength(); i++) {
+			Attr attribute= (Attr) attributes.item(i);
+			out.writeUTF(attribute.getName());
+			out.writeUTF(attribute.getValue());
+		}
+	}
+
+	/**
+	 * Reads an object written by {@link #writeObject(Object, DataOutputStream)}.
+	 *
+	 * @param in the input
+	 * @return the object, or <code>null</code> if it cannot be restored
+	 * @throws IOException if reading fails
+	 * @since 3.14
+	 */
+	protected V readObject(DataInputStream in) throws IOException {
+		Element element= createElement();
+		int count= in.readUnsignedShort();
+		for (int i= 0; i < count; i++)
+			element.setAttribute(in.readUTF(), in.readUTF());
+		return createFromElement(element);
+	}
+
+	private Element createElement() throws IOException {
+		if (fElementFactory == null) {
 			try {
-				if (out != null) {
-					out.close();
-				}
-			} catch (IOException e) {
-				JavaPlugin.log(e);
+				fElementFactory= DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+			} catch (ParserConfigurationException e) {
+				throw new IOException(e);
 			}
 		}
+		return fElementFactory.createElement(fInfoNodeName);
 	}
 
 	protected Set<K> getKeys() {
@@ -288,36 +497,4 @@ public abstract class History<K, V> {
 		rebuildPositions();
 	}
 
-	private void save(OutputStream stream) throws CoreException {
-		try {
-			DocumentBuilderFactory factory= DocumentBuilderFactory.newInstance();
-			DocumentBuilder builder= factory.newDocumentBuilder();
-			Document document= builder.newDocument();
-
-			Element rootElement = document.createElement(fRootNodeName);
-			document.appendChild(rootElement);
-
-			Iterator<V> values= getValues().iterator();
-			while (values.hasNext()) {
-				Object object= values.next();
-				Element element= document.createElement(fInfoNodeName);
-				setAttributes(object, element);
-				rootElement.appendChild(element);
-			}
-
-			Transformer transformer=TransformerFactory.newInstance().newTransformer();
-			transformer.setOutputProperty(OutputKeys.METHOD, "xml"); //$NON-NLS-1$
-			transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8"); //$NON-NLS-1$
-			transformer.setOutputProperty(OutputKeys.INDENT, "yes"); //$NON-NLS-1$
-			DOMSource source = new DOMSource(document);
-			StreamResult result = new StreamResult(stream);
-
-			transformer.transform(source, result);
-		} catch (TransformerException e) {
-			throw createException(e, Messages.format(CorextMessages.History_error_serialize, BasicElementLabels.getResourceName(fFileName)));
-		} catch (ParserConfigurationException e) {
-			throw createException(e, Messages.format(CorextMessages.History_error_serialize, BasicElementLabels.getResourceName(fFileName)));
-		}
-	}
-
 }
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * A binary, append-only journal of history records.
+ * <p>
+ * The journal starts with a header followed by records. Each record consists of a type byte, the
+ * length of its payload and the payload itself, which is written and read by the clients. Changes
+ * are appended as new records, which are buffered in memory until {@link #flush()} writes them to
+ * the file, and {@link #rewrite(Iterator)} compacts the journal into a snapshot of the current state.
+ * A truncated last record, e.g. after a crash while appending, is ignored.
+ * </p>
+ *
+ * @since 3.14
+ */
+public final class HistoryJournal {
+
+	/**
+	 * Writes the payload of a record.
+	 */
+	public interface RecordWriter {
+
+		/**
+		 * @return the type of the record
+		 */
+		byte getType();
+
+		/**
+		 * Writes the payload of the record.
+		 *
+		 * @param out the output
+		 * @throws IOException if writing fails
+		 */
+		void write(DataOutputStream out) throws IOException;
+	}
+
+	/**
+	 * Reads the records of a journal.
+	 */
+	public interface RecordReader {
+
+		/**
+		 * Reads the payload of a record.
+		 *
+		 * @param type the type of the record
+		 * @param in the payload of the record
+		 * @throws IOException if the payload cannot be read
+		 */
+		void read(byte type, DataInputStream in) throws IOException;
+	}
+
+	/** Record type of an accessed element */
+	public static final byte ACCESSED= 1;
+	/** Record type of a removed element */
+	public static final byte REMOVED= 2;
+
+	private static final int MAGIC= 0x4A444948; // "JDIH"
+	private static final int VERSION= 1;
+
+	private final File fFile;
+	private int fRecordCount;
+	/** The records that have been appended but not yet written to the file */
+	private final ByteArrayOutputStream fPendingRecords= new ByteArrayOutputStream();
+
+	/**
+	 * Creates a journal stored in the given file.
+	 *
+	 * @param file the file
+	 */
+	public HistoryJournal(File file) {
+		fFile= file;
+	}
+
+	/**
+	 * @return the file of this journal
+	 */
+	public File getFile() {
+		return fFile;
+	}
+
+	/**
+	 * @return <code>true</code> if the journal has been written before
+	 */
+	public boolean exists() {
+		return fFile.isFile();
+	}
+
+	/**
+	 * @return the number of records in the journal, as far as known from replaying and appending,
+	 *         including the records not yet flushed
+	 */
+	public synchronized int getRecordCount() {
+		return fRecordCount;
+	}
+
+	/**
+	 * Replays all records of the journal.
+	 *
+	 * @param reader the reader of the records
+	 * @return <code>false</code> if the journal is not in the expected format or its last record
+	 *         is truncated, <code>true</code> otherwise
+	 * @throws IOException if the journal cannot be read
+	 */
+	public synchronized boolean replay(RecordReader reader) throws IOException {
+		fRecordCount= 0;
+		fPendingRecords.reset();
+		try (DataInputStream in= new DataInputStream(new BufferedInputStream(new FileInputStream(fFile)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+				return false;
+			while (true) {
+				int type= in.read();
+				if (type == -1)
+					return true;
+				byte[] payload= new byte[in.readInt()];
+				in.readFully(payload);
+				fRecordCount++;
+				reader.read((byte) type, new DataInputStream(new ByteArrayInputStream(payload)));
+			}
+		} catch (EOFException e) {
+			return false;
+		} catch (NegativeArraySizeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Appends a record to the journal. The record is written to the file by the next
+	 * {@link #flush()}.
+	 *
+	 * @param writer the writer of the record
+	 * @throws IOException if writing the payload fails
+	 */
+	public synchronized void append(RecordWriter writer) throws IOException {
+		fPendingRecords.write(toRecord(writer));
+		fRecordCount++;
+	}
+
+	/**
+	 * @return <code>true</code> if there are appended records that have not been written to the
+	 *         file
+	 */
+	public synchronized boolean hasPendingRecords() {
+		return fPendingRecords.size() > 0;
+	}
+
+	/**
+	 * Writes the appended records to the file. The file is created if it does not exist.
+	 *
+	 * @throws IOException if writing fails, the records stay pending in that case
+	 */
+	public synchronized void flush() throws IOException {
+		if (fPendingRecords.size() == 0)
+			return;
+		boolean exists= exists();
+		try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fFile, true)))) {
+			if (!exists) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+			}
+			fPendingRecords.writeTo(out);
+		}
+		fPendingRecords.reset();
+	}
+
+	/**
+	 * Replaces the content of the journal with the given records. Pending records are discarded.
+	 *
+	 * @param writers the writers of the records
+	 * @throws IOException if writing fails
+	 */
+	public synchronized void rewrite(Iterator<? extends RecordWriter> writers) throws IOException {
+		File tempFile= new File(fFile.getPath() + ".tmp"); //$NON-NLS-1$
+		int count= 0;
+		try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			while (writers.hasNext()) {
+				out.write(toRecord(writers.next()));
+				count++;
+			}
+		}
+		if (!tempFile.renameTo(fFile)) {
+			fFile.delete();
+			if (!tempFile.renameTo(fFile))
+				throw new IOException("Cannot rename " + tempFile + " to " + fFile); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		fRecordCount= count;
+		fPendingRecords.reset();
+	}
+
+	private static byte[] toRecord(RecordWriter writer) throws IOException {
+		ByteArrayOutputStream payload= new ByteArrayOutputStream(64);
+		writer.write(new DataOutputStream(payload));
+		ByteArrayOutputStream record= new ByteArrayOutputStream(payload.size() + 5);
+		DataOutputStream out= new DataOutputStream(record);
+		out.writeByte(writer.getType());
+		out.writeInt(payload.size());
+		payload.writeTo(out);
+		return record.toByteArray();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,9 @@
  *******************************************************************************/
  package org.eclipse.jdt.internal.corext.util;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -18,6 +21,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.w3c.dom.Element;
 
@@ -54,6 +58,12 @@ import org.eclipse.jdt.internal.corext.CorextMessages;
 
 /**
  * History for the open type dialog. Object and keys are both {@link TypeNameMatch}s.
+ * <p>
+ * Entries are validated by {@link #checkConsistency(IProgressMonitor)}, which skips the entries
+ * that have already been validated since the history was last marked as inconsistent. The file
+ * system and the Java model are accessed without holding the lock of the history, so that
+ * validation does not block other clients of the history, e.g. the UI thread reading the entries.
+ * </p>
  */
 public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 
@@ -168,6 +178,10 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 	private volatile boolean fNeedsConsistencyCheck;
 	// Map of cached time stamps
 	private Map<TypeNameMatch, Long> fTimestampMapping;
+	// Incremented whenever the history may have become inconsistent
+	private final AtomicInteger fInconsistencyStamp= new AtomicInteger();
+	// Map of the inconsistency stamps at which the entries have been validated
+	private final Map<TypeNameMatch, Integer> fValidationStamps= new HashMap<>();
 
 	private final IElementChangedListener fDeltaListener;
 	private final UpdateJob fUpdateJob;
@@ -198,6 +212,8 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 		fTimestampMapping= new HashMap<>();
 		fNeedsConsistencyCheck= true;
 		load();
+		// drop the time stamps read from removal records of the journal
+		fTimestampMapping.keySet().retainAll(getKeys());
 		fDeltaListener= new TypeHistoryDeltaListener();
 		JavaCore.addElementChangedListener(fDeltaListener);
 		fUpdateJob= new UpdateJob();
@@ -210,6 +226,7 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 	}
 
 	public void markAsInconsistent() {
+		fInconsistencyStamp.incrementAndGet();
 		fNeedsConsistencyCheck= true;
 		// cancel the old job. If no job is running this is a NOOP.
 		fUpdateJob.cancel();
@@ -251,18 +268,26 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 		if (!fTimestampMapping.containsKey(info)) {
 			fTimestampMapping.put(info, new Long(getContainerTimestamp(info)));
 		}
+		fValidationStamps.put(info, new Integer(fInconsistencyStamp.get()));
 		super.accessed(info);
 	}
 
 	@Override
 	public synchronized TypeNameMatch remove(TypeNameMatch info) {
 		fTimestampMapping.remove(info);
+		fValidationStamps.remove(info);
 		return (TypeNameMatch)super.remove(info);
 	}
 
-	public synchronized void replace(TypeNameMatch old, TypeNameMatch newMatch) {
+	public void replace(TypeNameMatch old, TypeNameMatch newMatch) {
+		replace(old, newMatch, getContainerTimestamp(newMatch));
+	}
+
+	private synchronized void replace(TypeNameMatch old, TypeNameMatch newMatch, long timestamp) {
 		fTimestampMapping.remove(old);
-		fTimestampMapping.put(newMatch, new Long(getContainerTimestamp(newMatch)));
+		fValidationStamps.remove(old);
+		fTimestampMapping.put(newMatch, new Long(timestamp));
+		fValidationStamps.put(newMatch, new Integer(fInconsistencyStamp.get()));
 		super.remove(old);
 		super.accessed(newMatch);
 	}
@@ -280,6 +305,12 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 	}
 
 	public synchronized TypeNameMatch[] getFilteredTypeInfos(TypeInfoFilter filter) {
+		List<TypeNameMatch> result= filter(filter);
+		Collections.reverse(result);
+		return result.toArray(new TypeNameMatch[result.size()]);
+	}
+
+	private List<TypeNameMatch> filter(TypeInfoFilter filter) {
 		Collection<TypeNameMatch> values= getValues();
 		List<TypeNameMatch> result= new ArrayList<>();
 		for (Iterator<TypeNameMatch> iter= values.iterator(); iter.hasNext();) {
@@ -287,9 +318,7 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 			if ((filter == null || filter.matchesHistoryElement(type)) && !TypeFilter.isFiltered(type.getFullyQualifiedName()))
 				result.add(type);
 		}
-		Collections.reverse(result);
-		return result.toArray(new TypeNameMatch[result.size()]);
-
+		return result;
 	}
 
 	@Override
@@ -297,41 +326,84 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 		return object;
 	}
 
-	private synchronized void internalCheckConsistency(IProgressMonitor monitor) throws OperationCanceledException {
+	private void internalCheckConsistency(IProgressMonitor monitor) throws OperationCanceledException {
 		// Setting fNeedsConsistencyCheck is necessary here since
 		// markAsInconsistent isn't synchronized.
 		fNeedsConsistencyCheck= true;
-		List<TypeNameMatch> typesToCheck= new ArrayList<>(getKeys());
+		int stamp= fInconsistencyStamp.get();
+		List<TypeNameMatch> typesToCheck= getTypesToValidate(stamp);
 		monitor.beginTask(CorextMessages.TypeInfoHistory_consistency_check, typesToCheck.size());
 		monitor.setTaskName(CorextMessages.TypeInfoHistory_consistency_check);
 		for (Iterator<TypeNameMatch> iter= typesToCheck.iterator(); iter.hasNext();) {
-			TypeNameMatch type= iter.next();
-			long currentTimestamp= getContainerTimestamp(type);
-			Long lastTested= fTimestampMapping.get(type);
-			if (lastTested != null && currentTimestamp != IResource.NULL_STAMP && currentTimestamp == lastTested.longValue() && !isContainerDirty(type))
-				continue;
-			try {
-				IType jType= type.getType();
-				if (jType == null || !jType.exists()) {
-					remove(type);
-				} else {
-					// copy over the modifiers since they may have changed
-					int modifiers= jType.getFlags();
-					if (modifiers != type.getModifiers()) {
-						replace(type, SearchEngine.createTypeNameMatch(jType, modifiers));
-					} else {
-						fTimestampMapping.put(type, new Long(currentTimestamp));
-					}
-				}
-			} catch (JavaModelException e) {
-				remove(type);
-			}
+			validate(iter.next(), stamp);
 			if (monitor.isCanceled())
 				throw new OperationCanceledException();
 			monitor.worked(1);
 		}
 		monitor.done();
-		fNeedsConsistencyCheck= false;
+		if (stamp == fInconsistencyStamp.get())
+			fNeedsConsistencyCheck= false;
+	}
+
+	private synchronized List<TypeNameMatch> getTypesToValidate(int stamp) {
+		List<TypeNameMatch> types= new ArrayList<>(getKeys());
+		for (Iterator<TypeNameMatch> iter= types.iterator(); iter.hasNext();) {
+			if (isValidated(iter.next(), stamp))
+				iter.remove();
+		}
+		return types;
+	}
+
+	private boolean isValidated(TypeNameMatch type, int stamp) {
+		Integer validated= fValidationStamps.get(type);
+		return validated != null && validated.intValue() == stamp;
+	}
+
+	/**
+	 * Removes the given entry if its type does not exist anymore, and updates its modifiers and
+	 * time stamp otherwise. The type is checked without holding the lock of the history, the entry
+	 * is only updated if it has not been removed or replaced in the meantime.
+	 *
+	 * @param type the entry to validate
+	 * @param stamp the current inconsistency stamp
+	 */
+	private void validate(TypeNameMatch type, int stamp) {
+		Long lastTested;
+		synchronized (this) {
+			lastTested= fTimestampMapping.get(type);
+		}
+		long currentTimestamp= getContainerTimestamp(type);
+		if (lastTested != null && currentTimestamp != IResource.NULL_STAMP && currentTimestamp == lastTested.longValue() && !isContainerDirty(type)) {
+			synchronized (this) {
+				if (containsKey(type))
+					fValidationStamps.put(type, new Integer(stamp));
+			}
+			return;
+		}
+		boolean exists;
+		TypeNameMatch newMatch= null;
+		try {
+			IType jType= type.getType();
+			exists= jType != null && jType.exists();
+			// copy over the modifiers since they may have changed
+			if (exists && jType.getFlags() != type.getModifiers())
+				newMatch= SearchEngine.createTypeNameMatch(jType, jType.getFlags());
+		} catch (JavaModelException e) {
+			exists= false;
+		}
+		synchronized (this) {
+			if (!containsKey(type))
+				return;
+			if (!exists) {
+				remove(type);
+			} else if (newMatch != null) {
+				replace(type, newMatch, currentTimestamp);
+			} else {
+				fTimestampMapping.put(type, new Long(currentTimestamp));
+				fValidationStamps.put(type, new Integer(stamp));
+				markDirty();
+			}
+		}
 	}
 
 	private long getContainerTimestamp(TypeNameMatch match) {
@@ -386,6 +458,29 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 		save();
 	}
 
+	@Override
+	protected void writeObject(TypeNameMatch type, DataOutputStream out) throws IOException {
+		out.writeUTF(type.getType().getHandleIdentifier());
+		out.writeInt(type.getModifiers());
+		Long timestamp= fTimestampMapping.get(type);
+		out.writeLong(timestamp == null ? IResource.NULL_STAMP : timestamp.longValue());
+	}
+
+	@Override
+	protected TypeNameMatch readObject(DataInputStream in) throws IOException {
+		IJavaElement element= JavaCore.create(in.readUTF());
+		int modifiers= in.readInt();
+		long timestamp= in.readLong();
+		if (!(element instanceof IType))
+			return null;
+
+		TypeNameMatch info= SearchEngine.createTypeNameMatch((IType) element, modifiers);
+		if (timestamp != IResource.NULL_STAMP) {
+			fTimestampMapping.put(info, new Long(timestamp));
+		}
+		return info;
+	}
+
 	@Override
 	protected TypeNameMatch createFromElement(Element type) {
 		String handle= type.getAttribute(NODE_HANDLE);
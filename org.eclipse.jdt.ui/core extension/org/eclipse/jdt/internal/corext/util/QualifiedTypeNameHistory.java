@@ -10,6 +10,10 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.util;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import org.w3c.dom.Element;
 
 public class QualifiedTypeNameHistory extends History<String, String> {
@@ -43,6 +47,16 @@ public class QualifiedTypeNameHistory extends History<String, String> {
 		return element.getAttribute(NODE_NAME);
 	}
 
+	@Override
+	protected void writeObject(String object, DataOutputStream out) throws IOException {
+		out.writeUTF(object);
+	}
+
+	@Override
+	protected String readObject(DataInputStream in) throws IOException {
+		return in.readUTF();
+	}
+
 	@Override
 	protected String getKey(String object) {
 		return object;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.util;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.StringTokenizer;
 
 import org.eclipse.jface.util.IPropertyChangeListener;
@@ -23,7 +25,6 @@ import org.eclipse.jdt.core.search.TypeNameMatch;
 import org.eclipse.jdt.ui.PreferenceConstants;
 
 import org.eclipse.jdt.internal.ui.JavaPlugin;
-import org.eclipse.jdt.internal.ui.util.StringMatcher;
 
 /**
  *
@@ -39,11 +40,11 @@ public class TypeFilter implements IPropertyChangeListener {
 	}
 
 	public static boolean isFiltered(char[] fullTypeName) {
-		return getDefault().filter(new String(fullTypeName));
+		return getDefault().filter(null, fullTypeName);
 	}
 
 	public static boolean isFiltered(char[] packageName, char[] typeName) {
-		return getDefault().filter(JavaModelUtil.concatenateName(packageName, typeName));
+		return getDefault().filter(packageName, typeName);
 	}
 
 	public static boolean isFiltered(IType type) {
@@ -70,41 +71,40 @@ public class TypeFilter implements IPropertyChangeListener {
 		}
 	}
 
-	private StringMatcher[] fStringMatchers;
+	private TypeFilterMatcher fMatcher;
 
 	/**
 	 *
 	 */
 	public TypeFilter() {
-		fStringMatchers= null;
+		fMatcher= null;
 		PreferenceConstants.getPreferenceStore().addPropertyChangeListener(this);
 	}
 
-	private synchronized StringMatcher[] getStringMatchers() {
-		if (fStringMatchers == null) {
+	private synchronized TypeFilterMatcher getMatcher() {
+		if (fMatcher == null) {
 			String str= PreferenceConstants.getPreferenceStore().getString(PreferenceConstants.TYPEFILTER_ENABLED);
 			StringTokenizer tok= new StringTokenizer(str, ";"); //$NON-NLS-1$
-			int nTokens= tok.countTokens();
-
-			fStringMatchers= new StringMatcher[nTokens];
-			for (int i= 0; i < nTokens; i++) {
+			List<String> patterns= new ArrayList<>(tok.countTokens());
+			while (tok.hasMoreTokens()) {
 				String curr= tok.nextToken();
 				if (curr.length() > 0) {
-					fStringMatchers[i]= new StringMatcher(curr, false, false);
+					patterns.add(curr);
 				}
 			}
+			fMatcher= new TypeFilterMatcher(patterns.toArray(new String[patterns.size()]));
 		}
-		return fStringMatchers;
+		return fMatcher;
 	}
 
 	public void dispose() {
 		PreferenceConstants.getPreferenceStore().removePropertyChangeListener(this);
-		fStringMatchers= null;
+		fMatcher= null;
 	}
 
 
 	public boolean hasFilters() {
-		return getStringMatchers().length > 0;
+		return !getMatcher().isEmpty();
 	}
 
 	/**
@@ -112,20 +112,25 @@ public class TypeFilter implements IPropertyChangeListener {
 	 * @return <code>true</code> iff the given type is filtered out
 	 */
 	public boolean filter(String fullTypeName) {
-		StringMatcher[] matchers= getStringMatchers();
-		for (int i= 0; i < matchers.length; i++) {
-			StringMatcher curr= matchers[i];
-			if (curr.match(fullTypeName)) {
-				return true;
-			}
-		}
-		return false;
+		return getMatcher().matches(fullTypeName);
+	}
+
+	/**
+	 * Tells whether a type is filtered out, without creating its fully qualified name.
+	 *
+	 * @param packageName the package name, can be <code>null</code>
+	 * @param typeName the type name, can be <code>null</code>
+	 * @return <code>true</code> iff the given type is filtered out
+	 * @since 3.14
+	 */
+	public boolean filter(char[] packageName, char[] typeName) {
+		return getMatcher().matches(packageName, typeName);
 	}
 
 	@Override
 	public synchronized void propertyChange(PropertyChangeEvent event) {
 		if (PreferenceConstants.TYPEFILTER_ENABLED.equals(event.getProperty())) {
-			fStringMatchers= null;
+			fMatcher= null;
 		}
 	}
 
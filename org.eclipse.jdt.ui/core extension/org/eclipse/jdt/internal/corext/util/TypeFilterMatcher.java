@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.internal.ui.util.StringMatcher;
+
+/**
+ * Matches fully qualified type names against all type filter patterns at once.
+ * <p>
+ * The patterns are compiled into a trie over their literal prefixes, i.e. the characters before
+ * the first wildcard. A name is walked down the trie once; a pattern without wildcards matches if
+ * the walk ends at its node, a pattern ending with its only <code>*</code> matches as soon as its
+ * node is reached, and the rest of other patterns is matched against the rest of the name. Patterns
+ * with escaped wildcards are matched by {@link StringMatcher}s.
+ * </p>
+ * <p>
+ * Names can be given as package and type name, matching does not allocate in this case.
+ * </p>
+ *
+ * @since 3.14
+ */
+class TypeFilterMatcher {
+
+	private static final char[] EMPTY= new char[0];
+
+	private static class Node {
+		/** Child characters, sorted */
+		char[] fChars= EMPTY;
+		Node[] fChildren= new Node[0];
+		/** A pattern ends at this node */
+		boolean fExact;
+		/** A pattern that is this node's prefix followed by <code>*</code> */
+		boolean fPrefix;
+		/** Wildcard patterns that start with this node's prefix, without the prefix */
+		char[][] fTails;
+
+		Node getChild(char ch) {
+			int low= 0;
+			int high= fChars.length - 1;
+			while (low <= high) {
+				int mid= (low + high) >>> 1;
+				char curr= fChars[mid];
+				if (curr < ch) {
+					low= mid + 1;
+				} else if (curr > ch) {
+					high= mid - 1;
+				} else {
+					return fChildren[mid];
+				}
+			}
+			return null;
+		}
+
+		Node addChild(char ch) {
+			Node child= getChild(ch);
+			if (child != null)
+				return child;
+			int pos= 0;
+			while (pos < fChars.length && fChars[pos] < ch)
+				pos++;
+			char[] chars= new char[fChars.length + 1];
+			Node[] children= new Node[fChildren.length + 1];
+			System.arraycopy(fChars, 0, chars, 0, pos);
+			System.arraycopy(fChildren, 0, children, 0, pos);
+			System.arraycopy(fChars, pos, chars, pos + 1, fChars.length - pos);
+			System.arraycopy(fChildren, pos, children, pos + 1, fChildren.length - pos);
+			child= new Node();
+			chars[pos]= ch;
+			children[pos]= child;
+			fChars= chars;
+			fChildren= children;
+			return child;
+		}
+
+		void addTail(char[] tail) {
+			if (fTails == null) {
+				fTails= new char[][] { tail };
+			} else {
+				char[][] tails= new char[fTails.length + 1][];
+				System.arraycopy(fTails, 0, tails, 0, fTails.length);
+				tails[fTails.length]= tail;
+				fTails= tails;
+			}
+		}
+	}
+
+	private final Node fRoot= new Node();
+	private final StringMatcher[] fFallbackMatchers;
+	private final boolean fIsEmpty;
+
+	/**
+	 * Creates a matcher for the given patterns.
+	 *
+	 * @param patterns the patterns, with <code>*</code> and <code>?</code> as wildcards
+	 */
+	TypeFilterMatcher(String[] patterns) {
+		List<StringMatcher> fallbackMatchers= new ArrayList<>();
+		for (int i= 0; i < patterns.length; i++) {
+			String pattern= patterns[i];
+			if (pattern.indexOf('\\') != -1) {
+				fallbackMatchers.add(new StringMatcher(pattern, false, false));
+			} else {
+				add(pattern.toCharArray());
+			}
+		}
+		fFallbackMatchers= fallbackMatchers.toArray(new StringMatcher[fallbackMatchers.size()]);
+		fIsEmpty= patterns.length == 0;
+	}
+
+	private void add(char[] pattern) {
+		Node node= fRoot;
+		int i= 0;
+		while (i < pattern.length && pattern[i] != '*' && pattern[i] != '?') {
+			node= node.addChild(pattern[i]);
+			i++;
+		}
+		if (i == pattern.length) {
+			node.fExact= true;
+		} else if (i == pattern.length - 1 && pattern[i] == '*') {
+			node.fPrefix= true;
+		} else {
+			char[] tail= new char[pattern.length - i];
+			System.arraycopy(pattern, i, tail, 0, tail.length);
+			node.addTail(tail);
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if there are no patterns
+	 */
+	boolean isEmpty() {
+		return fIsEmpty;
+	}
+
+	/**
+	 * Tells whether a type name matches any of the patterns.
+	 *
+	 * @param fullTypeName the fully qualified type name
+	 * @return <code>true</code> if the name matches a pattern
+	 */
+	boolean matches(String fullTypeName) {
+		return matches(null, fullTypeName.toCharArray());
+	}
+
+	/**
+	 * Tells whether a type name matches any of the patterns. The name is the package name and
+	 * the type name, separated by a dot if both are not empty.
+	 *
+	 * @param packageName the package name, can be <code>null</code>
+	 * @param typeName the type name, can be <code>null</code>
+	 * @return <code>true</code> if the name matches a pattern
+	 */
+	boolean matches(char[] packageName, char[] typeName) {
+		if (fIsEmpty)
+			return false;
+		if (packageName == null)
+			packageName= EMPTY;
+		if (typeName == null)
+			typeName= EMPTY;
+		int length= getLength(packageName, typeName);
+		Node node= fRoot;
+		int pos= 0;
+		while (true) {
+			if (node.fPrefix)
+				return true;
+			if (node.fTails != null) {
+				for (int i= 0; i < node.fTails.length; i++) {
+					if (matchesTail(node.fTails[i], packageName, typeName, pos, length))
+						return true;
+				}
+			}
+			if (pos == length) {
+				if (node.fExact)
+					return true;
+				break;
+			}
+			node= node.getChild(charAt(packageName, typeName, pos));
+			if (node == null)
+				break;
+			pos++;
+		}
+		if (fFallbackMatchers.length > 0) {
+			String fullTypeName= JavaModelUtil.concatenateName(packageName, typeName);
+			for (int i= 0; i < fFallbackMatchers.length; i++) {
+				if (fFallbackMatchers[i].match(fullTypeName))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	private static int getLength(char[] packageName, char[] typeName) {
+		if (packageName.length > 0 && typeName.length > 0)
+			return packageName.length + 1 + typeName.length;
+		return packageName.length + typeName.length;
+	}
+
+	private static char charAt(char[] packageName, char[] typeName, int pos) {
+		if (pos < packageName.length)
+			return packageName[pos];
+		if (packageName.length == 0)
+			return typeName[pos];
+		if (pos == packageName.length)
+			return '.';
+		return typeName[pos - packageName.length - 1];
+	}
+
+	/**
+	 * Matches the rest of a name, starting at <code>start</code>, against a pattern with
+	 * <code>*</code> and <code>?</code> wildcards.
+	 */
+	private static boolean matchesTail(char[] pattern, char[] packageName, char[] typeName, int start, int length) {
+		int p= 0;
+		int t= start;
+		int starP= -1;
+		int starT= -1;
+		while (t < length) {
+			if (p < pattern.length && pattern[p] == '*') {
+				starP= p++;
+				starT= t;
+			} else if (p < pattern.length && (pattern[p] == '?' || pattern[p] == charAt(packageName, typeName, t))) {
+				p++;
+				t++;
+			} else if (starP != -1) {
+				p= starP + 1;
+				t= ++starT;
+			} else {
+				return false;
+			}
+		}
+		while (p < pattern.length && pattern[p] == '*')
+			p++;
+		return p == pattern.length;
+	}
+}
@@ -0,0 +1,589 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
+
+import org.eclipse.jdt.internal.corext.CorextMessages;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * A resident table of all types in the workspace scope, used by the open type dialog to find
+ * types without a search engine query.
+ * <p>
+ * The table is built in the background the first time it is queried. The simple names of the
+ * types are kept lower case in one sorted character array, so that names with a given prefix are
+ * found by binary search. The camel case initials of the names (first character and upper case
+ * letters) are kept in a second sorted character array for camel case patterns. Other patterns
+ * are matched against all entries.
+ * </p>
+ * <p>
+ * Types of compilation units that changed after the table was built are looked up in the Java
+ * model instead. The table is rebuilt when many compilation units changed or when class path
+ * entries changed.
+ * </p>
+ *
+ * @since 3.14
+ */
+public class TypeNameIndex {
+
+	/**
+	 * Number of changed compilation units after which the table is rebuilt.
+	 */
+	private static final int MAX_CHANGED_UNITS= 500;
+
+	/**
+	 * Number of entries after which cancellation is checked.
+	 */
+	private static final int CANCEL_CHECK_INTERVAL= 1000;
+
+	private static final TypeNameMatch[] NO_MATCHES= new TypeNameMatch[0];
+
+	/**
+	 * An immutable snapshot of the types.
+	 */
+	private static class Table {
+		/** The types, sorted by lower case simple name */
+		final TypeNameMatch[] fMatches;
+		/** Lower case simple names of {@link #fMatches} */
+		final char[] fNames;
+		final int[] fNameOffsets;
+		/** Camel case initials of {@link #fMatches} */
+		final char[] fInitials;
+		final int[] fInitialsOffsets;
+		/** Indices into {@link #fMatches}, sorted by initials */
+		final int[] fByInitials;
+
+		Table(List<TypeNameMatch> matches) {
+			final int count= matches.size();
+			final String[] lowerCaseNames= new String[count];
+			Integer[] byName= new Integer[count];
+			int namesLength= 0;
+			for (int i= 0; i < count; i++) {
+				lowerCaseNames[i]= toLowerCase(matches.get(i).getSimpleTypeName());
+				namesLength+= lowerCaseNames[i].length();
+				byName[i]= Integer.valueOf(i);
+			}
+			Arrays.sort(byName, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer o1, Integer o2) {
+					return lowerCaseNames[o1.intValue()].compareTo(lowerCaseNames[o2.intValue()]);
+				}
+			});
+
+			fMatches= new TypeNameMatch[count];
+			fNames= new char[namesLength];
+			fNameOffsets= new int[count + 1];
+			final String[] initials= new String[count];
+			int initialsLength= 0;
+			for (int i= 0, offset= 0; i < count; i++) {
+				int index= byName[i].intValue();
+				fMatches[i]= matches.get(index);
+				String name= lowerCaseNames[index];
+				fNameOffsets[i]= offset;
+				name.getChars(0, name.length(), fNames, offset);
+				offset+= name.length();
+				fNameOffsets[i + 1]= offset;
+				initials[i]= getInitials(fMatches[i].getSimpleTypeName());
+				initialsLength+= initials[i].length();
+			}
+
+			Integer[] byInitials= new Integer[count];
+			for (int i= 0; i < count; i++) {
+				byInitials[i]= Integer.valueOf(i);
+			}
+			Arrays.sort(byInitials, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer o1, Integer o2) {
+					return initials[o1.intValue()].compareTo(initials[o2.intValue()]);
+				}
+			});
+			fByInitials= new int[count];
+			fInitials= new char[initialsLength];
+			fInitialsOffsets= new int[count + 1];
+			for (int i= 0, offset= 0; i < count; i++) {
+				int index= byInitials[i].intValue();
+				fByInitials[i]= index;
+				String curr= initials[index];
+				fInitialsOffsets[i]= offset;
+				curr.getChars(0, curr.length(), fInitials, offset);
+				offset+= curr.length();
+				fInitialsOffsets[i + 1]= offset;
+			}
+		}
+
+		/**
+		 * Returns the range of entries in an arena that start with the given prefix.
+		 *
+		 * @return start (inclusive) and end (exclusive) of the range
+		 */
+		static int[] findRange(char[] arena, int[] offsets, char[] prefix) {
+			int count= offsets.length - 1;
+			int low= 0;
+			int high= count;
+			while (low < high) { // first entry >= prefix
+				int mid= (low + high) >>> 1;
+				if (comparePrefix(arena, offsets[mid], offsets[mid + 1], prefix) < 0)
+					low= mid + 1;
+				else
+					high= mid;
+			}
+			int start= low;
+			high= count;
+			while (low < high) { // first entry > prefix
+				int mid= (low + high) >>> 1;
+				if (comparePrefix(arena, offsets[mid], offsets[mid + 1], prefix) <= 0)
+					low= mid + 1;
+				else
+					high= mid;
+			}
+			return new int[] { start, low };
+		}
+
+		/**
+		 * Compares the first characters of an entry with a prefix.
+		 *
+		 * @return <code>0</code> if the entry starts with the prefix, a negative value if it is
+		 *         less, a positive value if it is greater
+		 */
+		private static int comparePrefix(char[] arena, int start, int end, char[] prefix) {
+			int length= Math.min(end - start, prefix.length);
+			for (int i= 0; i < length; i++) {
+				int diff= arena[start + i] - prefix[i];
+				if (diff != 0)
+					return diff;
+			}
+			return end - start < prefix.length ? -1 : 0;
+		}
+	}
+
+	private class BuildJob extends Job {
+		BuildJob() {
+			super(CorextMessages.TypeNameIndex_build);
+			setSystem(true);
+			setPriority(Job.LONG);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			long stamp= fStamp.incrementAndGet();
+			final List<TypeNameMatch> matches= new ArrayList<>();
+			try {
+				new SearchEngine().searchAllTypeNames(null, SearchPattern.R_EXACT_MATCH, null, SearchPattern.R_PREFIX_MATCH, IJavaSearchConstants.TYPE,
+						SearchEngine.createWorkspaceScope(), new TypeNameMatchRequestor() {
+							@Override
+							public void acceptTypeNameMatch(TypeNameMatch match) {
+								matches.add(match);
+							}
+						}, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+			} catch (JavaModelException e) {
+				JavaPlugin.log(e);
+				return Status.OK_STATUS;
+			} catch (OperationCanceledException e) {
+				return Status.CANCEL_STATUS;
+			}
+			if (monitor.isCanceled())
+				return Status.CANCEL_STATUS;
+			Table table= new Table(matches);
+			synchronized (TypeNameIndex.this) {
+				if (fNeedsRebuild > stamp)
+					return Status.OK_STATUS; // changed while building, the job has been rescheduled
+				// drop the units that changed before the search started
+				for (Iterator<Entry<ICompilationUnit, Long>> iter= fChangedUnits.entrySet().iterator(); iter.hasNext();) {
+					Entry<ICompilationUnit, Long> entry= iter.next();
+					if (entry.getValue().longValue() < stamp) {
+						iter.remove();
+						fChangedTypes.remove(entry.getKey());
+					}
+				}
+				fTable= table;
+			}
+			return Status.OK_STATUS;
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			return family == TypeNameIndex.this;
+		}
+	}
+
+	private class DeltaListener implements IElementChangedListener {
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			List<ICompilationUnit> changedUnits= new ArrayList<>();
+			if (processDelta(event.getDelta(), changedUnits)) {
+				rebuild();
+			} else if (!changedUnits.isEmpty()) {
+				unitsChanged(changedUnits);
+			}
+		}
+
+		/**
+		 * Collects the compilation units whose types may have changed.
+		 *
+		 * @return <code>true</code> if the table has to be rebuilt
+		 */
+		private boolean processDelta(IJavaElementDelta delta, List<ICompilationUnit> changedUnits) {
+			IJavaElement elem= delta.getElement();
+			int kind= delta.getKind();
+			int flags= delta.getFlags();
+			boolean isAddedOrRemoved= kind == IJavaElementDelta.ADDED || kind == IJavaElementDelta.REMOVED;
+
+			switch (elem.getElementType()) {
+				case IJavaElement.JAVA_MODEL:
+					return processChildrenDelta(delta, changedUnits);
+				case IJavaElement.JAVA_PROJECT:
+					if (isAddedOrRemoved || (flags & (IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED
+							| IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED)) != 0)
+						return true;
+					return processChildrenDelta(delta, changedUnits);
+				case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+					if (isAddedOrRemoved || (flags & (IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH
+							| IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED)) != 0)
+						return true;
+					return processChildrenDelta(delta, changedUnits);
+				case IJavaElement.PACKAGE_FRAGMENT:
+					if (kind == IJavaElementDelta.REMOVED)
+						return true;
+					if (kind == IJavaElementDelta.ADDED) {
+						try {
+							changedUnits.addAll(Arrays.asList(((IPackageFragment) elem).getCompilationUnits()));
+						} catch (JavaModelException e) {
+							return true;
+						}
+						return false;
+					}
+					return processChildrenDelta(delta, changedUnits);
+				case IJavaElement.CLASS_FILE:
+					return isAddedOrRemoved;
+				case IJavaElement.COMPILATION_UNIT:
+					ICompilationUnit unit= (ICompilationUnit) elem;
+					if (!JavaModelUtil.isPrimary(unit))
+						return false;
+					if (isAddedOrRemoved || isUnknownStructuralChange(flags) || (flags & IJavaElementDelta.F_PRIMARY_WORKING_COPY) != 0
+							|| hasTypeChange(delta)) {
+						changedUnits.add(unit);
+					}
+					return false;
+				default:
+					return false;
+			}
+		}
+
+		private boolean processChildrenDelta(IJavaElementDelta delta, List<ICompilationUnit> changedUnits) {
+			IJavaElementDelta[] children= delta.getAffectedChildren();
+			boolean rebuild= false;
+			for (int i= 0; i < children.length && !rebuild; i++) {
+				rebuild= processDelta(children[i], changedUnits);
+			}
+			return rebuild;
+		}
+
+		private boolean isUnknownStructuralChange(int flags) {
+			if ((flags & IJavaElementDelta.F_CONTENT) == 0)
+				return false;
+			return (flags & IJavaElementDelta.F_FINE_GRAINED) == 0;
+		}
+
+		private boolean hasTypeChange(IJavaElementDelta delta) {
+			IJavaElementDelta[] children= delta.getAffectedChildren();
+			for (int i= 0; i < children.length; i++) {
+				IJavaElementDelta child= children[i];
+				if (child.getElement().getElementType() != IJavaElement.TYPE)
+					continue;
+				if (child.getKind() != IJavaElementDelta.CHANGED || (child.getFlags() & IJavaElementDelta.F_MODIFIERS) != 0 || hasTypeChange(child))
+					return true;
+			}
+			return false;
+		}
+	}
+
+	private static TypeNameIndex fgInstance;
+
+	public static synchronized TypeNameIndex getInstance() {
+		if (fgInstance == null)
+			fgInstance= new TypeNameIndex();
+		return fgInstance;
+	}
+
+	public static synchronized void shutdown() {
+		if (fgInstance == null)
+			return;
+		fgInstance.doShutdown();
+		fgInstance= null;
+	}
+
+	private final IElementChangedListener fDeltaListener;
+	private final BuildJob fBuildJob;
+
+	/**
+	 * The table, or <code>null</code> if it has not been built yet or must be rebuilt.
+	 */
+	private volatile Table fTable;
+
+	/**
+	 * Stamps are taken when builds start and compilation units change.
+	 */
+	private final AtomicLong fStamp= new AtomicLong();
+
+	/**
+	 * The stamp of the last change that requires a rebuild.
+	 */
+	private long fNeedsRebuild;
+
+	/**
+	 * Compilation units whose entries in {@link #fTable} may be outdated, with the stamp of their
+	 * last change.
+	 */
+	private final Map<ICompilationUnit, Long> fChangedUnits= new HashMap<>();
+
+	/**
+	 * The current types of the changed compilation units, computed when the index is queried.
+	 */
+	private final Map<ICompilationUnit, TypeNameMatch[]> fChangedTypes= new HashMap<>();
+
+	private TypeNameIndex() {
+		fBuildJob= new BuildJob();
+		fDeltaListener= new DeltaListener();
+		JavaCore.addElementChangedListener(fDeltaListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+	}
+
+	private void doShutdown() {
+		JavaCore.removeElementChangedListener(fDeltaListener);
+		fBuildJob.cancel();
+	}
+
+	/**
+	 * Tells whether the index can be queried.
+	 *
+	 * @return <code>true</code> if the table has been built
+	 */
+	public boolean isReady() {
+		return fTable != null;
+	}
+
+	/**
+	 * Builds the table if it is not ready and waits until it has been built.
+	 *
+	 * @param monitor the progress monitor, can be <code>null</code>
+	 * @throws InterruptedException if the wait has been interrupted
+	 */
+	public void waitUntilReady(IProgressMonitor monitor) throws InterruptedException {
+		if (monitor == null)
+			monitor= new NullProgressMonitor();
+		if (!isReady()) {
+			scheduleBuild();
+			Job.getJobManager().join(this, monitor);
+		}
+	}
+
+	private void scheduleBuild() {
+		if (fBuildJob.getState() == Job.NONE)
+			fBuildJob.schedule();
+	}
+
+	private synchronized void rebuild() {
+		fNeedsRebuild= fStamp.incrementAndGet();
+		fTable= null;
+		fChangedUnits.clear();
+		fChangedTypes.clear();
+		fBuildJob.cancel();
+		fBuildJob.schedule();
+	}
+
+	private void unitsChanged(List<ICompilationUnit> units) {
+		boolean rebuild;
+		synchronized (this) {
+			Long stamp= Long.valueOf(fStamp.incrementAndGet());
+			for (int i= 0; i < units.size(); i++) {
+				ICompilationUnit unit= units.get(i);
+				fChangedUnits.put(unit, stamp);
+				fChangedTypes.remove(unit);
+			}
+			rebuild= fTable != null && fChangedUnits.size() > MAX_CHANGED_UNITS;
+		}
+		if (rebuild)
+			scheduleBuild(); // the current table stays valid until the new one is ready
+	}
+
+	/**
+	 * Reports the types that match a filter. If the table has not been built yet, a build is
+	 * scheduled and <code>false</code> is returned.
+	 *
+	 * @param filter the filter, the types reported match
+	 *            {@link TypeInfoFilter#matchesHistoryElement(TypeNameMatch)}
+	 * @param requestor the requestor
+	 * @param monitor the progress monitor
+	 * @return <code>true</code> if the types have been reported, <code>false</code> if the index
+	 *         is not ready
+	 * @throws OperationCanceledException if the monitor has been canceled
+	 */
+	public boolean search(TypeInfoFilter filter, TypeNameMatchRequestor requestor, IProgressMonitor monitor) throws OperationCanceledException {
+		Table table= fTable;
+		if (table == null) {
+			scheduleBuild();
+			return false;
+		}
+		Set<ICompilationUnit> changedUnits;
+		List<TypeNameMatch> changedTypes;
+		synchronized (this) {
+			changedUnits= fChangedUnits.isEmpty() ? Collections.<ICompilationUnit>emptySet() : new HashSet<>(fChangedUnits.keySet());
+		}
+		changedTypes= getChangedTypes(changedUnits);
+
+		int kind= filter.getSearchFlags();
+		String namePattern= filter.getNamePattern();
+		int count= table.fMatches.length;
+		int checked= 0;
+		if (filter.getText().length() == 0 || kind == SearchPattern.R_PATTERN_MATCH || namePattern.length() == 0) {
+			for (int i= 0; i < count; i++) {
+				report(table.fMatches[i], filter, requestor, changedUnits);
+				if (++checked % CANCEL_CHECK_INTERVAL == 0)
+					checkCanceled(monitor);
+			}
+		} else {
+			int[] nameRange= Table.findRange(table.fNames, table.fNameOffsets, toLowerCase(namePattern).toCharArray());
+			for (int i= nameRange[0]; i < nameRange[1]; i++) {
+				report(table.fMatches[i], filter, requestor, changedUnits);
+				if (++checked % CANCEL_CHECK_INTERVAL == 0)
+					checkCanceled(monitor);
+			}
+			if (filter.isCamelCasePattern()) {
+				int[] initialsRange= Table.findRange(table.fInitials, table.fInitialsOffsets, getInitials(namePattern).toCharArray());
+				for (int i= initialsRange[0]; i < initialsRange[1]; i++) {
+					int index= table.fByInitials[i];
+					if (index >= nameRange[0] && index < nameRange[1])
+						continue; // already reported
+					report(table.fMatches[index], filter, requestor, changedUnits);
+					if (++checked % CANCEL_CHECK_INTERVAL == 0)
+						checkCanceled(monitor);
+				}
+			}
+		}
+		for (int i= 0; i < changedTypes.size(); i++) {
+			TypeNameMatch match= changedTypes.get(i);
+			if (filter.matchesHistoryElement(match))
+				requestor.acceptTypeNameMatch(match);
+		}
+		return true;
+	}
+
+	private static void report(TypeNameMatch match, TypeInfoFilter filter, TypeNameMatchRequestor requestor, Set<ICompilationUnit> changedUnits) {
+		if (!changedUnits.isEmpty()) {
+			ICompilationUnit unit= match.getType().getCompilationUnit();
+			if (unit != null && changedUnits.contains(unit))
+				return;
+		}
+		if (filter.matchesHistoryElement(match))
+			requestor.acceptTypeNameMatch(match);
+	}
+
+	private static void checkCanceled(IProgressMonitor monitor) {
+		if (monitor != null && monitor.isCanceled())
+			throw new OperationCanceledException();
+	}
+
+	/**
+	 * Returns the current types of changed compilation units.
+	 */
+	private List<TypeNameMatch> getChangedTypes(Set<ICompilationUnit> changedUnits) {
+		List<TypeNameMatch> result= new ArrayList<>();
+		for (ICompilationUnit unit : changedUnits) {
+			TypeNameMatch[] matches;
+			synchronized (this) {
+				matches= fChangedTypes.get(unit);
+			}
+			if (matches == null) {
+				matches= createMatches(unit);
+				synchronized (this) {
+					if (fChangedUnits.containsKey(unit))
+						fChangedTypes.put(unit, matches);
+				}
+			}
+			result.addAll(Arrays.asList(matches));
+		}
+		return result;
+	}
+
+	private static TypeNameMatch[] createMatches(ICompilationUnit unit) {
+		if (!unit.exists())
+			return NO_MATCHES;
+		try {
+			IType[] types= unit.getAllTypes();
+			TypeNameMatch[] matches= new TypeNameMatch[types.length];
+			for (int i= 0; i < types.length; i++) {
+				matches[i]= SearchEngine.createTypeNameMatch(types[i], types[i].getFlags());
+			}
+			return matches;
+		} catch (JavaModelException e) {
+			return NO_MATCHES;
+		}
+	}
+
+	private static String toLowerCase(String name) {
+		char[] chars= name.toCharArray();
+		for (int i= 0; i < chars.length; i++) {
+			chars[i]= Character.toLowerCase(chars[i]);
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Returns the camel case initials of a name: the first character in upper case followed by
+	 * the upper case characters of the name.
+	 */
+	private static String getInitials(String name) {
+		if (name.length() == 0)
+			return name;
+		StringBuilder buf= new StringBuilder();
+		buf.append(Character.toUpperCase(name.charAt(0)));
+		for (int i= 1; i < name.length(); i++) {
+			char ch= name.charAt(i);
+			if (Character.isUpperCase(ch))
+				buf.append(ch);
+		}
+		return buf.toString();
+	}
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.internal.corext.refactoring.generics;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints2.ConstraintVariable2;
+
+/**
+ * The work list of the {@link InferTypeArgumentsConstraintsSolver}: a first-in first-out queue of
+ * constraint variables that never contains a variable twice.
+ * <p>
+ * Variables are numbered when they are added for the first time. The queue holds the numbers in a
+ * ring buffer, and a bit set tells which variables are queued.
+ * </p>
+ *
+ * @since 3.14
+ */
+class ConstraintVariableWorkList {
+
+	private final Map<ConstraintVariable2, Integer> fIds= new IdentityHashMap<>();
+	private final ArrayList<ConstraintVariable2> fVariables= new ArrayList<>();
+	private final BitSet fQueued= new BitSet();
+
+	private int[] fQueue= new int[16];
+	private int fHead;
+	private int fSize;
+
+	/**
+	 * Adds a variable to the end of the list, unless it is in the list already.
+	 *
+	 * @param cv the variable
+	 * @return <code>true</code> if the variable has been added
+	 */
+	public boolean add(ConstraintVariable2 cv) {
+		int id= getId(cv);
+		if (fQueued.get(id))
+			return false;
+		fQueued.set(id);
+		if (fSize == fQueue.length)
+			grow();
+		fQueue[(fHead + fSize) % fQueue.length]= id;
+		fSize++;
+		return true;
+	}
+
+	/**
+	 * Adds the variables that are not in the list already to the end of the list.
+	 *
+	 * @param cvs the variables
+	 */
+	public void addAll(ConstraintVariable2[] cvs) {
+		for (int i= 0; i < cvs.length; i++) {
+			add(cvs[i]);
+		}
+	}
+
+	/**
+	 * Removes the first variable from the list.
+	 *
+	 * @return the variable
+	 * @throws NoSuchElementException if the list is empty
+	 */
+	public ConstraintVariable2 removeFirst() {
+		if (fSize == 0)
+			throw new NoSuchElementException();
+		int id= fQueue[fHead];
+		fHead= (fHead + 1) % fQueue.length;
+		fSize--;
+		fQueued.clear(id);
+		return fVariables.get(id);
+	}
+
+	public boolean isEmpty() {
+		return fSize == 0;
+	}
+
+	public int size() {
+		return fSize;
+	}
+
+	private int getId(ConstraintVariable2 cv) {
+		Integer id= fIds.get(cv);
+		if (id != null)
+			return id.intValue();
+		int newId= fVariables.size();
+		fVariables.add(cv);
+		fIds.put(cv, Integer.valueOf(newId));
+		return newId;
+	}
+
+	private void grow() {
+		int[] queue= new int[fQueue.length * 2];
+		int firstPart= Math.min(fSize, fQueue.length - fHead);
+		System.arraycopy(fQueue, fHead, queue, 0, firstPart);
+		System.arraycopy(fQueue, 0, queue, firstPart, fSize - firstPart);
+		fQueue= queue;
+		fHead= 0;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -52,6 +52,7 @@ public class RefactoringScanner {
 	}
 
 	private final String fName;
+	private final char[] fNameChars;
 	private final String fQualifier;
 
 	private IScanner fScanner;
@@ -62,14 +63,12 @@ public class RefactoringScanner {
 		Assert.isNotNull(name);
 		Assert.isNotNull(qualifier);
 		fName= name;
+		fNameChars= name.toCharArray();
 		fQualifier= qualifier;
 	}
 
 	public void scan(ICompilationUnit cu)	throws JavaModelException {
 		char[] chars= cu.getBuffer().getCharacters();
-		fMatches= new HashSet<>();
-		fScanner= ToolFactory.createScanner(true, true, false, true);
-		fScanner.setSource(chars);
 
 //		IImportContainer importContainer= cu.getImportContainer();
 //		if (importContainer.exists())
@@ -77,8 +76,7 @@ public class RefactoringScanner {
 //		else
 //			fNoFlyZone= null;
 
-		doScan();
-		fScanner= null;
+		scan(chars);
 	}
 
 	/**
@@ -90,14 +88,36 @@ public class RefactoringScanner {
 	 * @param text the text
 	 */
 	public void scan(String text) {
-		char[] chars= text.toCharArray();
+		scan(text.toCharArray());
+	}
+
+	private void scan(char[] chars) {
 		fMatches= new HashSet<>();
+		if (chars == null || !contains(chars, fNameChars))
+			return; // no need to tokenize text that cannot contain a match
 		fScanner= ToolFactory.createScanner(true, true, false, true);
 		fScanner.setSource(chars);
 		doScan();
 		fScanner= null;
 	}
 
+	private static boolean contains(char[] text, char[] name) {
+		if (name.length == 0)
+			return true;
+		char first= name[0];
+		int last= text.length - name.length;
+		outer: for (int i= 0; i <= last; i++) {
+			if (text[i] != first)
+				continue;
+			for (int j= 1; j < name.length; j++) {
+				if (text[i + j] != name[j])
+					continue outer;
+			}
+			return true;
+		}
+		return false;
+	}
+
 	private void doScan() {
 		try{
 			int token = fScanner.getNextToken();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,13 +14,23 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 
 import org.eclipse.core.resources.IContainer;
@@ -49,6 +59,9 @@ import org.eclipse.jdt.internal.corext.refactoring.rename.RefactoringScanner.Tex
 import org.eclipse.jdt.internal.corext.refactoring.tagging.ITextUpdating;
 import org.eclipse.jdt.internal.corext.refactoring.util.TextChangeManager;
 
+import org.eclipse.jdt.internal.ui.IJavaStatusConstants;
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
 class TextMatchUpdater {
 
 	private static final String TEXT_EDIT_LABEL= RefactoringCoreMessages.TextMatchUpdater_update;
@@ -63,7 +76,13 @@ class TextMatchUpdater {
 	private final SearchResultGroup[] fReferences;
 	private final boolean fOnlyQualified;
 
-	private final RefactoringScanner fScanner;
+	/**
+	 * Number of compilation units scanned by one task of the worker pool.
+	 */
+	private static final int BATCH_SIZE= 20;
+
+	private final String fCurrentName;
+	private final String fCurrentQualifier;
 	private final String fNewName;
 	private final int fCurrentNameLength;
 
@@ -77,8 +96,9 @@ class TextMatchUpdater {
 		fOnlyQualified= onlyQualified;
 
 		fNewName= newName;
+		fCurrentName= currentName;
+		fCurrentQualifier= currentQualifier;
 		fCurrentNameLength= currentName.length();
-		fScanner= new RefactoringScanner(currentName, currentQualifier);
 	}
 
 	static void perform(IProgressMonitor pm, IJavaSearchScope scope, String currentName, String currentQualifier, String newName, TextChangeManager manager, SearchResultGroup[] references, boolean onlyQualified) throws JavaModelException{
@@ -93,18 +113,110 @@ class TextMatchUpdater {
 		try{
 			IProject[] projectsInScope= getProjectsInScope();
 
-			pm.beginTask("", projectsInScope.length); //$NON-NLS-1$
+			pm.beginTask("", projectsInScope.length * 2); //$NON-NLS-1$
 
+			List<ICompilationUnit> units= new ArrayList<>();
 			for (int i =0 ; i < projectsInScope.length; i++){
 				if (pm.isCanceled())
 					throw new OperationCanceledException();
-				addTextMatches(projectsInScope[i], new SubProgressMonitor(pm, 1));
+				collectCompilationUnits(projectsInScope[i], units, new SubProgressMonitor(pm, 1));
 			}
+			scanCompilationUnits(units, new SubProgressMonitor(pm, projectsInScope.length));
 		} finally{
 			pm.done();
 		}
 	}
 
+	/**
+	 * Scans the given compilation units for text matches. The units are scanned on a pool of
+	 * worker threads, the matches are added to the text change manager from the calling thread.
+	 * The calling thread polls the progress monitor while it waits, and stops the workers when the
+	 * monitor is canceled or the scan fails.
+	 *
+	 * @param units the compilation units
+	 * @param pm the progress monitor, only used from the calling thread
+	 * @throws JavaModelException if a compilation unit could not be read
+	 */
+	private void scanCompilationUnits(List<ICompilationUnit> units, IProgressMonitor pm) throws JavaModelException {
+		try {
+			pm.beginTask("", units.size()); //$NON-NLS-1$
+			int parallelism= Math.min(Runtime.getRuntime().availableProcessors(), (units.size() + BATCH_SIZE - 1) / BATCH_SIZE);
+			if (parallelism <= 1) {
+				RefactoringScanner scanner= new RefactoringScanner(fCurrentName, fCurrentQualifier);
+				for (Iterator<ICompilationUnit> iter= units.iterator(); iter.hasNext();) {
+					if (pm.isCanceled())
+						throw new OperationCanceledException();
+					ICompilationUnit cu= iter.next();
+					scanner.scan(cu);
+					addCuTextMatches(cu, scanner.getMatches());
+					pm.worked(1);
+				}
+				return;
+			}
+
+			ForkJoinPool pool= new ForkJoinPool(parallelism);
+			final AtomicBoolean canceled= new AtomicBoolean();
+			try {
+				List<Future<List<Set<TextMatch>>>> futures= new ArrayList<>();
+				for (int start= 0; start < units.size(); start+= BATCH_SIZE) {
+					final List<ICompilationUnit> batch= units.subList(start, Math.min(start + BATCH_SIZE, units.size()));
+					futures.add(pool.submit(new Callable<List<Set<TextMatch>>>() {
+						@Override
+						public List<Set<TextMatch>> call() throws Exception {
+							RefactoringScanner scanner= new RefactoringScanner(fCurrentName, fCurrentQualifier);
+							List<Set<TextMatch>> result= new ArrayList<>(batch.size());
+							for (int i= 0; i < batch.size(); i++) {
+								if (canceled.get())
+									throw new OperationCanceledException();
+								scanner.scan(batch.get(i));
+								result.add(scanner.getMatches());
+							}
+							return result;
+						}
+					}));
+				}
+				for (int i= 0; i < futures.size(); i++) {
+					List<Set<TextMatch>> matches= null;
+					try {
+						while (matches == null) {
+							try {
+								matches= futures.get(i).get(100, TimeUnit.MILLISECONDS);
+							} catch (TimeoutException e) {
+								if (pm.isCanceled())
+									throw new OperationCanceledException();
+							}
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new OperationCanceledException();
+					} catch (ExecutionException e) {
+						Throwable cause= e.getCause();
+						if (cause instanceof JavaModelException)
+							throw (JavaModelException) cause;
+						if (cause instanceof CoreException)
+							throw new JavaModelException((CoreException) cause);
+						if (cause instanceof RuntimeException)
+							throw (RuntimeException) cause;
+						throw new JavaModelException(new CoreException(new Status(IStatus.ERROR, JavaPlugin.getPluginId(), IJavaStatusConstants.INTERNAL_ERROR, cause.getMessage(), cause)));
+					}
+					int start= i * BATCH_SIZE;
+					for (int j= 0; j < matches.size(); j++) {
+						addCuTextMatches(units.get(start + j), matches.get(j));
+					}
+					pm.worked(matches.size());
+					if (pm.isCanceled())
+						throw new OperationCanceledException();
+				}
+			} finally {
+				// lets the workers of pending batches return early if the scan was canceled or failed
+				canceled.set(true);
+				pool.shutdownNow();
+			}
+		} finally {
+			pm.done();
+		}
+	}
+
 	private IProject[] getProjectsInScope() {
 		IPath[] enclosingProjects= fScope.enclosingProjectsAndJars();
 		Set<IPath> enclosingProjectSet= new HashSet<>();
@@ -120,7 +232,7 @@ class TextMatchUpdater {
 		return projectsInScope.toArray(new IProject[projectsInScope.size()]);
 	}
 
-	private void addTextMatches(IResource resource, IProgressMonitor pm) throws JavaModelException{
+	private void collectCompilationUnits(IResource resource, List<ICompilationUnit> units, IProgressMonitor pm) throws JavaModelException{
 		try{
 			String task= RefactoringCoreMessages.TextMatchUpdater_searching + resource.getFullPath();
 			if (resource instanceof IFile){
@@ -132,7 +244,7 @@ class TextMatchUpdater {
 					return;
 				if (! fScope.encloses(element))
 					return;
-				addCuTextMatches((ICompilationUnit) element);
+				units.add((ICompilationUnit) element);
 
 			} else if (resource instanceof IContainer){
 				IResource[] members= ((IContainer) resource).members();
@@ -142,7 +254,7 @@ class TextMatchUpdater {
 					if (pm.isCanceled())
 						throw new OperationCanceledException();
 
-					addTextMatches(members[i], new SubProgressMonitor(pm, 1));
+					collectCompilationUnits(members[i], units, new SubProgressMonitor(pm, 1));
 				}
 			}
 		} catch (JavaModelException e){
@@ -154,9 +266,7 @@ class TextMatchUpdater {
 		}
 	}
 
-	private void addCuTextMatches(ICompilationUnit cu) throws JavaModelException{
-		fScanner.scan(cu);
-		Set<TextMatch> matches= fScanner.getMatches(); //Set of TextMatch
+	private void addCuTextMatches(ICompilationUnit cu, Set<TextMatch> matches) {
 		if (matches.size() == 0)
 			return;
 
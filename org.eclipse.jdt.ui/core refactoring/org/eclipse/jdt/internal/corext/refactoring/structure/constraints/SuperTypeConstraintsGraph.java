@@ -0,0 +1,347 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.structure.constraints;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints2.ITypeConstraint2;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints2.ITypeSet;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints2.TypeEquivalenceSet;
+
+/**
+ * Dependency graph of the type constraints of a {@link SuperTypeConstraintsModel}.
+ * <p>
+ * The nodes of the graph are the type equivalence sets of the model. A type constraint makes the
+ * estimate of the set of its left variable depend on the estimate of the set of its right variable.
+ * The graph is split into strongly connected components, which are solved in topological order:
+ * once a component has been solved, the estimates of its sets do not change anymore. Components
+ * that are not connected at all are solved in parallel. Sets that are never restricted, like the
+ * sets of the declaring types of invoked methods, are only read and do not connect components.
+ * </p>
+ *
+ * @since 3.14
+ */
+final class SuperTypeConstraintsGraph {
+
+	/** The minimal number of type constraints to solve in parallel */
+	private static final int PARALLEL_THRESHOLD= 2000;
+
+	/** The number of type constraints solved by one task */
+	private static final int BATCH_SIZE= 500;
+
+	/** The type constraints */
+	private final ITypeConstraint2[] fConstraints;
+
+	/** The index of the set of the left variable, per type constraint */
+	private final int[] fLeft;
+
+	/** The index of the set of the right variable, per type constraint */
+	private final int[] fRight;
+
+	/** Whether a type constraint is queued. Each task only touches the constraints of its own components. */
+	private final boolean[] fQueued;
+
+	/** The type equivalence sets */
+	private final TypeEquivalenceSet[] fSets;
+
+	/** The type constraints a set occurs in, per set */
+	private final int[][] fOccurrences;
+
+	/** The index of the strongly connected component, per set */
+	private final int[] fComponentOf;
+
+	/** The sets of the strongly connected components, in topological order */
+	private final List<int[]> fComponents= new ArrayList<>();
+
+	/**
+	 * Creates a new graph for the specified type constraints. The constraint variables must
+	 * already have their type equivalence sets and estimates.
+	 *
+	 * @param constraints the type constraints to solve
+	 */
+	public SuperTypeConstraintsGraph(final Collection<ITypeConstraint2> constraints) {
+		fConstraints= constraints.toArray(new ITypeConstraint2[constraints.size()]);
+		fLeft= new int[fConstraints.length];
+		fRight= new int[fConstraints.length];
+		fQueued= new boolean[fConstraints.length];
+		final Map<TypeEquivalenceSet, Integer> ids= new IdentityHashMap<>();
+		final List<TypeEquivalenceSet> sets= new ArrayList<>();
+		for (int index= 0; index < fConstraints.length; index++) {
+			fLeft[index]= getId(ids, sets, fConstraints[index].getLeft().getTypeEquivalenceSet());
+			fRight[index]= getId(ids, sets, fConstraints[index].getRight().getTypeEquivalenceSet());
+		}
+		fSets= sets.toArray(new TypeEquivalenceSet[sets.size()]);
+		final int[] counts= new int[fSets.length];
+		for (int index= 0; index < fConstraints.length; index++) {
+			counts[fLeft[index]]++;
+			if (fRight[index] != fLeft[index])
+				counts[fRight[index]]++;
+		}
+		fOccurrences= new int[fSets.length][];
+		for (int index= 0; index < fSets.length; index++)
+			fOccurrences[index]= new int[counts[index]];
+		Arrays.fill(counts, 0);
+		for (int index= 0; index < fConstraints.length; index++) {
+			fOccurrences[fLeft[index]][counts[fLeft[index]]++]= index;
+			if (fRight[index] != fLeft[index])
+				fOccurrences[fRight[index]][counts[fRight[index]]++]= index;
+		}
+		fComponentOf= new int[fSets.length];
+		computeComponents();
+	}
+
+	private static int getId(final Map<TypeEquivalenceSet, Integer> ids, final List<TypeEquivalenceSet> sets, final TypeEquivalenceSet set) {
+		final Integer id= ids.get(set);
+		if (id != null)
+			return id.intValue();
+		final int newId= sets.size();
+		sets.add(set);
+		ids.put(set, Integer.valueOf(newId));
+		return newId;
+	}
+
+	/**
+	 * Computes the strongly connected components with Tarjan's algorithm. A component is only
+	 * completed after all components it depends on, so the components are found in topological
+	 * order.
+	 */
+	private void computeComponents() {
+		final int count= fSets.length;
+		final int[] order= new int[count];
+		final int[] lowLink= new int[count];
+		final boolean[] onStack= new boolean[count];
+		final int[] stack= new int[count];
+		final int[] callStack= new int[count];
+		final int[] position= new int[count];
+		int stackSize= 0;
+		int counter= 0;
+		Arrays.fill(order, -1);
+		for (int root= 0; root < count; root++) {
+			if (order[root] != -1)
+				continue;
+			int depth= 0;
+			callStack[depth]= root;
+			order[root]= lowLink[root]= counter++;
+			stack[stackSize++]= root;
+			onStack[root]= true;
+			while (depth >= 0) {
+				final int node= callStack[depth];
+				final int[] occurrences= fOccurrences[node];
+				if (position[node] < occurrences.length) {
+					final int constraint= occurrences[position[node]++];
+					if (fLeft[constraint] != node)
+						continue;
+					final int successor= fRight[constraint];
+					if (order[successor] == -1) {
+						order[successor]= lowLink[successor]= counter++;
+						stack[stackSize++]= successor;
+						onStack[successor]= true;
+						callStack[++depth]= successor;
+					} else if (onStack[successor]) {
+						lowLink[node]= Math.min(lowLink[node], order[successor]);
+					}
+				} else {
+					if (lowLink[node] == order[node]) {
+						int size= 0;
+						while (stack[stackSize - 1 - size] != node)
+							size++;
+						size++;
+						final int[] component= new int[size];
+						System.arraycopy(stack, stackSize - size, component, 0, size);
+						stackSize-= size;
+						for (int index= 0; index < size; index++) {
+							onStack[component[index]]= false;
+							fComponentOf[component[index]]= fComponents.size();
+						}
+						fComponents.add(component);
+					}
+					depth--;
+					if (depth >= 0)
+						lowLink[callStack[depth]]= Math.min(lowLink[callStack[depth]], lowLink[node]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Groups the strongly connected components into the parts of the graph that are not connected
+	 * to each other. The components of a part keep their topological order. A constraint whose
+	 * right set is not the left set of any constraint does not connect its components, since the
+	 * estimate of that set does not change while the graph is solved.
+	 *
+	 * @return the parts, as lists of component indices
+	 */
+	private List<List<Integer>> computeParts() {
+		final int[] parent= new int[fComponents.size()];
+		for (int index= 0; index < parent.length; index++)
+			parent[index]= index;
+		final boolean[] restricted= new boolean[fSets.length];
+		for (int index= 0; index < fConstraints.length; index++)
+			restricted[fLeft[index]]= true;
+		for (int index= 0; index < fConstraints.length; index++) {
+			if (!restricted[fRight[index]])
+				continue;
+			final int left= find(parent, fComponentOf[fLeft[index]]);
+			final int right= find(parent, fComponentOf[fRight[index]]);
+			if (left != right)
+				parent[Math.max(left, right)]= Math.min(left, right);
+		}
+		final List<List<Integer>> parts= new ArrayList<>();
+		final int[] partOf= new int[parent.length];
+		for (int index= 0; index < parent.length; index++) {
+			final int root= find(parent, index);
+			if (root == index) {
+				partOf[index]= parts.size();
+				parts.add(new ArrayList<Integer>());
+			}
+			parts.get(partOf[root]).add(Integer.valueOf(index));
+		}
+		return parts;
+	}
+
+	private static int find(final int[] parent, int index) {
+		while (parent[index] != index) {
+			parent[index]= parent[parent[index]];
+			index= parent[index];
+		}
+		return index;
+	}
+
+	/**
+	 * Restricts the type estimates of the sets until all type constraints are satisfied.
+	 */
+	public void solve() {
+		if (fConstraints.length < PARALLEL_THRESHOLD) {
+			for (int index= 0; index < fComponents.size(); index++)
+				solveComponent(index);
+			return;
+		}
+		final List<List<Integer>> batches= new ArrayList<>();
+		List<Integer> batch= new ArrayList<>();
+		int size= 0;
+		for (final Iterator<List<Integer>> iterator= computeParts().iterator(); iterator.hasNext();) {
+			final List<Integer> part= iterator.next();
+			batch.addAll(part);
+			for (int index= 0; index < part.size(); index++) {
+				final int[] component= fComponents.get(part.get(index).intValue());
+				for (int member= 0; member < component.length; member++)
+					size+= fOccurrences[component[member]].length;
+			}
+			if (size >= BATCH_SIZE) {
+				batches.add(batch);
+				batch= new ArrayList<>();
+				size= 0;
+			}
+		}
+		if (!batch.isEmpty())
+			batches.add(batch);
+		if (batches.size() == 1) {
+			solveComponents(batches.get(0));
+			return;
+		}
+		final ForkJoinPool pool= new ForkJoinPool(Math.min(Runtime.getRuntime().availableProcessors(), batches.size()));
+		try {
+			final List<Future<Void>> futures= new ArrayList<>(batches.size());
+			for (int index= 0; index < batches.size(); index++) {
+				final List<Integer> components= batches.get(index);
+				futures.add(pool.submit(new Callable<Void>() {
+
+					@Override
+					public Void call() {
+						solveComponents(components);
+						return null;
+					}
+				}));
+			}
+			for (int index= 0; index < futures.size(); index++)
+				futures.get(index).get();
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException exception) {
+			final Throwable cause= exception.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IllegalStateException(cause);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private void solveComponents(final List<Integer> components) {
+		for (int index= 0; index < components.size(); index++)
+			solveComponent(components.get(index).intValue());
+	}
+
+	/**
+	 * Solves the type constraints whose left set belongs to the specified component. The
+	 * components this component depends on must have been solved already.
+	 *
+	 * @param component the index of the component
+	 */
+	private void solveComponent(final int component) {
+		final int[] members= fComponents.get(component);
+		int[] queue= new int[16];
+		int head= 0;
+		int size= 0;
+		for (int member= 0; member < members.length; member++) {
+			final int[] occurrences= fOccurrences[members[member]];
+			for (int index= 0; index < occurrences.length; index++) {
+				final int constraint= occurrences[index];
+				if (fLeft[constraint] == members[member] && !fQueued[constraint]) {
+					fQueued[constraint]= true;
+					if (size == queue.length)
+						queue= Arrays.copyOf(queue, queue.length * 2);
+					queue[size++]= constraint;
+				}
+			}
+		}
+		while (head < size) {
+			final int constraint= queue[head++];
+			fQueued[constraint]= false;
+			final TypeEquivalenceSet set= fSets[fLeft[constraint]];
+			final ITypeSet estimate= set.getTypeEstimate();
+			final ITypeSet restricted= estimate.restrictedTo(fSets[fRight[constraint]].getTypeEstimate());
+			if (estimate != restricted) {
+				set.setTypeEstimate(restricted);
+				final int[] occurrences= fOccurrences[fLeft[constraint]];
+				for (int index= 0; index < occurrences.length; index++) {
+					final int dependent= occurrences[index];
+					if (fComponentOf[fLeft[dependent]] == component && !fQueued[dependent]) {
+						fQueued[dependent]= true;
+						if (head > 0 && size == queue.length) {
+							System.arraycopy(queue, head, queue, 0, size - head);
+							size-= head;
+							head= 0;
+						}
+						if (size == queue.length)
+							queue= Arrays.copyOf(queue, queue.length * 2);
+						queue[size++]= dependent;
+					}
+				}
+			}
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,11 +11,9 @@
 package org.eclipse.jdt.internal.corext.refactoring.structure.constraints;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Map;
 
 import org.eclipse.core.runtime.Assert;
@@ -47,9 +45,6 @@ public class SuperTypeConstraintsSolver {
 	/** The obsolete casts (element type: <code>&lt;ICompilationUnit, Collection&lt;CastVariable2&gt;&gt;</code>) */
 	protected Map<ICompilationUnit, Collection<CastVariable2>> fObsoleteCasts= null;
 
-	/** The list of constraint variables to be processed */
-	protected LinkedList<ConstraintVariable2> fProcessable= null;
-
 	/** The type occurrences (element type: <code>&lt;ICompilationUnit, Collection&lt;ITypeConstraintVariable&gt;</code>) */
 	protected Map<ICompilationUnit, Collection<ITypeConstraintVariable>> fTypeOccurrences= null;
 
@@ -228,33 +223,31 @@ public class SuperTypeConstraintsSolver {
 	}
 
 	/**
-	 * Processes the given constraints on the constraint variable and propagates it.
+	 * Solves the given constraints by restricting the type estimates of their variables.
 	 *
-	 * @param constraints the type constraints to process (element type: <code>ITypeConstraint2</code>)
+	 * @param constraints the type constraints to solve (element type: <code>ITypeConstraint2</code>)
+	 * @param level the compliance level
 	 */
-	private void processConstraints(final Collection<ITypeConstraint2> constraints) {
-		final int level= fModel.getCompliance();
+	private void processConstraints(final Collection<ITypeConstraint2> constraints, final int level) {
+		final Collection<ITypeConstraint2> processable= new ArrayList<>(constraints.size());
 		ITypeConstraint2 constraint= null;
 		for (final Iterator<ITypeConstraint2> iterator= constraints.iterator(); iterator.hasNext();) {
 			constraint= iterator.next();
-			if ((level == 3 || !(constraint instanceof CovariantTypeConstraint)) && !(constraint instanceof ConditionalTypeConstraint)) {
-				final ConstraintVariable2 leftVariable= constraint.getLeft();
-				final ITypeSet leftEstimate= leftVariable.getTypeEstimate();
-				final TypeEquivalenceSet set= leftVariable.getTypeEquivalenceSet();
-				final ITypeSet newEstimate= leftEstimate.restrictedTo(constraint.getRight().getTypeEstimate());
-				if (leftEstimate != newEstimate) {
-					set.setTypeEstimate(newEstimate);
-					fProcessable.addAll(Arrays.asList(set.getContributingVariables()));
-				}
-			}
+			if ((level == 3 || !(constraint instanceof CovariantTypeConstraint)) && !(constraint instanceof ConditionalTypeConstraint))
+				processable.add(constraint);
 		}
+		new SuperTypeConstraintsGraph(processable).solve();
 	}
 
 	/**
 	 * Solves the constraints of the associated model.
+	 * <p>
+	 * The solution is computed once; subsequent calls return immediately.
+	 * </p>
 	 */
 	public final void solveConstraints() {
-		fProcessable= new LinkedList<>();
+		if (fTypeOccurrences != null)
+			return;
 		final Collection<ConstraintVariable2> variables= fModel.getConstraintVariables();
 		final Collection<ITypeConstraint2> constraints= fModel.getTypeConstraints();
 		final int level= fModel.getCompliance();
@@ -264,15 +257,11 @@ public class SuperTypeConstraintsSolver {
 		computeConditionalTypeConstraints(constraints, level);
 
 		computeTypeEstimates(variables);
-		fProcessable.addAll(variables);
-		Collection<ITypeConstraint2> usage= null;
+		processConstraints(constraints, level);
 		ConstraintVariable2 variable= null;
-		while (!fProcessable.isEmpty()) {
-			variable= fProcessable.removeFirst();
-			usage= SuperTypeConstraintsModel.getVariableUsage(variable);
-			if (!usage.isEmpty())
-				processConstraints(usage);
-			else
+		for (final Iterator<ConstraintVariable2> iterator= variables.iterator(); iterator.hasNext();) {
+			variable= iterator.next();
+			if (SuperTypeConstraintsModel.getVariableUsage(variable).isEmpty())
 				variable.setData(DATA_TYPE_ESTIMATE, variable.getTypeEstimate().chooseSingleType());
 		}
 		computeTypeOccurrences(variables);
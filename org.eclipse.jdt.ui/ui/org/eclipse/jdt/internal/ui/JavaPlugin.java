@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Hashtable;
 import java.util.Iterator;
@@ -89,6 +90,7 @@ import org.eclipse.jdt.internal.corext.template.java.SWTContextType;
 import org.eclipse.jdt.internal.corext.util.OpenTypeHistory;
 import org.eclipse.jdt.internal.corext.util.QualifiedTypeNameHistory;
 import org.eclipse.jdt.internal.corext.util.TypeFilter;
+import org.eclipse.jdt.internal.corext.util.TypeNameIndex;
 
 import org.eclipse.jdt.ui.IContextMenuConstants;
 import org.eclipse.jdt.ui.JavaUI;
@@ -150,15 +152,24 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 	 * @since 3.0
 	 */
 	private static final String CODE_TEMPLATES_MIGRATION_KEY= "org.eclipse.jdt.ui.text.code_templates_migrated"; //$NON-NLS-1$
+	/**
+	 * The name of the file in the state location that stores the content assist history.
+	 * @since 3.14
+	 */
+	private static final String CONTENT_ASSIST_HISTORY_FILE_NAME= "ContentAssistHistory.history"; //$NON-NLS-1$
 
 	public static boolean DEBUG_AST_PROVIDER;
 
+	public static boolean DEBUG_AST_BATCH_PARSER;
+
 	public static boolean DEBUG_BREADCRUMB_ITEM_DROP_DOWN;
 
 	public static boolean DEBUG_TYPE_CONSTRAINTS;
 
 	public static boolean DEBUG_RESULT_COLLECTOR;
 
+	public static boolean DEBUG_JAR_EXPORT;
+
 	private static JavaPlugin fgJavaPlugin;
 
 	private static LinkedHashMap<String, Long> fgRepeatedMessages= new LinkedHashMap<String, Long>(20, 0.75f, true) {
@@ -417,7 +428,8 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 	}
 
 	/* package */ static void initializeAfterLoad(IProgressMonitor monitor) {
-		OpenTypeHistory.getInstance().checkConsistency(monitor);
+		// Only load the history. Its entries are validated when they are requested.
+		OpenTypeHistory.getInstance();
 	}
 
 	/*
@@ -467,7 +479,7 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 			}
 
 			if (fContentAssistHistory != null) {
-				ContentAssistHistory.store(fContentAssistHistory, getPluginPreferences(), PreferenceConstants.CODEASSIST_LRU_HISTORY);
+				ContentAssistHistory.store(fContentAssistHistory, getContentAssistHistoryFile());
 				fContentAssistHistory= null;
 			}
 
@@ -513,6 +525,7 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 			// must add here to guarantee that it is the first in the listener list
 
 			OpenTypeHistory.shutdown();
+			TypeNameIndex.shutdown();
 		} finally {
 			super.stop(context);
 		}
@@ -920,7 +933,9 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 	public ContentAssistHistory getContentAssistHistory() {
 		if (fContentAssistHistory == null) {
 			try {
-				fContentAssistHistory= ContentAssistHistory.load(getPluginPreferences(), PreferenceConstants.CODEASSIST_LRU_HISTORY);
+				fContentAssistHistory= ContentAssistHistory.load(getContentAssistHistoryFile());
+				if (fContentAssistHistory == null)
+					fContentAssistHistory= migrateContentAssistHistory();
 			} catch (CoreException x) {
 				log(x);
 			}
@@ -931,6 +946,25 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 		return fContentAssistHistory;
 	}
 
+	private File getContentAssistHistoryFile() {
+		return getStateLocation().append(CONTENT_ASSIST_HISTORY_FILE_NAME).toFile();
+	}
+
+	/**
+	 * Copies a content assist history stored in the
+	 * {@link PreferenceConstants#CODEASSIST_LRU_HISTORY} preference to the state location. The
+	 * preference itself is left unchanged.
+	 *
+	 * @return the migrated history, or <code>null</code> if there is none
+	 * @throws CoreException if the history cannot be read or written
+	 */
+	private ContentAssistHistory migrateContentAssistHistory() throws CoreException {
+		ContentAssistHistory history= ContentAssistHistory.load(getPluginPreferences(), PreferenceConstants.CODEASSIST_LRU_HISTORY);
+		if (history != null)
+			ContentAssistHistory.store(history, getContentAssistHistoryFile());
+		return history;
+	}
+
 	/**
 	 * Returns a section in the Java plugin's dialog settings. If the section doesn't exist yet, it is created.
 	 *
@@ -1015,8 +1049,10 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 	@Override
 	public void optionsChanged(DebugOptions options) {
 		DEBUG_AST_PROVIDER= options.getBooleanOption("org.eclipse.jdt.ui/debug/ASTProvider", false); //$NON-NLS-1$
+		DEBUG_AST_BATCH_PARSER= options.getBooleanOption("org.eclipse.jdt.ui/debug/ASTBatchParser", false); //$NON-NLS-1$
 		DEBUG_BREADCRUMB_ITEM_DROP_DOWN= options.getBooleanOption("org.eclipse.jdt.ui/debug/BreadcrumbItemDropDown", false); //$NON-NLS-1$
 		DEBUG_TYPE_CONSTRAINTS= options.getBooleanOption("org.eclipse.jdt.ui/debug/TypeConstraints", false); //$NON-NLS-1$
 		DEBUG_RESULT_COLLECTOR= options.getBooleanOption("org.eclipse.jdt.ui/debug/ResultCollector", false); //$NON-NLS-1$
+		DEBUG_JAR_EXPORT= options.getBooleanOption("org.eclipse.jdt.ui/debug/JarExport", false); //$NON-NLS-1$
 	}
 }
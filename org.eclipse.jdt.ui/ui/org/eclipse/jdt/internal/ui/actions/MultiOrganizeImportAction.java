@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -53,7 +53,8 @@ public class MultiOrganizeImportAction extends CleanUpAction {
 	protected ICleanUp[] getCleanUps(ICompilationUnit[] units) {
 		Map<String, String> settings= new Hashtable<>();
 		settings.put(CleanUpConstants.ORGANIZE_IMPORTS, CleanUpOptions.TRUE);
-		ImportsCleanUp importsCleanUp= new ImportsCleanUp(settings);
+		// organize imports is the only clean up, so the fixes of all units can be computed at once
+		ImportsCleanUp importsCleanUp= new ImportsCleanUp(settings, true);
 
 		return new ICleanUp[] {
 			importsCleanUp
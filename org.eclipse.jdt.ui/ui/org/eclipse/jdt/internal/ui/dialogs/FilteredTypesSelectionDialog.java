@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -96,6 +96,7 @@ import org.eclipse.jdt.internal.corext.util.Strings;
 import org.eclipse.jdt.internal.corext.util.TypeFilter;
 import org.eclipse.jdt.internal.corext.util.TypeInfoFilter;
 import org.eclipse.jdt.internal.corext.util.TypeInfoRequestorAdapter;
+import org.eclipse.jdt.internal.corext.util.TypeNameIndex;
 
 import org.eclipse.jdt.launching.IVMInstall;
 import org.eclipse.jdt.launching.IVMInstallType;
@@ -516,6 +517,9 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 		typeSearchFilter.setMatchEverythingMode(true);
 
 		try {
+			// the resident index answers most queries without the search engine, it filters by the full type info filter
+			if (TypeNameIndex.getInstance().search(typeSearchFilter.fTypeInfoFilter, requestor, progressMonitor))
+				return;
 			engine.searchAllTypeNames(packPattern == null ? null : packPattern.toCharArray(),
 					typeSearchFilter.getPackageFlags(),
 					typePattern.toCharArray(),
@@ -582,9 +586,9 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 				manager.join(JavaUI.ID_PLUGIN, monitor);
 			}
 			OpenTypeHistory history= OpenTypeHistory.getInstance();
-			if (fgFirstTime || history.isEmpty()) {
+			if (needsRefresh()) {
 				if (history.needConsistencyCheck()) {
-					SubMonitor subMonitor= SubMonitor.convert(monitor,JavaUIMessages.TypeSelectionDialog_progress_consistency, 10 );
+					SubMonitor subMonitor= SubMonitor.convert(monitor, JavaUIMessages.TypeSelectionDialog_progress_consistency, 10);
 					refreshSearchIndices(subMonitor.split(9));
 					history.checkConsistency(subMonitor.split(1));
 				} else {
@@ -596,8 +600,15 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 			}
 		}
 		public static boolean needsExecution() {
+			return needsRefresh() || OpenTypeHistory.getInstance().needConsistencyCheck();
+		}
+		private static boolean needsRefresh() {
+			if (fgFirstTime)
+				return true;
+			// Once the type name index is ready, the dialog queries the index and not the search
+			// indices, so an empty history does not require refreshing them anymore.
 			OpenTypeHistory history= OpenTypeHistory.getInstance();
-			return fgFirstTime || history.isEmpty() || history.needConsistencyCheck();
+			return history.isEmpty() && !TypeNameIndex.getInstance().isReady();
 		}
 		private void refreshSearchIndices(IProgressMonitor monitor) throws InvocationTargetException {
 			try {
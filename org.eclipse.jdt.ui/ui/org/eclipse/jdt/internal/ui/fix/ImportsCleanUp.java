@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,20 +10,30 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.fix;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 
 import org.eclipse.jdt.internal.corext.codemanipulation.CodeGenerationSettings;
+import org.eclipse.jdt.internal.corext.codemanipulation.TypeNameMatchCache;
+import org.eclipse.jdt.internal.corext.dom.ASTBatchParser;
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
+import org.eclipse.jdt.internal.corext.fix.CleanUpRefactoring;
 import org.eclipse.jdt.internal.corext.fix.ImportsFix;
+import org.eclipse.jdt.internal.corext.refactoring.util.RefactoringASTParser;
 
 import org.eclipse.jdt.ui.cleanup.CleanUpContext;
 import org.eclipse.jdt.ui.cleanup.CleanUpRequirements;
@@ -35,29 +45,57 @@ public class ImportsCleanUp extends AbstractCleanUp {
 
 	private CodeGenerationSettings fCodeGeneratorSettings;
 	private RefactoringStatus fStatus;
+	private TypeNameMatchCache fTypeNameCache;
+
+	private final boolean fBatch;
+	private Map<ICompilationUnit, ICleanUpFix> fFixes;
 
 	public ImportsCleanUp(Map<String, String> options) {
+		this(options, false);
+    }
+
+	/**
+	 * Creates an imports clean up.
+	 * <p>
+	 * In batch mode, the fixes of all compilation units of a project are computed together in
+	 * {@link #checkPreConditions(IJavaProject, ICompilationUnit[], IProgressMonitor)}: the type
+	 * names that cannot be resolved are searched with one query per project and the import
+	 * sections are rewritten in parallel. Batch mode must only be used if no other clean up runs
+	 * together with this one, since the fixes are computed from the unchanged compilation units.
+	 * </p>
+	 *
+	 * @param options the clean up options
+	 * @param batch <code>true</code> to compute the fixes of all compilation units at once
+	 * @since 3.14
+	 */
+	public ImportsCleanUp(Map<String, String> options, boolean batch) {
 		super(options);
+		fBatch= batch;
     }
 
 	public ImportsCleanUp() {
 		super();
+		fBatch= false;
     }
 
 	@Override
 	public CleanUpRequirements getRequirements() {
 		boolean isOrganizeImports= isEnabled(CleanUpConstants.ORGANIZE_IMPORTS);
-		return new CleanUpRequirements(isOrganizeImports, isOrganizeImports, false, null);
+		// in batch mode the ASTs are created in checkPreConditions
+		return new CleanUpRequirements(isOrganizeImports && !fBatch, isOrganizeImports, false, null);
 	}
 
     @Override
 	public ICleanUpFix createFix(CleanUpContext context) throws CoreException {
+    	if (fFixes != null)
+    		return fFixes.remove(context.getCompilationUnit().getPrimary());
+
     	CompilationUnit compilationUnit= context.getAST();
     	if (compilationUnit == null)
     		return null;
 
 		return ImportsFix.createCleanUp(compilationUnit, fCodeGeneratorSettings,
-				isEnabled(CleanUpConstants.ORGANIZE_IMPORTS), fStatus);
+				isEnabled(CleanUpConstants.ORGANIZE_IMPORTS), fStatus, fTypeNameCache);
 	}
 
     @Override
@@ -66,14 +104,71 @@ public class ImportsCleanUp extends AbstractCleanUp {
 		if (isEnabled(CleanUpConstants.ORGANIZE_IMPORTS)) {
     		fCodeGeneratorSettings= JavaPreferencesSettings.getCodeGenerationSettings(project);
     		fStatus= new RefactoringStatus();
+    		// the types do not change while the clean up computes its fixes
+    		fTypeNameCache= new TypeNameMatchCache();
+    		if (fBatch)
+    			fFixes= createFixes(compilationUnits, monitor);
 		}
 
 		return super.checkPreConditions(project, compilationUnits, monitor);
     }
 
+	/**
+	 * Computes the fixes of the given compilation units. The compilation units are parsed in
+	 * batches, and the fixes of each batch are computed together while its ASTs are alive.
+	 *
+	 * @param compilationUnits the compilation units
+	 * @param monitor the progress monitor, can be <code>null</code>
+	 * @return the fixes by primary compilation unit
+	 * @throws CoreException if the imports cannot be organized
+	 */
+	private Map<ICompilationUnit, ICleanUpFix> createFixes(ICompilationUnit[] compilationUnits, IProgressMonitor monitor) throws CoreException {
+		final Map<ICompilationUnit, ICleanUpFix> result= new HashMap<>();
+		final List<CompilationUnit> batch= new ArrayList<>();
+		final CoreException[] exception= new CoreException[1];
+		final int parallelism= Runtime.getRuntime().availableProcessors();
+		new ASTBatchParser() {
+			@Override
+			protected ASTParser createParser(IJavaProject project) {
+				ASTParser parser= CleanUpRefactoring.createCleanUpASTParser();
+				parser.setProject(project);
+				parser.setCompilerOptions(RefactoringASTParser.getCompilerOptions(project));
+				return parser;
+			}
+
+			@Override
+			protected void batchParsed(BatchStatistics statistics) {
+				super.batchParsed(statistics);
+				if (exception[0] != null)
+					return;
+				CompilationUnit[] asts= batch.toArray(new CompilationUnit[batch.size()]);
+				batch.clear();
+				try {
+					ICleanUpFix[] fixes= ImportsFix.createCleanUps(asts, fCodeGeneratorSettings, fStatus, fTypeNameCache, parallelism, new NullProgressMonitor());
+					for (int i= 0; i < asts.length; i++) {
+						if (fixes[i] != null)
+							result.put(((ICompilationUnit) asts[i].getJavaElement()).getPrimary(), fixes[i]);
+					}
+				} catch (CoreException e) {
+					exception[0]= e;
+				}
+			}
+		}.createASTs(compilationUnits, new String[0], new ASTRequestor() {
+			@Override
+			public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+				batch.add(ast);
+			}
+		}, monitor);
+		if (exception[0] != null)
+			throw exception[0];
+		return result;
+	}
+
     @Override
 	public RefactoringStatus checkPostConditions(IProgressMonitor monitor) throws CoreException {
     	fCodeGeneratorSettings= null;
+    	fTypeNameCache= null;
+    	fFixes= null;
     	try {
 	    	if (fStatus == null || fStatus.isOK()) {
 	    		return super.checkPostConditions(monitor);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,9 +13,13 @@
 package org.eclipse.jdt.internal.ui.jarpackager;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -66,6 +70,22 @@ public final class JarPackagerUtil {
 	static final String JAR_EXTENSION= "jar"; //$NON-NLS-1$
 	static final String DESCRIPTION_EXTENSION= "jardesc"; //$NON-NLS-1$
 
+	/**
+	 * Size of the windows in which files are memory mapped.
+	 */
+	private static final long MAP_WINDOW_SIZE= 64 * 1024 * 1024;
+
+	/**
+	 * Files up to this size are read into a buffer instead of being mapped, since a mapped window
+	 * is only unmapped when it is garbage collected.
+	 */
+	private static final long MAP_THRESHOLD= 16 * 1024 * 1024;
+
+	/**
+	 * Size of the buffer used to read files that are not mapped.
+	 */
+	private static final int READ_BUFFER_SIZE= 64 * 1024;
+
 	private static final String META_INF_ENTRY= "META-INF"; //$NON-NLS-1$
 	private static final String REFACTORINGS_ENTRY= META_INF_ENTRY + "/REFACTORINGS.XML"; //$NON-NLS-1$
 
@@ -281,6 +301,62 @@ public final class JarPackagerUtil {
 		entry.setCrc(crc.getValue());
 	}
 
+	/**
+	 * Calculates the crc and size of a file and updates the entry. Large files are read through
+	 * memory mapped windows, without copying their content into a buffer.
+	 *
+	 * @param entry the jar entry to update
+	 * @param file the file
+	 * @throws IOException if an input/output error occurs
+	 * @since 3.14
+	 */
+	public static void calculateCrcAndSize(ZipEntry entry, File file) throws IOException {
+		CRC32 crc= new CRC32();
+		long size;
+		try (FileInputStream stream= new FileInputStream(file)) {
+			FileChannel channel= stream.getChannel();
+			size= channel.size();
+			if (size < MAP_THRESHOLD) {
+				byte[] buffer= new byte[(int) Math.min(READ_BUFFER_SIZE, Math.max(size, 1))];
+				size= 0;
+				int count;
+				while ((count= stream.read(buffer, 0, buffer.length)) != -1) {
+					crc.update(buffer, 0, count);
+					size+= count;
+				}
+			} else {
+				for (long position= 0; position < size; position+= MAP_WINDOW_SIZE) {
+					crc.update(channel.map(MapMode.READ_ONLY, position, Math.min(MAP_WINDOW_SIZE, size - position)));
+				}
+			}
+		}
+		entry.setSize(size);
+		entry.setCrc(crc.getValue());
+	}
+
+	/**
+	 * Copies a file. The content is transferred by the file system where possible.
+	 *
+	 * @param source the file to copy
+	 * @param destination the destination file, overwritten if it exists
+	 * @throws IOException if an input/output error occurs
+	 * @since 3.14
+	 */
+	public static void copyFile(File source, File destination) throws IOException {
+		try (FileInputStream in= new FileInputStream(source); FileOutputStream out= new FileOutputStream(destination)) {
+			FileChannel sourceChannel= in.getChannel();
+			FileChannel destinationChannel= out.getChannel();
+			long size= sourceChannel.size();
+			long position= 0;
+			while (position < size) {
+				long count= sourceChannel.transferTo(position, size - position, destinationChannel);
+				if (count <= 0)
+					break; // the file has been truncated
+				position+= count;
+			}
+		}
+	}
+
 	/**
 	 * Opens the archive file at the given location.<br>
 	 * <em>Note: It is the caller's responsibility to close the returned
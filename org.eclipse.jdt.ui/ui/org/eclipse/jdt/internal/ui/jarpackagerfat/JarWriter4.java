@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2016 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,8 +16,12 @@ package org.eclipse.jdt.internal.ui.jarpackagerfat;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.jar.JarEntry;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -33,6 +37,7 @@ import org.eclipse.jdt.internal.corext.util.Messages;
 import org.eclipse.jdt.ui.jarpackager.JarPackageData;
 import org.eclipse.jdt.ui.jarpackager.JarWriter3;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.jarpackager.JarPackagerMessages;
 import org.eclipse.jdt.internal.ui.jarpackager.JarPackagerUtil;
 import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
@@ -43,52 +48,149 @@ import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
  */
 public class JarWriter4 extends JarWriter3 {
 
+	/**
+	 * Name of the phase in which entries are written to the archive.
+	 * @since 3.14
+	 */
+	public static final String PHASE_WRITE= "write"; //$NON-NLS-1$
+
+	/**
+	 * Name of the phase in which the crc of stored entries is calculated.
+	 * @since 3.14
+	 */
+	public static final String PHASE_CRC= "crc"; //$NON-NLS-1$
+
+	/**
+	 * Counts the bytes read from a stream.
+	 */
+	private static class CountingInputStream extends FilterInputStream {
+		long fCount;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int result= super.read();
+			if (result != -1)
+				fCount++;
+			return result;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int result= super.read(b, off, len);
+			if (result > 0)
+				fCount+= result;
+			return result;
+		}
+	}
+
 	private final JarPackageData fJarPackage;
 
+	/**
+	 * Bytes and nanoseconds per export phase.
+	 */
+	private final Map<String, long[]> fStatistics= new LinkedHashMap<>();
+
 	public JarWriter4(JarPackageData jarPackage, Shell parent) throws CoreException {
 		super(jarPackage, parent);
 		fJarPackage= jarPackage;
 	}
 
 	public void addZipEntry(ZipEntry zipEntry, ZipFile zipFile, String path) throws IOException {
+		addZipEntryStream(zipEntry, zipFile.getInputStream(zipEntry), path);
+	}
+
+	public void addZipEntryStream(ZipEntry zipEntry, InputStream is, String path) throws IOException {
 		if (fJarPackage.areDirectoryEntriesIncluded())
 			addDirectories(path);
-
 		JarEntry newEntry= new JarEntry(path.replace(File.separatorChar, '/'));
-
 		if (fJarPackage.isCompressed())
 			newEntry.setMethod(ZipEntry.DEFLATED);
-			// Entry is filled automatically.
+		// Entry is filled automatically.
 		else {
 			newEntry.setMethod(ZipEntry.STORED);
 			newEntry.setSize(zipEntry.getSize());
 			newEntry.setCrc(zipEntry.getCrc());
 		}
-
 		long lastModified= System.currentTimeMillis();
-
 		// Set modification time
 		newEntry.setTime(lastModified);
-
-		addEntry(newEntry, zipFile.getInputStream(zipEntry));
+		addEntry(newEntry, is);
 	}
 
-	public void addZipEntryStream(ZipEntry zipEntry, InputStream is, String path) throws IOException {
+	/**
+	 * Adds a file that is already compressed, e.g. a nested archive, as a stored entry. Deflating
+	 * compressed data again costs time and does not make the archive smaller.
+	 *
+	 * @param file the file to add
+	 * @param path the path inside the archive
+	 * @throws IOException if an I/O error has occurred
+	 * @since 3.14
+	 */
+	public void addCompressedFile(File file, String path) throws IOException {
 		if (fJarPackage.areDirectoryEntriesIncluded())
 			addDirectories(path);
 		JarEntry newEntry= new JarEntry(path.replace(File.separatorChar, '/'));
-		if (fJarPackage.isCompressed())
-			newEntry.setMethod(ZipEntry.DEFLATED);
-		// Entry is filled automatically.
-		else {
-			newEntry.setMethod(ZipEntry.STORED);
-			newEntry.setSize(zipEntry.getSize());
-			newEntry.setCrc(zipEntry.getCrc());
+		newEntry.setMethod(ZipEntry.STORED);
+		calculateCrcAndSize(newEntry, file);
+		newEntry.setTime(file.lastModified());
+		addEntry(newEntry, new FileInputStream(file));
+	}
+
+	private void calculateCrcAndSize(JarEntry entry, File file) throws IOException {
+		long start= System.nanoTime();
+		JarPackagerUtil.calculateCrcAndSize(entry, file);
+		addStatistics(PHASE_CRC, entry.getSize(), System.nanoTime() - start);
+	}
+
+	@Override
+	protected void addEntry(JarEntry entry, InputStream content) throws IOException {
+		long start= System.nanoTime();
+		CountingInputStream countingStream= new CountingInputStream(content);
+		try {
+			super.addEntry(entry, countingStream);
+		} finally {
+			addStatistics(PHASE_WRITE, countingStream.fCount, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Adds the bytes processed and the time spent in a phase of the export. The statistics of
+	 * all phases are printed when the archive is closed if the
+	 * <code>org.eclipse.jdt.ui/debug/JarExport</code> option is set.
+	 *
+	 * @param phase the name of the phase
+	 * @param bytes the number of bytes processed
+	 * @param nanos the time spent in nanoseconds
+	 * @since 3.14
+	 */
+	public void addStatistics(String phase, long bytes, long nanos) {
+		synchronized (fStatistics) {
+			long[] statistics= fStatistics.get(phase);
+			if (statistics == null) {
+				statistics= new long[2];
+				fStatistics.put(phase, statistics);
+			}
+			statistics[0]+= bytes;
+			statistics[1]+= nanos;
+		}
+	}
+
+	@Override
+	public void close() throws CoreException {
+		super.close();
+		if (JavaPlugin.DEBUG_JAR_EXPORT) {
+			synchronized (fStatistics) {
+				for (Entry<String, long[]> entry : fStatistics.entrySet()) {
+					long bytes= entry.getValue()[0];
+					long millis= Math.max(1, entry.getValue()[1] / 1000000);
+					System.out.println("JarWriter4 > " + entry.getKey() + ": " + bytes + " bytes in " + millis + " ms, " + (bytes * 1000 / millis / 1024) + " KB/s"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+				}
+			}
 		}
-		long lastModified= System.currentTimeMillis();
-		// Set modification time
-		newEntry.setTime(lastModified);
-		addEntry(newEntry, is);
 	}
 
 	public void write(File file, IPath destinationPath) throws CoreException {
@@ -118,7 +220,7 @@ public class JarWriter4 extends JarWriter3 {
 			// Entry is filled automatically.
 		else {
 			newEntry.setMethod(ZipEntry.STORED);
-			JarPackagerUtil.calculateCrcAndSize(newEntry, new FileInputStream(file), new byte[4096]);
+			calculateCrcAndSize(newEntry, file);
 		}
 
 		newEntry.setTime(file.lastModified());
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2016 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,8 +12,17 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.jarpackagerfat;
 
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
@@ -36,6 +45,21 @@ public class UnpackFatJarBuilder extends FatJarBuilder {
 
 	public static final String BUILDER_ID= "org.eclipse.jdt.ui.fat_jar_builder"; //$NON-NLS-1$
 
+	/**
+	 * Name of the phase in which the entries of the referenced libraries are read.
+	 */
+	private static final String PHASE_READ= "read"; //$NON-NLS-1$
+
+	/**
+	 * Entries larger than this are not read ahead but streamed when they are written.
+	 */
+	private static final long MAX_READ_AHEAD_ENTRY_SIZE= 4 * 1024 * 1024;
+
+	/**
+	 * Maximum number of bytes that have been read ahead and not been written yet.
+	 */
+	private static final long MAX_READ_AHEAD_BYTES= 32 * 1024 * 1024;
+
 	@Override
 	public String getId() {
 		return BUILDER_ID;
@@ -61,29 +85,94 @@ public class UnpackFatJarBuilder extends FatJarBuilder {
 		return true;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The entries are inflated ahead on a pool of worker threads while the current entry is
+	 * written, so that reading the library and compressing the archive overlap.
+	 * </p>
+	 */
 	@Override
-	public void writeArchive(ZipFile jarFile, IProgressMonitor progressMonitor) {
+	public void writeArchive(final ZipFile jarFile, IProgressMonitor progressMonitor) {
+		List<ZipEntry> entries= new ArrayList<>();
 		Enumeration<? extends ZipEntry> jarEntriesEnum= jarFile.entries();
 		while (jarEntriesEnum.hasMoreElements()) {
-			ZipEntry jarEntry= jarEntriesEnum.nextElement();
-			if (!jarEntry.isDirectory()) {
-				String entryName= jarEntry.getName();
-				addFile(entryName, jarEntry, jarFile);
+			entries.add(jarEntriesEnum.nextElement());
+		}
+
+		ForkJoinPool pool= new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+		try {
+			List<Future<byte[]>> contents= new ArrayList<>(entries.size());
+			long readAheadBytes= 0;
+			for (int i= 0; i < entries.size(); i++) {
+				while (contents.size() < entries.size() && (contents.size() == i || readAheadBytes < MAX_READ_AHEAD_BYTES)) {
+					final ZipEntry entry= entries.get(contents.size());
+					if (isReadAhead(entry)) {
+						readAheadBytes+= entry.getSize();
+						contents.add(pool.submit(new Callable<byte[]>() {
+							@Override
+							public byte[] call() throws Exception {
+								return readEntry(jarFile, entry);
+							}
+						}));
+					} else {
+						contents.add(null);
+					}
+				}
+
+				ZipEntry jarEntry= entries.get(i);
+				if (!jarEntry.isDirectory()) {
+					String entryName= jarEntry.getName();
+					Future<byte[]> content= contents.get(i);
+					if (content != null) {
+						readAheadBytes-= jarEntry.getSize();
+						contents.set(i, null);
+					}
+					addFile(entryName, jarEntry, jarFile, content);
+				}
+				progressMonitor.worked(1);
+				if (progressMonitor.isCanceled())
+					throw new OperationCanceledException();
 			}
-			progressMonitor.worked(1);
-			if (progressMonitor.isCanceled())
-				throw new OperationCanceledException();
+		} finally {
+			pool.shutdownNow();
 		}
 	}
 
-	private void addFile(String destinationPath, ZipEntry jarEntry, ZipFile zipFile) {
+	private boolean isReadAhead(ZipEntry entry) {
+		return !entry.isDirectory() && !isSkipped(entry.getName()) && entry.getSize() >= 0 && entry.getSize() <= MAX_READ_AHEAD_ENTRY_SIZE;
+	}
+
+	private boolean isSkipped(String destinationPath) {
 		// Handle META-INF/MANIFEST.MF
-		if (destinationPath.equalsIgnoreCase("META-INF/MANIFEST.MF") //$NON-NLS-1$
-				|| (isRemoveSigners() && destinationPath.startsWith("META-INF/") && destinationPath.endsWith(".SF"))) { //$NON-NLS-1$//$NON-NLS-2$
-			return;
+		return destinationPath.equalsIgnoreCase("META-INF/MANIFEST.MF") //$NON-NLS-1$
+				|| (isRemoveSigners() && destinationPath.startsWith("META-INF/") && destinationPath.endsWith(".SF")); //$NON-NLS-1$//$NON-NLS-2$
+	}
+
+	private byte[] readEntry(ZipFile zipFile, ZipEntry entry) throws IOException {
+		long start= System.nanoTime();
+		byte[] content= new byte[(int) entry.getSize()];
+		try (InputStream stream= zipFile.getInputStream(entry)) {
+			int offset= 0;
+			while (offset < content.length) {
+				int count= stream.read(content, offset, content.length - offset);
+				if (count == -1)
+					throw new EOFException(entry.getName());
+				offset+= count;
+			}
 		}
+		getJarWriter().addStatistics(PHASE_READ, content.length, System.nanoTime() - start);
+		return content;
+	}
+
+	private void addFile(String destinationPath, ZipEntry jarEntry, ZipFile zipFile, Future<byte[]> content) {
+		if (isSkipped(destinationPath))
+			return;
 		try {
-			getJarWriter().addZipEntry(jarEntry, zipFile, destinationPath);
+			if (content != null)
+				getJarWriter().addZipEntryStream(jarEntry, new ByteArrayInputStream(getContent(content)), destinationPath);
+			else
+				getJarWriter().addZipEntry(jarEntry, zipFile, destinationPath);
 		} catch (IOException ex) {
 			if (ex instanceof ZipException && ex.getMessage() != null && ex.getMessage().startsWith("duplicate entry:")) {//$NON-NLS-1$
 				// ignore duplicates in META-INF (*.SF, *.RSA)
@@ -94,4 +183,19 @@ public class UnpackFatJarBuilder extends FatJarBuilder {
 				addWarning(Messages.format(FatJarPackagerMessages.FatJarBuilder_error_readingArchiveFile, new Object[] { BasicElementLabels.getResourceName(zipFile.getName()), ex.getLocalizedMessage() }), ex);
 		}
 	}
+
+	private static byte[] getContent(Future<byte[]> content) throws IOException {
+		try {
+			return content.get();
+		} catch (InterruptedException e) {
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			Throwable cause= e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new IOException(cause);
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 IBM Corporation and others.
+ * Copyright (c) 2008, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,12 +13,7 @@
 package org.eclipse.jdt.internal.ui.jarpackagerfat;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -47,6 +42,12 @@ import org.eclipse.jdt.internal.ui.jarpackager.JarPackagerUtil;
 public class UnpackJarBuilder extends FatJarBuilder {
 
 	public static final String BUILDER_ID= "org.eclipse.jdt.ui.unpack_jar_builder"; //$NON-NLS-1$
+
+	/**
+	 * Name of the phase in which the referenced libraries are copied.
+	 */
+	private static final String PHASE_COPY= "copy"; //$NON-NLS-1$
+
 	private static final String SUBFOLDER_SUFFIX= "_lib"; //$NON-NLS-1$
 	
 	private final String fSubfolder;
@@ -165,32 +166,12 @@ public class UnpackJarBuilder extends FatJarBuilder {
 	}
 
 	private void copyFile(File src, File dest) {
-		InputStream in= null;
-		OutputStream out= null;
 		try {
-			in= new FileInputStream(src);
-			out= new FileOutputStream(dest);
-			byte[] buf= new byte[4096];
-			int cnt= in.read(buf);
-			while (cnt > 0) {
-				out.write(buf, 0, cnt);
-				cnt= in.read(buf);
-			}
-		} catch (RuntimeException e) {
-			throw new RuntimeException(e);
-		} catch (FileNotFoundException e) {
-			throw new RuntimeException(e);
+			long start= System.nanoTime();
+			JarPackagerUtil.copyFile(src, dest);
+			getJarWriter().addStatistics(PHASE_COPY, src.length(), System.nanoTime() - start);
 		} catch (IOException e) {
 			throw new RuntimeException(e);
-		} finally {
-			try {
-				out.close();
-			} catch (IOException ignore) {
-			}
-			try {
-				in.close();
-			} catch (IOException ignore) {
-			}
 		}
 	}
 	
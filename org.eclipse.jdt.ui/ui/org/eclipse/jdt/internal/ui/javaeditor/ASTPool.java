@@ -0,0 +1,375 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.javaeditor;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.eclipse.core.resources.IResource;
+
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+
+/**
+ * A bounded pool of shared, read-only compilation unit ASTs for type roots other than the one in
+ * the active Java editor.
+ * <p>
+ * Entries are keyed by type root and validated against a modification stamp of the input, so a
+ * pooled AST is only returned as long as its source did not change. ASTs are held through soft
+ * references and evicted in least-recently-used order once their estimated size exceeds a budget
+ * derived from the maximum heap size. When compilation units change, either on disk or in a
+ * reconciled working copy, only the ASTs of these units are removed. The ASTs of other units are
+ * kept, so their bindings may reflect an earlier state of the changed units. The pool is flushed
+ * completely when elements above the compilation unit level change, e.g. on classpath changes.
+ * </p>
+ *
+ * @since 3.14
+ */
+public final class ASTPool {
+
+	private static final class PoolEntry {
+
+		final SoftReference<CompilationUnit> fAST;
+		final long fStamp;
+		final long fEstimatedSize;
+
+		PoolEntry(CompilationUnit ast, long stamp, long estimatedSize) {
+			fAST= new SoftReference<>(ast);
+			fStamp= stamp;
+			fEstimatedSize= estimatedSize;
+		}
+	}
+
+	private static final String DEBUG_PREFIX= "ASTPool > "; //$NON-NLS-1$
+
+	/**
+	 * Rough number of bytes of AST, including bindings, per character of source.
+	 */
+	private static final int BYTES_PER_SOURCE_CHAR= 24;
+
+	static final long NO_STAMP= -1;
+
+	private final long fBudget;
+	private final LinkedHashMap<ITypeRoot, PoolEntry> fEntries= new LinkedHashMap<>(16, 0.75f, true);
+	private long fEstimatedSize;
+
+	private int fHits;
+	private int fMisses;
+	private int fEvictions;
+	private int fBuilds;
+	private long fTotalBuildTime;
+	private long fMaxBuildTime;
+
+	private IElementChangedListener fElementChangedListener;
+
+	/**
+	 * Creates a new pool with a budget derived from the maximum heap size.
+	 */
+	public ASTPool() {
+		this(computeBudget());
+	}
+
+	/**
+	 * Creates a new pool.
+	 *
+	 * @param budget the maximum estimated size of all pooled ASTs in bytes
+	 */
+	public ASTPool(long budget) {
+		fBudget= budget;
+	}
+
+	private static long computeBudget() {
+		long maxMemory= Runtime.getRuntime().maxMemory() / (1 << 20); // in MiB
+		if      (maxMemory >= 2000) return 128 << 20;
+		else if (maxMemory >= 1000) return  64 << 20;
+		else if (maxMemory >=  500) return  24 << 20;
+		else                        return   8 << 20;
+	}
+
+	/**
+	 * Installs the element changed listener that flushes the pool.
+	 */
+	void install() {
+		fElementChangedListener= new IElementChangedListener() {
+			@Override
+			public void elementChanged(ElementChangedEvent event) {
+				flush(event.getDelta());
+			}
+		};
+		JavaCore.addElementChangedListener(fElementChangedListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+	}
+
+	/**
+	 * Removes the ASTs of the compilation units named in the given delta. Flushes the pool if
+	 * elements above the compilation unit level changed.
+	 *
+	 * @param delta the delta
+	 */
+	private void flush(IJavaElementDelta delta) {
+		List<ICompilationUnit> changed= new ArrayList<>();
+		boolean flushAll= !collectChangedUnits(delta, changed);
+		synchronized (this) {
+			if (flushAll) {
+				clear();
+				return;
+			}
+			for (Iterator<ICompilationUnit> iter= changed.iterator(); iter.hasNext();)
+				removeEntry(iter.next());
+		}
+	}
+
+	/**
+	 * Collects the compilation units with changes in the given delta. Opening and closing working
+	 * copies does not change any source and is ignored.
+	 *
+	 * @param delta the delta
+	 * @param changed the list to add the changed compilation units to
+	 * @return <code>false</code> if elements other than compilation units changed and the pool
+	 *         needs to be flushed
+	 */
+	private static boolean collectChangedUnits(IJavaElementDelta delta, List<ICompilationUnit> changed) {
+		int flags= delta.getFlags() & ~IJavaElementDelta.F_PRIMARY_WORKING_COPY;
+		if (delta.getElement() instanceof ICompilationUnit) {
+			if (delta.getKind() != IJavaElementDelta.CHANGED || flags != 0)
+				changed.add((ICompilationUnit) delta.getElement());
+			return true;
+		}
+		if (delta.getKind() != IJavaElementDelta.CHANGED || (flags & ~IJavaElementDelta.F_CHILDREN) != 0)
+			return false;
+
+		IJavaElementDelta[] children= delta.getAffectedChildren();
+		for (int i= 0; i < children.length; i++) {
+			if (!collectChangedUnits(children[i], changed))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the pooled AST for the given type root if it is still up to date.
+	 *
+	 * @param input the type root
+	 * @return the pooled AST or <code>null</code>
+	 */
+	public CompilationUnit get(ITypeRoot input) {
+		long stamp= getStamp(input);
+		synchronized (this) {
+			PoolEntry entry= fEntries.get(input);
+			CompilationUnit ast= entry != null ? entry.fAST.get() : null;
+			if (ast == null || stamp == NO_STAMP || entry.fStamp != stamp) {
+				if (entry != null)
+					removeEntry(input);
+				fMisses++;
+				return null;
+			}
+			fHits++;
+			if (JavaPlugin.DEBUG_AST_PROVIDER)
+				System.out.println(DEBUG_PREFIX + "returning pooled AST for: " + input.getElementName()); //$NON-NLS-1$
+			return ast;
+		}
+	}
+
+	/**
+	 * Adds the given AST to the pool.
+	 *
+	 * @param input the type root from which the AST was created
+	 * @param ast the shared AST, must be protected against modifications
+	 * @param stamp the stamp of the input taken with {@link #getStamp(ITypeRoot)} before the AST
+	 *            was created
+	 */
+	public void put(ITypeRoot input, CompilationUnit ast, long stamp) {
+		if (ast == null || stamp == NO_STAMP)
+			return;
+
+		long estimatedSize= (long) ast.getLength() * BYTES_PER_SOURCE_CHAR;
+		synchronized (this) {
+			removeEntry(input);
+			if (estimatedSize > fBudget)
+				return;
+			fEntries.put(input, new PoolEntry(ast, stamp, estimatedSize));
+			fEstimatedSize+= estimatedSize;
+
+			for (Iterator<PoolEntry> iter= fEntries.values().iterator(); iter.hasNext() && fEstimatedSize > fBudget;) {
+				PoolEntry eldest= iter.next();
+				iter.remove();
+				fEstimatedSize-= eldest.fEstimatedSize;
+				fEvictions++;
+			}
+		}
+	}
+
+	/**
+	 * Records the time it took to build an AST that was not available in the pool.
+	 *
+	 * @param millis the build time in milliseconds
+	 */
+	synchronized void recordBuild(long millis) {
+		fBuilds++;
+		fTotalBuildTime+= millis;
+		fMaxBuildTime= Math.max(fMaxBuildTime, millis);
+	}
+
+	/**
+	 * Removes the AST of the given type root from the pool.
+	 *
+	 * @param input the type root
+	 */
+	public synchronized void remove(ITypeRoot input) {
+		removeEntry(input);
+	}
+
+	private void removeEntry(ITypeRoot input) {
+		PoolEntry entry= fEntries.remove(input);
+		if (entry != null)
+			fEstimatedSize-= entry.fEstimatedSize;
+	}
+
+	/**
+	 * Removes all ASTs from the pool.
+	 */
+	public synchronized void clear() {
+		if (JavaPlugin.DEBUG_AST_PROVIDER && !fEntries.isEmpty())
+			System.out.println(DEBUG_PREFIX + "flushing " + fEntries.size() + " pooled ASTs"); //$NON-NLS-1$ //$NON-NLS-2$
+		fEntries.clear();
+		fEstimatedSize= 0;
+	}
+
+	/**
+	 * Disposes this pool.
+	 */
+	void dispose() {
+		if (fElementChangedListener != null) {
+			JavaCore.removeElementChangedListener(fElementChangedListener);
+			fElementChangedListener= null;
+		}
+		clear();
+	}
+
+	/**
+	 * Returns a stamp that changes whenever the source of the given type root changes. To avoid
+	 * pooling an AST with a newer stamp than its source, the stamp must be taken before the AST is
+	 * created.
+	 *
+	 * @param input the type root
+	 * @return the stamp or {@link #NO_STAMP} if the source cannot be tracked
+	 */
+	public static long getStamp(ITypeRoot input) {
+		try {
+			if (input instanceof ICompilationUnit && ((ICompilationUnit) input).hasUnsavedChanges()) {
+				IBuffer buffer= input.getBuffer();
+				if (!(buffer instanceof DocumentAdapter))
+					return NO_STAMP;
+				IDocument document= ((DocumentAdapter) buffer).getDocument();
+				if (!(document instanceof IDocumentExtension4))
+					return NO_STAMP;
+				long modificationStamp= ((IDocumentExtension4) document).getModificationStamp();
+				if (modificationStamp == IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP)
+					return NO_STAMP;
+				// document stamps are only unique per document
+				long stamp= ((long) System.identityHashCode(document) << 32) | (modificationStamp & 0xFFFFFFFFL);
+				return stamp == NO_STAMP ? 0 : stamp;
+			}
+			IResource resource= input.getResource();
+			if (resource != null)
+				return resource.getModificationStamp();
+			// class files in archives only change together with their classpath entry
+			return 0;
+		} catch (JavaModelException e) {
+			return NO_STAMP;
+		}
+	}
+
+	/**
+	 * @return the number of requests that were answered from the pool
+	 */
+	public synchronized int getHits() {
+		return fHits;
+	}
+
+	/**
+	 * @return the number of requests that could not be answered from the pool
+	 */
+	public synchronized int getMisses() {
+		return fMisses;
+	}
+
+	/**
+	 * @return the number of ASTs that were evicted to stay within the budget
+	 */
+	public synchronized int getEvictions() {
+		return fEvictions;
+	}
+
+	/**
+	 * @return the hit rate in the range <code>[0, 1]</code>
+	 */
+	public synchronized double getHitRate() {
+		int requests= fHits + fMisses;
+		return requests == 0 ? 0 : (double) fHits / requests;
+	}
+
+	/**
+	 * @return the number of ASTs built because they were not pooled
+	 */
+	public synchronized int getBuildCount() {
+		return fBuilds;
+	}
+
+	/**
+	 * @return the average time to build an AST that was not pooled, in milliseconds
+	 */
+	public synchronized long getAverageBuildTime() {
+		return fBuilds == 0 ? 0 : fTotalBuildTime / fBuilds;
+	}
+
+	/**
+	 * @return the maximum time to build an AST that was not pooled, in milliseconds
+	 */
+	public synchronized long getMaxBuildTime() {
+		return fMaxBuildTime;
+	}
+
+	/**
+	 * @return the number of pooled ASTs, including those already reclaimed by the garbage collector
+	 */
+	public synchronized int size() {
+		return fEntries.size();
+	}
+
+	/**
+	 * @return the estimated size of the pooled ASTs in bytes
+	 */
+	public synchronized long getEstimatedSize() {
+		return fEstimatedSize;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "ASTPool: " + fEntries.size() + " ASTs, ~" + (fEstimatedSize >> 10) + " KiB, hits: " + fHits + ", misses: " + fMisses //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				+ ", evictions: " + fEvictions + ", average build: " + getAverageBuildTime() + " ms, max build: " + fMaxBuildTime + " ms"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+}
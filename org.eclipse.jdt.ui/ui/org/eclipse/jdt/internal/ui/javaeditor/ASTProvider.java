@@ -47,6 +47,7 @@ import org.eclipse.jdt.internal.ui.JavaPlugin;
 /**
  * Provides a shared AST for clients. The shared AST is
  * the AST of the active Java editor's input element.
+ * ASTs of other type roots are kept in an {@link ASTPool}.
  *
  * @since 3.0
  */
@@ -213,6 +214,10 @@ public final class ASTProvider implements IASTSharedValues {
 	private volatile ITypeRoot fReconcilingJavaElement;
 	private ITypeRoot fActiveJavaElement;
 	private CompilationUnit fAST;
+	private ITypeRoot fASTElement;
+	private long fASTStamp= ASTPool.NO_STAMP;
+	private long fReconcilingStamp= ASTPool.NO_STAMP;
+	private final ASTPool fASTPool;
 	private ActivationListener fActivationListener;
 	private Object fReconcileLock= new Object();
 	private Object fWaitLock= new Object();
@@ -234,6 +239,7 @@ public final class ASTProvider implements IASTSharedValues {
 	 * Creates a new AST provider.
 	 */
 	public ASTProvider() {
+		fASTPool= new ASTPool();
 		install();
 	}
 
@@ -241,6 +247,8 @@ public final class ASTProvider implements IASTSharedValues {
 	 * Installs this AST provider.
 	 */
 	void install() {
+		fASTPool.install();
+
 		// Create and register activation listener
 		fActivationListener= new ActivationListener();
 		PlatformUI.getWorkbench().addWindowListener(fActivationListener);
@@ -258,9 +266,13 @@ public final class ASTProvider implements IASTSharedValues {
 			javaElement= ((JavaEditor)editor).getInputJavaElement();
 
 		synchronized (this) {
+			if (fAST != null && fASTElement != null && !fASTElement.equals(javaElement)) {
+				// keep the AST of the previously active editor for when it is requested again
+				fASTPool.put(fASTElement, fAST, fASTStamp);
+			}
 			fActiveEditor= editor;
 			fActiveJavaElement= javaElement;
-			cache(null, javaElement);
+			cache(null, javaElement, ASTPool.NO_STAMP);
 		}
 
 		if (JavaPlugin.DEBUG_AST_PROVIDER)
@@ -288,6 +300,16 @@ public final class ASTProvider implements IASTSharedValues {
 		return ast != null && fAST == ast;
 	}
 
+	/**
+	 * Returns the pool that holds the ASTs of type roots other than the active one.
+	 *
+	 * @return the AST pool
+	 * @since 3.14
+	 */
+	public ASTPool getASTPool() {
+		return fASTPool;
+	}
+
 	/**
 	 * Returns whether this AST provider is active on the given
 	 * compilation unit.
@@ -314,11 +336,17 @@ public final class ASTProvider implements IASTSharedValues {
 		if (JavaPlugin.DEBUG_AST_PROVIDER)
 			System.out.println(getThreadName() + " - " + DEBUG_PREFIX + "about to reconcile: " + toString(javaElement)); //$NON-NLS-1$ //$NON-NLS-2$
 
+		// the stamp is taken before the AST is created, so that it never is newer than the AST
+		long stamp= ASTPool.getStamp(javaElement);
 		synchronized (fReconcileLock) {
+			if (fIsReconciling && javaElement.equals(fReconcilingJavaElement) && fReconcilingStamp != stamp)
+				fReconcilingStamp= ASTPool.NO_STAMP; // concurrent reconcile: don't know which source the AST reflects
+			else
+				fReconcilingStamp= stamp;
 			fReconcilingJavaElement= javaElement;
 			fIsReconciling= true;
 		}
-		cache(null, javaElement);
+		cache(null, javaElement, ASTPool.NO_STAMP);
 	}
 
 	/**
@@ -333,8 +361,9 @@ public final class ASTProvider implements IASTSharedValues {
 			System.out.println(getThreadName() + " - " + DEBUG_PREFIX + "disposing AST: " + toString(fAST) + " for: " + toString(fActiveJavaElement)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 
 		fAST= null;
+		fASTElement= null;
 
-		cache(null, null);
+		cache(null, null, ASTPool.NO_STAMP);
 	}
 
 	/**
@@ -373,8 +402,9 @@ public final class ASTProvider implements IASTSharedValues {
 	 *
 	 * @param ast the ast
 	 * @param javaElement the java element
+	 * @param stamp the stamp of the java element taken before the AST was created
 	 */
-	private synchronized void cache(CompilationUnit ast, ITypeRoot javaElement) {
+	private synchronized void cache(CompilationUnit ast, ITypeRoot javaElement, long stamp) {
 
 		if (fActiveJavaElement != null && !fActiveJavaElement.equals(javaElement)) {
 			if (JavaPlugin.DEBUG_AST_PROVIDER && javaElement != null) // don't report call from disposeAST()
@@ -389,6 +419,8 @@ public final class ASTProvider implements IASTSharedValues {
 			disposeAST();
 
 		fAST= ast;
+		fASTElement= ast != null ? javaElement : null;
+		fASTStamp= ast != null ? stamp : ASTPool.NO_STAMP;
 
 		// Signal AST change
 		synchronized (fWaitLock) {
@@ -472,17 +504,35 @@ public final class ASTProvider implements IASTSharedValues {
 			} catch (InterruptedException e) {
 				return null; // thread has been interrupted don't compute AST
 			}
+		} else if (!isActiveElement) {
+			CompilationUnit pooled= fASTPool.get(input);
+			if (pooled != null || canReturnNull)
+				return pooled;
 		} else if (canReturnNull)
 			return null;
 
 
 		CompilationUnit ast= null;
 		try {
-			ast= createAST(input, progressMonitor);
-			if (progressMonitor != null && progressMonitor.isCanceled()) {
-				ast= null;
-				if (JavaPlugin.DEBUG_AST_PROVIDER)
-					System.out.println(getThreadName() + " - " + DEBUG_PREFIX + "Ignore created AST for: " + input.getElementName() + " - operation has been cancelled"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			if (isActiveElement) {
+				// the AST may have been pooled while another editor was active
+				ast= fASTPool.get(input);
+				if (ast != null)
+					fASTPool.remove(input);
+			}
+			if (ast == null) {
+				long stamp= isActiveElement ? ASTPool.NO_STAMP : ASTPool.getStamp(input);
+				long start= System.currentTimeMillis();
+				ast= createAST(input, progressMonitor);
+				if (progressMonitor != null && progressMonitor.isCanceled()) {
+					ast= null;
+					if (JavaPlugin.DEBUG_AST_PROVIDER)
+						System.out.println(getThreadName() + " - " + DEBUG_PREFIX + "Ignore created AST for: " + input.getElementName() + " - operation has been cancelled"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				} else if (ast != null) {
+					fASTPool.recordBuild(System.currentTimeMillis() - start);
+					if (!isActiveElement)
+						fASTPool.put(input, ast, stamp);
+				}
 			}
 		} finally {
 			if (isActiveElement) {
@@ -590,6 +640,7 @@ public final class ASTProvider implements IASTSharedValues {
 		fActivationListener= null;
 
 		disposeAST();
+		fASTPool.dispose();
 
 		synchronized (fWaitLock) {
 			fWaitLock.notifyAll();
@@ -624,7 +675,8 @@ public final class ASTProvider implements IASTSharedValues {
 
 				return;
 			}
-			cache(ast, javaElement);
+			// an AST that is cached again keeps the stamp taken when it was created
+			cache(ast, javaElement, ast != null && ast == fAST ? fASTStamp : fReconcilingStamp);
 		}
 	}
 
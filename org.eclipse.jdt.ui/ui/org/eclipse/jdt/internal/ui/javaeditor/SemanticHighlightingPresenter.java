@@ -242,6 +242,29 @@ public class SemanticHighlightingPresenter implements ITextPresentationListener,
 	/** <code>true</code> iff the current reconcile is canceled. */
 	private boolean fIsCanceled= false;
 
+	/**
+	 * Dirty region lock.
+	 * @since 3.14
+	 */
+	private final Object fDirtyRegionLock= new Object();
+	/**
+	 * Start and end of the region changed since the reconciler started building the AST, or
+	 * <code>-1</code> if there is none.
+	 * @since 3.14
+	 */
+	private int fDirtyStart= -1, fDirtyEnd= -1;
+	/**
+	 * Start and end of the region changed before the reconciler started building the AST and
+	 * not yet highlighted, or <code>-1</code> if there is none.
+	 * @since 3.14
+	 */
+	private int fPendingDirtyStart= -1, fPendingDirtyEnd= -1;
+	/**
+	 * <code>true</code> iff all positions have to be reconciled.
+	 * @since 3.14
+	 */
+	private boolean fIsAllDirty= true;
+
 	/**
 	 * Creates and returns a new highlighted position with the given offset, length and highlighting.
 	 * <p>
@@ -272,6 +295,95 @@ public class SemanticHighlightingPresenter implements ITextPresentationListener,
 		}
 	}
 
+	/**
+	 * Adds the current positions with an offset in the given range to the given list.
+	 * <p>
+	 * NOTE: Called from background thread.
+	 * </p>
+	 *
+	 * @param offset the offset of the range
+	 * @param length the length of the range
+	 * @param list the list
+	 * @since 3.14
+	 */
+	public void addPositions(int offset, int length, List<Position> list) {
+		synchronized (fPositionLock) {
+			int from= computeIndexAtOffset(fPositions, offset);
+			int to= computeIndexAtOffset(fPositions, offset + length);
+			list.addAll(fPositions.subList(from, to));
+		}
+	}
+
+	/**
+	 * Marks all positions as dirty, so that the next reconcile recomputes all of them.
+	 *
+	 * @since 3.14
+	 */
+	public void markAllDirty() {
+		synchronized (fDirtyRegionLock) {
+			fIsAllDirty= true;
+		}
+	}
+
+	/**
+	 * Hands the region changed so far over to the next reconcile.
+	 * <p>
+	 * NOTE: Called from background thread, before the AST is built.
+	 * </p>
+	 *
+	 * @since 3.14
+	 */
+	public void aboutToBeReconciled() {
+		synchronized (fDirtyRegionLock) {
+			if (fDirtyStart != -1) {
+				if (fPendingDirtyStart == -1) {
+					fPendingDirtyStart= fDirtyStart;
+					fPendingDirtyEnd= fDirtyEnd;
+				} else {
+					fPendingDirtyStart= Math.min(fPendingDirtyStart, fDirtyStart);
+					fPendingDirtyEnd= Math.max(fPendingDirtyEnd, fDirtyEnd);
+				}
+				fDirtyStart= fDirtyEnd= -1;
+			}
+		}
+	}
+
+	/**
+	 * Returns the region that has changed since positions were last reconciled.
+	 * <p>
+	 * NOTE: Called from background thread.
+	 * </p>
+	 *
+	 * @return the dirty region, or <code>null</code> if all positions have to be reconciled
+	 * @since 3.14
+	 */
+	public IRegion getDirtyRegion() {
+		synchronized (fDirtyRegionLock) {
+			// changes after the AST was built are not reflected in its source ranges
+			if (fIsAllDirty || fPendingDirtyStart == -1 || fDirtyStart != -1)
+				return null;
+			return new Region(fPendingDirtyStart, fPendingDirtyEnd - fPendingDirtyStart);
+		}
+	}
+
+	/**
+	 * Tells that the positions of the region returned by {@link #getDirtyRegion()} have been
+	 * reconciled.
+	 * <p>
+	 * NOTE: Called from background thread.
+	 * </p>
+	 *
+	 * @param all <code>true</code> iff all positions have been reconciled
+	 * @since 3.14
+	 */
+	public void dirtyRegionReconciled(boolean all) {
+		synchronized (fDirtyRegionLock) {
+			if (all)
+				fIsAllDirty= false;
+			fPendingDirtyStart= fPendingDirtyEnd= -1;
+		}
+	}
+
 	/**
 	 * Create a text presentation in the background.
 	 * <p>
@@ -383,22 +495,38 @@ public class SemanticHighlightingPresenter implements ITextPresentationListener,
 
 		List<HighlightedPosition> removedPositionsList= Arrays.asList(removedPositions);
 
+		// only the positions in the range of the added and removed positions need to be merged
+		int minStart= Integer.MAX_VALUE;
+		int maxEnd= Integer.MIN_VALUE;
+		for (int i= 0; i < removedPositions.length; i++) {
+			minStart= Math.min(minStart, removedPositions[i].getOffset());
+			maxEnd= Math.max(maxEnd, removedPositions[i].getOffset() + removedPositions[i].getLength());
+		}
+		for (int i= 0; i < addedPositions.length; i++) {
+			minStart= Math.min(minStart, addedPositions[i].getOffset());
+			maxEnd= Math.max(maxEnd, addedPositions[i].getOffset() + addedPositions[i].getLength());
+		}
+
 		try {
 			synchronized (fPositionLock) {
 				List<Position> oldPositions= fPositions;
+				int from= minStart <= maxEnd ? computeIndexAtOffset(oldPositions, minStart) : oldPositions.size();
+				int to= minStart <= maxEnd ? computeIndexAfterOffset(oldPositions, maxEnd) : oldPositions.size();
 				int newSize= Math.max(fPositions.size() + addedPositions.length - removedPositions.length, 10);
 
 				/*
 				 * The following loop is a kind of merge sort: it merges two List<Position>, each
 				 * sorted by position.offset, into one new list. The first of the two is the
-				 * previous list of positions (oldPositions), from which any deleted positions get
-				 * removed on the fly. The second of two is the list of added positions. The result
-				 * is stored in newPositions.
+				 * range of the previous list of positions (oldPositions) that can contain removed
+				 * positions, from which any deleted positions get removed on the fly. The second
+				 * of two is the list of added positions. The result, together with the unchanged
+				 * positions before and after the range, is stored in newPositions.
 				 */
 				List<Position> newPositions= new ArrayList<>(newSize);
+				newPositions.addAll(oldPositions.subList(0, from));
 				Position position= null;
 				Position addedPosition= null;
-				for (int i= 0, j= 0, n= oldPositions.size(), m= addedPositions.length; i < n || position != null || j < m || addedPosition != null;) {
+				for (int i= from, j= 0, n= to, m= addedPositions.length; i < n || position != null || j < m || addedPosition != null;) {
 					// loop variant: i + j < old(i + j)
 
 					// a) find the next non-deleted Position from the old list
@@ -435,6 +563,7 @@ public class SemanticHighlightingPresenter implements ITextPresentationListener,
 						addedPosition= null;
 					}
 				}
+				newPositions.addAll(oldPositions.subList(to, oldPositions.size()));
 				fPositions= newPositions;
 			}
 		} catch (BadPositionCategoryException e) {
@@ -597,6 +726,54 @@ public class SemanticHighlightingPresenter implements ITextPresentationListener,
 	 */
 	@Override
 	public void documentChanged(DocumentEvent event) {
+		int eventOffset= event.getOffset();
+		int eventEnd= eventOffset + event.getLength();
+		int delta= (event.getText() != null ? event.getText().length() : 0) - event.getLength();
+		synchronized (fDirtyRegionLock) {
+			if (fPendingDirtyStart != -1) {
+				fPendingDirtyStart= updateStart(fPendingDirtyStart, eventOffset, eventEnd, delta);
+				fPendingDirtyEnd= updateEnd(fPendingDirtyEnd, eventOffset, eventEnd, delta);
+			}
+			if (fDirtyStart == -1) {
+				fDirtyStart= eventOffset;
+				fDirtyEnd= eventEnd + delta;
+			} else {
+				fDirtyStart= Math.min(updateStart(fDirtyStart, eventOffset, eventEnd, delta), eventOffset);
+				fDirtyEnd= Math.max(updateEnd(fDirtyEnd, eventOffset, eventEnd, delta), eventEnd + delta);
+			}
+		}
+	}
+
+	/**
+	 * Returns the start of a region after the given change.
+	 *
+	 * @param start the start of the region
+	 * @param eventOffset the offset of the change
+	 * @param eventEnd the end of the replaced text
+	 * @param delta the change in length
+	 * @return the updated start
+	 * @since 3.14
+	 */
+	private static int updateStart(int start, int eventOffset, int eventEnd, int delta) {
+		if (start >= eventEnd)
+			return start + delta;
+		return Math.min(start, eventOffset);
+	}
+
+	/**
+	 * Returns the end of a region after the given change.
+	 *
+	 * @param end the end of the region
+	 * @param eventOffset the offset of the change
+	 * @param eventEnd the end of the replaced text
+	 * @param delta the change in length
+	 * @return the updated end
+	 * @since 3.14
+	 */
+	private static int updateEnd(int end, int eventOffset, int eventEnd, int delta) {
+		if (end < eventOffset)
+			return end;
+		return Math.max(end, eventEnd) + delta;
 	}
 
 	/**
@@ -740,6 +917,11 @@ public class SemanticHighlightingPresenter implements ITextPresentationListener,
 		synchronized (fPositionLock) {
 			fPositions.clear();
 		}
+		synchronized (fDirtyRegionLock) {
+			fDirtyStart= fDirtyEnd= -1;
+			fPendingDirtyStart= fPendingDirtyEnd= -1;
+			fIsAllDirty= true;
+		}
 	}
 
 	/**
@@ -12,6 +12,7 @@
 package org.eclipse.jdt.internal.ui.javaeditor;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 import org.eclipse.swt.widgets.Display;
@@ -23,6 +24,7 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITextInputListener;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.TextPresentation;
@@ -32,12 +34,16 @@ import org.eclipse.ui.IWorkbenchPartSite;
 
 import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.Block;
 import org.eclipse.jdt.core.dom.BooleanLiteral;
 import org.eclipse.jdt.core.dom.CharacterLiteral;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.ConstructorInvocation;
 import org.eclipse.jdt.core.dom.Expression;
 import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.NodeFinder;
 import org.eclipse.jdt.core.dom.NumberLiteral;
 import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.jdt.core.dom.SuperConstructorInvocation;
@@ -186,14 +192,13 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		 */
 		private void addPosition(int offset, int length, Highlighting highlighting) {
 			boolean isExisting= false;
-			// TODO: use binary search
-			for (int i= 0, n= fRemovedPositions.size(); i < n; i++) {
+			for (int i= computeIndexAtOffset(offset), n= fRemovedPositions.size(); i < n; i++) {
 				HighlightedPosition position= (HighlightedPosition) fRemovedPositions.get(i);
-				if (position == null)
-					continue;
-				if (position.isEqual(offset, length, highlighting)) {
+				if (position.getOffset() > offset)
+					break;
+				if (!fRetainedPositions.get(i) && position.isEqual(offset, length, highlighting)) {
 					isExisting= true;
-					fRemovedPositions.set(i, null);
+					fRetainedPositions.set(i);
 					fNOfRemovedPositions--;
 					break;
 				}
@@ -211,15 +216,37 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		 * @param length The range length
 		 */
 		private void retainPositions(int offset, int length) {
-			// TODO: use binary search
-			for (int i= 0, n= fRemovedPositions.size(); i < n; i++) {
+			for (int i= computeIndexAtOffset(offset), n= fRemovedPositions.size(); i < n; i++) {
 				HighlightedPosition position= (HighlightedPosition) fRemovedPositions.get(i);
-				if (position != null && position.isContained(offset, length)) {
-					fRemovedPositions.set(i, null);
+				if (position.getOffset() > offset + length)
+					break;
+				if (!fRetainedPositions.get(i) && position.isContained(offset, length)) {
+					fRetainedPositions.set(i);
 					fNOfRemovedPositions--;
 				}
 			}
 		}
+
+		/**
+		 * Returns the index of the first removed position with an offset equal or greater than the
+		 * given offset.
+		 *
+		 * @param offset the offset
+		 * @return the index
+		 * @since 3.14
+		 */
+		private int computeIndexAtOffset(int offset) {
+			int i= -1;
+			int j= fRemovedPositions.size();
+			while (j - i > 1) {
+				int k= (i + j) >> 1;
+				if (fRemovedPositions.get(k).getOffset() >= offset)
+					j= k;
+				else
+					i= k;
+			}
+			return j;
+		}
 	}
 
 	/** Position collector */
@@ -240,6 +267,11 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	private List<Position> fAddedPositions= new ArrayList<>();
 	/** Background job's removed highlighted positions */
 	private List<Position> fRemovedPositions= new ArrayList<>();
+	/**
+	 * Background job's removed highlighted positions that have been found again in the AST
+	 * @since 3.14
+	 */
+	private final BitSet fRetainedPositions= new BitSet();
 	/** Number of removed positions */
 	private int fNOfRemovedPositions;
 
@@ -277,7 +309,9 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	 */
 	@Override
 	public void aboutToBeReconciled() {
-		// Do nothing
+		SemanticHighlightingPresenter presenter= fPresenter;
+		if (presenter != null)
+			presenter.aboutToBeReconciled();
 	}
 
 	/*
@@ -305,11 +339,11 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 			if (ast == null || fJobPresenter.isCanceled())
 				return;
 
-			ASTNode[] subtrees= getAffectedSubtrees(ast);
+			ASTNode[] subtrees= getAffectedSubtrees(ast, forced ? null : fJobPresenter.getDirtyRegion());
 			if (subtrees.length == 0)
 				return;
 
-			startReconcilingPositions();
+			startReconcilingPositions(subtrees);
 
 			if (!fJobPresenter.isCanceled()) {
 				fJobDeprecatedMemberHighlighting= null;
@@ -327,8 +361,10 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 			if (!fJobPresenter.isCanceled())
 				textPresentation= fJobPresenter.createPresentation(fAddedPositions, fRemovedPositions);
 
-			if (!fJobPresenter.isCanceled())
+			if (!fJobPresenter.isCanceled()) {
 				updatePresentation(textPresentation, fAddedPositions, fRemovedPositions);
+				fJobPresenter.dirtyRegionReconciled(subtrees[0] == ast);
+			}
 
 			stopReconcilingPositions();
 		} finally {
@@ -343,19 +379,47 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	}
 
 	/**
-	 * @param node Root node
+	 * Returns the subtrees that may be affected by past document changes. Changes inside the body
+	 * of a method or initializer cannot affect the highlighting outside of it, so only that body
+	 * is returned. Any other change may have distant effects, e.g. on the references to a changed
+	 * declaration, and requires the whole AST to be visited.
+	 *
+	 * @param ast the AST
+	 * @param dirtyRegion the region that changed since the last reconcile, or <code>null</code>
+	 *            if unknown
 	 * @return Array of subtrees that may be affected by past document changes
 	 */
-	private ASTNode[] getAffectedSubtrees(ASTNode node) {
-		// TODO: only return nodes which are affected by document changes - would require an 'anchor' concept for taking distant effects into account
-		return new ASTNode[] { node };
+	private ASTNode[] getAffectedSubtrees(CompilationUnit ast, IRegion dirtyRegion) {
+		if (dirtyRegion != null) {
+			int dirtyStart= dirtyRegion.getOffset();
+			int dirtyEnd= dirtyStart + dirtyRegion.getLength();
+			Block body= null;
+			for (ASTNode node= NodeFinder.perform(ast, dirtyStart, dirtyRegion.getLength()); node != null; node= node.getParent()) {
+				if ((node.getFlags() & ASTNode.MALFORMED) != 0)
+					return new ASTNode[] { ast };
+				if (body == null && node instanceof Block && (node.getParent() instanceof MethodDeclaration || node.getParent() instanceof Initializer)
+						&& node.getStartPosition() < dirtyStart && dirtyEnd < node.getStartPosition() + node.getLength())
+					body= (Block) node;
+			}
+			if (body != null)
+				return new ASTNode[] { body };
+		}
+		return new ASTNode[] { ast };
 	}
 
 	/**
 	 * Start reconciling positions.
+	 *
+	 * @param subtrees the AST subtrees
 	 */
-	private void startReconcilingPositions() {
-		fJobPresenter.addAllPositions(fRemovedPositions);
+	private void startReconcilingPositions(ASTNode[] subtrees) {
+		if (subtrees.length == 1 && subtrees[0].getParent() == null) {
+			fJobPresenter.addAllPositions(fRemovedPositions);
+		} else {
+			// the positions outside the subtrees are not affected
+			for (int i= 0; i < subtrees.length; i++)
+				fJobPresenter.addPositions(subtrees[i].getStartPosition(), subtrees[i].getLength(), fRemovedPositions);
+		}
 		fNOfRemovedPositions= fRemovedPositions.size();
 	}
 
@@ -365,20 +429,14 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	 * @param subtrees the AST subtrees
 	 */
 	private void reconcilePositions(ASTNode[] subtrees) {
-		// FIXME: remove positions not covered by subtrees
-
-
-
 		for (int i= 0, n= subtrees.length; i < n; i++)
 			subtrees[i].accept(fCollector);
 		List<Position> oldPositions= fRemovedPositions;
 		List<Position> newPositions= new ArrayList<>(fNOfRemovedPositions);
-		for (int i= 0, n= oldPositions.size(); i < n; i ++) {
-			Position current= oldPositions.get(i);
-			if (current != null)
-				newPositions.add(current);
-		}
+		for (int i= fRetainedPositions.nextClearBit(0), n= oldPositions.size(); i < n; i= fRetainedPositions.nextClearBit(i + 1))
+			newPositions.add(oldPositions.get(i));
 		fRemovedPositions= newPositions;
+		fRetainedPositions.clear();
 	}
 
 	/**
@@ -417,6 +475,7 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	 */
 	private void stopReconcilingPositions() {
 		fRemovedPositions.clear();
+		fRetainedPositions.clear();
 		fNOfRemovedPositions= 0;
 		fAddedPositions.clear();
 	}
@@ -538,6 +597,8 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	 * @since 3.2
 	 */
 	public void refresh() {
+		if (fPresenter != null)
+			fPresenter.markAllDirty();
 		scheduleJob();
 	}
 }
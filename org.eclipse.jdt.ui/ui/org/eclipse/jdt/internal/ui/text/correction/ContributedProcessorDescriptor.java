@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -53,6 +53,8 @@ public final class ContributedProcessorDescriptor {
 	private static final String HANDLED_MARKER_TYPES= "handledMarkerTypes"; //$NON-NLS-1$
 	private static final String MARKER_TYPE= "markerType"; //$NON-NLS-1$
 
+	private static final String JDT_BUNDLE_PREFIX= "org.eclipse.jdt."; //$NON-NLS-1$
+
 	public ContributedProcessorDescriptor(IConfigurationElement element, boolean testMarkerTypes) {
 		fConfigurationElement= element;
 		fProcessorInstance= null;
@@ -151,8 +153,26 @@ public final class ContributedProcessorDescriptor {
 		return null;
 	}
 
+	/**
+	 * Tells whether the processor is contributed by a JDT bundle.
+	 *
+	 * @return <code>true</code> if the processor is one of JDT's own processors
+	 */
+	public boolean isContributedByJDT() {
+		return fConfigurationElement.getContributor().getName().startsWith(JDT_BUNDLE_PREFIX);
+	}
+
 	public boolean canHandleMarkerType(String markerType) {
 		return fHandledMarkerTypes == null || fHandledMarkerTypes.contains(markerType);
 	}
 
+	/*
+	 * @see java.lang.Object#toString()
+	 * @since 3.14
+	 */
+	@Override
+	public String toString() {
+		return fConfigurationElement.getAttribute(ID);
+	}
+
 }
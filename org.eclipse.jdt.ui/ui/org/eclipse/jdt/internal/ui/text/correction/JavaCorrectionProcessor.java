@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,11 +14,14 @@ package org.eclipse.jdt.internal.ui.text.correction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.PerformanceStats;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.Status;
@@ -69,6 +72,21 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 	private static final String QUICKFIX_PROCESSOR_CONTRIBUTION_ID= "quickFixProcessors"; //$NON-NLS-1$
 	private static final String QUICKASSIST_PROCESSOR_CONTRIBUTION_ID= "quickAssistProcessors"; //$NON-NLS-1$
 
+	/** The name of the performance event used to trace the processors. */
+	private static final String PERFORMANCE_EVENT= JavaPlugin.getPluginId() + "/perf/quickfix/processors"; //$NON-NLS-1$
+	/**
+	 * If <code>true</code>, execution time of the processors is measured and the data forwarded to
+	 * core's {@link PerformanceStats} service.
+	 */
+	private static final boolean MEASURE_PERFORMANCE= PerformanceStats.isEnabled(PERFORMANCE_EVENT);
+
+	/**
+	 * Time in milliseconds after which the remaining processors contributed outside of JDT are
+	 * skipped when collecting proposals. JDT's own processors and the checks for the light bulb
+	 * always run.
+	 */
+	private static final long PROCESSOR_BUDGET= 2000;
+
 	private static ContributedProcessorDescriptor[] fgContributedAssistProcessors= null;
 	private static ContributedProcessorDescriptor[] fgContributedCorrectionProcessors= null;
 
@@ -324,24 +342,53 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 	}
 
 	private static abstract class SafeCorrectionProcessorAccess implements ISafeRunnable {
+		private final String fOperation;
+		private final long fDeadline;
+		private Set<ContributedProcessorDescriptor> fSkipped;
 		private MultiStatus fMulti= null;
 		private ContributedProcessorDescriptor fDescriptor;
 
+		protected SafeCorrectionProcessorAccess(String operation) {
+			this(operation, false);
+		}
+
+		protected SafeCorrectionProcessorAccess(String operation, boolean budgeted) {
+			fOperation= operation;
+			fDeadline= budgeted ? System.currentTimeMillis() + PROCESSOR_BUDGET : Long.MAX_VALUE;
+		}
+
 		public void process(ContributedProcessorDescriptor[] desc) {
 			for (int i= 0; i < desc.length; i++) {
-				fDescriptor= desc[i];
-				SafeRunner.run(this);
+				process(desc[i]);
 			}
 		}
 
 		public void process(ContributedProcessorDescriptor desc) {
+			// the processors run one after another; once the budget is spent, skip contributed ones
+			if (!desc.isContributedByJDT() && System.currentTimeMillis() >= fDeadline) {
+				if (fSkipped == null)
+					fSkipped= new HashSet<>();
+				if (fSkipped.add(desc))
+					JavaPlugin.log(new Status(IStatus.WARNING, JavaUI.ID_PLUGIN, IStatus.OK, "Skipped " + fOperation + " of processor '" + desc + "' after " + PROCESSOR_BUDGET + " ms", null)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				return;
+			}
 			fDescriptor= desc;
 			SafeRunner.run(this);
 		}
 
 		@Override
 		public void run() throws Exception {
-			safeRun(fDescriptor);
+			if (!MEASURE_PERFORMANCE) {
+				safeRun(fDescriptor);
+				return;
+			}
+			PerformanceStats stats= PerformanceStats.getStats(PERFORMANCE_EVENT, fDescriptor);
+			stats.startRun(fOperation);
+			try {
+				safeRun(fDescriptor);
+			} finally {
+				stats.endRun();
+			}
 		}
 
 		protected abstract void safeRun(ContributedProcessorDescriptor processor) throws Exception;
@@ -369,6 +416,7 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 		private IProblemLocation[] fLocations;
 
 		public SafeCorrectionCollector(IInvocationContext context, Collection<IJavaCompletionProposal> proposals) {
+			super("getCorrections()", true); //$NON-NLS-1$
 			fContext= context;
 			fProposals= proposals;
 		}
@@ -397,6 +445,7 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 		private final Collection<IJavaCompletionProposal> fProposals;
 
 		public SafeAssistCollector(IInvocationContext context, IProblemLocation[] locations, Collection<IJavaCompletionProposal> proposals) {
+			super("getAssists()", true); //$NON-NLS-1$
 			fContext= context;
 			fLocations= locations;
 			fProposals= proposals;
@@ -421,6 +470,7 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 		private boolean fHasAssists;
 
 		public SafeHasAssist(IInvocationContext context) {
+			super("hasAssists()"); //$NON-NLS-1$
 			fContext= context;
 			fHasAssists= false;
 		}
@@ -444,6 +494,7 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 		private boolean fHasCorrections;
 
 		public SafeHasCorrections(ICompilationUnit cu, int problemId) {
+			super("hasCorrections()"); //$NON-NLS-1$
 			fCu= cu;
 			fProblemId= problemId;
 			fHasCorrections= false;
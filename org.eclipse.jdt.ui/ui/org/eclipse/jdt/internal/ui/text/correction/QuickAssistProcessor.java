@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -25,17 +25,25 @@ import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
 
 import org.eclipse.swt.graphics.Image;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
 
 import org.eclipse.jface.text.link.LinkedPositionGroup;
 
 import org.eclipse.ui.IEditorPart;
 
 import org.eclipse.ltk.core.refactoring.Refactoring;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.IBuffer;
@@ -172,6 +180,7 @@ import org.eclipse.jdt.ui.text.java.correction.ASTRewriteCorrectionProposal;
 import org.eclipse.jdt.ui.text.java.correction.ChangeCorrectionProposal;
 import org.eclipse.jdt.ui.text.java.correction.ICommandAccess;
 
+import org.eclipse.jdt.internal.ui.IJavaStatusConstants;
 import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.JavaPluginImages;
 import org.eclipse.jdt.internal.ui.fix.ControlStatementsCleanUp;
@@ -390,6 +399,56 @@ public class QuickAssistProcessor implements IQuickAssistProcessor {
 
 
 
+	/**
+	 * Checks the initial conditions of the given refactorings. The checks only read the shared AST,
+	 * so the first refactoring is checked on the calling thread while the others are offered to
+	 * the common pool. A check that no pool thread has started by the time the calling thread
+	 * needs its result is run on the calling thread, so that the checks never wait behind
+	 * unrelated work in the pool.
+	 *
+	 * @param refactorings the refactorings to check
+	 * @return for each refactoring, whether its initial conditions are met
+	 * @throws CoreException if a check fails
+	 */
+	private static boolean[] checkInitialConditions(Refactoring[] refactorings) throws CoreException {
+		List<FutureTask<RefactoringStatus>> tasks= new ArrayList<>(refactorings.length - 1);
+		for (int i= 1; i < refactorings.length; i++) {
+			final Refactoring refactoring= refactorings[i];
+			FutureTask<RefactoringStatus> task= new FutureTask<>(new Callable<RefactoringStatus>() {
+				@Override
+				public RefactoringStatus call() throws CoreException {
+					return refactoring.checkInitialConditions(new NullProgressMonitor());
+				}
+			});
+			tasks.add(task);
+			ForkJoinPool.commonPool().execute(task);
+		}
+		boolean[] result= new boolean[refactorings.length];
+		try {
+			result[0]= refactorings[0].checkInitialConditions(new NullProgressMonitor()).isOK();
+			for (int i= 1; i < refactorings.length; i++) {
+				FutureTask<RefactoringStatus> task= tasks.get(i - 1);
+				task.run(); // does nothing if a pool thread has already started the task
+				result[i]= task.get().isOK();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			Throwable cause= e.getCause();
+			if (cause instanceof CoreException)
+				throw (CoreException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new CoreException(new Status(IStatus.ERROR, JavaPlugin.getPluginId(), IJavaStatusConstants.INTERNAL_ERROR, cause.getMessage(), cause));
+		} finally {
+			for (int i= 0; i < tasks.size(); i++) {
+				tasks.get(i).cancel(false);
+			}
+		}
+		return result;
+	}
+
 	private static boolean getExtractVariableProposal(IInvocationContext context, boolean problemsAtLocation, Collection<ICommandAccess> proposals) throws CoreException {
 		
 		ASTNode node= context.getCoveredNode();
@@ -415,7 +474,12 @@ public class QuickAssistProcessor implements IQuickAssistProcessor {
 
 		final ICompilationUnit cu= context.getCompilationUnit();
 		ExtractTempRefactoring extractTempRefactoring= new ExtractTempRefactoring(context.getASTRoot(), context.getSelectionOffset(), context.getSelectionLength());
-		if (extractTempRefactoring.checkInitialConditions(new NullProgressMonitor()).isOK()) {
+		ExtractTempRefactoring extractTempRefactoringSelectedOnly= new ExtractTempRefactoring(context.getASTRoot(), context.getSelectionOffset(), context.getSelectionLength());
+		extractTempRefactoringSelectedOnly.setReplaceAllOccurrences(false);
+		ExtractConstantRefactoring extractConstRefactoring= new ExtractConstantRefactoring(context.getASTRoot(), context.getSelectionOffset(), context.getSelectionLength());
+		boolean[] applicable= checkInitialConditions(new Refactoring[] { extractTempRefactoring, extractTempRefactoringSelectedOnly, extractConstRefactoring });
+
+		if (applicable[0]) {
 			extractTempRefactoring.setReplaceAllOccurrences(true);
 			LinkedProposalModel linkedProposalModel= new LinkedProposalModel();
 			extractTempRefactoring.setLinkedProposalModel(linkedProposalModel);
@@ -443,9 +507,7 @@ public class QuickAssistProcessor implements IQuickAssistProcessor {
 			proposals.add(proposal);
 		}
 
-		ExtractTempRefactoring extractTempRefactoringSelectedOnly= new ExtractTempRefactoring(context.getASTRoot(), context.getSelectionOffset(), context.getSelectionLength());
-		extractTempRefactoringSelectedOnly.setReplaceAllOccurrences(false);
-		if (extractTempRefactoringSelectedOnly.checkInitialConditions(new NullProgressMonitor()).isOK()) {
+		if (applicable[1]) {
 			LinkedProposalModel linkedProposalModel= new LinkedProposalModel();
 			extractTempRefactoringSelectedOnly.setLinkedProposalModel(linkedProposalModel);
 			extractTempRefactoringSelectedOnly.setCheckResultForCompileProblems(false);
@@ -472,8 +534,7 @@ public class QuickAssistProcessor implements IQuickAssistProcessor {
 			proposals.add(proposal);
 		}
 
-		ExtractConstantRefactoring extractConstRefactoring= new ExtractConstantRefactoring(context.getASTRoot(), context.getSelectionOffset(), context.getSelectionLength());
-		if (extractConstRefactoring.checkInitialConditions(new NullProgressMonitor()).isOK()) {
+		if (applicable[2]) {
 			LinkedProposalModel linkedProposalModel= new LinkedProposalModel();
 			extractConstRefactoring.setLinkedProposalModel(linkedProposalModel);
 			extractConstRefactoring.setCheckResultForCompileProblems(false);
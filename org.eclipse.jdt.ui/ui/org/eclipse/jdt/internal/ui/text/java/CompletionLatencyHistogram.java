@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text.java;
+
+/**
+ * Histogram of the time a completion proposal computer takes to compute its proposals.
+ * <p>
+ * The buckets are powers of two milliseconds: bucket <code>i</code> counts the runs that took
+ * less than <code>2^i</code> milliseconds, and the last bucket counts all longer runs.
+ * </p>
+ *
+ * @since 3.14
+ */
+public final class CompletionLatencyHistogram {
+
+	private static final int BUCKET_COUNT= 16;
+
+	private final long[] fBuckets= new long[BUCKET_COUNT];
+	private long fCount;
+	private long fMaxNanos;
+
+	/**
+	 * Records a run of the computer.
+	 *
+	 * @param nanos the duration of the run in nanoseconds
+	 */
+	public synchronized void record(long nanos) {
+		long millis= nanos / 1000000;
+		int bucket= 0;
+		while (bucket < BUCKET_COUNT - 1 && millis >= 1L << bucket)
+			bucket++;
+		fBuckets[bucket]++;
+		fCount++;
+		fMaxNanos= Math.max(fMaxNanos, nanos);
+	}
+
+	/**
+	 * Returns the number of recorded runs.
+	 *
+	 * @return the number of runs
+	 */
+	public synchronized long getCount() {
+		return fCount;
+	}
+
+	/**
+	 * Returns the number of recorded runs per bucket.
+	 *
+	 * @return the bucket counts, indexed by the power of two of the bucket's upper bound
+	 */
+	public synchronized long[] getBuckets() {
+		return fBuckets.clone();
+	}
+
+	/**
+	 * Returns the upper bound of the bucket that contains the given percentile.
+	 *
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the upper bound in milliseconds, {@link Long#MAX_VALUE} for the last bucket, or
+	 *         <code>0</code> if no runs have been recorded
+	 */
+	public synchronized long getPercentile(int percentile) {
+		if (fCount == 0)
+			return 0;
+		long rank= Math.max(1, (fCount * percentile + 99) / 100);
+		long seen= 0;
+		for (int bucket= 0; bucket < BUCKET_COUNT - 1; bucket++) {
+			seen+= fBuckets[bucket];
+			if (seen >= rank)
+				return 1L << bucket;
+		}
+		return Long.MAX_VALUE;
+	}
+
+	/**
+	 * Returns the longest recorded run.
+	 *
+	 * @return the duration in milliseconds
+	 */
+	public synchronized long getMax() {
+		return fMaxNanos / 1000000;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "runs=" + fCount + ", p50<" + format(getPercentile(50)) + ", p90<" + format(getPercentile(90)) + ", p99<" + format(getPercentile(99)) + ", max=" + getMax() + "ms"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+	}
+
+	private static String format(long bound) {
+		return bound == Long.MAX_VALUE ? "inf" : bound + "ms"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
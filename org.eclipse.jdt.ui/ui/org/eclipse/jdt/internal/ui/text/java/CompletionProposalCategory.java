@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2013 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -321,6 +321,11 @@ public final class CompletionProposalCategory {
 	 * Safely computes completion proposals of all computers of this category through their
 	 * extension. If an extension is disabled, throws an exception or otherwise does not adhere to
 	 * the contract described in {@link IJavaCompletionProposalComputer}, it is disabled.
+	 * <p>
+	 * The computers of the category share a deadline: the progress monitor passed to a computer
+	 * reports cancellation once the deadline has passed, and computers that have not started by
+	 * then are skipped, so that the proposals computed so far are returned in time.
+	 * </p>
 	 *
 	 * @param context the invocation context passed on to the extension
 	 * @param partition the partition type where to invocation occurred
@@ -332,9 +337,18 @@ public final class CompletionProposalCategory {
 		fLastError= null;
 		List<ICompletionProposal> result= new ArrayList<>();
 		List<CompletionProposalComputerDescriptor> descriptors= new ArrayList<>(fRegistry.getProposalComputerDescriptors(partition));
+		// the computers of a category share the time a single Java computer may take
+		long deadline= System.nanoTime() + JavaCompletionProposalComputer.JAVA_CODE_ASSIST_TIMEOUT * 1000000;
 		for (CompletionProposalComputerDescriptor desc : descriptors) {
-			if (desc.getCategory() == this)
-				result.addAll(desc.computeCompletionProposals(context, monitor));
+			if (desc.getCategory() != this)
+				continue;
+			DeadlineProgressMonitor deadlineMonitor= new DeadlineProgressMonitor(monitor, deadline);
+			if (deadlineMonitor.isExpired()) {
+				if (fLastError == null)
+					fLastError= JavaTextMessages.CompletionProposalCategory_deadline_exceeded;
+				break;
+			}
+			result.addAll(desc.computeCompletionProposals(context, deadlineMonitor));
 			if (fLastError == null && desc.getErrorMessage() != null)
 				fLastError= desc.getErrorMessage();
 		}
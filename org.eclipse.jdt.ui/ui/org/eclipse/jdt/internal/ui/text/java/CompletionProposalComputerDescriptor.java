@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2012 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -143,6 +143,12 @@ final class CompletionProposalComputerDescriptor {
 	 * @since 3.8
 	 */
 	private boolean fNeedsSortingAfterFiltering;
+	/**
+	 * The latencies of the computer's <code>computeCompletionProposals</code> operation.
+	 *
+	 * @since 3.14
+	 */
+	private final CompletionLatencyHistogram fLatency= new CompletionLatencyHistogram();
 
 
 	/**
@@ -330,8 +336,12 @@ final class CompletionProposalComputerDescriptor {
 
 			try {
 				PerformanceStats stats= startMeter(context, computer);
+				long start= System.nanoTime();
 				List<ICompletionProposal> proposals= computer.computeCompletionProposals(context, monitor);
+				fLatency.record(System.nanoTime() - start);
 				stopMeter(stats, COMPUTE_COMPLETION_PROPOSALS);
+				if (JavaPlugin.DEBUG_RESULT_COLLECTOR)
+					System.err.println("Code Assist (" + fId + "):\t" + fLatency); //$NON-NLS-1$ //$NON-NLS-2$
 
 				if (proposals != null) {
 					fLastError= computer.getErrorMessage();
@@ -566,6 +576,17 @@ final class CompletionProposalComputerDescriptor {
 		return fLastError;
 	}
 
+	/**
+	 * Returns the latencies of the described extension's <code>computeCompletionProposals</code>
+	 * operation in this session.
+	 *
+	 * @return the latency histogram
+	 * @since 3.14
+	 */
+	public CompletionLatencyHistogram getLatencyHistogram() {
+		return fLatency;
+	}
+
 	/**
 	 * Returns the contributor of the described extension.
 	 *
@@ -10,6 +10,9 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.text.java;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
@@ -56,6 +59,8 @@ import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeHierarchy;
 import org.eclipse.jdt.core.JavaModelException;
 
+import org.eclipse.jdt.internal.corext.util.HistoryJournal;
+
 import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.JavaUIException;
 import org.eclipse.jdt.internal.ui.JavaUIStatus;
@@ -80,6 +85,9 @@ public final class ContentAssistHistory {
 		private static final String ATTRIBUTE_MAX_LHS= "maxLHS"; //$NON-NLS-1$
 		private static final String ATTRIBUTE_MAX_RHS= "maxRHS"; //$NON-NLS-1$
 
+		private static final byte RECORD_BOUNDS= 1;
+		private static final byte RECORD_LHS= 2;
+
 		public void store(ContentAssistHistory history, StreamResult result) throws CoreException {
 			try {
 				DocumentBuilderFactory factory= DocumentBuilderFactory.newInstance();
@@ -185,6 +193,70 @@ public final class ContentAssistHistory {
 			}
 		}
 
+		public void store(final ContentAssistHistory history, HistoryJournal journal) throws CoreException {
+			List<HistoryJournal.RecordWriter> records= new ArrayList<>(history.fLHSCache.size() + 1);
+			records.add(new HistoryJournal.RecordWriter() {
+				@Override
+				public byte getType() {
+					return RECORD_BOUNDS;
+				}
+
+				@Override
+				public void write(DataOutputStream out) throws IOException {
+					out.writeInt(history.fMaxLHS);
+					out.writeInt(history.fMaxRHS);
+				}
+			});
+			for (Iterator<Entry<String, MRUSet<String>>> leftHandSides= history.fLHSCache.entrySet().iterator(); leftHandSides.hasNext();) {
+				final Entry<String, MRUSet<String>> entry= leftHandSides.next();
+				records.add(new HistoryJournal.RecordWriter() {
+					@Override
+					public byte getType() {
+						return RECORD_LHS;
+					}
+
+					@Override
+					public void write(DataOutputStream out) throws IOException {
+						out.writeUTF(entry.getKey());
+						MRUSet<String> rightHandSides= entry.getValue();
+						out.writeShort(rightHandSides.size());
+						for (Iterator<String> rhsIterator= rightHandSides.iterator(); rhsIterator.hasNext();)
+							out.writeUTF(rhsIterator.next());
+					}
+				});
+			}
+
+			try {
+				journal.rewrite(records.iterator());
+			} catch (IOException e) {
+				throw createException(e, JavaTextMessages.ContentAssistHistory_serialize_error);
+			}
+		}
+
+		public ContentAssistHistory load(HistoryJournal journal) throws CoreException {
+			final ContentAssistHistory[] history= new ContentAssistHistory[1];
+			try {
+				journal.replay(new HistoryJournal.RecordReader() {
+					@Override
+					public void read(byte type, DataInputStream in) throws IOException {
+						if (type == RECORD_BOUNDS) {
+							int maxLHS= in.readInt();
+							int maxRHS= in.readInt();
+							history[0]= new ContentAssistHistory(maxLHS > 0 ? maxLHS : DEFAULT_TRACKED_LHS, maxRHS > 0 ? maxRHS : DEFAULT_TRACKED_RHS);
+						} else if (type == RECORD_LHS && history[0] != null) {
+							Set<String> cache= history[0].getCache(in.readUTF());
+							int nRHS= in.readUnsignedShort();
+							for (int i= 0; i < nRHS; i++)
+								cache.add(in.readUTF());
+						}
+					}
+				});
+			} catch (IOException e) {
+				throw createException(e, JavaTextMessages.ContentAssistHistory_deserialize_error);
+			}
+			return history[0];
+		}
+
 		private JavaUIException createException(Exception e, String message) {
 			return new JavaUIException(JavaUIStatus.createError(IStatus.ERROR, message, e));
 		}
@@ -470,6 +542,35 @@ public final class ContentAssistHistory {
 		preferences.setValue(key, writer.toString());
 	}
 
+	/**
+	 * Stores the history in a binary {@link HistoryJournal} in the given file.
+	 *
+	 * @param history the history to store
+	 * @param file the file to store the history into
+	 * @throws CoreException if serialization fails
+	 * @see #load(File) on how to restore a history stored by this method
+	 * @since 3.14
+	 */
+	public static void store(ContentAssistHistory history, File file) throws CoreException {
+		new ReaderWriter().store(history, new HistoryJournal(file));
+	}
+
+	/**
+	 * Loads a history from a file written by {@link #store(ContentAssistHistory, File)}.
+	 *
+	 * @param file the file to retrieve the history from
+	 * @return the deserialized history, or <code>null</code> if the file does not exist or does
+	 *         not contain a history
+	 * @throws CoreException if deserialization fails
+	 * @since 3.14
+	 */
+	public static ContentAssistHistory load(File file) throws CoreException {
+		HistoryJournal journal= new HistoryJournal(file);
+		if (!journal.exists())
+			return null;
+		return new ReaderWriter().load(journal);
+	}
+
 	/**
 	 * Loads a history from an XML encoded preference value.
 	 *
@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text.java;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
+
+/**
+ * A progress monitor that reports itself as canceled once a deadline has passed.
+ *
+ * @since 3.14
+ */
+public final class DeadlineProgressMonitor extends ProgressMonitorWrapper {
+
+	private final long fDeadline;
+
+	/**
+	 * Creates a new monitor.
+	 *
+	 * @param monitor the wrapped monitor
+	 * @param deadline the deadline, as a value of {@link System#nanoTime()}
+	 */
+	public DeadlineProgressMonitor(IProgressMonitor monitor, long deadline) {
+		super(monitor);
+		fDeadline= deadline;
+	}
+
+	/**
+	 * Tells whether the deadline has passed.
+	 *
+	 * @return <code>true</code> if the deadline has passed
+	 */
+	public boolean isExpired() {
+		return System.nanoTime() - fDeadline >= 0;
+	}
+
+	@Override
+	public boolean isCanceled() {
+		return super.isCanceled() || isExpired();
+	}
+}
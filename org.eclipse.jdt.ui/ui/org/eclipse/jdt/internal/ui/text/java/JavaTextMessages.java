@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -57,6 +57,7 @@ final class JavaTextMessages extends NLS {
 	public static String CompletionProposalComputerDescriptor_reason_API;
 	public static String CompletionProposalComputerDescriptor_reason_performance;
 	public static String CompletionProposalComputerDescriptor_blame_message;
+	public static String CompletionProposalCategory_deadline_exceeded;
 	public static String CompletionProposalComputerRegistry_invalid_message;
 	public static String CompletionProposalComputerRegistry_error_dialog_title;
 	public static String ContentAssistProcessor_defaultProposalCategory;
@@ -42,31 +42,39 @@ public class JavaSpellingEngine extends SpellingEngine {
 	protected void check(IDocument document, IRegion[] regions, ISpellChecker checker, ISpellingProblemCollector collector, IProgressMonitor monitor) {
 		SpellEventListener listener= new SpellEventListener(collector, document);
 		boolean isIgnoringJavaStrings= PreferenceConstants.getPreferenceStore().getBoolean(PreferenceConstants.SPELLING_IGNORE_JAVA_STRINGS);
-		try {
-			for (int i= 0; i < regions.length; i++) {
-				IRegion region= regions[i];
-				ITypedRegion[] partitions= TextUtilities.computePartitioning(document, IJavaPartitions.JAVA_PARTITIONING, region.getOffset(), region.getLength(), false);
-				for (int index= 0; index < partitions.length; index++) {
-					if (monitor != null && monitor.isCanceled())
-						return;
+		SpellingResultCache cache= SpellingResultCache.getCache(document);
+		synchronized (cache) {
+			boolean completed= false;
+			cache.beginChecking(document, regions, checker);
+			try {
+				for (int i= 0; i < regions.length; i++) {
+					IRegion region= regions[i];
+					ITypedRegion[] partitions= TextUtilities.computePartitioning(document, IJavaPartitions.JAVA_PARTITIONING, region.getOffset(), region.getLength(), false);
+					for (int index= 0; index < partitions.length; index++) {
+						if (monitor != null && monitor.isCanceled())
+							return;
 
-					if (listener.isProblemsThresholdReached())
-						return;
+						if (listener.isProblemsThresholdReached())
+							return;
 
-					ITypedRegion partition= partitions[index];
-					final String type= partition.getType();
+						ITypedRegion partition= partitions[index];
+						final String type= partition.getType();
 
-					if (isIgnoringJavaStrings && type.equals(IJavaPartitions.JAVA_STRING))
-						continue;
+						if (isIgnoringJavaStrings && type.equals(IJavaPartitions.JAVA_STRING))
+							continue;
 
-					if (!type.equals(IDocument.DEFAULT_CONTENT_TYPE) && !type.equals(IJavaPartitions.JAVA_CHARACTER))
-						checker.execute(listener, new SpellCheckIterator(document, partition, checker.getLocale()));
+						if (!type.equals(IDocument.DEFAULT_CONTENT_TYPE) && !type.equals(IJavaPartitions.JAVA_CHARACTER))
+							cache.check(document, partition, listener);
+					}
 				}
+				completed= true;
+			} catch (BadLocationException x) {
+				// ignore: the document has been changed in another thread and will be checked again
+			} catch (AssertionFailedException x) {
+				// ignore: the document has been changed in another thread and will be checked again
+			} finally {
+				cache.endChecking(completed);
 			}
-		} catch (BadLocationException x) {
-			// ignore: the document has been changed in another thread and will be checked again
-		} catch (AssertionFailedException x) {
-			// ignore: the document has been changed in another thread and will be checked again
 		}
 	}
 }
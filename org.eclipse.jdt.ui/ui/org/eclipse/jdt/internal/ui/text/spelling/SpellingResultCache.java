@@ -0,0 +1,318 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text.spelling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jface.preference.IPreferenceStore;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITypedRegion;
+
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.ui.PreferenceConstants;
+
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellEvent;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellEventListener;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.RankedWordProposal;
+
+
+/**
+ * Caches the spell events of the partitions of a document, so that only partitions whose content
+ * changed since the last check are spell checked again.
+ * <p>
+ * Partitions are identified by their type and a checksum of their content, which makes the cached
+ * results independent of edits before the partition: the events of an unchanged partition are
+ * replayed at its new offset. The cached results are dropped when the spell checker, its
+ * dictionaries or the spelling preferences change.
+ * </p>
+ * <p>
+ * Clients must synchronize on the cache while checking a document.
+ * </p>
+ *
+ * @since 3.14
+ */
+public final class SpellingResultCache {
+
+	/**
+	 * Identifies a partition by its type and content.
+	 */
+	private static final class PartitionKey {
+
+		private final String fType;
+		private final int fLength;
+		private final long fChecksum;
+
+		PartitionKey(String type, String content) {
+			fType= type;
+			fLength= content.length();
+			// 64-bit FNV-1a
+			long checksum= 0xcbf29ce484222325L;
+			for (int i= 0; i < fLength; i++) {
+				checksum^= content.charAt(i);
+				checksum*= 0x100000001b3L;
+			}
+			fChecksum= checksum;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (fChecksum ^ (fChecksum >>> 32)) ^ fLength;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof PartitionKey))
+				return false;
+			PartitionKey other= (PartitionKey) obj;
+			return fChecksum == other.fChecksum && fLength == other.fLength && fType.equals(other.fType);
+		}
+	}
+
+	/**
+	 * The spell events of a partition, relative to the offset at which it was checked.
+	 */
+	private static final class PartitionResult {
+
+		final int fOffset;
+		final ISpellEvent[] fEvents;
+
+		PartitionResult(int offset, ISpellEvent[] events) {
+			fOffset= offset;
+			fEvents= events;
+		}
+	}
+
+	/**
+	 * A cached spell event moved to the current offset of its partition.
+	 */
+	private static final class MovedSpellEvent implements ISpellEvent {
+
+		private final ISpellEvent fEvent;
+		private final int fDelta;
+
+		MovedSpellEvent(ISpellEvent event, int delta) {
+			fEvent= event;
+			fDelta= delta;
+		}
+
+		@Override
+		public int getBegin() {
+			return fEvent.getBegin() + fDelta;
+		}
+
+		@Override
+		public int getEnd() {
+			return fEvent.getEnd() + fDelta;
+		}
+
+		@Override
+		public Set<RankedWordProposal> getProposals() {
+			return fEvent.getProposals();
+		}
+
+		@Override
+		public String getWord() {
+			return fEvent.getWord();
+		}
+
+		@Override
+		public boolean isMatch() {
+			return fEvent.isMatch();
+		}
+
+		@Override
+		public boolean isStart() {
+			return fEvent.isStart();
+		}
+	}
+
+	/**
+	 * Forwards spell events and records them.
+	 */
+	private static final class RecordingListener implements ISpellEventListener {
+
+		private final ISpellEventListener fListener;
+		final List<ISpellEvent> fEvents= new ArrayList<>();
+
+		RecordingListener(ISpellEventListener listener) {
+			fListener= listener;
+		}
+
+		@Override
+		public void handle(ISpellEvent event) {
+			fEvents.add(event);
+			fListener.handle(event);
+		}
+	}
+
+	private static final ISpellEvent[] NO_EVENTS= new ISpellEvent[0];
+
+	private static final Map<IDocument, SpellingResultCache> fgCaches= Collections.synchronizedMap(new WeakHashMap<IDocument, SpellingResultCache>());
+
+	private static final AtomicInteger fgHits= new AtomicInteger();
+	private static final AtomicInteger fgMisses= new AtomicInteger();
+
+	/**
+	 * Returns the cache of the given document.
+	 *
+	 * @param document the document
+	 * @return the cache
+	 */
+	public static SpellingResultCache getCache(IDocument document) {
+		synchronized (fgCaches) {
+			SpellingResultCache cache= fgCaches.get(document);
+			if (cache == null) {
+				cache= new SpellingResultCache();
+				fgCaches.put(document, cache);
+			}
+			return cache;
+		}
+	}
+
+	/**
+	 * @return the number of partitions whose cached spell events were reused
+	 */
+	public static int getHitCount() {
+		return fgHits.get();
+	}
+
+	/**
+	 * @return the number of partitions that had to be spell checked
+	 */
+	public static int getMissCount() {
+		return fgMisses.get();
+	}
+
+	/**
+	 * Resets the hit and miss counts.
+	 */
+	public static void resetStatistics() {
+		fgHits.set(0);
+		fgMisses.set(0);
+	}
+
+	private ISpellChecker fChecker;
+	private int fCheckerStamp;
+	private int fSettingsStamp;
+
+	/** The results of the last completed check */
+	private Map<PartitionKey, PartitionResult> fResults= new HashMap<>();
+	/** The results of the running check */
+	private Map<PartitionKey, PartitionResult> fNewResults;
+
+	private SpellingResultCache() {
+	}
+
+	/**
+	 * Starts checking the given regions of the document.
+	 *
+	 * @param document the document
+	 * @param regions the regions that are going to be checked
+	 * @param checker the spell checker
+	 */
+	public void beginChecking(IDocument document, IRegion[] regions, ISpellChecker checker) {
+		int settingsStamp= computeSettingsStamp();
+		if (checker != fChecker || checker.getModificationStamp() != fCheckerStamp || settingsStamp != fSettingsStamp) {
+			fResults.clear();
+			fChecker= checker;
+			fCheckerStamp= checker.getModificationStamp();
+			fSettingsStamp= settingsStamp;
+		}
+
+		boolean wholeDocument= regions.length == 1 && regions[0].getOffset() == 0 && regions[0].getLength() == document.getLength();
+		// a check of the whole document replaces all results, which drops those of removed partitions
+		fNewResults= wholeDocument ? new HashMap<PartitionKey, PartitionResult>() : fResults;
+	}
+
+	/**
+	 * Spell checks the given partition, or replays its cached spell events if its content did not
+	 * change.
+	 *
+	 * @param document the document
+	 * @param partition the partition
+	 * @param listener the listener to notify
+	 * @throws BadLocationException if the partition is not in the document
+	 */
+	public void check(IDocument document, ITypedRegion partition, ISpellEventListener listener) throws BadLocationException {
+		PartitionKey key= new PartitionKey(partition.getType(), document.get(partition.getOffset(), partition.getLength()));
+		PartitionResult result= fResults.get(key);
+		if (result == null && fNewResults != fResults)
+			result= fNewResults.get(key);
+
+		if (result != null) {
+			fgHits.incrementAndGet();
+			int delta= partition.getOffset() - result.fOffset;
+			for (int i= 0; i < result.fEvents.length; i++)
+				listener.handle(delta == 0 ? result.fEvents[i] : new MovedSpellEvent(result.fEvents[i], delta));
+		} else {
+			fgMisses.incrementAndGet();
+			RecordingListener recorder= new RecordingListener(listener);
+			fChecker.execute(recorder, new SpellCheckIterator(document, partition, fChecker.getLocale()));
+			ISpellEvent[] events= recorder.fEvents.isEmpty() ? NO_EVENTS : recorder.fEvents.toArray(new ISpellEvent[recorder.fEvents.size()]);
+			result= new PartitionResult(partition.getOffset(), events);
+		}
+		fNewResults.put(key, result);
+	}
+
+	/**
+	 * Ends the check started with {@link #beginChecking(IDocument, IRegion[], ISpellChecker)}.
+	 *
+	 * @param completed <code>true</code> if all partitions have been checked
+	 */
+	public void endChecking(boolean completed) {
+		if (fNewResults != fResults) {
+			if (completed)
+				fResults= fNewResults;
+			else
+				fResults.putAll(fNewResults);
+		}
+		fNewResults= null;
+	}
+
+	/**
+	 * Computes a stamp of the preferences that influence the spell events.
+	 *
+	 * @return the stamp
+	 */
+	private static int computeSettingsStamp() {
+		IPreferenceStore store= PreferenceConstants.getPreferenceStore();
+		String[] keys= {
+				PreferenceConstants.SPELLING_IGNORE_DIGITS,
+				PreferenceConstants.SPELLING_IGNORE_MIXED,
+				PreferenceConstants.SPELLING_IGNORE_SENTENCE,
+				PreferenceConstants.SPELLING_IGNORE_UPPER,
+				PreferenceConstants.SPELLING_IGNORE_URLS,
+				PreferenceConstants.SPELLING_IGNORE_NON_LETTERS,
+				PreferenceConstants.SPELLING_IGNORE_SINGLE_LETTERS
+		};
+		int stamp= 0;
+		for (int i= 0; i < keys.length; i++) {
+			if (store.getBoolean(keys[i]))
+				stamp|= 1 << i;
+		}
+		stamp= 31 * stamp + store.getInt(PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD);
+		// the task tags are part of the dictionaries
+		String taskTags= JavaCore.getOption(JavaCore.COMPILER_TASK_TAGS);
+		return 31 * stamp + (taskTags != null ? taskTags.hashCode() : 0);
+	}
+}
@@ -11,6 +11,7 @@
 package org.eclipse.jdt.internal.ui.text.spelling.engine;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -18,6 +19,7 @@ import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLConnection;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CodingErrorAction;
@@ -27,7 +29,9 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.eclipse.core.runtime.IStatus;
@@ -47,6 +51,11 @@ import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
 
 /**
  * Partial implementation of a spell dictionary.
+ * <p>
+ * Once loaded, the words are kept in a {@link CompactSpellDictionaryIndex}. Dictionaries that
+ * provide an {@link #getIndexFile() index file} persist the index and map it from disk the next
+ * time they are loaded, as long as the word list did not change.
+ * </p>
  *
  * @since 3.0
  */
@@ -122,9 +131,15 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	/** The phonetic distance algorithm */
 	private IPhoneticDistanceAlgorithm fDistanceAlgorithm= new DefaultPhoneticDistanceAlgorithm();
 
-	/** The mapping from phonetic hashes to word lists */
+	/** The mapping from phonetic hashes to word lists for words not yet in the compact index */
 	private final Map<ByteArrayWrapper, Object> fHashBuckets= new HashMap<>(getInitialSize(), LOAD_FACTOR);
 
+	/**
+	 * The compact index of the loaded words
+	 * @since 3.14
+	 */
+	private volatile CompactSpellDictionaryIndex fIndex= CompactSpellDictionaryIndex.EMPTY;
+
 	/** The phonetic hash provider */
 	private IPhoneticHashProvider fHashProvider= new DefaultPhoneticHashProvider();
 
@@ -153,21 +168,45 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	}
 
 	/**
-	 * Returns all candidates with the same phonetic hash.
+	 * Adds the candidates with the same phonetic hash to the given list.
 	 *
 	 * @param hash
 	 *                   The hash to retrieve the candidates of
-	 * @return Array of candidates for the phonetic hash
+	 * @param candidates
+	 *                   The list to add the candidates to
+	 * @param limit
+	 *                   The maximal number of candidates to add
+	 * @since 3.14
 	 */
-	protected final Object getCandidates(final String hash) {
-		ByteArrayWrapper hashBytes;
+	private void collectCandidates(final String hash, final List<String> candidates, final int limit) {
+		CompactSpellDictionaryIndex index= fIndex;
+		int bucket= index.findBucket(hash);
+		if (bucket >= 0) {
+			StringBuffer buffer= new StringBuffer(BUFFER_CAPACITY);
+			for (int i= index.getFirstWord(bucket), end= index.getEndWord(bucket); i < end && candidates.size() < limit; i++) {
+				buffer.setLength(0);
+				index.getWord(i, buffer);
+				candidates.add(buffer.toString());
+			}
+		}
+
+		if (fHashBuckets.isEmpty() || candidates.size() >= limit)
+			return;
+
+		Object bucketWords;
 		try {
-			hashBytes= new ByteArrayWrapper(hash.getBytes(UTF_8));
+			bucketWords= fHashBuckets.get(new ByteArrayWrapper(hash.getBytes(UTF_8)));
+			if (bucketWords instanceof byte[]) {
+				candidates.add(new String((byte[])bucketWords, UTF_8));
+			} else if (bucketWords != null) {
+				@SuppressWarnings("unchecked")
+				final ArrayList<byte[]> candidateList= (ArrayList<byte[]>)bucketWords;
+				for (int i= 0; i < candidateList.size() && candidates.size() < limit; i++)
+					candidates.add(new String(candidateList.get(i), UTF_8));
+			}
 		} catch (UnsupportedEncodingException e) {
 			JavaPlugin.log(e);
-			return null;
 		}
-		return fHashBuckets.get(hashBytes);
 	}
 
 	/**
@@ -191,44 +230,16 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		final StringBuffer buffer= new StringBuffer(BUFFER_CAPACITY);
 		final HashSet<RankedWordProposal> result= new HashSet<>(BUCKET_CAPACITY * hashs.size());
 
+		final ArrayList<String> candidates= new ArrayList<>(BUCKET_CAPACITY);
 		for (int index= 0; index < hashs.size(); index++) {
 
 			hash= hashs.get(index);
 
-			final Object candidates= getCandidates(hash);
-			if (candidates == null)
-				continue;
-			else if (candidates instanceof byte[]) {
-				String candidate;
-				try {
-					candidate= new String((byte[])candidates, UTF_8);
-				} catch (UnsupportedEncodingException e) {
-					JavaPlugin.log(e);
-					return result;
-				}
-				distance= fDistanceAlgorithm.getDistance(word, candidate);
-				if (distance < DISTANCE_THRESHOLD) {
-					buffer.setLength(0);
-					buffer.append(candidate);
-					if (sentence)
-						buffer.setCharAt(0, Character.toUpperCase(buffer.charAt(0)));
-					result.add(new RankedWordProposal(buffer.toString(), -distance));
-				}
-				continue;
-			}
+			candidates.clear();
+			collectCandidates(hash, candidates, 500); // see https://bugs.eclipse.org/bugs/show_bug.cgi?id=195357
+			for (int offset= 0; offset < candidates.size(); offset++) {
 
-			@SuppressWarnings("unchecked")
-			final ArrayList<byte[]> candidateList= (ArrayList<byte[]>)candidates;
-			int candidateSize= Math.min(500, candidateList.size()); // see https://bugs.eclipse.org/bugs/show_bug.cgi?id=195357
-			for (int offset= 0; offset < candidateSize; offset++) {
-
-				String candidate;
-				try {
-					candidate= new String(candidateList.get(offset), UTF_8);
-				} catch (UnsupportedEncodingException e) {
-					JavaPlugin.log(e);
-					return result;
-				}
+				final String candidate= candidates.get(offset);
 				distance= fDistanceAlgorithm.getDistance(word, candidate);
 
 				if (distance < DISTANCE_THRESHOLD) {
@@ -266,37 +277,12 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 
 		StringBuffer buffer= new StringBuffer(BUFFER_CAPACITY);
 
-		final Object candidates= getCandidates(fHashProvider.getHash(word));
-		if (candidates == null)
-			return;
-		else if (candidates instanceof byte[]) {
-			String candidate;
-			try {
-				candidate= new String((byte[])candidates, UTF_8);
-			} catch (UnsupportedEncodingException e) {
-				JavaPlugin.log(e);
-				return;
-			}
-			distance= fDistanceAlgorithm.getDistance(word, candidate);
-			buffer.append(candidate);
-			if (sentence)
-				buffer.setCharAt(0, Character.toUpperCase(buffer.charAt(0)));
-			result.add(new RankedWordProposal(buffer.toString(), -distance));
-			return;
-		}
-
-		@SuppressWarnings("unchecked")
-		final ArrayList<byte[]> candidateList= (ArrayList<byte[]>)candidates;
-		final ArrayList<RankedWordProposal> matches= new ArrayList<>(candidateList.size());
+		final ArrayList<String> candidates= new ArrayList<>(BUCKET_CAPACITY);
+		collectCandidates(fHashProvider.getHash(word), candidates, Integer.MAX_VALUE);
+		final ArrayList<RankedWordProposal> matches= new ArrayList<>(candidates.size());
 
-		for (int index= 0; index < candidateList.size(); index++) {
-			String candidate;
-			try {
-				candidate= new String(candidateList.get(index), UTF_8);
-			} catch (UnsupportedEncodingException e) {
-				JavaPlugin.log(e);
-				return;
-			}
+		for (int index= 0; index < candidates.size(); index++) {
+			final String candidate= candidates.get(index);
 			distance= fDistanceAlgorithm.getDistance(word, candidate);
 
 			if (distance <= minimum) {
@@ -325,7 +311,7 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	 * @since 3.3
 	 */
 	protected boolean isEmpty() {
-		return fHashBuckets.size() == 0;
+		return fIndex.getWordCount() == 0 && fHashBuckets.size() == 0;
 	}
 
 	/**
@@ -349,19 +335,7 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	@Override
 	public Set<RankedWordProposal> getProposals(final String word, final boolean sentence) {
 
-		try {
-
-			if (!fLoaded) {
-				synchronized (this) {
-					fLoaded= load(getURL());
-					if (fLoaded)
-						compact();
-				}
-			}
-
-		} catch (MalformedURLException exception) {
-			// Do nothing
-		}
+		ensureLoaded();
 
 		final String hash= fHashProvider.getHash(word);
 		final char[] mutators= fHashProvider.getMutators();
@@ -504,46 +478,33 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	@Override
 	public boolean isCorrect(String word) {
 		word= stripNonLetters(word);
-		try {
-
-			if (!fLoaded) {
-				synchronized (this) {
-					fLoaded= load(getURL());
-					if (fLoaded)
-						compact();
-				}
-			}
-
-		} catch (MalformedURLException exception) {
-			// Do nothing
-		}
+		ensureLoaded();
 
-		final Object candidates= getCandidates(fHashProvider.getHash(word));
-		if (candidates == null)
-			return false;
-		else if (candidates instanceof byte[]) {
-			String candidate;
-			try {
-				candidate= new String((byte[])candidates, UTF_8);
-			} catch (UnsupportedEncodingException e) {
-				JavaPlugin.log(e);
-				return false;
-			}
-			if (candidate.equals(word) || candidate.equals(word.toLowerCase()))
-				return true;
+		final String hash= fHashProvider.getHash(word);
+		if (fIndex.contains(hash, word))
+			return true;
+		if (fHashBuckets.isEmpty())
 			return false;
-		}
-		@SuppressWarnings("unchecked")
-		final ArrayList<byte[]> candidateList= (ArrayList<byte[]>)candidates;
+
 		byte[] wordBytes;
 		byte[] lowercaseWordBytes;
+		Object candidates;
 		try {
+			candidates= fHashBuckets.get(new ByteArrayWrapper(hash.getBytes(UTF_8)));
+			if (candidates == null)
+				return false;
 			wordBytes= word.getBytes(UTF_8);
 			lowercaseWordBytes= word.toLowerCase().getBytes(UTF_8);
 		} catch (UnsupportedEncodingException e) {
 			JavaPlugin.log(e);
 			return false;
 		}
+		if (candidates instanceof byte[]) {
+			byte[] candidate= (byte[])candidates;
+			return Arrays.equals(candidate, wordBytes) || Arrays.equals(candidate, lowercaseWordBytes);
+		}
+		@SuppressWarnings("unchecked")
+		final ArrayList<byte[]> candidateList= (ArrayList<byte[]>)candidates;
 		for (int index= 0; index < candidateList.size(); index++) {
 			byte[] candidate= candidateList.get(index);
 			if (Arrays.equals(candidate, wordBytes) || Arrays.equals(candidate, lowercaseWordBytes)) {
@@ -553,6 +514,89 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		return false;
 	}
 
+	/**
+	 * Loads the dictionary if it is not loaded yet, preferably from its persisted index.
+	 *
+	 * @since 3.14
+	 */
+	private void ensureLoaded() {
+		try {
+
+			if (!fLoaded) {
+				synchronized (this) {
+					URL url= getURL();
+					fLoaded= loadIndex(url) || load(url);
+					if (fLoaded)
+						compact(url);
+				}
+			}
+
+		} catch (MalformedURLException exception) {
+			// Do nothing
+		}
+	}
+
+	/**
+	 * Returns the file in which the compact index of this dictionary is persisted.
+	 * <p>
+	 * Subclasses may override. The default implementation returns <code>null</code>, which
+	 * means that the index is rebuilt each time the dictionary is loaded.
+	 * </p>
+	 *
+	 * @return the index file or <code>null</code> if the index is not persisted
+	 * @since 3.14
+	 */
+	protected File getIndexFile() {
+		return null;
+	}
+
+	/**
+	 * Maps the persisted index of the given word list if it is up to date.
+	 *
+	 * @param url the URL of the word list
+	 * @return <code>true</code> if the index could be used
+	 * @since 3.14
+	 */
+	private boolean loadIndex(URL url) {
+		if (!fMustLoad || url == null)
+			return false;
+		File indexFile= getIndexFile();
+		if (indexFile == null)
+			return false;
+		long[] stamp= getSourceStamp(url);
+		if (stamp == null)
+			return false;
+		CompactSpellDictionaryIndex index= CompactSpellDictionaryIndex.map(indexFile, stamp[0], stamp[1], getEncoding().hashCode());
+		if (index == null)
+			return false;
+		fIndex= index;
+		fMustLoad= false;
+		return true;
+	}
+
+	/**
+	 * Returns the length and time stamp of the given word list.
+	 *
+	 * @param url the URL of the word list
+	 * @return the length and the time stamp, or <code>null</code> if they are not known
+	 * @since 3.14
+	 */
+	private static long[] getSourceStamp(URL url) {
+		if ("file".equals(url.getProtocol())) { //$NON-NLS-1$
+			File file= new File(url.getPath());
+			return file.isFile() ? new long[] { file.length(), file.lastModified() } : null;
+		}
+		try {
+			URLConnection connection= url.openConnection();
+			long length= connection.getContentLengthLong();
+			long lastModified= connection.getLastModified();
+			connection.getInputStream().close();
+			return length > 0 && lastModified > 0 ? new long[] { length, lastModified } : null;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
 	@Override
 	public void setStripNonLetters(boolean state) {
 		fIsStrippingNonLetters= state;
@@ -587,7 +631,7 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 
 	@Override
 	public synchronized final boolean isLoaded() {
-		return fLoaded || fHashBuckets.size() > 0;
+		return fLoaded || !isEmpty();
 	}
 
 	/**
@@ -671,17 +715,45 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	}
 
 	/**
-	 * Compacts the dictionary.
+	 * Compacts the dictionary by moving the loaded words into the compact index.
 	 *
+	 * @param url the URL of the word list that has been loaded
 	 * @since 3.3.
 	 */
-	private void compact() {
-		Iterator<Object> iter= fHashBuckets.values().iterator();
-		while (iter.hasNext()) {
-			Object element= iter.next();
-			if (element instanceof ArrayList)
-				((ArrayList<?>)element).trimToSize();
+	private void compact(URL url) {
+		if (fHashBuckets.isEmpty())
+			return;
+
+		if (fIndex.getWordCount() > 0) {
+			Iterator<Object> iter= fHashBuckets.values().iterator();
+			while (iter.hasNext()) {
+				Object element= iter.next();
+				if (element instanceof ArrayList)
+					((ArrayList<?>)element).trimToSize();
+			}
+			return;
+		}
+
+		List<CompactSpellDictionaryIndex.Bucket> buckets= new ArrayList<>(fHashBuckets.size());
+		for (Iterator<Entry<ByteArrayWrapper, Object>> iter= fHashBuckets.entrySet().iterator(); iter.hasNext();) {
+			Entry<ByteArrayWrapper, Object> entry= iter.next();
+			List<byte[]> words;
+			if (entry.getValue() instanceof byte[]) {
+				words= Arrays.asList((byte[])entry.getValue());
+			} else {
+				@SuppressWarnings("unchecked")
+				List<byte[]> list= (List<byte[]>)entry.getValue();
+				words= list;
+			}
+			buckets.add(new CompactSpellDictionaryIndex.Bucket(entry.getKey().byteArray, words));
 		}
+
+		long[] stamp= url != null ? getSourceStamp(url) : null;
+		File indexFile= stamp != null ? getIndexFile() : null;
+		if (stamp == null)
+			stamp= new long[2];
+		fIndex= CompactSpellDictionaryIndex.build(buckets, stamp[0], stamp[1], indexFile != null ? getEncoding().hashCode() : 0, indexFile);
+		fHashBuckets.clear();
 	}
 
 	/**
@@ -709,6 +781,7 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		fLoaded= false;
 		fMustLoad= true;
 		fHashBuckets.clear();
+		fIndex= CompactSpellDictionaryIndex.EMPTY;
 	}
 
 	@Override
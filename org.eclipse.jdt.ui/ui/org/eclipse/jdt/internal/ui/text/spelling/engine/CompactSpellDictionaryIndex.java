@@ -0,0 +1,389 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text.spelling.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+
+/**
+ * Immutable, compact index from phonetic hashes to words.
+ * <p>
+ * All hashes and words are stored UTF-8 encoded in a single {@link ByteBuffer}, which is either
+ * a heap buffer or a read-only memory mapped file. The hashes are sorted, so a bucket is found
+ * by binary search. Lookups compare the query strings directly against the encoded bytes and do
+ * not allocate.
+ * </p>
+ * <p>
+ * Layout of the buffer:
+ * </p>
+ * <pre>
+ * int magic, int version, long sourceLength, long sourceTimeStamp, int encodingHash
+ * int bucketCount, int wordCount, int hashDataLength, int wordDataLength
+ * int[bucketCount + 1] hashOffsets
+ * int[bucketCount + 1] bucketStarts (index of the first word of each bucket)
+ * int[wordCount + 1] wordOffsets
+ * byte[hashDataLength] hashData
+ * byte[wordDataLength] wordData
+ * </pre>
+ *
+ * @since 3.14
+ */
+final class CompactSpellDictionaryIndex {
+
+	/**
+	 * A bucket of words with the same phonetic hash.
+	 */
+	static final class Bucket {
+
+		final byte[] fHash;
+		final List<byte[]> fWords;
+
+		Bucket(byte[] hash, List<byte[]> words) {
+			fHash= hash;
+			fWords= words;
+		}
+	}
+
+	private static final int MAGIC= 0x4A535044; // "JSPD"
+	private static final int VERSION= 1;
+	private static final int HEADER_SIZE= 4 + 4 + 8 + 8 + 4 + 4 * 4;
+
+	/** The empty index */
+	static final CompactSpellDictionaryIndex EMPTY= build(Arrays.<Bucket> asList(), 0, 0, 0, null);
+
+	private final ByteBuffer fBuffer;
+	private final int fBucketCount;
+	private final int fWordCount;
+	private final int fHashOffsetsStart;
+	private final int fBucketStartsStart;
+	private final int fWordOffsetsStart;
+	private final int fHashDataStart;
+	private final int fWordDataStart;
+
+	private CompactSpellDictionaryIndex(ByteBuffer buffer) {
+		fBuffer= buffer;
+		fBucketCount= buffer.getInt(28);
+		fWordCount= buffer.getInt(32);
+		int hashDataLength= buffer.getInt(36);
+		fHashOffsetsStart= HEADER_SIZE;
+		fBucketStartsStart= fHashOffsetsStart + 4 * (fBucketCount + 1);
+		fWordOffsetsStart= fBucketStartsStart + 4 * (fBucketCount + 1);
+		fHashDataStart= fWordOffsetsStart + 4 * (fWordCount + 1);
+		fWordDataStart= fHashDataStart + hashDataLength;
+	}
+
+	/**
+	 * Builds an index from the given buckets.
+	 *
+	 * @param buckets the buckets, in any order
+	 * @param sourceLength the length of the word list the buckets were read from
+	 * @param sourceTimeStamp the time stamp of the word list the buckets were read from
+	 * @param encodingHash the hash code of the encoding name of the word list
+	 * @param file the file to persist the index to and to map it from, or <code>null</code> to
+	 *            keep it on the heap
+	 * @return the index
+	 */
+	static CompactSpellDictionaryIndex build(Collection<Bucket> buckets, long sourceLength, long sourceTimeStamp, int encodingHash, File file) {
+		Bucket[] sorted= buckets.toArray(new Bucket[buckets.size()]);
+		Arrays.sort(sorted, new Comparator<Bucket>() {
+			@Override
+			public int compare(Bucket b1, Bucket b2) {
+				return compareBytes(b1.fHash, b2.fHash);
+			}
+		});
+
+		int wordCount= 0;
+		int hashDataLength= 0;
+		int wordDataLength= 0;
+		for (int i= 0; i < sorted.length; i++) {
+			hashDataLength+= sorted[i].fHash.length;
+			List<byte[]> words= sorted[i].fWords;
+			wordCount+= words.size();
+			for (int k= 0; k < words.size(); k++)
+				wordDataLength+= words.get(k).length;
+		}
+
+		int size= HEADER_SIZE + 8 * (sorted.length + 1) + 4 * (wordCount + 1) + hashDataLength + wordDataLength;
+		ByteBuffer buffer= ByteBuffer.allocate(size);
+		buffer.putInt(MAGIC).putInt(VERSION).putLong(sourceLength).putLong(sourceTimeStamp).putInt(encodingHash);
+		buffer.putInt(sorted.length).putInt(wordCount).putInt(hashDataLength).putInt(wordDataLength);
+
+		int offset= 0;
+		for (int i= 0; i < sorted.length; i++) {
+			buffer.putInt(offset);
+			offset+= sorted[i].fHash.length;
+		}
+		buffer.putInt(offset);
+
+		int wordIndex= 0;
+		for (int i= 0; i < sorted.length; i++) {
+			buffer.putInt(wordIndex);
+			wordIndex+= sorted[i].fWords.size();
+		}
+		buffer.putInt(wordIndex);
+
+		offset= 0;
+		for (int i= 0; i < sorted.length; i++) {
+			List<byte[]> words= sorted[i].fWords;
+			for (int k= 0; k < words.size(); k++) {
+				buffer.putInt(offset);
+				offset+= words.get(k).length;
+			}
+		}
+		buffer.putInt(offset);
+
+		for (int i= 0; i < sorted.length; i++)
+			buffer.put(sorted[i].fHash);
+		for (int i= 0; i < sorted.length; i++) {
+			List<byte[]> words= sorted[i].fWords;
+			for (int k= 0; k < words.size(); k++)
+				buffer.put(words.get(k));
+		}
+		buffer.flip();
+
+		if (file != null) {
+			CompactSpellDictionaryIndex mapped= persist(buffer, file);
+			if (mapped != null)
+				return mapped;
+		}
+		return new CompactSpellDictionaryIndex(buffer);
+	}
+
+	private static CompactSpellDictionaryIndex persist(ByteBuffer buffer, File file) {
+		File temp= new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+		try {
+			File parent= file.getParentFile();
+			if (parent != null && !parent.exists())
+				parent.mkdirs();
+			try (RandomAccessFile out= new RandomAccessFile(temp, "rw")) { //$NON-NLS-1$
+				out.setLength(0);
+				FileChannel channel= out.getChannel();
+				while (buffer.hasRemaining())
+					channel.write(buffer);
+			}
+			if (file.exists() && !file.delete())
+				return null;
+			if (!temp.renameTo(file))
+				return null;
+		} catch (IOException e) {
+			temp.delete();
+			return null;
+		} finally {
+			buffer.rewind();
+		}
+		return map(file, buffer.getLong(8), buffer.getLong(16), buffer.getInt(24));
+	}
+
+	/**
+	 * Maps a persisted index if it was built from the word list with the given properties.
+	 *
+	 * @param file the index file
+	 * @param sourceLength the length of the word list
+	 * @param sourceTimeStamp the time stamp of the word list
+	 * @param encodingHash the hash code of the encoding name of the word list
+	 * @return the index, or <code>null</code> if the file does not exist or is out of date
+	 */
+	static CompactSpellDictionaryIndex map(File file, long sourceLength, long sourceTimeStamp, int encodingHash) {
+		if (!file.isFile() || file.length() < HEADER_SIZE)
+			return null;
+
+		try (RandomAccessFile in= new RandomAccessFile(file, "r")) { //$NON-NLS-1$
+			ByteBuffer buffer= in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length());
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+				return null;
+			if (buffer.getLong(8) != sourceLength || buffer.getLong(16) != sourceTimeStamp || buffer.getInt(24) != encodingHash)
+				return null;
+			return new CompactSpellDictionaryIndex(buffer);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the number of words in this index
+	 */
+	int getWordCount() {
+		return fWordCount;
+	}
+
+	/**
+	 * Finds the bucket for the given phonetic hash.
+	 *
+	 * @param hash the phonetic hash
+	 * @return the index of the bucket, or <code>-1</code> if there is no such bucket
+	 */
+	int findBucket(String hash) {
+		int low= 0;
+		int high= fBucketCount - 1;
+		while (low <= high) {
+			int mid= (low + high) >>> 1;
+			int start= fHashDataStart + fBuffer.getInt(fHashOffsetsStart + 4 * mid);
+			int end= fHashDataStart + fBuffer.getInt(fHashOffsetsStart + 4 * (mid + 1));
+			int cmp= compare(start, end, hash, false);
+			if (cmp < 0)
+				low= mid + 1;
+			else if (cmp > 0)
+				high= mid - 1;
+			else
+				return mid;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param bucket the index of a bucket
+	 * @return the index of the first word in the bucket
+	 */
+	int getFirstWord(int bucket) {
+		return fBuffer.getInt(fBucketStartsStart + 4 * bucket);
+	}
+
+	/**
+	 * @param bucket the index of a bucket
+	 * @return the index after the last word in the bucket
+	 */
+	int getEndWord(int bucket) {
+		return fBuffer.getInt(fBucketStartsStart + 4 * (bucket + 1));
+	}
+
+	/**
+	 * Tells whether the word with the given index is equal to the given string.
+	 *
+	 * @param wordIndex the index of the word
+	 * @param word the word to compare with
+	 * @param toLowerCase <code>true</code> to compare with the lower case variant of
+	 *            <code>word</code>
+	 * @return <code>true</code> if the words are equal
+	 */
+	boolean equals(int wordIndex, String word, boolean toLowerCase) {
+		int start= fWordDataStart + fBuffer.getInt(fWordOffsetsStart + 4 * wordIndex);
+		int end= fWordDataStart + fBuffer.getInt(fWordOffsetsStart + 4 * (wordIndex + 1));
+		return compare(start, end, word, toLowerCase) == 0;
+	}
+
+	/**
+	 * Tells whether the given bucket contains the given word or its lower case variant.
+	 *
+	 * @param hash the phonetic hash of the word
+	 * @param word the word
+	 * @return <code>true</code> if the word is contained
+	 */
+	boolean contains(String hash, String word) {
+		int bucket= findBucket(hash);
+		if (bucket < 0)
+			return false;
+		for (int i= getFirstWord(bucket), end= getEndWord(bucket); i < end; i++) {
+			if (equals(i, word, false) || equals(i, word, true))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Decodes the word with the given index.
+	 *
+	 * @param wordIndex the index of the word
+	 * @param buffer the buffer to append the word to
+	 */
+	void getWord(int wordIndex, StringBuffer buffer) {
+		int position= fWordDataStart + fBuffer.getInt(fWordOffsetsStart + 4 * wordIndex);
+		int end= fWordDataStart + fBuffer.getInt(fWordOffsetsStart + 4 * (wordIndex + 1));
+		while (position < end) {
+			int codePoint= decode(position);
+			position+= getEncodedLength(fBuffer.get(position));
+			buffer.appendCodePoint(codePoint);
+		}
+	}
+
+	/**
+	 * Compares the UTF-8 encoded string between the given buffer positions with the given string
+	 * in code point order.
+	 *
+	 * @param start the start position in the buffer
+	 * @param end the end position in the buffer
+	 * @param string the string
+	 * @param toLowerCase <code>true</code> to compare with the lower case variant of
+	 *            <code>string</code>
+	 * @return a negative number, zero, or a positive number as the encoded string is less than,
+	 *         equal to, or greater than the given string
+	 */
+	private int compare(int start, int end, String string, boolean toLowerCase) {
+		int position= start;
+		int index= 0;
+		int length= string.length();
+		while (position < end && index < length) {
+			int encoded= decode(position);
+			int codePoint= string.codePointAt(index);
+			if (toLowerCase)
+				codePoint= Character.toLowerCase(codePoint);
+			if (encoded != codePoint)
+				return encoded - codePoint;
+			position+= getEncodedLength(fBuffer.get(position));
+			index+= Character.charCount(string.codePointAt(index));
+		}
+		if (position < end)
+			return 1;
+		if (index < length)
+			return -1;
+		return 0;
+	}
+
+	private int decode(int position) {
+		int b= fBuffer.get(position) & 0xFF;
+		switch (getEncodedLength((byte) b)) {
+			case 1:
+				return b;
+			case 2:
+				return ((b & 0x1F) << 6) | (fBuffer.get(position + 1) & 0x3F);
+			case 3:
+				return ((b & 0x0F) << 12) | ((fBuffer.get(position + 1) & 0x3F) << 6) | (fBuffer.get(position + 2) & 0x3F);
+			default:
+				return ((b & 0x07) << 18) | ((fBuffer.get(position + 1) & 0x3F) << 12) | ((fBuffer.get(position + 2) & 0x3F) << 6) | (fBuffer.get(position + 3) & 0x3F);
+		}
+	}
+
+	private static int getEncodedLength(byte lead) {
+		int b= lead & 0xFF;
+		if (b < 0x80)
+			return 1;
+		if (b < 0xE0)
+			return 2;
+		if (b < 0xF0)
+			return 3;
+		return 4;
+	}
+
+	/**
+	 * Compares byte arrays as unsigned bytes, which for UTF-8 encoded strings is code point
+	 * order.
+	 *
+	 * @param a the first array
+	 * @param b the second array
+	 * @return the comparison result
+	 */
+	static int compareBytes(byte[] a, byte[] b) {
+		int length= Math.min(a.length, b.length);
+		for (int i= 0; i < length; i++) {
+			int cmp= (a[i] & 0xFF) - (b[i] & 0xFF);
+			if (cmp != 0)
+				return cmp;
+		}
+		return a.length - b.length;
+	}
+}
@@ -143,6 +143,12 @@ public class DefaultSpellChecker implements ISpellChecker {
 	 */
 	private Locale fLocale;
 
+	/**
+	 * The modification stamp of this checker.
+	 * @since 3.14
+	 */
+	private volatile int fModificationStamp;
+
 	/**
 	 * Creates a new default spell checker.
 	 *
@@ -161,6 +167,7 @@ public class DefaultSpellChecker implements ISpellChecker {
 	public final void addDictionary(final ISpellDictionary dictionary) {
 		// synchronizing is necessary as this is a write access
 		fDictionaries.add(dictionary);
+		fModificationStamp++;
 	}
 
 	@Override
@@ -197,6 +204,7 @@ public class DefaultSpellChecker implements ISpellChecker {
 			if (dictionary.acceptsWords())
 				dictionary.addWord(addable);
 		}
+		fModificationStamp++;
 
 	}
 
@@ -204,6 +212,7 @@ public class DefaultSpellChecker implements ISpellChecker {
 	public final void checkWord(final String word) {
 		// synchronizing is necessary as this is a write access
 		fIgnored.remove(word.toLowerCase());
+		fModificationStamp++;
 	}
 
 	@Override
@@ -287,6 +296,7 @@ public class DefaultSpellChecker implements ISpellChecker {
 	public final void ignoreWord(final String word) {
 		// synchronizing is necessary as this is a write access
 		fIgnored.add(word.toLowerCase());
+		fModificationStamp++;
 	}
 
 	@Override
@@ -314,10 +324,16 @@ public class DefaultSpellChecker implements ISpellChecker {
 	public final void removeDictionary(final ISpellDictionary dictionary) {
 		// synchronizing is necessary as this is a write access
 		fDictionaries.remove(dictionary);
+		fModificationStamp++;
 	}
 
 	@Override
 	public Locale getLocale() {
 		return fLocale;
 	}
+
+	@Override
+	public int getModificationStamp() {
+		return fModificationStamp;
+	}
 }
@@ -107,4 +107,13 @@ public interface ISpellChecker {
 	 * @since 3.3
 	 */
 	Locale getLocale();
+
+	/**
+	 * Returns a stamp that changes whenever the result of spell checking may change, i.e. when
+	 * dictionaries are added or removed or when words are added, ignored or checked again.
+	 *
+	 * @return the modification stamp
+	 * @since 3.14
+	 */
+	int getModificationStamp();
 }
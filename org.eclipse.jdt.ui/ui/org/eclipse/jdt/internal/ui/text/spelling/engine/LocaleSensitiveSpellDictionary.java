@@ -10,10 +10,13 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.text.spelling.engine;
 
+import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Locale;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
 
 /**
  * Platform wide read-only locale sensitive dictionary for spell checking.
@@ -55,6 +58,17 @@ public class LocaleSensitiveSpellDictionary extends AbstractSpellDictionary {
 		return new URL(fLocation, fLocale.toString() + ".dictionary");  //$NON-NLS-1$
 	}
 
+	@Override
+	protected File getIndexFile() {
+		JavaPlugin plugin= JavaPlugin.getDefault();
+		if (plugin == null)
+			return null;
+		File directory= plugin.getStateLocation().append("spelling").toFile(); //$NON-NLS-1$
+		if (!directory.isDirectory() && !directory.mkdirs())
+			return null;
+		return new File(directory, fLocale.toString() + ".index"); //$NON-NLS-1$
+	}
+
 	@Override
 	protected int getInitialSize() {
 		return 32 * 1024;
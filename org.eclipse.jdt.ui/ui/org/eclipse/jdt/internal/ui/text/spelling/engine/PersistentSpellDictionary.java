@@ -11,6 +11,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.text.spelling.engine;
 
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URL;
@@ -88,4 +89,9 @@ public class PersistentSpellDictionary extends AbstractSpellDictionary {
 	protected final URL getURL() {
 		return fLocation;
 	}
+
+	@Override
+	protected File getIndexFile() {
+		return new File(fLocation.getPath() + ".index"); //$NON-NLS-1$
+	}
 }
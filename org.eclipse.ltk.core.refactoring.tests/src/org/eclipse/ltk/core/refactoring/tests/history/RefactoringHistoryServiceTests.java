@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.ltk.core.refactoring.tests.history;
 
+import java.io.File;
+import java.io.RandomAccessFile;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
@@ -36,6 +38,7 @@ import org.eclipse.ltk.core.refactoring.history.RefactoringExecutionEvent;
 import org.eclipse.ltk.core.refactoring.history.RefactoringHistory;
 import org.eclipse.ltk.core.refactoring.history.RefactoringHistoryEvent;
 import org.eclipse.ltk.core.refactoring.tests.util.SimpleTestProject;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringPreferenceConstants;
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringDescriptorProxyAdapter;
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryImplementation;
@@ -698,4 +701,128 @@ public class RefactoringHistoryServiceTests extends TestCase {
 		assertDescendingSortOrder(proxies);
 	}
 
-}
\ No newline at end of file
+
+	private File[] getIndexFiles() {
+		File folder= RefactoringCorePlugin.getDefault().getStateLocation().append(".refactoringIndices").toFile();
+		File[] files= folder.listFiles();
+		assertNotNull("Refactoring history indices should exist", files);
+		assertTrue("Refactoring history indices should exist", files.length > 0);
+		return files;
+	}
+
+	private void assertHistoryReadFromIndex() throws CoreException {
+		RefactoringHistoryService service= RefactoringHistoryService.getInstance();
+		service.releaseHistoryIndices();
+		RefactoringHistory history= service.getProjectHistory(fProject.getProject(), STAMP_FACTOR, STAMP_FACTOR * 5, RefactoringDescriptor.NONE, null);
+		RefactoringDescriptorProxy[] proxies= history.getDescriptors();
+		assertEquals("Refactoring history has wrong size", 5, proxies.length);
+		assertDescendingSortOrder(proxies);
+		assertEquals("A mock description number 4", proxies[0].getDescription());
+		history= service.getProjectHistory(fProject.getProject(), null);
+		assertEquals("Refactoring history has wrong size", RefactoringHistoryServiceTests.TOTAL_PROJECT_NUMBER, history.getDescriptors().length);
+	}
+
+	public void testReadCorruptIndex0() throws Exception {
+		assertHistoryReadFromIndex();
+		// footer offset beyond the end of the file
+		File[] files= getIndexFiles();
+		for (int index= 0; index < files.length; index++) {
+			try (RandomAccessFile file= new RandomAccessFile(files[index], "rw")) {
+				file.seek(file.length() - 8);
+				file.writeLong(Long.MAX_VALUE);
+			}
+		}
+		assertHistoryReadFromIndex();
+	}
+
+	public void testReadCorruptIndex1() throws Exception {
+		assertHistoryReadFromIndex();
+		// block count that does not fit into the file
+		File[] files= getIndexFiles();
+		for (int index= 0; index < files.length; index++) {
+			try (RandomAccessFile file= new RandomAccessFile(files[index], "rw")) {
+				file.seek(file.length() - 8);
+				file.seek(file.readLong());
+				file.writeInt(Integer.MAX_VALUE);
+			}
+		}
+		assertHistoryReadFromIndex();
+	}
+
+	public void testReadCorruptIndex2() throws Exception {
+		assertHistoryReadFromIndex();
+		// truncated file
+		File[] files= getIndexFiles();
+		for (int index= 0; index < files.length; index++) {
+			try (RandomAccessFile file= new RandomAccessFile(files[index], "rw")) {
+				file.setLength(file.length() / 2);
+			}
+		}
+		assertHistoryReadFromIndex();
+	}
+
+	public void testReadCorruptIndex3() throws Exception {
+		assertHistoryReadFromIndex();
+		// description length beyond the end of its block
+		File[] files= getIndexFiles();
+		for (int index= 0; index < files.length; index++) {
+			try (RandomAccessFile file= new RandomAccessFile(files[index], "rw")) {
+				file.seek(file.length() - 8);
+				file.seek(file.readLong());
+				if (file.readInt() > 0) {
+					file.skipBytes(16);
+					file.seek(file.readLong() + 8);
+					file.writeInt(Integer.MAX_VALUE);
+				}
+			}
+		}
+		assertHistoryReadFromIndex();
+	}
+
+	public void testReadLongDescription() throws Exception {
+		StringBuffer buffer= new StringBuffer();
+		while (buffer.length() <= 70000)
+			buffer.append("A long description \u00e4\u20ac ");
+		String description= buffer.toString();
+		long stamp= (TOTAL_PROJECT_NUMBER + 1) * STAMP_FACTOR;
+		RefactoringHistoryService service= RefactoringHistoryService.getInstance();
+		try {
+			service.setOverrideTimeStamp(stamp);
+			MockRefactoring refactoring= new MockRefactoring(fProject.getProject().getName(), description, "A long comment", Collections.<String, String> emptyMap(), RefactoringDescriptor.NONE);
+			PerformRefactoringOperation operation= new PerformRefactoringOperation(refactoring, CheckConditionsOperation.ALL_CONDITIONS);
+			ResourcesPlugin.getWorkspace().run(operation, null);
+		} finally {
+			service.setOverrideTimeStamp(-1);
+		}
+
+		service.releaseHistoryIndices();
+		RefactoringHistory history= service.getProjectHistory(fProject.getProject(), stamp, stamp, RefactoringDescriptor.NONE, null);
+		RefactoringDescriptorProxy[] proxies= history.getDescriptors();
+		assertEquals("Refactoring history has wrong size", 1, proxies.length);
+		assertEquals(description, proxies[0].getDescription());
+	}
+
+	public void testAppendToIndex() throws Exception {
+		// more than a block of the persisted index, to append to a full block as well
+		final int count= 130;
+		long stamp= (TOTAL_PROJECT_NUMBER + 1) * STAMP_FACTOR;
+		RefactoringHistoryService service= RefactoringHistoryService.getInstance();
+		try {
+			for (int index= 0; index < count; index++) {
+				service.setOverrideTimeStamp(stamp + index);
+				MockRefactoring refactoring= new MockRefactoring(fProject.getProject().getName(), "An appended description " + index, "An appended comment", Collections.<String, String> emptyMap(), RefactoringDescriptor.NONE);
+				PerformRefactoringOperation operation= new PerformRefactoringOperation(refactoring, CheckConditionsOperation.ALL_CONDITIONS);
+				ResourcesPlugin.getWorkspace().run(operation, null);
+			}
+		} finally {
+			service.setOverrideTimeStamp(-1);
+		}
+
+		service.releaseHistoryIndices();
+		RefactoringHistory history= service.getProjectHistory(fProject.getProject(), stamp, stamp + count, RefactoringDescriptor.NONE, null);
+		RefactoringDescriptorProxy[] proxies= history.getDescriptors();
+		assertEquals("Refactoring history has wrong size", count, proxies.length);
+		assertDescendingSortOrder(proxies);
+		assertEquals("An appended description " + (count - 1), proxies[0].getDescription());
+	}
+}
@@ -0,0 +1,791 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.internal.core.refactoring.history;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.IFileStore;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.SubProgressMonitor;
+
+import org.eclipse.ltk.core.refactoring.RefactoringDescriptorProxy;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringCoreMessages;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
+
+/**
+ * Time-sorted index of the refactoring descriptor proxies of a history
+ * location.
+ * <p>
+ * The index is kept in memory once it has been read, and is updated by the
+ * refactoring history manager whenever it adds or removes refactorings. It is
+ * persisted in the state location as a block-structured file: the entries are
+ * written in ascending order of their time stamps, and a footer lists the time
+ * stamp range and the offset of each block. Range queries against the
+ * persisted index only read the blocks that overlap the requested range.
+ * Refactorings added after the newest one are appended to the last block, so
+ * that only the end of the file and its fingerprint are rewritten.
+ * </p>
+ * <p>
+ * The index is validated against a fingerprint of the index files of the
+ * history tree when it is read from disk. Shared histories, which may be
+ * changed by team operations, are validated on every query.
+ * </p>
+ *
+ * @since 3.8.100
+ */
+final class RefactoringHistoryIndex {
+
+	/** The magic number of the index file */
+	private static final int MAGIC= 0x52484958; // "RHIX"
+
+	/** The version of the index file format */
+	private static final int VERSION= 2;
+
+	/** The length of a block descriptor in the footer of the index file */
+	private static final int BLOCK_DESCRIPTOR_LENGTH= 28;
+
+	/** The maximal number of entries per block */
+	private static final int BLOCK_SIZE= 128;
+
+	/** The name of the index folder in the state location */
+	private static final String NAME_INDEX_FOLDER= ".refactoringIndices"; //$NON-NLS-1$
+
+	/** The file extension of the index files */
+	private static final String INDEX_FILE_EXTENSION= ".index"; //$NON-NLS-1$
+
+	/** The indices, keyed by the history file store */
+	private static final Map<IFileStore, RefactoringHistoryIndex> fgIndices= new HashMap<>();
+
+	/**
+	 * Returns the index of the specified history location.
+	 *
+	 * @param store
+	 *            the history file store
+	 * @return the index
+	 */
+	static RefactoringHistoryIndex getIndex(final IFileStore store) {
+		synchronized (fgIndices) {
+			RefactoringHistoryIndex index= fgIndices.get(store);
+			if (index == null) {
+				index= new RefactoringHistoryIndex(store);
+				fgIndices.put(store, index);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Discards the index of the specified history location, e.g. after it has
+	 * been deleted or moved.
+	 *
+	 * @param store
+	 *            the history file store
+	 */
+	static void discard(final IFileStore store) {
+		final RefactoringHistoryIndex index;
+		synchronized (fgIndices) {
+			index= fgIndices.remove(store);
+		}
+		if (index != null)
+			index.reset();
+		else
+			getIndexFile(store).delete();
+	}
+
+	/**
+	 * Releases the in-memory indices. The next query of a history location
+	 * reads its persisted index again.
+	 */
+	static void release() {
+		synchronized (fgIndices) {
+			fgIndices.clear();
+		}
+	}
+
+	/**
+	 * Returns the file of the persisted index of the specified history
+	 * location.
+	 *
+	 * @param store
+	 *            the history file store
+	 * @return the index file
+	 */
+	private static File getIndexFile(final IFileStore store) {
+		final IPath location= RefactoringCorePlugin.getDefault().getStateLocation().append(NAME_INDEX_FOLDER);
+		return location.append(Long.toHexString(hash(store.toURI().toString())) + INDEX_FILE_EXTENSION).toFile();
+	}
+
+	/**
+	 * Computes a 64-bit hash of the specified string.
+	 *
+	 * @param string
+	 *            the string
+	 * @return the hash
+	 */
+	private static long hash(final String string) {
+		long hash= 0xcbf29ce484222325L;
+		for (int index= 0; index < string.length(); index++) {
+			hash^= string.charAt(index);
+			hash*= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * Mixes the bits of the specified value, so that the fingerprints of
+	 * different index files can be combined by addition.
+	 *
+	 * @param value
+	 *            the value
+	 * @return the mixed value
+	 */
+	private static long mix(long value) {
+		value^= value >>> 33;
+		value*= 0xff51afd7ed558ccdL;
+		value^= value >>> 33;
+		value*= 0xc4ceb9fe1a85ec53L;
+		value^= value >>> 33;
+		return value;
+	}
+
+	/** The file of the persisted index */
+	private final File fFile;
+
+	/**
+	 * The fingerprint of the history tree the proxies have been read from, if
+	 * <code>fProxies</code> is not <code>null</code>
+	 */
+	private long fFingerprint;
+
+	/**
+	 * The fingerprints of the individual index files of the history tree,
+	 * keyed by the path of their folder relative to the history location, if
+	 * <code>fProxies</code> is not <code>null</code>
+	 */
+	private Map<String, Long> fFingerprints;
+
+	/**
+	 * The proxies in ascending order of their time stamps, or
+	 * <code>null</code> if the index has not been read yet
+	 */
+	private DefaultRefactoringDescriptorProxy[] fProxies= null;
+
+	/** Has the index to be validated against the history tree on every query? */
+	private final boolean fShared;
+
+	/** The history file store */
+	private final IFileStore fStore;
+
+	/**
+	 * Creates a new refactoring history index.
+	 *
+	 * @param store
+	 *            the history file store
+	 */
+	private RefactoringHistoryIndex(final IFileStore store) {
+		fStore= store;
+		fFile= getIndexFile(store);
+		final IFileStore state= EFS.getLocalFileSystem().getStore(RefactoringCorePlugin.getDefault().getStateLocation());
+		fShared= !state.isParentOf(store);
+	}
+
+	/**
+	 * Updates the index after a refactoring has been added to the history.
+	 *
+	 * @param description
+	 *            the description of the refactoring
+	 * @param stamp
+	 *            the time stamp of the refactoring
+	 * @param monitor
+	 *            the progress monitor to use
+	 */
+	synchronized void added(final String description, final long stamp, final IProgressMonitor monitor) {
+		try {
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, 3);
+			ensureCurrent(new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+			final long previous= fFingerprint;
+			final DefaultRefactoringDescriptorProxy proxy= new DefaultRefactoringDescriptorProxy(description, null, stamp);
+			final boolean contained= contains(proxy);
+			final int position= upperBound(stamp);
+			if (!contained) {
+				final DefaultRefactoringDescriptorProxy[] proxies= new DefaultRefactoringDescriptorProxy[fProxies.length + 1];
+				System.arraycopy(fProxies, 0, proxies, 0, position);
+				proxies[position]= proxy;
+				System.arraycopy(fProxies, position, proxies, position + 1, fProxies.length - position);
+				fProxies= proxies;
+			}
+			// only the index file of the folder of the refactoring has changed
+			final IPath folder= RefactoringHistoryManager.stampToPath(stamp);
+			final String path= IPath.SEPARATOR + folder.toString();
+			final IFileInfo info= fStore.getFileStore(folder).getChild(RefactoringHistoryService.NAME_INDEX_FILE).fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+			final long fingerprint= info.exists() ? computeFingerprint(path, info) : 0;
+			final Long old= info.exists() ? fFingerprints.put(path, Long.valueOf(fingerprint)) : fFingerprints.remove(path);
+			fFingerprint+= fingerprint - (old != null ? old.longValue() : 0);
+			final boolean updated;
+			if (contained)
+				updated= updateIndexFile(previous, null);
+			else if (position == fProxies.length - 1)
+				updated= updateIndexFile(previous, proxy);
+			else
+				updated= false;
+			if (!updated)
+				writeIndexFile();
+			monitor.worked(1);
+		} catch (CoreException exception) {
+			RefactoringCorePlugin.log(exception);
+			reset();
+		} catch (IOException exception) {
+			RefactoringCorePlugin.log(exception);
+			reset();
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Updates the index after refactorings have been removed from the
+	 * history.
+	 *
+	 * @param removed
+	 *            the removed refactorings
+	 * @param monitor
+	 *            the progress monitor to use
+	 */
+	synchronized void removed(final RefactoringDescriptorProxy[] removed, final IProgressMonitor monitor) {
+		try {
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, 3);
+			ensureCurrent(new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+			final Set<RefactoringDescriptorProxy> set= new HashSet<>(Arrays.asList(removed));
+			final List<DefaultRefactoringDescriptorProxy> list= new ArrayList<>(fProxies.length);
+			for (int index= 0; index < fProxies.length; index++) {
+				if (!set.contains(fProxies[index]))
+					list.add(fProxies[index]);
+			}
+			fProxies= list.toArray(new DefaultRefactoringDescriptorProxy[list.size()]);
+			final Map<String, Long> fingerprints= new HashMap<>();
+			fFingerprint= computeFingerprint(fStore, "", fingerprints, new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)); //$NON-NLS-1$
+			fFingerprints= fingerprints;
+			writeIndexFile();
+			monitor.worked(1);
+		} catch (CoreException exception) {
+			RefactoringCorePlugin.log(exception);
+			reset();
+		} catch (IOException exception) {
+			RefactoringCorePlugin.log(exception);
+			reset();
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Reads the refactoring descriptor proxies in the specified time range.
+	 *
+	 * @param project
+	 *            the name of the project, or <code>null</code> for the
+	 *            workspace
+	 * @param collection
+	 *            the collection of proxies to fill in
+	 * @param start
+	 *            the start time stamp, inclusive
+	 * @param end
+	 *            the end time stamp, inclusive
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @throws CoreException
+	 *             if an error occurs while reading the history tree
+	 */
+	synchronized void readProxies(final String project, final Collection<RefactoringDescriptorProxy> collection, final long start, final long end, final IProgressMonitor monitor) throws CoreException {
+		try {
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_retrieving_history, 10);
+			if (fProxies == null && (start > 0 || end < Long.MAX_VALUE)) {
+				// answer narrow queries from the persisted index, without reading all of it
+				final Map<String, Long> fingerprints= new HashMap<>();
+				final long fingerprint= computeFingerprint(fStore, "", fingerprints, new SubProgressMonitor(monitor, 2, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)); //$NON-NLS-1$
+				try {
+					final List<DefaultRefactoringDescriptorProxy> list= new ArrayList<>();
+					if (readIndexFile(fingerprint, start, end, list)) {
+						for (int index= 0; index < list.size(); index++)
+							collection.add(createProxy(list.get(index), project));
+						return;
+					}
+				} catch (IOException exception) {
+					// Rebuild the index
+				}
+				rebuild(fingerprint, fingerprints, new SubProgressMonitor(monitor, 8, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+			} else
+				ensureCurrent(new SubProgressMonitor(monitor, 10, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+			final int last= upperBound(end);
+			for (int index= lowerBound(start); index < last; index++)
+				collection.add(createProxy(fProxies[index], project));
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Creates a proxy for the specified project from an index entry.
+	 *
+	 * @param proxy
+	 *            the index entry
+	 * @param project
+	 *            the name of the project, or <code>null</code>
+	 * @return the proxy
+	 */
+	private RefactoringDescriptorProxy createProxy(final DefaultRefactoringDescriptorProxy proxy, final String project) {
+		if (project == null)
+			return proxy;
+		return new DefaultRefactoringDescriptorProxy(proxy.getDescription(), project, proxy.getTimeStamp());
+	}
+
+	/**
+	 * Computes the fingerprint of the index files in the history tree spanned
+	 * by the specified file store.
+	 *
+	 * @param store
+	 *            the file store
+	 * @param path
+	 *            the path of the store relative to the history location
+	 * @param fingerprints
+	 *            the map of the fingerprints of the individual index files to
+	 *            fill in
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @return the fingerprint
+	 * @throws CoreException
+	 *             if an error occurs while accessing the history tree
+	 */
+	private long computeFingerprint(final IFileStore store, final String path, final Map<String, Long> fingerprints, final IProgressMonitor monitor) throws CoreException {
+		try {
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_retrieving_history, 1);
+			long fingerprint= 0;
+			final IFileInfo[] infos= store.childInfos(EFS.NONE, null);
+			for (int index= 0; index < infos.length; index++) {
+				final IFileInfo info= infos[index];
+				final String name= info.getName();
+				if (info.isDirectory())
+					fingerprint+= computeFingerprint(store.getChild(name), path + IPath.SEPARATOR + name, fingerprints, new NullProgressMonitor());
+				else if (name.equalsIgnoreCase(RefactoringHistoryService.NAME_INDEX_FILE)) {
+					final long value= computeFingerprint(path, info);
+					fingerprints.put(path, Long.valueOf(value));
+					fingerprint+= value;
+				}
+			}
+			return fingerprint;
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Computes the fingerprint of a single index file.
+	 *
+	 * @param path
+	 *            the path of the folder of the index file relative to the
+	 *            history location
+	 * @param info
+	 *            the file info of the index file
+	 * @return the fingerprint
+	 */
+	private static long computeFingerprint(final String path, final IFileInfo info) {
+		return mix((31 * hash(path) + info.getLastModified()) * 31 + info.getLength());
+	}
+
+	/**
+	 * Is the specified proxy contained in the in-memory index?
+	 *
+	 * @param proxy
+	 *            the proxy
+	 * @return <code>true</code> if the proxy is contained, <code>false</code>
+	 *         otherwise
+	 */
+	private boolean contains(final DefaultRefactoringDescriptorProxy proxy) {
+		final long stamp= proxy.getTimeStamp();
+		for (int index= lowerBound(stamp); index < fProxies.length && fProxies[index].getTimeStamp() == stamp; index++) {
+			if (fProxies[index].equals(proxy))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Makes sure that the in-memory index reflects the history tree.
+	 *
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @throws CoreException
+	 *             if an error occurs while reading the history tree
+	 */
+	private void ensureCurrent(final IProgressMonitor monitor) throws CoreException {
+		try {
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_retrieving_history, 10);
+			if (fProxies != null && !fShared)
+				return;
+			final Map<String, Long> fingerprints= new HashMap<>();
+			final long fingerprint= computeFingerprint(fStore, "", fingerprints, new SubProgressMonitor(monitor, 2, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)); //$NON-NLS-1$
+			if (fProxies != null && fingerprint == fFingerprint)
+				return;
+			if (fProxies == null) {
+				try {
+					final List<DefaultRefactoringDescriptorProxy> list= new ArrayList<>();
+					if (readIndexFile(fingerprint, 0, Long.MAX_VALUE, list)) {
+						fProxies= list.toArray(new DefaultRefactoringDescriptorProxy[list.size()]);
+						fFingerprint= fingerprint;
+						fFingerprints= fingerprints;
+						return;
+					}
+				} catch (IOException exception) {
+					// Rebuild the index
+				}
+			}
+			rebuild(fingerprint, fingerprints, new SubProgressMonitor(monitor, 8, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Returns the position of the first proxy with a time stamp greater than
+	 * or equal to the specified one.
+	 *
+	 * @param stamp
+	 *            the time stamp
+	 * @return the position
+	 */
+	private int lowerBound(final long stamp) {
+		int low= 0;
+		int high= fProxies.length;
+		while (low < high) {
+			final int middle= (low + high) >>> 1;
+			if (fProxies[middle].getTimeStamp() < stamp)
+				low= middle + 1;
+			else
+				high= middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the position of the first proxy with a time stamp greater than
+	 * the specified one.
+	 *
+	 * @param stamp
+	 *            the time stamp
+	 * @return the position
+	 */
+	private int upperBound(final long stamp) {
+		int low= 0;
+		int high= fProxies.length;
+		while (low < high) {
+			final int middle= (low + high) >>> 1;
+			if (fProxies[middle].getTimeStamp() <= stamp)
+				low= middle + 1;
+			else
+				high= middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Reads the entries in the specified time range from the persisted index.
+	 *
+	 * @param fingerprint
+	 *            the current fingerprint of the history tree
+	 * @param start
+	 *            the start time stamp, inclusive
+	 * @param end
+	 *            the end time stamp, inclusive
+	 * @param list
+	 *            the list of entries to fill in
+	 * @return <code>true</code> if the persisted index is valid,
+	 *         <code>false</code> otherwise
+	 * @throws IOException
+	 *             if an input/output error occurs, or if the index file is
+	 *             corrupt
+	 */
+	private boolean readIndexFile(final long fingerprint, final long start, final long end, final List<DefaultRefactoringDescriptorProxy> list) throws IOException {
+		if (!fFile.isFile())
+			return false;
+		try (RandomAccessFile file= new RandomAccessFile(fFile, "r")) { //$NON-NLS-1$
+			if (file.readInt() != MAGIC || file.readInt() != VERSION)
+				return false;
+			if (!fStore.toURI().toString().equals(file.readUTF()) || file.readLong() != fingerprint)
+				return false;
+			final long header= file.getFilePointer();
+			final long length= file.length();
+			if (length < header + 12)
+				throw new IOException(getCorruptMessage());
+			file.seek(length - 8);
+			final long footer= file.readLong();
+			if (footer < header || footer > length - 12)
+				throw new IOException(getCorruptMessage());
+			file.seek(footer);
+			final int blocks= file.readInt();
+			// the footer consists of the block count, the block descriptors and the footer offset
+			if (blocks < 0 || footer + 4 + (long) blocks * BLOCK_DESCRIPTOR_LENGTH + 8 != length)
+				throw new IOException(getCorruptMessage());
+			final long[] firstStamps= new long[blocks];
+			final long[] lastStamps= new long[blocks];
+			final long[] offsets= new long[blocks + 1];
+			final int[] sizes= new int[blocks];
+			for (int block= 0; block < blocks; block++) {
+				firstStamps[block]= file.readLong();
+				lastStamps[block]= file.readLong();
+				offsets[block]= file.readLong();
+				sizes[block]= file.readInt();
+				if (firstStamps[block] > lastStamps[block] || block > 0 && firstStamps[block] < lastStamps[block - 1])
+					throw new IOException(getCorruptMessage());
+				if (offsets[block] < (block > 0 ? offsets[block - 1] : header) || sizes[block] <= 0 || sizes[block] > BLOCK_SIZE)
+					throw new IOException(getCorruptMessage());
+			}
+			offsets[blocks]= footer;
+			if (blocks > 0 && (offsets[0] != header || offsets[blocks - 1] > footer))
+				throw new IOException(getCorruptMessage());
+
+			// find the first block that may contain the start stamp
+			int low= 0;
+			int high= blocks;
+			while (low < high) {
+				final int middle= (low + high) >>> 1;
+				if (lastStamps[middle] < start)
+					low= middle + 1;
+				else
+					high= middle;
+			}
+			for (int block= low; block < blocks && firstStamps[block] <= end; block++) {
+				final byte[] bytes= new byte[(int) (offsets[block + 1] - offsets[block])];
+				file.seek(offsets[block]);
+				file.readFully(bytes);
+				final DataInputStream input= new DataInputStream(new ByteArrayInputStream(bytes));
+				for (int entry= 0; entry < sizes[block]; entry++) {
+					final long stamp= input.readLong();
+					final int count= input.readInt();
+					if (count < 0 || count > input.available())
+						throw new IOException(getCorruptMessage());
+					final byte[] description= new byte[count];
+					input.readFully(description);
+					if (stamp >= start && stamp <= end)
+						list.add(new DefaultRefactoringDescriptorProxy(new String(description, StandardCharsets.UTF_8), null, stamp));
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Returns the message of the exception thrown for a corrupt index file.
+	 *
+	 * @return the message
+	 */
+	private String getCorruptMessage() {
+		return "Corrupt refactoring history index " + fFile; //$NON-NLS-1$
+	}
+
+	/**
+	 * Rebuilds the index from the history tree.
+	 *
+	 * @param fingerprint
+	 *            the current fingerprint of the history tree
+	 * @param fingerprints
+	 *            the current fingerprints of the individual index files
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @throws CoreException
+	 *             if an error occurs while reading the history tree
+	 */
+	private void rebuild(final long fingerprint, final Map<String, Long> fingerprints, final IProgressMonitor monitor) throws CoreException {
+		try {
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_retrieving_history, 10);
+			final Set<RefactoringDescriptorProxy> set= new HashSet<>();
+			if (fStore.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists())
+				RefactoringHistoryManager.readRefactoringDescriptorProxies(fStore, null, set, 0, Long.MAX_VALUE, new SubProgressMonitor(monitor, 8), RefactoringCoreMessages.RefactoringHistoryService_retrieving_history);
+			final DefaultRefactoringDescriptorProxy[] proxies= set.toArray(new DefaultRefactoringDescriptorProxy[set.size()]);
+			RefactoringHistoryManager.sortRefactoringDescriptorsAscending(proxies);
+			fProxies= proxies;
+			fFingerprint= fingerprint;
+			fFingerprints= fingerprints;
+			try {
+				writeIndexFile();
+			} catch (IOException exception) {
+				RefactoringCorePlugin.log(exception);
+				fFile.delete();
+			}
+			monitor.worked(1);
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Discards the in-memory and the persisted index.
+	 */
+	private synchronized void reset() {
+		fProxies= null;
+		fFingerprints= null;
+		fFile.delete();
+	}
+
+	/**
+	 * Updates the index file in place after a refactoring has been added.
+	 * Writes the new fingerprint, and appends the specified proxy to the last
+	 * block, or to a new block if the last one is full.
+	 *
+	 * @param previous
+	 *            the fingerprint the index file has been written with
+	 * @param appended
+	 *            the proxy appended at the end of the in-memory index, or
+	 *            <code>null</code> if only the fingerprint has changed
+	 * @return <code>true</code> if the index file has been updated,
+	 *         <code>false</code> if it does not match the in-memory index and
+	 *         has to be written from scratch
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	private boolean updateIndexFile(final long previous, final DefaultRefactoringDescriptorProxy appended) throws IOException {
+		if (!fFile.isFile())
+			return false;
+		try (RandomAccessFile file= new RandomAccessFile(fFile, "rw")) { //$NON-NLS-1$
+			if (file.readInt() != MAGIC || file.readInt() != VERSION || !fStore.toURI().toString().equals(file.readUTF()))
+				return false;
+			final long header= file.getFilePointer();
+			if (file.readLong() != previous)
+				return false;
+			if (appended != null) {
+				final long length= file.length();
+				if (length < header + 20)
+					return false;
+				file.seek(length - 8);
+				final long footer= file.readLong();
+				final int entries= fProxies.length - 1;
+				final int blocks= (entries + BLOCK_SIZE - 1) / BLOCK_SIZE;
+				if (footer < header + 8 || footer + 4 + (long) blocks * BLOCK_DESCRIPTOR_LENGTH + 8 != length)
+					return false;
+				file.seek(footer);
+				if (file.readInt() != blocks)
+					return false;
+				final byte[] descriptors= new byte[blocks * BLOCK_DESCRIPTOR_LENGTH];
+				file.readFully(descriptors);
+
+				final ByteArrayOutputStream bytes= new ByteArrayOutputStream();
+				final DataOutputStream output= new DataOutputStream(bytes);
+				writeEntry(output, appended);
+				final long newFooter= footer + output.size();
+				final boolean full= entries % BLOCK_SIZE == 0;
+				output.writeInt(full ? blocks + 1 : blocks);
+				if (full) {
+					output.write(descriptors);
+					output.writeLong(appended.getTimeStamp());
+					output.writeLong(appended.getTimeStamp());
+					output.writeLong(footer);
+					output.writeInt(1);
+				} else {
+					// patch the last time stamp and the size of the last block
+					final int last= (blocks - 1) * BLOCK_DESCRIPTOR_LENGTH;
+					output.write(descriptors, 0, last + 8);
+					output.writeLong(appended.getTimeStamp());
+					output.write(descriptors, last + 16, 8);
+					output.writeInt(entries - (blocks - 1) * BLOCK_SIZE + 1);
+				}
+				output.writeLong(newFooter);
+				output.flush();
+				file.seek(footer);
+				file.write(bytes.toByteArray());
+				file.setLength(file.getFilePointer());
+			}
+			// the fingerprint is written last, so that an interrupted update is detected
+			file.seek(header);
+			file.writeLong(fFingerprint);
+			return true;
+		}
+	}
+
+	/**
+	 * Writes an entry of the index file.
+	 *
+	 * @param output
+	 *            the output stream
+	 * @param proxy
+	 *            the proxy of the entry
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	private static void writeEntry(final DataOutputStream output, final DefaultRefactoringDescriptorProxy proxy) throws IOException {
+		output.writeLong(proxy.getTimeStamp());
+		// descriptions are not limited to the 64 KB of modified UTF-8
+		final byte[] description= proxy.getDescription().getBytes(StandardCharsets.UTF_8);
+		output.writeInt(description.length);
+		output.write(description);
+	}
+
+	/**
+	 * Writes the in-memory index to the index file.
+	 *
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	private void writeIndexFile() throws IOException {
+		fFile.getParentFile().mkdirs();
+		final File temp= new File(fFile.getPath() + ".tmp"); //$NON-NLS-1$
+		try (DataOutputStream output= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeUTF(fStore.toURI().toString());
+			output.writeLong(fFingerprint);
+			final int blocks= (fProxies.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+			final long[] offsets= new long[blocks];
+			for (int block= 0; block < blocks; block++) {
+				offsets[block]= output.size();
+				final int last= Math.min(fProxies.length, (block + 1) * BLOCK_SIZE);
+				for (int index= block * BLOCK_SIZE; index < last; index++)
+					writeEntry(output, fProxies[index]);
+			}
+			final long footer= output.size();
+			output.writeInt(blocks);
+			for (int block= 0; block < blocks; block++) {
+				final int first= block * BLOCK_SIZE;
+				final int last= Math.min(fProxies.length, first + BLOCK_SIZE) - 1;
+				output.writeLong(fProxies[first].getTimeStamp());
+				output.writeLong(fProxies[last].getTimeStamp());
+				output.writeLong(offsets[block]);
+				output.writeInt(last - first + 1);
+			}
+			output.writeLong(footer);
+		}
+		if (!temp.renameTo(fFile)) {
+			fFile.delete();
+			if (!temp.renameTo(fFile))
+				throw new IOException("Could not write refactoring history index " + fFile); //$NON-NLS-1$
+		}
+	}
+}
@@ -204,7 +204,7 @@ public final class RefactoringHistoryManager {
 	 * @throws CoreException
 	 *             if an error occurs
 	 */
-	private static void readRefactoringDescriptorProxies(final IFileStore store, final String project, final Collection<RefactoringDescriptorProxy> collection, final long start, final long end, final IProgressMonitor monitor, final String task) throws CoreException {
+	static void readRefactoringDescriptorProxies(final IFileStore store, final String project, final Collection<RefactoringDescriptorProxy> collection, final long start, final long end, final IProgressMonitor monitor, final String task) throws CoreException {
 		try {
 			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_retrieving_history, 22);
 			final IFileInfo info= store.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 2, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
@@ -259,18 +259,16 @@ public final class RefactoringHistoryManager {
 	public static RefactoringDescriptorProxy[] readRefactoringDescriptorProxies(final InputStream stream, final String project, final long start, final long end) throws IOException {
 		final List<DefaultRefactoringDescriptorProxy> list= new ArrayList<>();
 		final BufferedReader reader= new BufferedReader(new InputStreamReader(stream, IRefactoringSerializationConstants.OUTPUT_ENCODING));
-		while (reader.ready()) {
-			final String line= reader.readLine();
-			if (line != null) {
-				final int index= line.indexOf(DELIMITER_COMPONENT);
-				if (index > 0) {
-					try {
-						final long stamp= new Long(line.substring(0, index)).longValue();
-						if (stamp >= start && stamp <= end)
-							list.add(new DefaultRefactoringDescriptorProxy(unescapeString(line.substring(index + 1)), project, stamp));
-					} catch (NumberFormatException exception) {
-						// Just skip
-					}
+		String line;
+		while ((line= reader.readLine()) != null) {
+			final int index= line.indexOf(DELIMITER_COMPONENT);
+			if (index > 0) {
+				try {
+					final long stamp= Long.parseLong(line.substring(0, index));
+					if (stamp >= start && stamp <= end)
+						list.add(new DefaultRefactoringDescriptorProxy(unescapeString(line.substring(index + 1)), project, stamp));
+				} catch (NumberFormatException exception) {
+					// Just skip
 				}
 			}
 		}
@@ -810,7 +808,7 @@ public final class RefactoringHistoryManager {
 	 */
 	void addRefactoringDescriptor(final RefactoringDescriptor descriptor, final boolean sort, final IProgressMonitor monitor) throws CoreException {
 		try {
-			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, 18);
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, 19);
 			final long stamp= descriptor.getTimeStamp();
 			if (stamp >= 0) {
 				final IPath path= stampToPath(stamp);
@@ -883,6 +881,7 @@ public final class RefactoringHistoryManager {
 						throw createCoreException(exception);
 					}
 				}
+				RefactoringHistoryIndex.getIndex(fHistoryStore).added(descriptor.getDescription(), stamp, new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
 			}
 		} finally {
 			monitor.done();
@@ -963,11 +962,9 @@ public final class RefactoringHistoryManager {
 			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_retrieving_history, 200);
 			final Set<RefactoringDescriptorProxy> set= new HashSet<>();
 			try {
-				if (fHistoryStore.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists())
-					readRefactoringDescriptorProxies(fHistoryStore, fProjectName, set, start, end, new SubProgressMonitor(monitor, 80), RefactoringCoreMessages.RefactoringHistoryService_retrieving_history);
+				RefactoringHistoryIndex.getIndex(fHistoryStore).readProxies(fProjectName, set, start, end, new SubProgressMonitor(monitor, 100));
 				final IFileStore store= EFS.getLocalFileSystem().getStore(RefactoringCorePlugin.getDefault().getStateLocation()).getChild(RefactoringHistoryService.NAME_HISTORY_FOLDER).getChild(RefactoringHistoryService.NAME_WORKSPACE_PROJECT);
-				if (store.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists())
-					readRefactoringDescriptorProxies(store, null, set, start, end, new SubProgressMonitor(monitor, 80), RefactoringCoreMessages.RefactoringHistoryService_retrieving_history);
+				RefactoringHistoryIndex.getIndex(store).readProxies(null, set, start, end, new SubProgressMonitor(monitor, 100));
 			} catch (CoreException exception) {
 				RefactoringCorePlugin.log(exception);
 			}
@@ -1086,7 +1083,7 @@ public final class RefactoringHistoryManager {
 	void removeRefactoringDescriptors(final RefactoringDescriptorProxy[] proxies, final IProgressMonitor monitor, final String task) throws CoreException {
 		try {
 			final Map<IPath, Collection<RefactoringDescriptorProxy>> paths= new HashMap<>();
-			monitor.beginTask(task, proxies.length + 300);
+			monitor.beginTask(task, proxies.length + 310);
 			for (int index= 0; index < proxies.length; index++) {
 				final IPath path= stampToPath(proxies[index].getTimeStamp());
 				Collection<RefactoringDescriptorProxy> collection= paths.get(path);
@@ -1108,6 +1105,7 @@ public final class RefactoringHistoryManager {
 			} finally {
 				subMonitor.done();
 			}
+			RefactoringHistoryIndex.getIndex(fHistoryStore).removed(proxies, new SubProgressMonitor(monitor, 10));
 		} finally {
 			monitor.done();
 		}
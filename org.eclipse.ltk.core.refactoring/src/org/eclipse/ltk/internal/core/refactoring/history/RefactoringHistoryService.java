@@ -523,14 +523,17 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 			if (name.equals(NAME_WORKSPACE_PROJECT)) {
 				final IFileStore metaStore= stateStore.getChild(NAME_HISTORY_FOLDER).getChild(name);
 				metaStore.delete(EFS.NONE, new SubProgressMonitor(monitor, 100));
+				RefactoringHistoryIndex.discard(metaStore);
 			} else {
 				final URI uri= project.getLocationURI();
 				if (uri != null && project.isAccessible()) {
 					try {
 						final IFileStore metaStore= stateStore.getChild(NAME_HISTORY_FOLDER).getChild(name);
 						metaStore.delete(EFS.NONE, new SubProgressMonitor(monitor, 20));
+						RefactoringHistoryIndex.discard(metaStore);
 						final IFileStore projectStore= EFS.getStore(uri).getChild(NAME_HISTORY_FOLDER);
 						projectStore.delete(EFS.NONE, new SubProgressMonitor(monitor, 20));
+						RefactoringHistoryIndex.discard(projectStore);
 					} finally {
 						project.refreshLocal(IResource.DEPTH_INFINITE, new SubProgressMonitor(monitor, 60));
 					}
@@ -796,6 +799,14 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 		return null;
 	}
 
+	/**
+	 * Releases the in-memory indices of the refactoring histories. The next
+	 * query of a history reads its persisted index again.
+	 */
+	public void releaseHistoryIndices() {
+		RefactoringHistoryIndex.release();
+	}
+
 	/**
 	 * Sets the override time stamp for the next refactoring performed.
 	 *
@@ -863,6 +874,8 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 				if (newStore.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 10, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists())
 					newStore.delete(EFS.NONE, new SubProgressMonitor(monitor, 20, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
 				oldStore.move(newStore, EFS.OVERWRITE, new SubProgressMonitor(monitor, 20, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+				RefactoringHistoryIndex.discard(oldStore);
+				RefactoringHistoryIndex.discard(newStore);
 			}
 		} catch (CoreException exception) {
 			RefactoringCorePlugin.log(exception);